@@ -0,0 +1,140 @@
+package com.onshop.shop.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ✅ HikariCP 커넥션 풀 지표 (MySQL / PostgreSQL 풀 공용)
+ *
+ * - 커넥션 대기 시간(getConnection 에서 기다린 시간): 건수 / 합계 / 최대 / 구간별 분포
+ * - 커넥션 사용 시간(빌려서 반납까지), 생성 시간, 획득 타임아웃 건수
+ * - 현재 active / idle / total / 대기 스레드 수는 HikariPoolMXBean 에서 그때그때 조회
+ * → 운영 부하에서 maximum-pool-size / connection-timeout 을 정할 근거
+ */
+@Component
+public class DataSourcePoolMetrics implements MetricsTrackerFactory {
+
+    // 대기 시간 분포 상한(ms): ≤1, ≤5, ≤10, ≤50, ≤100, ≤500, 그 이상
+    private static final long[] WAIT_BUCKETS_MS = {1, 5, 10, 50, 100, 500};
+
+    private final Map<String, Tracker> trackers = new ConcurrentHashMap<>();
+    private final Map<String, HikariDataSource> dataSources = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return trackers.computeIfAbsent(poolName, name -> new Tracker());
+    }
+
+    /**
+     * ✅ 풀 등록 (지표 수집기 연결 + 실시간 상태 조회 대상)
+     */
+    public HikariDataSource register(HikariDataSource dataSource) {
+        dataSource.setMetricsTrackerFactory(this);
+        dataSources.put(dataSource.getPoolName(), dataSource);
+        return dataSource;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        dataSources.forEach((name, dataSource) -> result.put(name, poolStats(dataSource)));
+        return result;
+    }
+
+    private Map<String, Object> poolStats(HikariDataSource dataSource) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maximumPoolSize", dataSource.getMaximumPoolSize());
+        stats.put("minimumIdle", dataSource.getMinimumIdle());
+        stats.put("connectionTimeoutMs", dataSource.getConnectionTimeout());
+        stats.put("leakDetectionThresholdMs", dataSource.getLeakDetectionThreshold());
+
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean(); // 첫 커넥션 요청 전에는 null
+        stats.put("started", pool != null);
+        if (pool != null) {
+            stats.put("active", pool.getActiveConnections());
+            stats.put("idle", pool.getIdleConnections());
+            stats.put("total", pool.getTotalConnections());
+            stats.put("threadsAwaiting", pool.getThreadsAwaitingConnection());
+        }
+
+        Tracker tracker = trackers.get(dataSource.getPoolName());
+        if (tracker != null) tracker.putStats(stats);
+        return stats;
+    }
+
+    private static final class Tracker implements IMetricsTracker {
+
+        private final LongAdder acquired = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final LongAdder[] waitBuckets = new LongAdder[WAIT_BUCKETS_MS.length + 1];
+        private final LongAdder usageMillis = new LongAdder();
+        private final AtomicLong maxUsageMillis = new AtomicLong();
+        private final LongAdder created = new LongAdder();
+        private final LongAdder createMillis = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+
+        Tracker() {
+            for (int i = 0; i < waitBuckets.length; i++) waitBuckets[i] = new LongAdder();
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquired.increment();
+            waitNanos.add(elapsedAcquiredNanos);
+            maxWaitNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+
+            long millis = TimeUnit.NANOSECONDS.toMillis(elapsedAcquiredNanos);
+            int bucket = 0;
+            while (bucket < WAIT_BUCKETS_MS.length && millis > WAIT_BUCKETS_MS[bucket]) bucket++;
+            waitBuckets[bucket].increment();
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usageMillis.add(elapsedBorrowedMillis);
+            maxUsageMillis.accumulateAndGet(elapsedBorrowedMillis, Math::max);
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            created.increment();
+            createMillis.add(connectionCreatedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+
+        void putStats(Map<String, Object> stats) {
+            long count = acquired.sum();
+            stats.put("acquired", count);
+            stats.put("avgWaitMs", count == 0 ? 0.0 : waitNanos.sum() / 1_000_000.0 / count);
+            stats.put("maxWaitMs", maxWaitNanos.get() / 1_000_000.0);
+
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < WAIT_BUCKETS_MS.length; i++) {
+                histogram.put("<=" + WAIT_BUCKETS_MS[i] + "ms", waitBuckets[i].sum());
+            }
+            histogram.put(">" + WAIT_BUCKETS_MS[WAIT_BUCKETS_MS.length - 1] + "ms", waitBuckets[WAIT_BUCKETS_MS.length].sum());
+            stats.put("waitHistogram", histogram);
+
+            stats.put("avgUsageMs", count == 0 ? 0.0 : (double) usageMillis.sum() / count);
+            stats.put("maxUsageMs", maxUsageMillis.get());
+            stats.put("connectionsCreated", created.sum());
+            stats.put("avgCreateMs", created.sum() == 0 ? 0.0 : (double) createMillis.sum() / created.sum());
+            stats.put("timeouts", timeouts.sum());
+        }
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.EntityManagerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.*;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
@@ -11,6 +12,8 @@ import org.springframework.orm.jpa.*;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import com.zaxxer.hikari.HikariDataSource;
+
 import javax.sql.DataSource;
 import java.util.*;
 
@@ -60,15 +63,20 @@ public class MySQLConfig {
 	    private String password;
 
 
+    // ✅ HikariCP 풀 (크기 / 타임아웃 / 누수 감지 / 드라이버 statement 캐시는 db.pool.mysql.* 에서 바인딩)
     @Bean(name = "mysqlDataSource")
     @Primary
-    public DataSource mysqlDataSource() {
-        return DataSourceBuilder.create()
+    @ConfigurationProperties(prefix = "db.pool.mysql")
+    public HikariDataSource mysqlDataSource(DataSourcePoolMetrics poolMetrics) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
                 .url(url)
                 .username(username)
                 .password(password)
                 .driverClassName("com.mysql.cj.jdbc.Driver")
                 .build();
+        dataSource.setPoolName("mysql");
+        return poolMetrics.register(dataSource);
     }
 
     @Bean(name = "mysqlEntityManagerFactory")
@@ -80,6 +88,10 @@ public class MySQLConfig {
         Map<String, Object> properties = new HashMap<>();
         properties.put("hibernate.hbm2ddl.auto", "update");
         properties.put("hibernate.dialect", "org.hibernate.dialect.MySQLDialect");
+        // JDBC 배치 (rewriteBatchedStatements=true 와 함께 다중 행 INSERT 한 문장으로 전송)
+        properties.put("hibernate.jdbc.batch_size", 50);
+        properties.put("hibernate.order_inserts", true);
+        properties.put("hibernate.order_updates", true);
         properties.put("hibernate.show_sql", true);
         properties.put("hibernate.format_sql", true);
 
@@ -3,16 +3,19 @@ package com.onshop.shop.config;
 import jakarta.persistence.EntityManagerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import com.zaxxer.hikari.HikariDataSource;
+
 import javax.sql.DataSource;
 import java.util.HashMap;
 import java.util.Map;
@@ -35,14 +38,20 @@ public class PostgreSQLConfig {
     @Value("${POSTGRES_PASSWORD}")
     private String password;
 
+    // ✅ HikariCP 풀 (DriverManagerDataSource 는 쿼리마다 새 물리 커넥션 → TCP / 인증 핸드셰이크 반복)
+    // 크기 / 타임아웃 / 누수 감지 / 드라이버 statement 캐시는 db.pool.pg.* 에서 바인딩
     @Bean(name = "pgDataSource")
-    public DataSource pgDataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("org.postgresql.Driver");
-        dataSource.setUrl(url);
-        dataSource.setUsername(username);
-        dataSource.setPassword(password);
-        return dataSource;
+    @ConfigurationProperties(prefix = "db.pool.pg")
+    public HikariDataSource pgDataSource(DataSourcePoolMetrics poolMetrics) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .driverClassName("org.postgresql.Driver")
+                .build();
+        dataSource.setPoolName("pgvector");
+        return poolMetrics.register(dataSource);
     }
 
     @Bean(name = "pgEntityManagerFactory")
@@ -53,6 +62,9 @@ public class PostgreSQLConfig {
         Map<String, Object> properties = new HashMap<>();
         properties.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
         properties.put("hibernate.hbm2ddl.auto", "update");  // 필요에 따라 변경 가능
+        properties.put("hibernate.jdbc.batch_size", 50);
+        properties.put("hibernate.order_inserts", true);
+        properties.put("hibernate.order_updates", true);
         properties.put("hibernate.show_sql", true);
         properties.put("hibernate.format_sql", true);
 
@@ -5,7 +5,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.onshop.shop.category.Category;
 import com.onshop.shop.category.CategoryRepository;
 import com.onshop.shop.product.Product;
+import com.onshop.shop.product.ProductChangeOutbox;
+import com.onshop.shop.product.ProductChangeOutboxRepository;
 import com.onshop.shop.product.ProductRepository;
+import com.onshop.shop.product.ProductSearchIndex;
 import com.onshop.shop.seller.Seller;
 import com.onshop.shop.seller.SellerRepository;
 import jakarta.transaction.Transactional;
@@ -37,6 +40,8 @@ public class CrawlerController {
     private final SellerRepository sellerRepository;
     private final CategoryRepository categoryRepository;
     private final JwtUtil jwtUtil;
+    private final ProductChangeOutboxRepository productChangeOutboxRepository;
+    private final ProductSearchIndex productSearchIndex;
     
     @CrossOrigin(origins = "*")
     @PostMapping("/product")
@@ -121,6 +126,8 @@ public class CrawlerController {
 
             crawlerService.handleCrawledImages(images, product, uuid);
             productRepository.save(product);
+            productChangeOutboxRepository.save(ProductChangeOutbox.upsert(product.getProductId())); // 임베딩 생성 대상으로 기록
+            productSearchIndex.refreshAfterCommit(List.of(product.getProductId())); // 상품 검색 인덱스 반영 (커밋 후)
 
             return ResponseEntity.ok(Map.of("message", "등록 성공"));
         } catch (Exception e) {
@@ -1,14 +1,75 @@
 package com.onshop.shop.health;
 
+import com.onshop.shop.config.DataSourcePoolMetrics;
+import com.onshop.shop.product.ProductCounterService;
+import com.onshop.shop.product.ProductLeaderboardService;
+import com.onshop.shop.product.ProductSalesWindowService;
+import com.onshop.shop.product.ProductSearchIndex;
+import com.onshop.shop.product.ProductSuggestService;
+import com.onshop.shop.security.RateLimiter;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
+
 @RestController
+@RequiredArgsConstructor
 public class HealthCheckController {
 
+    private final DataSourcePoolMetrics dataSourcePoolMetrics;
+    private final RateLimiter rateLimiter;
+    private final ProductCounterService productCounterService;
+    private final ProductSalesWindowService productSalesWindowService;
+    private final ProductLeaderboardService productLeaderboardService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggestService productSuggestService;
+
     @GetMapping("/")
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("OK");
     }
+
+    // ✅ DB 커넥션 풀 상태 (active / idle / 대기 스레드, 커넥션 대기 시간 분포, 타임아웃)
+    @GetMapping("/health/db-pools")
+    public ResponseEntity<Map<String, Object>> dataSourcePools() {
+        return ResponseEntity.ok(dataSourcePoolMetrics.stats());
+    }
+
+    // ✅ 요청 제한 상태 (route 별 허용 / 거절 수, Redis 사용 가능 여부, JVM fallback 판정 수)
+    @GetMapping("/health/rate-limit")
+    public ResponseEntity<Map<String, Object>> rateLimit() {
+        return ResponseEntity.ok(rateLimiter.stats());
+    }
+
+    // ✅ 조회수 / 판매량 write-behind 상태 (대기 상품 수, flush 지연, 반영 / 유실 증가분)
+    @GetMapping("/health/counters")
+    public ResponseEntity<Map<String, Object>> counters() {
+        return ResponseEntity.ok(productCounterService.stats());
+    }
+
+    // ✅ 일간 / 주간 / 월간 판매량 윈도우 상태 (만료 처리 위치, 밀린 시간 수, 삭제한 시간 행 수)
+    @GetMapping("/health/sales-windows")
+    public ResponseEntity<Map<String, Object>> salesWindows() {
+        return ResponseEntity.ok(productSalesWindowService.stats());
+    }
+
+    // ✅ 베스트 / 급상승 리더보드 상태 (순위표 크기, 리더보드 조회 / DB fallback 수, 재구축 시간)
+    @GetMapping("/health/leaderboards")
+    public ResponseEntity<Map<String, Object>> leaderboards() {
+        return ResponseEntity.ok(productLeaderboardService.stats());
+    }
+
+    // ✅ 상품 검색 n-gram 인덱스 상태 (상품 / gram 수, 압축 postings 크기, LIKE fallback 수)
+    @GetMapping("/health/search-index")
+    public ResponseEntity<Map<String, Object>> searchIndex() {
+        return ResponseEntity.ok(productSearchIndex.stats());
+    }
+
+    // ✅ 자동완성 트라이 상태 (항목 / 노드 수, 구축 시간, 조회 지연 μs 분포와 p99 구간)
+    @GetMapping("/health/suggest")
+    public ResponseEntity<Map<String, Object>> suggest() {
+        return ResponseEntity.ok(productSuggestService.stats());
+    }
 }
\ No newline at end of file
@@ -144,5 +144,8 @@ public interface OrderDetailRepository extends JpaRepository<OrderDetail, Long>
 		""")
 		List<ProductItemDTO> findOrderProductsByOrderId(@Param("orderId") Long orderId);
 
+	// 주문 상세 목록 (결제 완료 시 상품별 판매량 집계용)
+	List<OrderDetail> findByOrderOrderId(Long orderId);
+
 
 }
@@ -24,6 +24,8 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
 import com.onshop.shop.order.OrderRepository;
+import com.onshop.shop.orderDetail.OrderDetailRepository;
+import com.onshop.shop.product.ProductCounterService;
 import com.onshop.shop.seller.Seller;
 import com.onshop.shop.seller.SellerRepository;
 
@@ -39,6 +41,8 @@ public class PaymentServiceImpl implements PaymentService {
     private final OrderRepository orderRepository;
     private final RestTemplate restTemplate;
     private final SellerRepository sellerRepository;
+    private final OrderDetailRepository orderDetailRepository;
+    private final ProductCounterService productCounterService;
 
     @Value("${portone.api-key}")
     private String apiKey;
@@ -68,9 +72,16 @@ public class PaymentServiceImpl implements PaymentService {
     @Transactional
     public void updatePaymentStatus(String impUid, PaymentStatus status) {
         paymentRepository.findByImpUid(impUid).ifPresent(payment -> {
+            boolean newlyPaid = status == PaymentStatus.PAID && payment.getPaymentStatus() != PaymentStatus.PAID;
             payment.setPaymentStatus(status);
             payment.setPaidDate(LocalDateTime.now());
             paymentRepository.save(payment);
+
+            // 결제 완료로 바뀐 경우에만 상품 판매량 집계 (커밋 후 write-behind 로 반영)
+            if (newlyPaid) {
+                orderDetailRepository.findByOrderOrderId(payment.getOrder().getOrderId())
+                        .forEach(detail -> productCounterService.recordSale(detail.getProduct().getProductId(), detail.getQuantity()));
+            }
         });
     }
 
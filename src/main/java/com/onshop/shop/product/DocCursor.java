@@ -0,0 +1,71 @@
+package com.onshop.shop.product;
+
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * ✅ 오름차순 문서 번호 순회 (postings 교집합 / 합집합 공통 인터페이스)
+ *
+ * - doc() 는 시작 전 -1, 끝나면 VarintPostings.NO_MORE_DOCS
+ * - advance(target) 은 target 이상인 첫 문서로 이동 (이미 그 이상이면 그대로)
+ */
+interface DocCursor {
+
+    int doc();
+
+    int next();
+
+    int advance(int target);
+
+    /** 대략적인 문서 수 (교집합에서 짧은 목록부터 돌리기 위한 정렬 기준) */
+    int cost();
+
+    /**
+     * ✅ 여러 목록의 합집합 (카테고리 + 하위 카테고리 postings 를 하나의 필터로)
+     */
+    static DocCursor union(List<DocCursor> cursors) {
+        return cursors.size() == 1 ? cursors.get(0) : new Union(cursors);
+    }
+
+    final class Union implements DocCursor {
+        private final PriorityQueue<DocCursor> heap =
+                new PriorityQueue<>((a, b) -> Integer.compare(a.doc(), b.doc()));
+        private final int cost;
+        private int doc = -1;
+
+        private Union(List<DocCursor> cursors) {
+            int total = 0;
+            for (DocCursor cursor : cursors) {
+                total += cursor.cost();
+                if (cursor.next() != VarintPostings.NO_MORE_DOCS) heap.add(cursor);
+            }
+            cost = total;
+        }
+
+        @Override
+        public int doc() {
+            return doc;
+        }
+
+        @Override
+        public int cost() {
+            return cost;
+        }
+
+        @Override
+        public int next() {
+            return advance(doc + 1);
+        }
+
+        @Override
+        public int advance(int target) {
+            if (doc >= target) return doc;
+            // 가장 앞선 목록부터 target 이상으로 당김 (각 목록은 미리 한 칸 읽어 둔 상태)
+            while (!heap.isEmpty() && heap.peek().doc() < target) {
+                DocCursor head = heap.poll();
+                if (head.advance(target) != VarintPostings.NO_MORE_DOCS) heap.add(head);
+            }
+            return doc = heap.isEmpty() ? VarintPostings.NO_MORE_DOCS : heap.peek().doc();
+        }
+    }
+}
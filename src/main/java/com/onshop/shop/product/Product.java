@@ -6,6 +6,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 import org.springframework.data.annotation.CreatedDate;
@@ -40,6 +41,7 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@DynamicUpdate // 변경된 컬럼만 UPDATE → 상품 수정이 ProductCounterService 가 더한 조회수 / 판매량을 덮어쓰지 않음
 @EntityListeners(AuditingEntityListener.class) 
 public class Product {
 
@@ -0,0 +1,67 @@
+package com.onshop.shop.product;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * ✅ 상품 변경 기록 (outbox)
+ *
+ * - 상품 등록 / 수정 / 삭제와 같은 MySQL 트랜잭션에서 한 행씩 저장 → 상품이 커밋되면 변경 기록도 반드시 남음
+ * - 벡터 쪽 ProductVectorOutboxWorker 가 id 순서로 꺼내 product_vector 에 반영한 뒤 삭제
+ * - 처리 실패 시 attempts 만 늘리고 남겨 둠 (최대 횟수를 넘으면 더 이상 꺼내지 않음)
+ */
+@Entity
+@Table(name = "product_change_outbox",
+       indexes = @Index(name = "idx_product_change_outbox_attempts", columnList = "attempts, id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductChangeOutbox {
+
+    public enum ChangeType { UPSERT, DELETE }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 10)
+    private ChangeType changeType;
+
+    @Builder.Default
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    public static ProductChangeOutbox upsert(Long productId) {
+        return ProductChangeOutbox.builder().productId(productId).changeType(ChangeType.UPSERT).build();
+    }
+
+    public static ProductChangeOutbox delete(Long productId) {
+        return ProductChangeOutbox.builder().productId(productId).changeType(ChangeType.DELETE).build();
+    }
+}
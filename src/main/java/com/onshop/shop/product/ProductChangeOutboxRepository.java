@@ -0,0 +1,29 @@
+package com.onshop.shop.product;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface ProductChangeOutboxRepository extends JpaRepository<ProductChangeOutbox, Long> {
+
+    // 처리 대기 중인 변경 (오래된 순, 재시도 한도를 넘긴 행 제외)
+    List<ProductChangeOutbox> findByAttemptsLessThanOrderByIdAsc(Integer maxAttempts, Pageable pageable);
+
+    long countByAttemptsLessThan(Integer maxAttempts);
+
+    // 재시도 한도를 넘겨 보류된 변경 (자동 처리하지 않고 남겨 둠, 수동 확인용)
+    long countByAttemptsGreaterThanEqual(Integer maxAttempts);
+
+    // 처리 실패한 변경의 시도 횟수 증가
+    @Modifying
+    @Transactional
+    @Query("UPDATE ProductChangeOutbox o SET o.attempts = o.attempts + 1 WHERE o.id IN (:ids)")
+    int incrementAttempts(@Param("ids") List<Long> ids);
+}
@@ -0,0 +1,136 @@
+package com.onshop.shop.product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ✅ 상품 조회수 / 판매량 증가분 메모리 누적 (write-behind 버퍼)
+ *
+ * - 상품별 LongAdder 두 개(조회, 판매) → 같은 인기 상품에 요청이 몰려도 CAS 경합이 셀 단위로 분산
+ * - drain 할 때마다 새 맵으로 교체(epoch) → 한 주기에 조회된 상품만 메모리에 남음
+ *   교체 전 맵을 잡은 요청은 writers 로 표시되고, drain 은 닫은 맵의 writers 가 0 이 된 뒤에 합산
+ *   (닫힌 맵을 본 요청은 새 맵에 다시 더함) → 증가분이 사라지거나 두 번 반영되지 않음
+ * - 한 주기 동안 추적하는 상품 수가 maxTrackedProducts 를 넘으면 새 상품 증가분은 버리고 dropped 로 집계
+ * - drain 결과는 product_id 오름차순 (여러 인스턴스가 같은 행을 같은 순서로 갱신 → 데드락 방지)
+ */
+final class ProductCounterBuffer {
+
+    /**
+     * DB 에 더할 증가분 한 행
+     */
+    record Delta(long productId, long views, long sales) {
+    }
+
+    private static final class Cell {
+        final LongAdder views = new LongAdder();
+        final LongAdder sales = new LongAdder();
+    }
+
+    private static final class Epoch {
+        final ConcurrentHashMap<Long, Cell> cells = new ConcurrentHashMap<>();
+        final AtomicLong firstAddNanos = new AtomicLong(); // 0 = 아직 증가분 없음
+        final LongAdder writers = new LongAdder();        // 이 맵에 더하는 중인 요청 수
+        volatile boolean closed;
+    }
+
+    private final int maxTrackedProducts;
+    private volatile Epoch active = new Epoch();
+    private final LongAdder dropped = new LongAdder();
+
+    ProductCounterBuffer(int maxTrackedProducts) {
+        this.maxTrackedProducts = maxTrackedProducts;
+    }
+
+    boolean addViews(long productId, long count) {
+        return add(productId, count, false);
+    }
+
+    boolean addSales(long productId, long quantity) {
+        return add(productId, quantity, true);
+    }
+
+    /**
+     * ✅ 지금까지 쌓인 증가분을 꺼내고 0 으로 초기화 (product_id 오름차순, 증가분 없는 상품 제외)
+     */
+    synchronized List<Delta> drain() {
+        Epoch drained = active;
+        active = new Epoch();
+        drained.closed = true;
+        while (drained.writers.sum() != 0) {
+            Thread.yield(); // 닫기 전에 들어온 요청이 더하기를 끝낼 때까지 (보통 수 μs)
+        }
+
+        Map<Long, long[]> merged = new TreeMap<>();
+        for (Map.Entry<Long, Cell> entry : drained.cells.entrySet()) {
+            long views = entry.getValue().views.sum();
+            long sales = entry.getValue().sales.sum();
+            if (views != 0 || sales != 0) merged.put(entry.getKey(), new long[]{views, sales});
+        }
+
+        List<Delta> result = new ArrayList<>(merged.size());
+        merged.forEach((id, v) -> result.add(new Delta(id, v[0], v[1])));
+        return result;
+    }
+
+    /**
+     * ✅ DB 반영에 실패한 증가분을 다시 누적 (다음 drain 에서 재시도, 추적 한도 무시)
+     */
+    synchronized void restore(List<Delta> deltas) {
+        // drain 과 같은 락 → 그 사이 맵이 닫히지 않음
+        Epoch epoch = active;
+        for (Delta delta : deltas) {
+            Cell cell = epoch.cells.computeIfAbsent(delta.productId(), k -> new Cell());
+            cell.views.add(delta.views());
+            cell.sales.add(delta.sales());
+        }
+        if (!deltas.isEmpty()) epoch.firstAddNanos.compareAndSet(0L, System.nanoTime());
+    }
+
+    void recordDropped(long count) {
+        dropped.add(count);
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    int pendingProducts() {
+        return active.cells.size();
+    }
+
+    /**
+     * 아직 drain 되지 않은 가장 오래된 증가분의 nanoTime (없으면 0)
+     */
+    long oldestPendingNanos() {
+        return active.firstAddNanos.get();
+    }
+
+    private boolean add(long productId, long count, boolean sale) {
+        while (true) {
+            Epoch epoch = active;
+            epoch.writers.increment();
+            try {
+                if (epoch.closed) continue; // drain 이 막 닫은 맵 → 새 맵으로 다시
+
+                Cell cell = epoch.cells.get(productId);
+                if (cell == null) {
+                    if (epoch.cells.size() >= maxTrackedProducts) {
+                        dropped.add(count);
+                        return false;
+                    }
+                    cell = epoch.cells.computeIfAbsent(productId, k -> new Cell());
+                }
+                (sale ? cell.sales : cell.views).add(count);
+                if (epoch.firstAddNanos.get() == 0L) epoch.firstAddNanos.compareAndSet(0L, System.nanoTime());
+                return true;
+            } finally {
+                epoch.writers.decrement();
+            }
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.onshop.shop.product;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ✅ 상품 조회수 / 판매량 write-behind 집계
+ *
+ * - 상세 조회 / 결제 완료 시 DB 를 바로 쓰지 않고 ProductCounterBuffer 에 증가분만 누적
+ * - flush-interval-ms 마다 상품별 증가분을 모아 "col = col + ?" UPDATE 를 JDBC 배치로 전송
+ *   (읽고-더하고-저장이 아니라 DB 에서 더하므로 여러 인스턴스 / 동시 요청끼리 덮어쓰지 않음)
+ * - 배치 실패 시 증가분을 버퍼에 되돌려 다음 주기에 재시도, 종료 시 마지막 flush
+ * - 판매량은 트랜잭션 커밋 이후에만 누적 (롤백된 결제가 집계되지 않도록)
+ * - 판매량은 product_sales_hourly 현재 시간 행에도 같은 트랜잭션으로 더함 → ProductSalesWindowService 가 윈도우 밖으로 밀려난 시간만큼 뺌
+ * - 판매량을 반영한 상품은 flush 직후 ProductLeaderboardService 순위표에도 반영
+ */
+@Component
+@Slf4j
+public class ProductCounterService {
+
+    private static final String INCREMENT_SQL = """
+            UPDATE product
+            SET view_count = view_count + ?,
+                daily_sales = COALESCE(daily_sales, 0) + ?,
+                weekly_sales = COALESCE(weekly_sales, 0) + ?,
+                monthly_sales = COALESCE(monthly_sales, 0) + ?,
+                overall_sales = COALESCE(overall_sales, 0) + ?
+            WHERE product_id = ?
+            """;
+
+    private static final String SALES_BUCKET_SQL = """
+            INSERT INTO product_sales_hourly (bucket_hour, product_id, quantity) VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductLeaderboardService productLeaderboardService;
+
+    @Value("${product.counter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.counter.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${product.counter.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    @Value("${product.counter.max-tracked-products:100000}")
+    private int maxTrackedProducts;
+
+    private ProductCounterBuffer buffer;
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "product-counter-flusher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong flushedViews = new AtomicLong();
+    private final AtomicLong flushedSales = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong directWrites = new AtomicLong();
+    private volatile long lastFlushLagMillis;
+    private volatile long maxFlushLagMillis;
+    private volatile long lastFlushMillis;
+    private volatile String lastError;
+
+    public ProductCounterService(@Qualifier("mysqlDataSource") DataSource mysqlDataSource,
+                                 @Qualifier("mysqlTransactionManager") PlatformTransactionManager transactionManager,
+                                 ProductLeaderboardService productLeaderboardService) {
+        this.jdbcTemplate = new JdbcTemplate(mysqlDataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productLeaderboardService = productLeaderboardService;
+    }
+
+    @PostConstruct
+    void initBuffer() {
+        buffer = new ProductCounterBuffer(maxTrackedProducts);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnReady() {
+        if (!enabled) {
+            log.info("⏸️ [COUNTER] write-behind 비활성화 → 조회 / 판매마다 바로 UPDATE (product.counter.enabled=false)");
+            return;
+        }
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("✅ [COUNTER] 조회수 / 판매량 write-behind 시작 (주기 {}ms)", flushIntervalMs);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+        if (!enabled) return;
+
+        // 마지막 flush 까지 실패하면 남은 증가분은 유실로 기록
+        List<ProductCounterBuffer.Delta> failed = flush();
+        long lost = failed.stream().mapToLong(d -> d.views() + d.sales()).sum();
+        if (lost > 0) {
+            buffer.recordDropped(lost);
+            log.warn("⚠️ [COUNTER] 종료 시 flush 실패 → 증가분 {}건 유실", lost);
+        }
+    }
+
+    /**
+     * ✅ 상품 상세 조회 1회
+     */
+    public void recordView(Long productId) {
+        if (productId == null) return;
+        if (!enabled) {
+            directWrites.incrementAndGet();
+            jdbcTemplate.update(INCREMENT_SQL, 1L, 0L, 0L, 0L, 0L, productId);
+            return;
+        }
+        buffer.addViews(productId, 1L);
+    }
+
+    /**
+     * ✅ 상품 판매 (트랜잭션 안이면 커밋 후 누적)
+     */
+    public void recordSale(Long productId, int quantity) {
+        if (productId == null || quantity <= 0) return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addSale(productId, quantity);
+                }
+            });
+        } else {
+            addSale(productId, quantity);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long oldest = buffer.oldestPendingNanos();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("flushIntervalMs", flushIntervalMs);
+        result.put("pendingProducts", buffer.pendingProducts());
+        result.put("currentLagMillis", oldest == 0L ? 0L : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest));
+        result.put("lastFlushLagMillis", lastFlushLagMillis);
+        result.put("maxFlushLagMillis", maxFlushLagMillis);
+        result.put("lastFlushMillis", lastFlushMillis);
+        result.put("flushes", flushes.get());
+        result.put("flushedRows", flushedRows.get());
+        result.put("flushedViews", flushedViews.get());
+        result.put("flushedSales", flushedSales.get());
+        result.put("failedFlushes", failedFlushes.get());
+        result.put("droppedIncrements", buffer.dropped());
+        result.put("directWrites", directWrites.get());
+        result.put("lastError", lastError);
+        return result;
+    }
+
+    private void addSale(Long productId, int quantity) {
+        if (!enabled) {
+            directWrites.incrementAndGet();
+            writeBatch(List.of(new ProductCounterBuffer.Delta(productId, 0L, quantity)));
+            return;
+        }
+        buffer.addSales(productId, quantity);
+    }
+
+    private void flushSafely() {
+        List<ProductCounterBuffer.Delta> failed = flush();
+        if (!failed.isEmpty()) buffer.restore(failed);
+    }
+
+    /**
+     * 버퍼를 비워 DB 에 반영. 반영하지 못한 증가분 반환
+     */
+    private synchronized List<ProductCounterBuffer.Delta> flush() {
+        long oldest = buffer.oldestPendingNanos();
+        List<ProductCounterBuffer.Delta> deltas = buffer.drain();
+        if (deltas.isEmpty()) return List.of();
+
+        long start = System.nanoTime();
+        List<ProductCounterBuffer.Delta> failed = new ArrayList<>();
+        for (int from = 0; from < deltas.size(); from += flushBatchSize) {
+            List<ProductCounterBuffer.Delta> batch = deltas.subList(from, Math.min(from + flushBatchSize, deltas.size()));
+            if (!failed.isEmpty()) {
+                failed.addAll(batch);
+                continue;
+            }
+            try {
+                writeBatch(batch);
+            } catch (RuntimeException e) {
+                failedFlushes.incrementAndGet();
+                lastError = e.getMessage();
+                log.warn("❌ [COUNTER] 증가분 {}건 반영 실패 (다음 주기 재시도): {}", deltas.size() - from, e.getMessage());
+                failed.addAll(batch);
+            }
+        }
+
+        long end = System.nanoTime();
+        lastFlushMillis = TimeUnit.NANOSECONDS.toMillis(end - start);
+        if (failed.isEmpty() && oldest != 0L) {
+            lastFlushLagMillis = TimeUnit.NANOSECONDS.toMillis(end - oldest);
+            maxFlushLagMillis = Math.max(maxFlushLagMillis, lastFlushLagMillis);
+        }
+        flushes.incrementAndGet();
+        return failed;
+    }
+
+    private void writeBatch(List<ProductCounterBuffer.Delta> batch) {
+        List<Object[]> args = new ArrayList<>(batch.size());
+        for (ProductCounterBuffer.Delta d : batch) {
+            args.add(new Object[]{d.views(), d.sales(), d.sales(), d.sales(), d.sales(), d.productId()});
+        }
+        long bucketHour = ProductSalesWindowService.currentHour();
+
+        // 상품 컬럼과 시간 행을 한 트랜잭션으로 (윈도우 만료 시 정확히 더한 만큼 빠지도록)
+        int[] updated = transactionTemplate.execute(status -> {
+            int[] result = jdbcTemplate.batchUpdate(INCREMENT_SQL, args);
+            List<Object[]> buckets = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                ProductCounterBuffer.Delta d = batch.get(i);
+                if (d.sales() > 0 && result[i] != 0) buckets.add(new Object[]{bucketHour, d.productId(), d.sales()});
+            }
+            if (!buckets.isEmpty()) jdbcTemplate.batchUpdate(SALES_BUCKET_SQL, buckets);
+            return result;
+        });
+
+        List<Long> soldProductIds = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            ProductCounterBuffer.Delta d = batch.get(i);
+            if (updated[i] == 0) {
+                // 그 사이 삭제된 상품 → 반영할 행이 없음
+                buffer.recordDropped(d.views() + d.sales());
+                continue;
+            }
+            flushedRows.incrementAndGet();
+            flushedViews.addAndGet(d.views());
+            flushedSales.addAndGet(d.sales());
+            if (d.sales() > 0) soldProductIds.add(d.productId());
+        }
+        productLeaderboardService.onSalesFlushed(soldProductIds);
+    }
+}
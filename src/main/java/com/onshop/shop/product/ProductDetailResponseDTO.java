@@ -15,6 +15,7 @@ public class ProductDetailResponseDTO {
 
     private Long productId;
     private String storename;
+    private List<Long> similarProductIds; // 비슷한 상품 ID (가까운 순)
 
     public static ProductDetailResponseDTO fromEntity(Product product) {
         return ProductDetailResponseDTO.builder()
@@ -0,0 +1,300 @@
+package com.onshop.shop.product;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ✅ 베스트 / 급상승 상품 리더보드 (전체 + 카테고리별 상위 K, JVM 메모리)
+ *
+ * - 순위표: DAILY / WEEKLY / MONTHLY / OVERALL(누적) 판매량, TRENDING = 오늘 판매량 × 7 − 주간 판매량 (주 평균보다 더 팔리는 정도)
+ * - 범위: 전체 1개 + 상품 카테고리별 1개씩, 각각 size × 2 개까지만 유지 (순위가 밀려 내려올 때 바로 채울 여유분)
+ * - 갱신
+ *   · 판매량 flush 직후: 팔린 상품들의 현재 컬럼 값만 읽어 순위표에 반영 (ProductCounterService 가 호출)
+ *   · rebuild-interval-ms 마다 / 판매 윈도우 만료 후: 판매 이력이 있는 상품만 한 번 훑어 새 순위표로 교체
+ *     (윈도우 만료로 점수가 줄어든 상품, 다른 인스턴스에서 팔린 상품을 맞춤)
+ * - 조회: 스냅샷 배열에서 잘라 읽기 (카테고리 + 하위 카테고리는 k-way merge) → 상품 수와 무관,
+ *   size 를 넘는 깊은 페이지는 null 을 돌려 호출 측이 DB 정렬 조회로 처리
+ */
+@Component
+@Slf4j
+public class ProductLeaderboardService {
+
+    public enum Board {
+        DAILY("dailySales"),
+        WEEKLY("weeklySales"),
+        MONTHLY("monthlySales"),
+        OVERALL("overallSales"),
+        TRENDING(null);
+
+        private final String sortProperty;
+
+        Board(String sortProperty) {
+            this.sortProperty = sortProperty;
+        }
+
+        /** DB 정렬 조회(깊은 페이지 fallback) 에 쓸 Product 필드명, 없으면 null */
+        public String sortProperty() {
+            return sortProperty;
+        }
+
+        long score(long daily, long weekly, long monthly, long overall) {
+            return switch (this) {
+                case DAILY -> daily;
+                case WEEKLY -> weekly;
+                case MONTHLY -> monthly;
+                case OVERALL -> overall;
+                case TRENDING -> daily * 7 - weekly;
+            };
+        }
+    }
+
+    private static final String SALES_COLUMNS = """
+            SELECT product_id, category_id,
+                   COALESCE(daily_sales, 0), COALESCE(weekly_sales, 0),
+                   COALESCE(monthly_sales, 0), COALESCE(overall_sales, 0)
+            FROM product
+            """;
+
+    /**
+     * 전체 / 카테고리별 순위표 묶음 (재구축 시 통째로 교체)
+     */
+    private static final class Boards {
+        final Map<Board, TopKBoard> global = new EnumMap<>(Board.class);
+        final Map<Board, Map<Long, TopKBoard>> byCategory = new EnumMap<>(Board.class);
+
+        Boards(int capacity) {
+            for (Board board : Board.values()) {
+                global.put(board, new TopKBoard(capacity));
+                byCategory.put(board, new ConcurrentHashMap<>());
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Value("${product.leaderboard.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.leaderboard.size:100}")
+    private int size;
+
+    @Value("${product.leaderboard.category-size:50}")
+    private int categorySize;
+
+    @Value("${product.leaderboard.rebuild-interval-ms:300000}")
+    private long rebuildIntervalMs;
+
+    private volatile Boards boards;
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final Set<Long> touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "leaderboard-rebuilder");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong incrementalUpdates = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private volatile long lastRebuildMillis;
+    private volatile long lastRebuildAt;
+    private volatile String lastError;
+
+    public ProductLeaderboardService(@Qualifier("mysqlDataSource") DataSource mysqlDataSource) {
+        this.jdbcTemplate = new JdbcTemplate(mysqlDataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            log.info("⏸️ [LEADERBOARD] 비활성화 상태 (product.leaderboard.enabled=false)");
+            return;
+        }
+        rebuilder.scheduleWithFixedDelay(this::rebuildSafely, 0L, rebuildIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * ✅ 1위부터 limit 위까지의 상품 ID
+     *
+     * 순위표에는 점수 > 0 인 상품만 있으므로 그런 상품이 limit 개보다 적으면 있는 만큼만 반환
+     * (나머지 순위는 호출 측이 DB 정렬 조회로 채움)
+     *
+     * @param categoryIds null 이면 전체, 아니면 해당 카테고리들의 순위표를 합침
+     * @return 순위표 범위를 넘거나 아직 준비 전이면 null (호출 측이 DB 로 조회)
+     */
+    public List<Long> topProductIds(Board board, Collection<Long> categoryIds, int limit) {
+        Boards current = boards;
+        int served = categoryIds == null ? size : categorySize;
+        if (!enabled || current == null || limit <= 0 || limit > served) {
+            fallbacks.incrementAndGet();
+            return null;
+        }
+
+        List<TopKBoard.Snapshot> snapshots = new ArrayList<>();
+        if (categoryIds == null) {
+            snapshots.add(current.global.get(board).snapshot());
+        } else {
+            Map<Long, TopKBoard> categories = current.byCategory.get(board);
+            for (Long categoryId : categoryIds) {
+                TopKBoard categoryBoard = categories.get(categoryId);
+                if (categoryBoard != null) snapshots.add(categoryBoard.snapshot());
+            }
+        }
+        hits.incrementAndGet();
+
+        return TopKBoard.mergeTop(snapshots, limit);
+    }
+
+    /**
+     * ✅ 판매량이 DB 에 반영된 상품들의 현재 값을 순위표에 반영 (ProductCounterService flush 후 호출)
+     */
+    public void onSalesFlushed(Collection<Long> productIds) {
+        if (!enabled || productIds.isEmpty()) return;
+        if (rebuilding.get()) touchedDuringRebuild.addAll(productIds);
+
+        Boards current = boards;
+        if (current == null) return;
+        try {
+            refresh(current, productIds);
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            log.warn("⚠️ [LEADERBOARD] 판매 상품 {}건 반영 실패 (다음 재구축 때 반영): {}", productIds.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * ✅ 판매 윈도우가 만료돼 점수가 줄어든 뒤 호출 → 백그라운드 재구축
+     */
+    public void requestRebuild() {
+        if (enabled && !rebuilding.get()) rebuilder.execute(this::rebuildSafely);
+    }
+
+    public Map<String, Object> stats() {
+        Boards current = boards;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("ready", current != null);
+        result.put("size", size);
+        result.put("categorySize", categorySize);
+        if (current != null) {
+            Map<String, Object> perBoard = new LinkedHashMap<>();
+            for (Board board : Board.values()) {
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("global", current.global.get(board).snapshot().size());
+                stats.put("categories", current.byCategory.get(board).size());
+                perBoard.put(board.name().toLowerCase(), stats);
+            }
+            result.put("boards", perBoard);
+        }
+        result.put("hits", hits.get());
+        result.put("fallbacks", fallbacks.get());
+        result.put("incrementalUpdates", incrementalUpdates.get());
+        result.put("rebuilds", rebuilds.get());
+        result.put("lastRebuildMillis", lastRebuildMillis);
+        result.put("lastRebuildAt", lastRebuildAt);
+        result.put("lastError", lastError);
+        return result;
+    }
+
+    private void rebuildSafely() {
+        if (!rebuilding.compareAndSet(false, true)) return;
+        long start = System.currentTimeMillis();
+        try {
+            touchedDuringRebuild.clear();
+            Boards fresh = new Boards(size * 2);
+            Set<TopKBoard> changed = ConcurrentHashMap.newKeySet();
+            // 누적 판매량이 있는 상품만 훑음 (판매 이력 없는 상품은 어느 순위표에도 들어가지 않음)
+            jdbcTemplate.query(SALES_COLUMNS + " WHERE overall_sales > 0 OR weekly_sales > 0 OR monthly_sales > 0",
+                    rs -> {
+                        long categoryId = rs.getLong(2);
+                        offer(fresh, rs.getLong(1), rs.wasNull() ? null : categoryId,
+                                rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6), changed);
+                    });
+            changed.forEach(TopKBoard::publish);
+            boards = fresh;
+
+            // 재구축 중 flush 된 상품은 조회 시점이 엇갈렸을 수 있으므로 한 번 더 반영
+            List<Long> touched = new ArrayList<>(touchedDuringRebuild);
+            touchedDuringRebuild.clear();
+            if (!touched.isEmpty()) refresh(fresh, touched);
+
+            rebuilds.incrementAndGet();
+            lastRebuildMillis = System.currentTimeMillis() - start;
+            lastRebuildAt = System.currentTimeMillis();
+            log.debug("🏆 [LEADERBOARD] 재구축 완료 ({}ms)", lastRebuildMillis);
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            log.warn("⚠️ [LEADERBOARD] 재구축 실패 (이전 순위표 유지): {}", e.getMessage());
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void refresh(Boards target, Collection<Long> productIds) {
+        Set<TopKBoard> changed = ConcurrentHashMap.newKeySet();
+        namedJdbcTemplate.query(SALES_COLUMNS + " WHERE product_id IN (:ids)",
+                new MapSqlParameterSource("ids", productIds),
+                rs -> {
+                    long categoryId = rs.getLong(2);
+                    offer(target, rs.getLong(1), rs.wasNull() ? null : categoryId,
+                            rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6), changed);
+                });
+        changed.forEach(TopKBoard::publish);
+        incrementalUpdates.addAndGet(productIds.size());
+    }
+
+    private void offer(Boards target, long productId, Long categoryId,
+                       long daily, long weekly, long monthly, long overall, Set<TopKBoard> changed) {
+        for (Board board : Board.values()) {
+            long score = board.score(daily, weekly, monthly, overall);
+
+            TopKBoard global = target.global.get(board);
+            global.offer(productId, score);
+            changed.add(global);
+
+            if (categoryId == null) continue;
+            Map<Long, TopKBoard> categories = target.byCategory.get(board);
+            TopKBoard categoryBoard = score > 0
+                    ? categories.computeIfAbsent(categoryId, k -> new TopKBoard(categorySize * 2))
+                    : categories.get(categoryId);
+            if (categoryBoard != null) {
+                categoryBoard.offer(productId, score);
+                changed.add(categoryBoard);
+            }
+        }
+    }
+}
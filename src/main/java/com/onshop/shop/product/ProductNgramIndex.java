@@ -0,0 +1,245 @@
+package com.onshop.shop.product;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ✅ 상품명 / 카테고리명 / 상점명 문자 n-gram 역색인 (LIKE '%검색어%' 대체)
+ *
+ * - 정규화: NFKC(전각 → 반각) + 소문자 + 글자 / 숫자 이외 제거 → 띄어쓰기가 달라도 매칭 ("단백질 쉐이크" = "단백질쉐이크")
+ * - 색인: 필드별 문자 2-gram + 3-gram (필드 경계를 넘는 gram 은 만들지 않음, 한글 / 영문 / 숫자 혼합 그대로)
+ * - 검색: 검색어의 3-gram(2글자면 2-gram) postings + 카테고리 postings 를 짧은 목록부터 교집합
+ *   → 후보 문서의 정규화 텍스트에 검색어가 실제로 들어 있는지 확인 (gram 순서가 어긋난 후보 제거)
+ *   1글자 검색어는 gram 이 없으므로 (카테고리 범위 안에서) 정규화 텍스트를 순차 확인
+ * - 문서 번호는 내부 int 로 증가만 함 → postings 는 항상 뒤에 붙음 (VarintPostings)
+ *   수정 = 기존 문서 tombstone + 새 문서 추가 (Bm25Index 와 같은 방식), tombstone 은 재구축 시 정리
+ */
+final class ProductNgramIndex {
+
+    private static final char FIELD_SEPARATOR = '\u0001';
+
+    private final Map<Long, VarintPostings> grams = new HashMap<>();
+    private final Map<Long, VarintPostings> categories = new HashMap<>();
+    private final Map<Long, Integer> docByProductId = new HashMap<>();
+    private long[] productIds = new long[1024];
+    private String[] texts = new String[1024];
+    private final BitSet deleted = new BitSet();
+    private int docCount;
+    private int liveCount;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * ✅ 상품 추가 / 교체 (fields = 상품명, 카테고리명, 상점명 등 검색 대상 필드, null 허용)
+     */
+    void upsert(long productId, Long categoryId, String... fields) {
+        StringBuilder text = new StringBuilder();
+        Set<Long> keys = new LinkedHashSet<>();
+        for (String field : fields) {
+            String normalized = normalize(field);
+            if (normalized.isEmpty()) continue;
+            if (text.length() > 0) text.append(FIELD_SEPARATOR);
+            text.append(normalized);
+            addGramKeys(normalized, keys);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+
+            int doc = docCount++;
+            if (doc == productIds.length) {
+                productIds = Arrays.copyOf(productIds, doc * 2);
+                texts = Arrays.copyOf(texts, doc * 2);
+            }
+            productIds[doc] = productId;
+            texts[doc] = text.toString();
+            docByProductId.put(productId, doc);
+            liveCount++;
+
+            for (Long key : keys) {
+                grams.computeIfAbsent(key, k -> new VarintPostings()).add(doc);
+            }
+            if (categoryId != null) {
+                categories.computeIfAbsent(categoryId, k -> new VarintPostings()).add(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * ✅ 검색어가 들어 있는 상품 ID (색인 순서, 최대 limit 개)
+     *
+     * @param categoryIds null 이면 전체, 아니면 이 카테고리들 중 하나에 속한 상품만
+     */
+    List<Long> search(String query, Collection<Long> categoryIds, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            List<DocCursor> required = new ArrayList<>();
+
+            if (categoryIds != null) {
+                List<DocCursor> categoryCursors = new ArrayList<>();
+                for (Long categoryId : categoryIds) {
+                    VarintPostings postings = categories.get(categoryId);
+                    if (postings != null) categoryCursors.add(postings.cursor());
+                }
+                if (categoryCursors.isEmpty()) return List.of();
+                required.add(DocCursor.union(categoryCursors));
+            }
+
+            if (normalized.length() > 1) {
+                Set<Long> keys = new LinkedHashSet<>();
+                if (normalized.length() == 2) {
+                    keys.add(gramKey(normalized.charAt(0), normalized.charAt(1)));
+                } else {
+                    for (int i = 0; i + 3 <= normalized.length(); i++) {
+                        keys.add(gramKey(normalized.charAt(i), normalized.charAt(i + 1), normalized.charAt(i + 2)));
+                    }
+                }
+                for (Long key : keys) {
+                    VarintPostings postings = grams.get(key);
+                    if (postings == null) return List.of(); // 없는 gram → 결과 없음
+                    required.add(postings.cursor());
+                }
+            }
+
+            List<Long> result = new ArrayList<>(Math.min(limit, 64));
+            if (required.isEmpty()) {
+                // 1글자 + 카테고리 없음: 전체 순차 확인
+                for (int doc = 0; doc < docCount && result.size() < limit; doc++) {
+                    if (!deleted.get(doc) && texts[doc].indexOf(normalized) >= 0) result.add(productIds[doc]);
+                }
+                return result;
+            }
+
+            // 짧은 목록이 앞에서 끌고, 나머지는 advance 로 따라감 (leapfrog)
+            required.sort(Comparator.comparingInt(DocCursor::cost));
+            DocCursor lead = required.get(0);
+            int doc = lead.next();
+            while (doc != VarintPostings.NO_MORE_DOCS && result.size() < limit) {
+                int candidate = doc;
+                for (int i = 1; i < required.size(); i++) {
+                    int other = required.get(i).advance(candidate);
+                    if (other != candidate) {
+                        candidate = other;
+                        break;
+                    }
+                }
+                if (candidate != doc) {
+                    doc = candidate == VarintPostings.NO_MORE_DOCS ? candidate : lead.advance(candidate);
+                    continue;
+                }
+
+                if (!deleted.get(doc) && texts[doc].indexOf(normalized) >= 0) result.add(productIds[doc]);
+                doc = lead.next();
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int deletedCount() {
+        lock.readLock().lock();
+        try {
+            return docCount - liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int gramCount() {
+        lock.readLock().lock();
+        try {
+            return grams.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** gram postings 압축 바이트 합계 (통계용) */
+    long postingBytes() {
+        lock.readLock().lock();
+        try {
+            long total = 0;
+            for (VarintPostings postings : grams.values()) total += postings.byteSize();
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * NFKC + 소문자 + 글자 / 숫자만 남김
+     */
+    static String normalize(String text) {
+        if (text == null || text.isEmpty()) return "";
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static void addGramKeys(String normalized, Set<Long> keys) {
+        for (int i = 0; i + 2 <= normalized.length(); i++) {
+            keys.add(gramKey(normalized.charAt(i), normalized.charAt(i + 1)));
+            if (i + 3 <= normalized.length()) {
+                keys.add(gramKey(normalized.charAt(i), normalized.charAt(i + 1), normalized.charAt(i + 2)));
+            }
+        }
+    }
+
+    /** 2-gram / 3-gram 을 long 하나로 (문자 16비트씩 + 길이 표시) → 문자열 키 할당 없음 */
+    private static long gramKey(char a, char b) {
+        return (2L << 48) | ((long) a << 16) | b;
+    }
+
+    private static long gramKey(char a, char b, char c) {
+        return (3L << 48) | ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private void removeLocked(long productId) {
+        Integer old = docByProductId.remove(productId);
+        if (old != null) {
+            deleted.set(old);
+            texts[old] = null;
+            liveCount--;
+        }
+    }
+}
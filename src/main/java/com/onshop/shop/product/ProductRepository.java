@@ -39,13 +39,6 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p JOIN p.category c WHERE p.name LIKE %:query% OR c.name LIKE %:query%")
     List<Product> searchByNameOrCategory(@Param("query") String query);
     
-	List<Product> findAllByOrderByDailySalesDesc(Pageable pageable); // dailySales 기준으로 모든 상품 정렬
-
-	List<Product> findAllByOrderByWeeklySalesDesc(); // weeklySales 기준으로 모든 상품 정렬
-
-	List<Product> findAllByOrderByMonthlySalesDesc(); // monthlySales 기준으로 모든 상품 정렬
-
-	List<Product> findAllByOrderByOverallSalesDesc(); // overallSales 기준으로 모든 상품 정렬
 	// List<Product> findBySeller_SellerIdOrderByWeeklySalesDesc(Long sellerId);
 	// List<Product> findBySeller_SellerIdOrderByMonthlySalesDesc(Long sellerId);
 	// List<Product> findBySeller_SellerIdOrderByRealtimeSalesDesc(Long sellerId);
@@ -278,6 +271,13 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p.productId FROM Product p")
     Page<Long> findRandomProductIds(Pageable pageable);
 
+    // 누적 판매량 상위 상품 ID (사용자 추천 후보 부족 시 보충용 인기 목록)
+    @Query("SELECT p.productId FROM Product p ORDER BY p.overallSales DESC, p.productId ASC")
+    List<Long> findTopProductIdsByOverallSales(Pageable pageable);
+
+    // product_id 기준 keyset 페이지 조회 (벡터 동기화용, lastId 이후 순서대로)
+    List<Product> findByProductIdGreaterThanOrderByProductIdAsc(Long productId, Pageable pageable);
+
     
     
     @Query(value = """
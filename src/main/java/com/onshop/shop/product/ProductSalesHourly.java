@@ -0,0 +1,45 @@
+package com.onshop.shop.product;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * ✅ 상품별 시간 단위 판매량 (일간 / 주간 / 월간 슬라이딩 윈도우 계산용)
+ *
+ * - bucket_hour = epoch 기준 시간 번호 (epochMillis / 3,600,000, UTC) → 시간대 / 서머타임 영향 없음
+ * - ProductCounterService 가 판매량 flush 때 (bucket_hour, product_id) 행에 수량을 더함
+ * - 월간 윈도우(720시간)를 벗어난 행은 ProductSalesWindowService 가 삭제
+ */
+@Entity
+@Table(name = "product_sales_hourly",
+       uniqueConstraints = @UniqueConstraint(name = "uk_product_sales_hourly_bucket", columnNames = {"bucket_hour", "product_id"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSalesHourly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_hour", nullable = false)
+    private Long bucketHour;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "quantity", nullable = false)
+    private Long quantity;
+}
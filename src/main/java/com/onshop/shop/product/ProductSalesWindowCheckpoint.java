@@ -0,0 +1,42 @@
+package com.onshop.shop.product;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * ✅ 판매량 윈도우별 만료 처리 위치
+ *
+ * - expired_before 미만 bucket_hour 의 판매량은 해당 윈도우 컬럼(daily_sales 등)에서 이미 뺐음
+ * - 윈도우 갱신은 이 행을 SELECT ... FOR UPDATE 로 잡고 진행 → 여러 인스턴스가 같은 시간을 두 번 빼지 않음
+ */
+@Entity
+@Table(name = "product_sales_window")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSalesWindowCheckpoint {
+
+    @Id
+    @Column(name = "window_name", length = 20)
+    private String windowName;
+
+    @Column(name = "expired_before", nullable = false)
+    private Long expiredBefore;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
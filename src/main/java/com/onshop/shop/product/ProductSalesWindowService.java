@@ -0,0 +1,271 @@
+package com.onshop.shop.product;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ✅ 일간 / 주간 / 월간 판매량 슬라이딩 윈도우 (자정 초기화 배치 대체)
+ *
+ * - product.daily_sales / weekly_sales / monthly_sales = 최근 24 / 168 / 720 시간 판매량 합
+ *   · 판매 시: ProductCounterService 가 세 컬럼 + product_sales_hourly 현재 시간 행에 같은 트랜잭션으로 더함
+ *   · 시간이 지나 윈도우를 벗어난 시간 행: 그 시간에 팔린 상품 행에서만 수량을 뺌 (전체 상품 UPDATE 없음)
+ * - 윈도우마다 product_sales_window.expired_before 를 FOR UPDATE 로 잡고 진행 → 인스턴스가 여러 개여도 한 번만 뺌
+ * - 체크포인트가 없을 때(첫 실행) / rebuild-on-startup=true 일 때는 시간 행 합계로 컬럼을 다시 맞춤 (값이 다른 행만 갱신)
+ * - 월간 윈도우 밖의 시간 행은 주기적으로 삭제
+ * - 만료 / 재계산으로 판매량이 줄어든 상품이 있으면 ProductLeaderboardService 재구축 요청 (점수 감소는 증분 반영 대상이 아님)
+ */
+@Component
+@Slf4j
+public class ProductSalesWindowService {
+
+    public enum Window {
+        DAILY("daily_sales", 24),
+        WEEKLY("weekly_sales", 24 * 7),
+        MONTHLY("monthly_sales", 24 * 30);
+
+        private final String column;
+        private final int hours;
+
+        Window(String column, int hours) {
+            this.column = column;
+            this.hours = hours;
+        }
+
+        /** 현재 시간 기준 윈도우에 포함되는 첫 bucket_hour */
+        long startHour(long currentHour) {
+            return currentHour - hours + 1;
+        }
+    }
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    private static final String EXPIRE_SQL_TEMPLATE = """
+            UPDATE product p
+            JOIN (SELECT product_id, SUM(quantity) AS expired
+                  FROM product_sales_hourly
+                  WHERE bucket_hour >= ? AND bucket_hour < ?
+                  GROUP BY product_id) e ON e.product_id = p.product_id
+            SET p.%1$s = GREATEST(COALESCE(p.%1$s, 0) - e.expired, 0)
+            """;
+
+    private static final String REBUILD_SQL_TEMPLATE = """
+            UPDATE product p
+            LEFT JOIN (SELECT product_id, SUM(quantity) AS total
+                       FROM product_sales_hourly
+                       WHERE bucket_hour >= ?
+                       GROUP BY product_id) s ON s.product_id = p.product_id
+            SET p.%1$s = COALESCE(s.total, 0)
+            WHERE COALESCE(p.%1$s, -1) <> COALESCE(s.total, 0)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductLeaderboardService productLeaderboardService;
+
+    @Value("${product.sales-window.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.sales-window.roll-interval-ms:60000}")
+    private long rollIntervalMs;
+
+    @Value("${product.sales-window.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    @Value("${product.sales-window.purge-batch-size:10000}")
+    private int purgeBatchSize;
+
+    private final ScheduledExecutorService roller = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "sales-window-roller");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<Window, AtomicLong> expiredRows = new ConcurrentHashMap<>();
+    private final AtomicLong rolls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong purgedBuckets = new AtomicLong();
+    private volatile long lastRollAt;
+    private volatile String lastError;
+
+    public ProductSalesWindowService(@Qualifier("mysqlDataSource") DataSource mysqlDataSource,
+                                     @Qualifier("mysqlTransactionManager") PlatformTransactionManager transactionManager,
+                                     ProductLeaderboardService productLeaderboardService) {
+        this.jdbcTemplate = new JdbcTemplate(mysqlDataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productLeaderboardService = productLeaderboardService;
+    }
+
+    /**
+     * ✅ 판매량을 기록할 현재 시간 번호 (epoch 시간, UTC)
+     */
+    public static long currentHour() {
+        return System.currentTimeMillis() / HOUR_MILLIS;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnReady() {
+        if (!enabled) {
+            log.info("⏸️ [SALES-WINDOW] 비활성화 상태 (product.sales-window.enabled=false)");
+            return;
+        }
+        roller.execute(() -> {
+            if (rebuildOnStartup) {
+                for (Window window : Window.values()) rebuildSafely(window);
+                productLeaderboardService.requestRebuild();
+            }
+        });
+        roller.scheduleWithFixedDelay(this::rollSafely, 0L, rollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        roller.shutdownNow();
+    }
+
+    public Map<String, Object> stats() {
+        long currentHour = currentHour();
+        Map<String, Long> checkpoints = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT window_name, expired_before FROM product_sales_window",
+                rs -> { checkpoints.put(rs.getString(1), rs.getLong(2)); });
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("currentHour", currentHour);
+        for (Window window : Window.values()) {
+            Long expiredBefore = checkpoints.get(window.name());
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("column", window.column);
+            stats.put("hours", window.hours);
+            stats.put("expiredBefore", expiredBefore);
+            stats.put("lagHours", expiredBefore == null ? null : Math.max(0, window.startHour(currentHour) - expiredBefore));
+            stats.put("expiredRows", expiredRows.getOrDefault(window, new AtomicLong()).get());
+            result.put(window.name().toLowerCase(), stats);
+        }
+        result.put("rolls", rolls.get());
+        result.put("failures", failures.get());
+        result.put("purgedBuckets", purgedBuckets.get());
+        result.put("lastRollAt", lastRollAt);
+        result.put("lastError", lastError);
+        return result;
+    }
+
+    private void rollSafely() {
+        long currentHour = currentHour();
+        int changed = 0;
+        for (Window window : Window.values()) {
+            try {
+                changed += roll(window, currentHour);
+            } catch (DuplicateKeyException e) {
+                log.info("⏭️ [SALES-WINDOW] {} 윈도우는 다른 인스턴스가 초기화함", window);
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+                lastError = window + ": " + e.getMessage();
+                log.warn("⚠️ [SALES-WINDOW] {} 윈도우 갱신 실패 (다음 주기 재시도): {}", window, e.getMessage());
+            }
+        }
+        try {
+            purgeExpiredBuckets();
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            lastError = "purge: " + e.getMessage();
+            log.warn("⚠️ [SALES-WINDOW] 만료 시간 행 삭제 실패: {}", e.getMessage());
+        }
+        if (changed > 0) productLeaderboardService.requestRebuild();
+        rolls.incrementAndGet();
+        lastRollAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 윈도우를 벗어난 시간 행의 판매량을 컬럼에서 뺌 (체크포인트 행 잠금 안에서). 값이 바뀐 상품 수 반환
+     */
+    private int roll(Window window, long currentHour) {
+        long startHour = window.startHour(currentHour);
+        return transactionTemplate.execute(status -> {
+            List<Long> checkpoint = jdbcTemplate.queryForList(
+                    "SELECT expired_before FROM product_sales_window WHERE window_name = ? FOR UPDATE",
+                    Long.class, window.name());
+
+            if (checkpoint.isEmpty()) {
+                // 첫 실행: 시간 행 합계로 컬럼을 맞추고 체크포인트 생성 (동시에 만든 인스턴스가 있으면 롤백)
+                int updated = rebuildColumn(window, startHour);
+                jdbcTemplate.update("INSERT INTO product_sales_window (window_name, expired_before, updated_at) VALUES (?, ?, NOW())",
+                        window.name(), startHour);
+                log.info("✅ [SALES-WINDOW] {} 윈도우 초기화: {}개 상품 재계산", window, updated);
+                return updated;
+            }
+
+            long expiredBefore = checkpoint.get(0);
+            if (expiredBefore >= startHour) return 0;
+
+            int updated = jdbcTemplate.update(EXPIRE_SQL_TEMPLATE.formatted(window.column), expiredBefore, startHour);
+            jdbcTemplate.update("UPDATE product_sales_window SET expired_before = ?, updated_at = NOW() WHERE window_name = ?",
+                    startHour, window.name());
+            expiredRows.computeIfAbsent(window, k -> new AtomicLong()).addAndGet(updated);
+            log.debug("⏱️ [SALES-WINDOW] {} 윈도우 {}~{} 시간 만료: {}개 상품", window, expiredBefore, startHour - 1, updated);
+            return updated;
+        });
+    }
+
+    private void rebuildSafely(Window window) {
+        long startHour = window.startHour(currentHour());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.queryForList("SELECT expired_before FROM product_sales_window WHERE window_name = ? FOR UPDATE",
+                        Long.class, window.name());
+                int updated = rebuildColumn(window, startHour);
+                if (jdbcTemplate.update("UPDATE product_sales_window SET expired_before = ?, updated_at = NOW() WHERE window_name = ?",
+                        startHour, window.name()) == 0) {
+                    jdbcTemplate.update("INSERT INTO product_sales_window (window_name, expired_before, updated_at) VALUES (?, ?, NOW())",
+                            window.name(), startHour);
+                }
+                log.info("🔄 [SALES-WINDOW] {} 윈도우 재계산: {}개 상품 보정", window, updated);
+            });
+        } catch (DuplicateKeyException e) {
+            log.info("⏭️ [SALES-WINDOW] {} 윈도우는 다른 인스턴스가 초기화함", window);
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            lastError = window + ": " + e.getMessage();
+            log.warn("⚠️ [SALES-WINDOW] {} 윈도우 재계산 실패: {}", window, e.getMessage());
+        }
+    }
+
+    private int rebuildColumn(Window window, long startHour) {
+        return jdbcTemplate.update(REBUILD_SQL_TEMPLATE.formatted(window.column), startHour);
+    }
+
+    /**
+     * 가장 긴 윈도우까지 만료된 시간 행 삭제 (한 번에 purge-batch-size 행씩)
+     */
+    private void purgeExpiredBuckets() {
+        List<Long> checkpoints = jdbcTemplate.queryForList("SELECT expired_before FROM product_sales_window", Long.class);
+        if (checkpoints.size() < Window.values().length) return; // 아직 초기화되지 않은 윈도우가 있으면 보존
+        long purgeBefore = checkpoints.stream().mapToLong(Long::longValue).min().orElseThrow();
+
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("DELETE FROM product_sales_hourly WHERE bucket_hour < ? LIMIT ?", purgeBefore, purgeBatchSize);
+            purgedBuckets.addAndGet(deleted);
+        } while (deleted == purgeBatchSize);
+    }
+}
@@ -0,0 +1,225 @@
+package com.onshop.shop.product;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ✅ 상품 검색용 n-gram 역색인 (ProductNgramIndex) 구축 / 갱신
+ *
+ * - 기동 후 product + category + seller 를 product_id 순으로 build-page-size 행씩 읽어 구축
+ *   (상품명, 카테고리명, 상점명 세 필드 색인, 카테고리 ID 는 필터용 postings)
+ * - 상품 등록 / 수정 / 삭제: 트랜잭션 커밋 후 해당 상품 행을 다시 읽어 "현재 DB 상태" 로 맞춤 (없으면 제거)
+ * - rebuild-interval-ms 마다 새 인덱스로 교체 → 다른 인스턴스에서 바뀐 상품과 tombstone 정리
+ *   구축 중 들어온 갱신은 양쪽에 반영 (ProductLexicalIndex 와 같은 방식)
+ * - 준비 전 / 비활성화 시 search() 는 null → 호출 측이 기존 LIKE 쿼리로 처리
+ */
+@Component
+@Slf4j
+public class ProductSearchIndex {
+
+    private static final String SELECT_SQL = """
+            SELECT p.product_id, p.name, p.category_id, c.category_name, s.storename
+            FROM product p
+            LEFT JOIN category c ON c.category_id = p.category_id
+            LEFT JOIN seller s ON s.seller_id = p.seller_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Value("${product.search.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.search.index.build-page-size:5000}")
+    private int buildPageSize;
+
+    @Value("${product.search.index.rebuild-interval-ms:600000}")
+    private long rebuildIntervalMs;
+
+    @Value("${product.search.max-results:1000}")
+    private int maxResults;
+
+    private volatile ProductNgramIndex index;
+    private volatile ProductNgramIndex building;
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "product-search-indexer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong refreshedProducts = new AtomicLong();
+    private volatile long lastBuildMillis;
+    private volatile String lastError;
+
+    public ProductSearchIndex(@Qualifier("mysqlDataSource") DataSource mysqlDataSource) {
+        this.jdbcTemplate = new JdbcTemplate(mysqlDataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            log.info("⏸️ [SEARCH-INDEX] 비활성화 상태 → 상품 검색은 LIKE 쿼리 사용");
+            return;
+        }
+        rebuilder.scheduleWithFixedDelay(this::rebuild, 0L, rebuildIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * ✅ 검색어가 상품명 / 카테고리명 / 상점명에 들어 있는 상품 ID (최대 max-results 개)
+     *
+     * @param categoryIds null 이면 전체 카테고리
+     * @return 인덱스 준비 전이면 null
+     */
+    public List<Long> search(String query, Collection<Long> categoryIds) {
+        ProductNgramIndex current = index;
+        if (!enabled || current == null) {
+            fallbacks.incrementAndGet();
+            return null;
+        }
+        searches.incrementAndGet();
+        return current.search(query, categoryIds, maxResults);
+    }
+
+    /**
+     * ✅ 상품 등록 / 수정 / 삭제 반영 (트랜잭션 안이면 커밋 후)
+     */
+    public void refreshAfterCommit(Collection<Long> productIds) {
+        if (!enabled || productIds.isEmpty()) return;
+
+        List<Long> ids = List.copyOf(productIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshSafely(ids);
+                }
+            });
+        } else {
+            refreshSafely(ids);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        ProductNgramIndex current = index;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("ready", current != null);
+        result.put("rebuilding", rebuilding.get());
+        result.put("size", current == null ? 0 : current.size());
+        result.put("deleted", current == null ? 0 : current.deletedCount());
+        result.put("grams", current == null ? 0 : current.gramCount());
+        result.put("postingBytes", current == null ? 0L : current.postingBytes());
+        result.put("searches", searches.get());
+        result.put("fallbacks", fallbacks.get());
+        result.put("refreshedProducts", refreshedProducts.get());
+        result.put("lastBuildMillis", lastBuildMillis);
+        result.put("lastError", lastError);
+        return result;
+    }
+
+    private void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) return;
+        long start = System.currentTimeMillis();
+        try {
+            ProductNgramIndex fresh = new ProductNgramIndex();
+            building = fresh;
+
+            long[] lastId = {0L};
+            int read;
+            do {
+                int[] count = {0};
+                jdbcTemplate.query(SELECT_SQL + " WHERE p.product_id > ? ORDER BY p.product_id LIMIT ?",
+                        rs -> {
+                            long productId = rs.getLong(1);
+                            long categoryId = rs.getLong(3);
+                            fresh.upsert(productId, rs.wasNull() ? null : categoryId,
+                                    rs.getString(2), rs.getString(4), rs.getString(5));
+                            lastId[0] = productId;
+                            count[0]++;
+                        }, lastId[0], buildPageSize);
+                read = count[0];
+            } while (read == buildPageSize);
+
+            index = fresh;
+            lastBuildMillis = System.currentTimeMillis() - start;
+            log.info("✅ [SEARCH-INDEX] 구축 완료: 상품 {}개, gram {}종, postings {}KB, {}ms",
+                    fresh.size(), fresh.gramCount(), fresh.postingBytes() / 1024, lastBuildMillis);
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            log.error("❌ [SEARCH-INDEX] 구축 실패 (이전 인덱스 유지): {}", e.getMessage(), e);
+        } finally {
+            building = null;
+            rebuilding.set(false);
+        }
+    }
+
+    private void refreshSafely(List<Long> productIds) {
+        ProductNgramIndex current = index;
+        ProductNgramIndex inProgress = building;
+        if (current == null && inProgress == null) return;
+
+        try {
+            Set<Long> found = new HashSet<>();
+            namedJdbcTemplate.query(SELECT_SQL + " WHERE p.product_id IN (:ids)",
+                    new MapSqlParameterSource("ids", productIds),
+                    rs -> {
+                        long productId = rs.getLong(1);
+                        long categoryId = rs.getLong(3);
+                        Long category = rs.wasNull() ? null : categoryId;
+                        String name = rs.getString(2);
+                        String categoryName = rs.getString(4);
+                        String storeName = rs.getString(5);
+                        if (current != null) current.upsert(productId, category, name, categoryName, storeName);
+                        if (inProgress != null && inProgress != current) {
+                            inProgress.upsert(productId, category, name, categoryName, storeName);
+                        }
+                        found.add(productId);
+                    });
+
+            for (Long productId : productIds) {
+                if (found.contains(productId)) continue;
+                if (current != null) current.remove(productId);
+                if (inProgress != null) inProgress.remove(productId);
+            }
+            refreshedProducts.addAndGet(productIds.size());
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            log.warn("⚠️ [SEARCH-INDEX] 상품 {}건 반영 실패 (다음 재구축 때 반영): {}", productIds.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.onshop.shop.product;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ✅ 검색어 자동완성 (/products/suggest)
+ *
+ * - 상품명 / 카테고리명 / 상점명으로 SuggestTrie 를 만들어 메모리에서 응답 (DB / LIKE / 챗봇 호출 없음)
+ * - 인기도 = 조회수 + 누적 판매량 × sales-weight
+ *   · 상품: 정규화한 이름이 같은 상품(판매자만 다른 같은 상품)은 하나로 합치고 인기도 합산, 상위 max-product-terms 개만 사용
+ *   · 카테고리 / 상점: 소속 상품 인기도 합 (+1, 판매 이력이 없어도 추천 대상)
+ * - rebuild-interval-ms 마다 백그라운드에서 새 트라이를 만든 뒤 참조 하나만 교체 → 조회는 잠금 없이 항상 완성된 트라이를 읽음
+ * - 조회 지연 시간은 μs 구간 분포로 집계 (/health/suggest)
+ */
+@Component
+@Slf4j
+public class ProductSuggestService {
+
+    private static final String PRODUCT_SQL = """
+            SELECT product_id, name, category_id, seller_id, COALESCE(view_count, 0), COALESCE(overall_sales, 0)
+            FROM product
+            WHERE product_id > ?
+            ORDER BY product_id
+            LIMIT ?
+            """;
+
+    // 분포 상한(μs): ≤50, ≤100, ≤250, ≤500, ≤1000, ≤5000, 그 이상
+    private static final long[] BUCKETS_MICROS = {50, 100, 250, 500, 1000, 5000};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${product.suggest.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.suggest.top-k:10}")
+    private int topK;
+
+    @Value("${product.suggest.max-product-terms:200000}")
+    private int maxProductTerms;
+
+    @Value("${product.suggest.sales-weight:10}")
+    private long salesWeight;
+
+    @Value("${product.suggest.build-page-size:5000}")
+    private int buildPageSize;
+
+    @Value("${product.suggest.rebuild-interval-ms:600000}")
+    private long rebuildIntervalMs;
+
+    private volatile SuggestTrie trie = SuggestTrie.EMPTY;
+    private volatile boolean ready;
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "product-suggest-builder");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final LongAdder[] latencyBuckets = new LongAdder[BUCKETS_MICROS.length + 1];
+    private final LongAdder requests = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private volatile long lastBuildMillis;
+    private volatile long lastBuildAt;
+    private volatile String lastError;
+
+    public ProductSuggestService(@Qualifier("mysqlDataSource") DataSource mysqlDataSource) {
+        this.jdbcTemplate = new JdbcTemplate(mysqlDataSource);
+        for (int i = 0; i < latencyBuckets.length; i++) latencyBuckets[i] = new LongAdder();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            log.info("⏸️ [SUGGEST] 비활성화 상태 (product.suggest.enabled=false)");
+            return;
+        }
+        rebuilder.scheduleWithFixedDelay(this::rebuild, 0L, rebuildIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * ✅ 입력 중인 검색어의 자동완성 (인기도 순, 최대 top-k 개)
+     */
+    public List<ProductSuggestionDTO> suggest(String query, int limit) {
+        if (!enabled) return List.of();
+
+        long start = System.nanoTime();
+        List<SuggestTrie.Entry> entries = trie.suggest(query, Math.min(limit, topK));
+        List<ProductSuggestionDTO> result = new ArrayList<>(entries.size());
+        for (SuggestTrie.Entry entry : entries) {
+            result.add(new ProductSuggestionDTO(entry.text(), entry.kind().name(), entry.id()));
+        }
+        recordLatency(System.nanoTime() - start);
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        SuggestTrie current = trie;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("ready", ready);
+        result.put("rebuilding", rebuilding.get());
+        result.put("entries", current.entryCount());
+        result.put("nodes", current.nodeCount());
+        result.put("lastBuildMillis", lastBuildMillis);
+        result.put("lastBuildAt", lastBuildAt);
+        result.put("lastError", lastError);
+
+        long total = requests.sum();
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        long cumulative = 0;
+        Long p99UpperMicros = null;
+        for (int i = 0; i < latencyBuckets.length; i++) {
+            long count = latencyBuckets[i].sum();
+            cumulative += count;
+            String label = i < BUCKETS_MICROS.length ? "<=" + BUCKETS_MICROS[i] + "us" : ">" + BUCKETS_MICROS[i - 1] + "us";
+            histogram.put(label, count);
+            if (p99UpperMicros == null && total > 0 && cumulative * 100 >= total * 99) {
+                p99UpperMicros = i < BUCKETS_MICROS.length ? BUCKETS_MICROS[i] : -1L; // -1 = 5ms 초과
+            }
+        }
+        result.put("requests", total);
+        result.put("p99UpperBoundMicros", p99UpperMicros);
+        result.put("maxMicros", TimeUnit.NANOSECONDS.toMicros(maxLatencyNanos.get()));
+        result.put("latencyHistogram", histogram);
+        return result;
+    }
+
+    private void recordLatency(long elapsedNanos) {
+        requests.increment();
+        maxLatencyNanos.accumulateAndGet(elapsedNanos, Math::max);
+        long micros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+        int bucket = 0;
+        while (bucket < BUCKETS_MICROS.length && micros > BUCKETS_MICROS[bucket]) bucket++;
+        latencyBuckets[bucket].increment();
+    }
+
+    private void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) return;
+        long start = System.currentTimeMillis();
+        try {
+            Map<String, SuggestTrie.Entry> products = new HashMap<>();
+            Map<Long, Long> categoryWeights = new HashMap<>();
+            Map<Long, Long> storeWeights = new HashMap<>();
+
+            long[] lastId = {0L};
+            int[] read = {0};
+            do {
+                read[0] = 0;
+                jdbcTemplate.query(PRODUCT_SQL, rs -> {
+                    long productId = rs.getLong(1);
+                    String name = rs.getString(2);
+                    long categoryId = rs.getLong(3);
+                    boolean hasCategory = !rs.wasNull();
+                    long sellerId = rs.getLong(4);
+                    boolean hasSeller = !rs.wasNull();
+                    long weight = rs.getLong(5) + rs.getLong(6) * salesWeight;
+
+                    String key = SuggestTrie.normalize(name);
+                    if (!key.isEmpty()) {
+                        // 같은 이름은 인기도가 가장 높은 상품의 표시명 / ID 를 쓰고 인기도는 합산
+                        products.merge(key, new SuggestTrie.Entry(name.trim(), SuggestTrie.Kind.PRODUCT, productId, weight),
+                                (a, b) -> {
+                                    SuggestTrie.Entry best = a.weight() >= b.weight() ? a : b;
+                                    return new SuggestTrie.Entry(best.text(), best.kind(), best.id(), a.weight() + b.weight());
+                                });
+                    }
+                    if (hasCategory) categoryWeights.merge(categoryId, weight, Long::sum);
+                    if (hasSeller) storeWeights.merge(sellerId, weight, Long::sum);
+
+                    lastId[0] = productId;
+                    read[0]++;
+                }, lastId[0], buildPageSize);
+            } while (read[0] == buildPageSize);
+
+            List<SuggestTrie.Entry> productEntries = new ArrayList<>(products.values());
+            if (productEntries.size() > maxProductTerms) {
+                productEntries.sort(Comparator.comparingLong(SuggestTrie.Entry::weight).reversed());
+                productEntries = productEntries.subList(0, maxProductTerms);
+            }
+            List<SuggestTrie.Entry> entries = new ArrayList<>(productEntries);
+            jdbcTemplate.query("SELECT category_id, category_name FROM category WHERE category_name IS NOT NULL", rs -> {
+                long categoryId = rs.getLong(1);
+                entries.add(new SuggestTrie.Entry(rs.getString(2), SuggestTrie.Kind.CATEGORY, categoryId,
+                        categoryWeights.getOrDefault(categoryId, 0L) + 1));
+            });
+            jdbcTemplate.query("SELECT seller_id, storename FROM seller WHERE storename IS NOT NULL", rs -> {
+                long sellerId = rs.getLong(1);
+                entries.add(new SuggestTrie.Entry(rs.getString(2), SuggestTrie.Kind.STORE, sellerId,
+                        storeWeights.getOrDefault(sellerId, 0L) + 1));
+            });
+
+            SuggestTrie fresh = SuggestTrie.build(entries, topK, 4);
+            trie = fresh;
+            ready = true;
+            lastBuildMillis = System.currentTimeMillis() - start;
+            lastBuildAt = System.currentTimeMillis();
+            log.info("✅ [SUGGEST] 자동완성 트라이 구축: 항목 {}개, 노드 {}개, {}ms",
+                    fresh.entryCount(), fresh.nodeCount(), lastBuildMillis);
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            log.error("❌ [SUGGEST] 트라이 구축 실패 (이전 트라이 유지): {}", e.getMessage(), e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+}
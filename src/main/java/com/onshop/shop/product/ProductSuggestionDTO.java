@@ -0,0 +1,19 @@
+package com.onshop.shop.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ✅ /products/suggest 자동완성 한 건
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSuggestionDTO {
+    private String text;   // 화면에 보여줄 문자열 (상품명 / 카테고리명 / 상점명)
+    private String type;   // PRODUCT, CATEGORY, STORE
+    private Long id;       // 상품 ID / 카테고리 ID / 판매자 ID
+}
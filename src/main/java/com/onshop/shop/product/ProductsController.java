@@ -39,6 +39,7 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 public class ProductsController {
 
     private final ProductsService productsService;
+    private final ProductSuggestService productSuggestService;
     private final JwtUtil jwtUtil;
 
     /** 구매자*/
@@ -82,30 +83,39 @@ public class ProductsController {
     public ResponseEntity<List<Product>> getPopularProducts(
     		@RequestParam String sortBy,
     		@RequestParam int page,
-    		@RequestParam int size
+    		@RequestParam int size,
+    		@RequestParam(required = false) Long categoryId
     		) {
-        log.info("인기 상품 조회 요청: sortBy={}", sortBy);
+        log.info("인기 상품 조회 요청: sortBy={}, categoryId={}", sortBy, categoryId);
         
-        List<Product> products;
+        // page < 0 / size < 1 은 PageRequest.of 에서 IllegalArgumentException(500) → 400 으로 응답
+        if (page < 0 || size < 1) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        
+        ProductLeaderboardService.Board board;
         
         switch (sortBy.toLowerCase()) {
             case "daily":
-                products = productsService.getPopularProductsDaily(page, size);
+                board = ProductLeaderboardService.Board.DAILY;
                 break;
             case "weekly":
-                products = productsService.getPopularProductsWeekly();
+                board = ProductLeaderboardService.Board.WEEKLY;
                 break;
             case "monthly":
-                products = productsService.getPopularProductsMonthly();
+                board = ProductLeaderboardService.Board.MONTHLY;
                 break;
             case "all":
-                products = productsService.getAllPopularProducts();
+                board = ProductLeaderboardService.Board.OVERALL;
+                break;
+            case "trending":
+                board = ProductLeaderboardService.Board.TRENDING;
                 break;
             default:
                 return ResponseEntity.badRequest().body(null);
         }
 
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(productsService.getPopularProducts(board, categoryId, page, size));
     }
 
     // 단일 상품 조회
@@ -134,8 +144,17 @@ public class ProductsController {
     }
     
     @GetMapping("/products/search")
-    public List<ProductsDTO> searchProducts(@RequestParam String query) {
-        return productsService.searchProducts(query);
+    public List<ProductsDTO> searchProducts(@RequestParam String query,
+    		@RequestParam(required = false) Long categoryId) {
+        return productsService.searchProducts(query, categoryId);
+    }
+
+    // 검색어 자동완성 (상품명 / 카테고리명 / 상점명, 인기도 순)
+    @GetMapping("/products/suggest")
+    public List<ProductSuggestionDTO> suggestProducts(
+    		@RequestParam String query,
+    		@RequestParam(defaultValue = "10") int limit) {
+        return productSuggestService.suggest(query, limit);
     }
     
     
@@ -16,7 +16,7 @@ public interface ProductsService {
     
     ProductsDTO getProductById(Long productId);
     List<ProductsDTO> getProductsByCategory(Long categoryId, int page, int size);
-    List<ProductsDTO> searchProducts(String query);
+    List<ProductsDTO> searchProducts(String query, Long categoryId);
     List<Product> getProductsBySellerId(Long sellerId);
 
 
@@ -47,16 +47,8 @@ public interface ProductsService {
     public List<CategoryDTO> getUsedCategoriesBySeller(Long sellerId);
 
     
-    // 일간 인기 상품 조회
-    public List<Product> getPopularProductsDaily(int page, int size);
-
-    // 주간 인기 상품 조회
-    public List<Product> getPopularProductsWeekly();
-    // 월간 인기 상품 조회
-    public List<Product> getPopularProductsMonthly();
-
-    // 전체 인기 상품 조회
-    public List<Product> getAllPopularProducts();
+    // 인기 / 급상승 상품 조회 (categoryId 가 있으면 해당 카테고리 + 하위 카테고리)
+    public List<Product> getPopularProducts(ProductLeaderboardService.Board board, Long categoryId, int page, int size);
     
     List<Product> getPopularProductsBySellerDaily(Long sellerId);
     List<Product> getPopularProductsBySellerWeekly(Long sellerId);
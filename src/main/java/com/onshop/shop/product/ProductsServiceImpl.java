@@ -7,8 +7,11 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -31,6 +34,7 @@ import com.onshop.shop.inventory.Inventory;
 import com.onshop.shop.inventory.InventoryRepository;
 import com.onshop.shop.seller.Seller;
 import com.onshop.shop.seller.SellerRepository;
+import com.onshop.shop.vector.ProductSimilarityIndex;
 import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvValidationException;
 
@@ -48,9 +52,17 @@ public class ProductsServiceImpl implements ProductsService {
     private final InventoryRepository inventoryRepository;
     private final SellerRepository sellerRepository;
     private final FileUploadService fileUploadService;
+    private final ProductSimilarityIndex productSimilarityIndex;
+    private final ProductChangeOutboxRepository productChangeOutboxRepository; // 벡터 동기화용 변경 기록 (같은 트랜잭션)
+    private final ProductCounterService productCounterService;
+    private final ProductLeaderboardService productLeaderboardService;
+    private final ProductSearchIndex productSearchIndex;
     
     @Value("${file.upload-dir}")  // application.properties에서 경로 정보를 읽어옴
     private String uploadDir;
+
+    @Value("${vector.similar.detail-limit:10}")  // 상품 상세에 내려줄 비슷한 상품 수
+    private int similarLimit;
     
     
     
@@ -68,12 +80,10 @@ public class ProductsServiceImpl implements ProductsService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("상품이 존재하지 않습니다."));
         
-        Long oldViewCount = product.getViewCount();
-        product.setViewCount(oldViewCount+1);
-        
-        
+        // 조회수는 write-behind 로 누적 (조회마다 행 UPDATE X)
+        productCounterService.recordView(productId);
         
-        return ProductsDTO.fromEntity(productRepository.save(product));
+        return ProductsDTO.fromEntity(product);
     }
 
     @Override
@@ -116,9 +126,25 @@ public class ProductsServiceImpl implements ProductsService {
     
  // 상품 검색
     @Override
-    public List<ProductsDTO> searchProducts(String query) {
-        // 상품명 또는 카테고리명으로 검색
-        List<Product> products = productRepository.searchByNameOrCategory(query);
+    public List<ProductsDTO> searchProducts(String query, Long categoryId) {
+        List<Long> categoryIds = categoryId == null ? null : categoryWithChildren(categoryId);
+
+        // ✅ 1. n-gram 역색인 (상품명 / 카테고리명 / 상점명) → 색인 순서대로 상품 로드
+        List<Product> products;
+        List<Long> matchedIds = productSearchIndex.search(query, categoryIds);
+        if (matchedIds != null) {
+            Map<Long, Product> byId = productRepository.findAllById(matchedIds).stream()
+                    .collect(Collectors.toMap(Product::getProductId, p -> p));
+            products = matchedIds.stream()
+                    .map(byId::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        } else {
+            // ✅ 2. 인덱스 준비 전: 상품명 또는 카테고리명 LIKE 검색
+            products = productRepository.searchByNameOrCategory(query).stream()
+                    .filter(p -> categoryIds == null || (p.getCategory() != null && categoryIds.contains(p.getCategory().getId())))
+                    .collect(Collectors.toList());
+        }
 
         // Product -> ProductsDTO 변환
         return products.stream()
@@ -224,6 +250,12 @@ public class ProductsServiceImpl implements ProductsService {
         ).collect(Collectors.toList());
 
         inventoryRepository.saveAll(unsavedInventories);
+
+        // 임베딩 생성 대상으로 기록
+        productChangeOutboxRepository.saveAll(savedProducts.stream()
+                .map(product -> ProductChangeOutbox.upsert(product.getProductId()))
+                .collect(Collectors.toList()));
+        productSearchIndex.refreshAfterCommit(savedProducts.stream().map(Product::getProductId).toList());
     }
     
     @Override
@@ -407,6 +439,7 @@ public class ProductsServiceImpl implements ProductsService {
     
     // 상품 저장(단일) 
 	@Override
+	@Transactional
 	public Product registerProduct(SellerProductsRequestDTO product, Long userId) {
 		
 	    Seller seller = sellerRepository.findByUserId(userId)
@@ -450,6 +483,9 @@ public class ProductsServiceImpl implements ProductsService {
                 .product(savedProduct)
                 .build());
 
+        // 임베딩 생성 대상으로 기록
+        productChangeOutboxRepository.save(ProductChangeOutbox.upsert(savedProduct.getProductId()));
+        productSearchIndex.refreshAfterCommit(List.of(savedProduct.getProductId()));
         
 		return savedProduct ;
 		
@@ -510,6 +546,10 @@ public class ProductsServiceImpl implements ProductsService {
         }
         
         inventoryRepository.save(inventory);
+
+        // 벡터 동기화 대상으로 기록 (임베딩 텍스트가 그대로면 워커가 가격 / 카테고리만 갱신)
+        productChangeOutboxRepository.save(ProductChangeOutbox.upsert(productId));
+        productSearchIndex.refreshAfterCommit(List.of(productId));
         
         return product;
     }
@@ -532,6 +572,12 @@ public class ProductsServiceImpl implements ProductsService {
         }
         
         productRepository.deleteAllByIdInBatchAndSeller(productsIdsDTO.getIds(), seller);
+
+        // 벡터 삭제 대상으로 기록 (다른 판매자 상품이라 지워지지 않은 ID 는 워커가 상품 존재 여부를 보고 무시)
+        productChangeOutboxRepository.saveAll(productIds.stream()
+                .map(ProductChangeOutbox::delete)
+                .collect(Collectors.toList()));
+        productSearchIndex.refreshAfterCommit(productIds);
     }
     
     
@@ -607,24 +653,64 @@ public class ProductsServiceImpl implements ProductsService {
 //	}   
     
     @Override
-    public List<Product> getPopularProductsDaily(int page, int size) {
-    	Pageable pageable = PageRequest.of(page, size);
-        return productRepository.findAllByOrderByDailySalesDesc(pageable);  // List<Product>로 반환
-    }
+    public List<Product> getPopularProducts(ProductLeaderboardService.Board board, Long categoryId, int page, int size) {
+        List<Long> categoryIds = categoryId == null ? null : categoryWithChildren(categoryId);
+
+        // 급상승은 정렬 컬럼이 없어 DB 조회 시 일간 판매량 순
+        String sortProperty = board.sortProperty() != null ? board.sortProperty() : "dailySales";
+        Sort sort = Sort.by(Sort.Direction.DESC, sortProperty).and(Sort.by("productId"));
+
+        // ✅ 1. 리더보드 (상위 K 안의 페이지) → 순위 순서대로 상품 로드
+        long end = ((long) page + 1) * size;
+        List<Long> rankedIds = page < 0 || end > Integer.MAX_VALUE
+                ? null
+                : productLeaderboardService.topProductIds(board, categoryIds, (int) end);
+        if (rankedIds != null) {
+            int from = page * size;
+            List<Long> pageIds = rankedIds.size() > from ? rankedIds.subList(from, rankedIds.size()) : List.of();
+            Map<Long, Product> byId = productRepository.findAllById(pageIds).stream()
+                    .collect(Collectors.toMap(Product::getProductId, p -> p));
+            List<Product> result = pageIds.stream()
+                    .map(byId::get)
+                    .filter(Objects::nonNull) // 그 사이 삭제된 상품 제외
+                    .collect(Collectors.toCollection(ArrayList::new));
+
+            // 순위표(점수 > 0)만으로 페이지를 못 채우면 순위표에 없는 상품을 DB 정렬 순으로 이어 붙임 → 기존처럼 size 개
+            if (rankedIds.size() < end) {
+                Set<Long> onBoard = new HashSet<>(rankedIds);
+                int skip = Math.max(0, from - rankedIds.size());
+                int need = (int) end - Math.max(from, rankedIds.size());
+                for (Product product : findPopularSorted(categoryIds, PageRequest.of(0, (int) end, sort))) {
+                    if (need == 0) break;
+                    if (onBoard.contains(product.getProductId())) continue;
+                    if (skip > 0) {
+                        skip--;
+                        continue;
+                    }
+                    result.add(product);
+                    need--;
+                }
+            }
+            return result;
+        }
 
-    @Override
-    public List<Product> getPopularProductsWeekly() {
-        return productRepository.findAllByOrderByWeeklySalesDesc(); // List<Product>로 반환
+        // ✅ 2. 리더보드 범위 밖의 깊은 페이지 → DB 정렬 조회
+        return findPopularSorted(categoryIds, PageRequest.of(page, size, sort));
     }
 
-    @Override
-    public List<Product> getPopularProductsMonthly() {
-        return productRepository.findAllByOrderByMonthlySalesDesc(); // List<Product>로 반환
+    private List<Product> findPopularSorted(List<Long> categoryIds, Pageable pageable) {
+        return categoryIds == null
+                ? productRepository.findAll(pageable).getContent()
+                : productRepository.findByCategoryIdIn(categoryIds, pageable);
     }
 
-    @Override
-    public List<Product> getAllPopularProducts() {
-        return productRepository.findAllByOrderByOverallSalesDesc(); // List<Product>로 반환
+    // ✅ 카테고리 + 하위 카테고리 ID (getProductsByCategory 와 같은 범위)
+    private List<Long> categoryWithChildren(Long categoryId) {
+        List<Long> categoryIds = categoryRepository.findByParentCategoryId(categoryId).stream()
+                .map(Category::getId)
+                .collect(Collectors.toList());
+        categoryIds.add(categoryId);
+        return categoryIds;
     }
 
     @Override
@@ -655,7 +741,10 @@ public class ProductsServiceImpl implements ProductsService {
     public ProductDetailResponseDTO getProductDetail(Long productId) {
         Product product = productRepository.findDetailWithSellerById(productId)
                 .orElseThrow(() -> new NotFoundException("상품을 찾을 수 없습니다."));
-        return ProductDetailResponseDTO.fromEntity(product);
+        ProductDetailResponseDTO dto = ProductDetailResponseDTO.fromEntity(product);
+        // 비슷한 상품은 미리 계산된 그래프에서 조회 (PGVector 호출 없음, 미준비 시 빈 목록)
+        dto.setSimilarProductIds(productSimilarityIndex.similarProducts(productId, similarLimit));
+        return dto;
     }
 
     /** 판매자 상품 CSV 업로드
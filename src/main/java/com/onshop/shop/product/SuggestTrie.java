@@ -0,0 +1,314 @@
+package com.onshop.shop.product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ✅ 자동완성용 압축 접두사 트라이 (읽기 전용, 구축 후 통째로 교체)
+ *
+ * - 키: 한글 음절을 호환 자모로 분해한 문자열 ("갤럭시" → ㄱㅐㄹㄹㅓㄱㅅㅣ, 겹받침 / 겹모음도 분해)
+ *   → 입력 중인 "갤러", "닭" 직전의 "달" 도 접두사로 매칭. 영문 / 숫자는 소문자, 공백 / 기호는 제거
+ * - 단어 시작 위치마다 키를 하나씩 더 넣음 ("삼성 무선 이어폰" → "삼성무선이어폰", "무선이어폰", "이어폰")
+ * - 한 자식만 있는 경로는 간선 하나로 합침(radix) + 노드 / 간선 / 자식 / top-k 를 배열에 평탄화 → 노드당 객체 없음
+ * - 항목은 가중치 내림차순으로 번호를 매김 → 노드별 top-k = 하위 트리 항목 번호 중 가장 작은 k 개 (구축 시 미리 계산)
+ * - 조회: 접두사 길이만큼 자식 이진 탐색 + 노드의 top-k 복사 → 항목 수와 무관
+ */
+final class SuggestTrie {
+
+    enum Kind { PRODUCT, CATEGORY, STORE }
+
+    /**
+     * 추천 항목 (text = 화면 표시 문자열, id = 상품 / 카테고리 / 판매자 ID)
+     */
+    record Entry(String text, Kind kind, long id, long weight) {
+    }
+
+    private static final int MAX_KEY_LENGTH = 60;
+
+    private static final String CHOSEONG = "ㄱㄲㄴㄷㄸㄹㅁㅂㅃㅅㅆㅇㅈㅉㅊㅋㅌㅍㅎ";
+    private static final String JUNGSEONG = "ㅏㅐㅑㅒㅓㅔㅕㅖㅗㅘㅙㅚㅛㅜㅝㅞㅟㅠㅡㅢㅣ";
+    private static final String JONGSEONG = " ㄱㄲㄳㄴㄵㄶㄷㄹㄺㄻㄼㄽㄾㄿㅀㅁㅂㅄㅅㅆㅇㅈㅊㅋㅌㅍㅎ";
+    private static final String[] COMPOUND_JAMO = new String[0x318F - 0x3131];
+
+    static {
+        String[][] pairs = {
+                {"ㄳ", "ㄱㅅ"}, {"ㄵ", "ㄴㅈ"}, {"ㄶ", "ㄴㅎ"}, {"ㄺ", "ㄹㄱ"}, {"ㄻ", "ㄹㅁ"}, {"ㄼ", "ㄹㅂ"},
+                {"ㄽ", "ㄹㅅ"}, {"ㄾ", "ㄹㅌ"}, {"ㄿ", "ㄹㅍ"}, {"ㅀ", "ㄹㅎ"}, {"ㅄ", "ㅂㅅ"},
+                {"ㅘ", "ㅗㅏ"}, {"ㅙ", "ㅗㅐ"}, {"ㅚ", "ㅗㅣ"}, {"ㅝ", "ㅜㅓ"}, {"ㅞ", "ㅜㅔ"}, {"ㅟ", "ㅜㅣ"}, {"ㅢ", "ㅡㅣ"}};
+        for (String[] pair : pairs) COMPOUND_JAMO[pair[0].charAt(0) - 0x3131] = pair[1];
+    }
+
+    static final SuggestTrie EMPTY = build(List.of(), 1, 1);
+
+    private final Entry[] entries;
+    private final char[] labels;
+    private final int[] labelStart;
+    private final int[] labelLength;
+    private final int[] childStart;
+    private final int[] childCount;
+    private final int[] topStart;
+    private final int[] topCount;
+    private final int[] tops;
+    private final int nodeCount;
+
+    private SuggestTrie(Entry[] entries, Builder builder) {
+        this.entries = entries;
+        this.labels = Arrays.copyOf(builder.labels, builder.labelSize);
+        this.labelStart = Arrays.copyOf(builder.labelStart, builder.nodeCount);
+        this.labelLength = Arrays.copyOf(builder.labelLength, builder.nodeCount);
+        this.childStart = Arrays.copyOf(builder.childStart, builder.nodeCount);
+        this.childCount = Arrays.copyOf(builder.childCount, builder.nodeCount);
+        this.topStart = Arrays.copyOf(builder.topStart, builder.nodeCount);
+        this.topCount = Arrays.copyOf(builder.topCount, builder.nodeCount);
+        this.tops = Arrays.copyOf(builder.tops, builder.topSize);
+        this.nodeCount = builder.nodeCount;
+    }
+
+    /**
+     * ✅ 항목들로 트라이 구축
+     *
+     * @param topK            노드마다 미리 계산할 추천 개수 (조회 limit 상한)
+     * @param maxKeysPerEntry 항목당 키 수 상한 (첫 단어 + 이후 단어 시작 위치)
+     */
+    static SuggestTrie build(Collection<Entry> input, int topK, int maxKeysPerEntry) {
+        Entry[] entries = input.stream()
+                .sorted(Comparator.comparingLong(Entry::weight).reversed().thenComparing(Entry::text))
+                .toArray(Entry[]::new);
+
+        List<String> keyList = new ArrayList<>();
+        List<Integer> entryList = new ArrayList<>();
+        for (int i = 0; i < entries.length; i++) {
+            for (String key : keys(entries[i].text(), maxKeysPerEntry)) {
+                keyList.add(key);
+                entryList.add(i);
+            }
+        }
+        Integer[] order = new Integer[keyList.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparing(keyList::get));
+
+        String[] keys = new String[order.length];
+        int[] keyEntries = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = keyList.get(order[i]);
+            keyEntries[i] = entryList.get(order[i]);
+        }
+
+        Builder builder = new Builder(keys, keyEntries, topK);
+        int root = builder.allocate(1);
+        builder.fill(root, 0, keys.length, 0);
+        return new SuggestTrie(entries, builder);
+    }
+
+    /**
+     * ✅ 입력 중인 검색어로 시작하는 항목 (가중치 내림차순, 최대 limit 개)
+     */
+    List<Entry> suggest(String prefix, int limit) {
+        String query = normalize(prefix);
+        if (query.isEmpty() || limit <= 0) return List.of();
+        if (query.length() > MAX_KEY_LENGTH) query = query.substring(0, MAX_KEY_LENGTH);
+
+        int node = 0;
+        int pos = 0;
+        while (pos < query.length()) {
+            int child = findChild(node, query.charAt(pos));
+            if (child < 0) return List.of();
+
+            int start = labelStart[child];
+            int matched = Math.min(labelLength[child], query.length() - pos);
+            for (int i = 1; i < matched; i++) {
+                if (labels[start + i] != query.charAt(pos + i)) return List.of();
+            }
+            pos += matched;
+            node = child; // 간선 중간에서 끝나도 그 자식 아래는 모두 접두사 일치
+        }
+
+        int count = Math.min(limit, topCount[node]);
+        List<Entry> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) result.add(entries[tops[topStart[node] + i]]);
+        return result;
+    }
+
+    int entryCount() {
+        return entries.length;
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * 소문자 + 전각 → 반각 + 한글 자모 분해, 글자 / 숫자 이외 제거
+     */
+    static String normalize(String text) {
+        if (text == null || text.isEmpty()) return "";
+        StringBuilder sb = new StringBuilder(text.length() * 2);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0xFF01 && c <= 0xFF5E) c = (char) (c - 0xFEE0);
+
+            if (c >= 0xAC00 && c <= 0xD7A3) {
+                int syllable = c - 0xAC00;
+                sb.append(CHOSEONG.charAt(syllable / 588));
+                appendJamo(sb, JUNGSEONG.charAt(syllable % 588 / 28));
+                if (syllable % 28 != 0) appendJamo(sb, JONGSEONG.charAt(syllable % 28));
+            } else if (c >= 0x3131 && c < 0x318F) {
+                appendJamo(sb, c);
+            } else if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendJamo(StringBuilder sb, char jamo) {
+        String expanded = COMPOUND_JAMO[jamo - 0x3131];
+        if (expanded != null) sb.append(expanded);
+        else sb.append(jamo);
+    }
+
+    /**
+     * 원문 전체 + 두 번째 단어부터 각 단어 시작 위치의 정규화 키 (중복 제거, 길이 MAX_KEY_LENGTH 로 자름)
+     */
+    static List<String> keys(String text, int maxKeys) {
+        if (text == null) return List.of();
+        String[] words = text.trim().split("\\s+");
+        String[] normalized = new String[words.length];
+        for (int i = 0; i < words.length; i++) normalized[i] = normalize(words[i]);
+
+        Set<String> keys = new LinkedHashSet<>();
+        for (int from = 0; from < words.length && keys.size() < maxKeys; from++) {
+            StringBuilder key = new StringBuilder();
+            for (int i = from; i < words.length && key.length() < MAX_KEY_LENGTH; i++) key.append(normalized[i]);
+            if (key.length() > 0) keys.add(key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key.toString());
+        }
+        return new ArrayList<>(keys);
+    }
+
+    private int findChild(int node, char c) {
+        int lo = childStart[node];
+        int hi = lo + childCount[node] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char label = labels[labelStart[mid]];
+            if (label < c) lo = mid + 1;
+            else if (label > c) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    /**
+     * 정렬된 키 구간을 재귀로 나눠 노드 배열을 채움 (한 노드의 자식은 연속된 번호로 먼저 확보)
+     */
+    private static final class Builder {
+        private final String[] keys;
+        private final int[] keyEntries;
+        private final int topK;
+
+        char[] labels = new char[1024];
+        int labelSize;
+        int[] labelStart = new int[1024];
+        int[] labelLength = new int[1024];
+        int[] childStart = new int[1024];
+        int[] childCount = new int[1024];
+        int[] topStart = new int[1024];
+        int[] topCount = new int[1024];
+        int nodeCount;
+        int[] tops = new int[1024];
+        int topSize;
+
+        Builder(String[] keys, int[] keyEntries, int topK) {
+            this.keys = keys;
+            this.keyEntries = keyEntries;
+            this.topK = topK;
+        }
+
+        int allocate(int count) {
+            int first = nodeCount;
+            nodeCount += count;
+            if (nodeCount > labelStart.length) {
+                int capacity = Math.max(labelStart.length * 2, nodeCount);
+                labelStart = Arrays.copyOf(labelStart, capacity);
+                labelLength = Arrays.copyOf(labelLength, capacity);
+                childStart = Arrays.copyOf(childStart, capacity);
+                childCount = Arrays.copyOf(childCount, capacity);
+                topStart = Arrays.copyOf(topStart, capacity);
+                topCount = Arrays.copyOf(topCount, capacity);
+            }
+            return first;
+        }
+
+        /**
+         * keys[lo, hi) 는 앞 depth 글자가 같음 → node 의 자식 / top-k 계산
+         */
+        void fill(int node, int lo, int hi, int depth) {
+            int i = lo;
+            while (i < hi && keys[i].length() == depth) i++; // 여기서 끝나는 키 keys[lo, i)
+            int terminalEnd = i;
+
+            List<int[]> groups = new ArrayList<>();
+            while (i < hi) {
+                int start = i;
+                char c = keys[i].charAt(depth);
+                while (i < hi && keys[i].charAt(depth) == c) i++;
+                groups.add(new int[]{start, i});
+            }
+
+            int first = allocate(groups.size());
+            childStart[node] = first;
+            childCount[node] = groups.size();
+            int[] ends = new int[groups.size()];
+            for (int g = 0; g < groups.size(); g++) {
+                String head = keys[groups.get(g)[0]];
+                String tail = keys[groups.get(g)[1] - 1];
+                int end = depth + 1;
+                int max = Math.min(head.length(), tail.length());
+                while (end < max && head.charAt(end) == tail.charAt(end)) end++;
+                ends[g] = end;
+                setLabel(first + g, head, depth, end);
+            }
+            int candidateCount = terminalEnd - lo;
+            for (int g = 0; g < groups.size(); g++) {
+                int child = first + g;
+                fill(child, groups.get(g)[0], groups.get(g)[1], ends[g]);
+                candidateCount += topCount[child];
+            }
+
+            // 여기서 끝나는 키 + 자식들의 top-k 중 항목 번호가 작은(가중치가 큰) topK 개, 중복 제거
+            int[] candidates = new int[candidateCount];
+            int n = 0;
+            for (int k = lo; k < terminalEnd; k++) candidates[n++] = keyEntries[k];
+            for (int g = 0; g < groups.size(); g++) {
+                int child = first + g;
+                System.arraycopy(tops, topStart[child], candidates, n, topCount[child]);
+                n += topCount[child];
+            }
+            Arrays.sort(candidates);
+
+            if (topSize + topK > tops.length) tops = Arrays.copyOf(tops, Math.max(tops.length * 2, topSize + topK));
+            int count = 0;
+            for (int k = 0; k < n && count < topK; k++) {
+                if (k > 0 && candidates[k] == candidates[k - 1]) continue;
+                tops[topSize + count++] = candidates[k];
+            }
+            topStart[node] = topSize;
+            topCount[node] = count;
+            topSize += count;
+        }
+
+        private void setLabel(int node, String key, int from, int to) {
+            int length = to - from;
+            if (labelSize + length > labels.length) labels = Arrays.copyOf(labels, Math.max(labels.length * 2, labelSize + length));
+            key.getChars(from, to, labels, labelSize);
+            labelStart[node] = labelSize;
+            labelLength[node] = length;
+            labelSize += length;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.onshop.shop.product;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * ✅ 점수 상위 capacity 개 상품만 유지하는 순위표 (판매량 리더보드 한 칸)
+ *
+ * - 쓰기: 상품 점수 갱신 시 기존 항목을 빼고 다시 넣음, capacity 를 넘으면 가장 낮은 항목 제거 (O(log K))
+ * - 읽기: publish() 때 만든 정렬 스냅샷 배열을 그대로 읽음 → 잠금 없음, 비용은 요청한 개수에만 비례
+ *   (여러 건 offer 후 한 번만 publish → 스냅샷 복사 O(K) 를 묶음 단위로)
+ * - 순서: 점수 내림차순, 같은 점수는 product_id 오름차순 (DB 정렬과 같은 결과)
+ */
+final class TopKBoard {
+
+    /**
+     * 정렬된 읽기 전용 스냅샷 (ids[i] 의 점수 = scores[i])
+     */
+    record Snapshot(long[] ids, long[] scores) {
+        static final Snapshot EMPTY = new Snapshot(new long[0], new long[0]);
+
+        int size() {
+            return ids.length;
+        }
+    }
+
+    private record Entry(long productId, long score) {
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong(Entry::score).reversed()
+            .thenComparingLong(Entry::productId);
+
+    private final int capacity;
+    private final TreeSet<Entry> entries = new TreeSet<>(ORDER);
+    private final Map<Long, Entry> byProduct = new HashMap<>();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    TopKBoard(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * ✅ 상품 점수 반영 (0 이하면 순위표에서 제거). 읽기에는 publish() 후 보임
+     */
+    synchronized void offer(long productId, long score) {
+        Entry previous = byProduct.remove(productId);
+        if (previous != null) entries.remove(previous);
+
+        if (score > 0 && (entries.size() < capacity || ORDER.compare(new Entry(productId, score), entries.last()) < 0)) {
+            Entry entry = new Entry(productId, score);
+            entries.add(entry);
+            byProduct.put(productId, entry);
+            if (entries.size() > capacity) byProduct.remove(entries.pollLast().productId());
+        }
+    }
+
+    synchronized void publish() {
+        snapshot = toSnapshot();
+    }
+
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * ✅ 정렬된 스냅샷 여러 개를 합쳐 상위 limit 개 ID (하위 카테고리 순위표 합치기용)
+     */
+    static List<Long> mergeTop(List<Snapshot> snapshots, int limit) {
+        if (snapshots.size() == 1) {
+            Snapshot only = snapshots.get(0);
+            List<Long> result = new ArrayList<>(Math.min(limit, only.size()));
+            for (int i = 0; i < only.size() && result.size() < limit; i++) result.add(only.ids()[i]);
+            return result;
+        }
+
+        // (스냅샷 번호, 위치) 를 다음 후보로 두는 k-way merge
+        PriorityQueue<int[]> heads = new PriorityQueue<>((a, b) -> {
+            Snapshot sa = snapshots.get(a[0]);
+            Snapshot sb = snapshots.get(b[0]);
+            int byScore = Long.compare(sb.scores()[b[1]], sa.scores()[a[1]]);
+            return byScore != 0 ? byScore : Long.compare(sa.ids()[a[1]], sb.ids()[b[1]]);
+        });
+        for (int s = 0; s < snapshots.size(); s++) {
+            if (snapshots.get(s).size() > 0) heads.add(new int[]{s, 0});
+        }
+
+        List<Long> result = new ArrayList<>(limit);
+        while (!heads.isEmpty() && result.size() < limit) {
+            int[] head = heads.poll();
+            Snapshot snapshot = snapshots.get(head[0]);
+            result.add(snapshot.ids()[head[1]]);
+            if (head[1] + 1 < snapshot.size()) heads.add(new int[]{head[0], head[1] + 1});
+        }
+        return result;
+    }
+
+    private Snapshot toSnapshot() {
+        long[] ids = new long[entries.size()];
+        long[] scores = new long[entries.size()];
+        int i = 0;
+        for (Entry entry : entries) {
+            ids[i] = entry.productId();
+            scores[i++] = entry.score();
+        }
+        return new Snapshot(ids, scores);
+    }
+}
@@ -0,0 +1,132 @@
+package com.onshop.shop.product;
+
+import java.util.Arrays;
+
+/**
+ * ✅ 정렬된 문서 번호 목록 (delta + varint 압축, 뒤에 붙이기만 가능)
+ *
+ * - 문서 번호는 증가만 하므로 앞 번호와의 차이(delta)를 7비트 varint 로 저장 → 인접 문서는 대부분 1바이트
+ * - BLOCK 개마다 블록 첫 문서 번호 / 바이트 위치를 skip 표에 기록 → advance(target) 가 블록 단위로 건너뜀
+ *   (교집합에서 짧은 목록이 긴 목록을 끌고 갈 때 긴 목록 전체를 풀지 않음)
+ * - 동기화 없음: 쓰기 / 읽기 잠금은 ProductNgramIndex 가 담당
+ */
+final class VarintPostings {
+
+    static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    private static final int BLOCK = 128;
+
+    private byte[] bytes = new byte[8];
+    private int length;
+    private int size;
+    private int lastDoc = -1;
+
+    private int[] skipDocs = new int[1];
+    private int[] skipOffsets = new int[1]; // 블록 첫 문서 varint 바로 뒤 위치
+    private int blocks;
+
+    /**
+     * 이전보다 큰 문서 번호만 추가 가능
+     */
+    void add(int doc) {
+        if (doc <= lastDoc) throw new IllegalArgumentException("문서 번호는 증가해야 함: " + doc + " <= " + lastDoc);
+
+        writeVarint(doc - lastDoc);
+        if (size % BLOCK == 0) {
+            if (blocks == skipDocs.length) {
+                skipDocs = Arrays.copyOf(skipDocs, blocks * 2);
+                skipOffsets = Arrays.copyOf(skipOffsets, blocks * 2);
+            }
+            skipDocs[blocks] = doc;
+            skipOffsets[blocks] = length;
+            blocks++;
+        }
+        lastDoc = doc;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** 압축된 postings 바이트 수 (통계용) */
+    int byteSize() {
+        return length;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    private void writeVarint(int value) {
+        if (length + 5 > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 5));
+        while ((value & ~0x7F) != 0) {
+            bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+    }
+
+    /**
+     * 앞으로만 움직이는 읽기 위치 (doc() 이 NO_MORE_DOCS 면 끝)
+     */
+    final class Cursor implements DocCursor {
+        private int doc = -1;
+        private int offset;
+        private int index = -1;   // 현재 문서의 순번
+        private int block = -1;   // 현재 문서가 속한 블록
+
+        @Override
+        public int doc() {
+            return doc;
+        }
+
+        @Override
+        public int cost() {
+            return size;
+        }
+
+        @Override
+        public int next() {
+            if (++index >= size) return doc = NO_MORE_DOCS;
+            if (index % BLOCK == 0) {
+                block = index / BLOCK;
+                offset = skipOffsets[block];
+                return doc = skipDocs[block];
+            }
+
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return doc += value;
+        }
+
+        @Override
+        public int advance(int target) {
+            if (doc >= target) return doc;
+
+            // target 이하로 시작하는 마지막 블록으로 점프 (현재 블록보다 뒤일 때만)
+            int found = Arrays.binarySearch(skipDocs, Math.max(block + 1, 0), blocks, target);
+            int targetBlock = found >= 0 ? found : -found - 2;
+            if (targetBlock > block) {
+                block = targetBlock;
+                index = targetBlock * BLOCK;
+                offset = skipOffsets[targetBlock];
+                doc = skipDocs[targetBlock];
+                if (doc >= target) return doc;
+            }
+
+            // 블록 안에서는 순차 디코딩
+            int next;
+            do {
+                next = next();
+            } while (next < target);
+            return next;
+        }
+    }
+}
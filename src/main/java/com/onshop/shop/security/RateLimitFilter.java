@@ -0,0 +1,134 @@
+package com.onshop.shop.security;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onshop.shop.exception.ErrorMessageResponse;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ✅ 비싼 엔드포인트 요청 제한 필터 (OpenAI 호출, Chrome 크롤링, SMTP 메일 발송 등)
+ *
+ * - rate-limit.routes 에서 경로 / 메서드가 처음 맞는 규칙 하나만 적용, 맞는 규칙이 없으면 그대로 통과
+ * - 키: 로그인 사용자는 JWT(jwt 쿠키 또는 Bearer 헤더)의 userId, 아니면 클라이언트 IP
+ * - 응답 헤더 X-RateLimit-Limit / X-RateLimit-Remaining, 초과 시 429 + Retry-After(초)
+ * - Spring Security 필터 체인 바로 뒤에 위치 → 429 응답에도 CORS 헤더가 붙어 브라우저가 상태 코드를 읽을 수 있음
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final JwtUtil jwtUtil;
+    private final ObjectMapper objectMapper;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || "OPTIONS".equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        RateLimitProperties.Route route = matchRoute(request);
+        if (route == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String clientKey = clientKey(request, route);
+        TokenBucket.Result result = rateLimiter.tryAcquire(route, clientKey);
+        response.setHeader("X-RateLimit-Limit", String.valueOf(route.getCapacity()));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(result.remaining()));
+
+        if (result.allowed()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfterSeconds = Math.max(1, (result.retryAfterMillis() + 999) / 1000);
+        log.warn("⛔ [RATE-LIMIT] {} {} 요청 제한 초과 (route={}, key={}, {}초 후 재시도)",
+                request.getMethod(), request.getRequestURI(), route.getName(), clientKey, retryAfterSeconds);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(), new ErrorMessageResponse(HttpStatus.TOO_MANY_REQUESTS,
+                "요청이 너무 많습니다. " + retryAfterSeconds + "초 후에 다시 시도해 주세요."));
+    }
+
+    private RateLimitProperties.Route matchRoute(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            boolean methodMatches = route.getMethods().isEmpty()
+                    || route.getMethods().stream().anyMatch(m -> m.equalsIgnoreCase(request.getMethod()));
+            if (methodMatches && route.getPatterns().stream().anyMatch(p -> pathMatcher.match(p, path))) return route;
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request, RateLimitProperties.Route route) {
+        if (route.getKey() == RateLimitProperties.KeyType.USER) {
+            Long userId = userId(request);
+            if (userId != null) return "user:" + userId;
+        }
+        return "ip:" + clientIp(request);
+    }
+
+    // JwtAuthenticationFilter 와 같은 순서로 토큰을 찾음 (쿠키 → Authorization 헤더), 무효 토큰이면 IP 로 제한
+    private Long userId(HttpServletRequest request) {
+        String token = null;
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if ("jwt".equals(cookie.getName())) {
+                    token = cookie.getValue();
+                    break;
+                }
+            }
+        }
+        if (token == null) {
+            String header = request.getHeader("Authorization");
+            if (header != null && header.startsWith("Bearer ")) token = header.substring(7);
+        }
+        if (token == null || token.isBlank()) return null;
+
+        try {
+            return jwtUtil.extractUserId(token);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (properties.isTrustForwardedFor()) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                String[] hops = forwarded.split(",");
+                return hops[hops.length - 1].trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,59 @@
+package com.onshop.shop.security;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * ✅ 비싼 엔드포인트 요청 제한 설정 (rate-limit.*)
+ *
+ * rate-limit.routes[n].name               : 버킷 이름 (Redis 키 / 통계에 사용)
+ * rate-limit.routes[n].patterns           : Ant 경로 패턴 목록 (하나의 버킷을 공유, 예: /vector/rag,/vector/rag/stream)
+ * rate-limit.routes[n].methods            : 대상 HTTP 메서드 (비우면 전체)
+ * rate-limit.routes[n].capacity           : 한 번에 몰아서 쓸 수 있는 최대 요청 수
+ * rate-limit.routes[n].refill-per-minute  : 분당 다시 채워지는 요청 수 (장기 평균 허용량)
+ * rate-limit.routes[n].key                : USER (로그인 시 userId, 아니면 IP) | IP
+ */
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+@Getter
+@Setter
+public class RateLimitProperties {
+
+    public enum KeyType { USER, IP }
+
+    private boolean enabled = true;
+
+    // false 면 Redis 를 쓰지 않고 인스턴스별 JVM 버킷만 사용
+    private boolean redisEnabled = true;
+
+    private String keyPrefix = "rate-limit:";
+
+    // Redis 오류 후 이 시간 동안은 바로 JVM 버킷 사용 (장애 중 매 요청마다 타임아웃을 기다리지 않도록)
+    private long redisRetryMillis = 5000;
+
+    // 로드밸런서 뒤에서만 true (X-Forwarded-For 의 마지막 값 = 로드밸런서가 본 클라이언트 IP)
+    private boolean trustForwardedFor = false;
+
+    private List<Route> routes = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Route {
+        private String name;
+        private List<String> patterns = new ArrayList<>();
+        private List<String> methods = new ArrayList<>();
+        private long capacity = 10;
+        private double refillPerMinute = 10;
+        private KeyType key = KeyType.USER;
+
+        double refillPerMillis() {
+            return refillPerMinute / 60_000.0;
+        }
+    }
+}
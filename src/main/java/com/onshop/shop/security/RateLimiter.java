@@ -0,0 +1,142 @@
+package com.onshop.shop.security;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ✅ 토큰 버킷 요청 제한 (Redis Lua 공유 버킷 + JVM fallback)
+ *
+ * - 기본: Redis 해시 하나(tokens, ts)를 Lua 스크립트로 "읽기 → 채우기 → 차감 → 저장" 을 원자적으로 수행
+ *   → 여러 인스턴스가 같은 사용자 버킷을 공유, 시각은 Redis TIME 을 사용해 서버 간 시계 차이 영향 없음
+ * - 키는 버킷이 가득 찰 때까지 걸리는 시간 + 여유 후 만료 → 쉬는 사용자의 키가 쌓이지 않음
+ * - Redis 오류 시 redis-retry-millis 동안 JVM 버킷으로 판정 (인스턴스별 제한이라 전체 허용량은 인스턴스 수만큼 늘어남)
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimiter {
+
+    private static final RedisScript<List> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>("""
+            local capacity = tonumber(ARGV[1])
+            local refill_per_ms = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(state[1])
+            local ts = tonumber(state[2])
+            if tokens == nil or ts == nil then
+                tokens = capacity
+                ts = now
+            end
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * refill_per_ms)
+
+            local allowed = 0
+            local retry_after = 0
+            if tokens >= 1 then
+                tokens = tokens - 1
+                allowed = 1
+            else
+                retry_after = math.ceil((1 - tokens) / refill_per_ms)
+            end
+
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / refill_per_ms) + 1000)
+            return { allowed, math.floor(tokens), retry_after }
+            """, List.class);
+
+    // JVM 버킷 정리 기준 (이 개수를 넘으면 가득 찬 버킷부터 제거)
+    private static final int LOCAL_CLEANUP_THRESHOLD = 10_000;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RateLimitProperties properties;
+
+    private final Map<String, TokenBucket> localBuckets = new ConcurrentHashMap<>();
+    private volatile long redisDisabledUntil;
+
+    private final Map<String, AtomicLong> allowed = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> rejected = new ConcurrentHashMap<>();
+    private final AtomicLong redisErrors = new AtomicLong();
+    private final AtomicLong localDecisions = new AtomicLong();
+
+    /**
+     * ✅ route 버킷에서 토큰 1개 사용 시도
+     */
+    public TokenBucket.Result tryAcquire(RateLimitProperties.Route route, String clientKey) {
+        String key = properties.getKeyPrefix() + route.getName() + ":" + clientKey;
+
+        TokenBucket.Result result = null;
+        if (properties.isRedisEnabled() && System.currentTimeMillis() >= redisDisabledUntil) {
+            result = tryAcquireRedis(route, key);
+        }
+        if (result == null) {
+            localDecisions.incrementAndGet();
+            result = tryAcquireLocal(route, key);
+        }
+
+        (result.allowed() ? allowed : rejected).computeIfAbsent(route.getName(), k -> new AtomicLong()).incrementAndGet();
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isEnabled());
+        result.put("redisEnabled", properties.isRedisEnabled());
+        result.put("redisAvailable", System.currentTimeMillis() >= redisDisabledUntil);
+        result.put("redisErrors", redisErrors.get());
+        result.put("localDecisions", localDecisions.get());
+        result.put("localBuckets", localBuckets.size());
+
+        Map<String, Object> routes = new LinkedHashMap<>();
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("patterns", route.getPatterns());
+            stats.put("capacity", route.getCapacity());
+            stats.put("refillPerMinute", route.getRefillPerMinute());
+            stats.put("key", route.getKey());
+            stats.put("allowed", allowed.getOrDefault(route.getName(), new AtomicLong()).get());
+            stats.put("rejected", rejected.getOrDefault(route.getName(), new AtomicLong()).get());
+            routes.put(route.getName(), stats);
+        }
+        result.put("routes", routes);
+        return result;
+    }
+
+    private TokenBucket.Result tryAcquireRedis(RateLimitProperties.Route route, String key) {
+        try {
+            List<?> reply = stringRedisTemplate.execute(TOKEN_BUCKET_SCRIPT, List.of(key),
+                    String.valueOf(route.getCapacity()), String.valueOf(route.refillPerMillis()));
+            if (reply == null || reply.size() < 3) throw new IllegalStateException("Lua 응답 형식 오류: " + reply);
+            return new TokenBucket.Result(
+                    ((Number) reply.get(0)).longValue() == 1L,
+                    ((Number) reply.get(1)).longValue(),
+                    ((Number) reply.get(2)).longValue());
+        } catch (RuntimeException e) {
+            redisErrors.incrementAndGet();
+            redisDisabledUntil = System.currentTimeMillis() + properties.getRedisRetryMillis();
+            log.warn("⚠️ [RATE-LIMIT] Redis 판정 실패 → {}ms 동안 JVM 버킷 사용: {}", properties.getRedisRetryMillis(), e.getMessage());
+            return null;
+        }
+    }
+
+    private TokenBucket.Result tryAcquireLocal(RateLimitProperties.Route route, String key) {
+        long now = System.currentTimeMillis();
+        if (localBuckets.size() > LOCAL_CLEANUP_THRESHOLD) {
+            localBuckets.values().removeIf(bucket -> bucket.isIdle(now));
+        }
+        return localBuckets
+                .computeIfAbsent(key, k -> new TokenBucket(route.getCapacity(), route.refillPerMillis(), now))
+                .tryAcquire(now);
+    }
+}
@@ -0,0 +1,54 @@
+package com.onshop.shop.security;
+
+/**
+ * ✅ 토큰 버킷 한 개 (Redis Lua 스크립트와 같은 계산을 JVM 안에서 수행 — Redis 장애 시 fallback)
+ *
+ * - 버킷은 capacity 개까지 토큰을 담고, 경과 시간(ms) × refillPerMillis 만큼 다시 채워짐
+ * - 요청 1건 = 토큰 1개. 모자라면 거절하고 토큰 1개가 찰 때까지 남은 시간을 Retry-After 로 돌려줌
+ * - 동기화는 버킷 단위 (같은 키끼리만 경합)
+ */
+final class TokenBucket {
+
+    /**
+     * 판정 결과 (허용 여부, 남은 토큰 수, 다시 시도할 수 있을 때까지 ms)
+     */
+    record Result(boolean allowed, long remaining, long retryAfterMillis) {
+    }
+
+    private final long capacity;
+    private final double refillPerMillis;
+    private double tokens;
+    private long lastRefillMillis;
+
+    TokenBucket(long capacity, double refillPerMillis, long nowMillis) {
+        this.capacity = capacity;
+        this.refillPerMillis = refillPerMillis;
+        this.tokens = capacity;
+        this.lastRefillMillis = nowMillis;
+    }
+
+    synchronized Result tryAcquire(long nowMillis) {
+        refill(nowMillis);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return new Result(true, (long) tokens, 0L);
+        }
+        long retryAfter = refillPerMillis > 0 ? (long) Math.ceil((1 - tokens) / refillPerMillis) : Long.MAX_VALUE;
+        return new Result(false, 0L, retryAfter);
+    }
+
+    /**
+     * 가득 찬 채로 오래 쓰이지 않은 버킷인지 (메모리 정리 대상)
+     */
+    synchronized boolean isIdle(long nowMillis) {
+        refill(nowMillis);
+        return tokens >= capacity;
+    }
+
+    private void refill(long nowMillis) {
+        long elapsed = nowMillis - lastRefillMillis;
+        if (elapsed <= 0) return;
+        tokens = Math.min(capacity, tokens + elapsed * refillPerMillis);
+        lastRefillMillis = nowMillis;
+    }
+}
@@ -0,0 +1,234 @@
+package com.onshop.shop.vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ✅ 메모리 내 BM25 역색인 (상품 키워드 검색용)
+ *
+ * - 토큰: 소문자화한 단어 + 단어별 문자 2-gram
+ *   (한글은 띄어쓰기가 들쭉날쭉해서 "단백질쉐이크" 와 "단백질 쉐이크" 가 2-gram 으로 서로 매칭됨)
+ * - 문서 번호는 내부 int 로 증가만 하므로 postings 는 항상 정렬된 상태로 뒤에 붙음
+ * - 수정 = 기존 문서 tombstone + 새 문서 추가. tombstone 은 재구축 시 정리
+ * - idf 는 tombstone 을 뺀 용어별 살아있는 문서 수(live df)로 계산 (삭제가 쌓여도 음수가 되지 않음)
+ * - 점수 누적 배열은 스레드별로 재사용 (질의마다 문서 수만큼 할당하지 않음)
+ */
+public class Bm25Index {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> docByProductId = new HashMap<>();
+    private long[] productIds = new long[1024];
+    private int[] docLengths = new int[1024];
+    private Postings[][] docTerms = new Postings[1024][]; // 문서별 용어 postings (삭제 시 live df 감소용)
+    private final BitSet deleted = new BitSet();
+    private int docCount;
+    private int liveCount;
+    private long totalLength;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private static final ThreadLocal<Accumulator> ACCUMULATOR = ThreadLocal.withInitial(Accumulator::new);
+
+    public void upsert(long productId, String text) {
+        List<String> tokens = tokenize(text);
+
+        Map<String, Integer> tf = new HashMap<>();
+        for (String token : tokens) tf.merge(token, 1, Integer::sum);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+
+            int doc = docCount++;
+            if (doc == productIds.length) {
+                productIds = Arrays.copyOf(productIds, doc * 2);
+                docLengths = Arrays.copyOf(docLengths, doc * 2);
+                docTerms = Arrays.copyOf(docTerms, doc * 2);
+            }
+            productIds[doc] = productId;
+            docLengths[doc] = tokens.size();
+            docByProductId.put(productId, doc);
+            totalLength += tokens.size();
+            liveCount++;
+
+            Postings[] terms = new Postings[tf.size()];
+            int t = 0;
+            for (Map.Entry<String, Integer> e : tf.entrySet()) {
+                Postings p = postings.computeIfAbsent(e.getKey(), k -> new Postings());
+                p.add(doc, e.getValue());
+                terms[t++] = p;
+            }
+            docTerms[doc] = terms;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * ✅ BM25 점수 상위 k개 상품 ID (점수 내림차순)
+     */
+    public List<Long> search(String query, int k) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty() || k <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0) return List.of();
+
+            Accumulator acc = ACCUMULATOR.get();
+            acc.reset(docCount);
+            float avgLength = (float) totalLength / liveCount;
+
+            for (String term : terms) {
+                Postings p = postings.get(term);
+                if (p == null || p.live == 0) continue;
+                double idf = Math.log(1 + (liveCount - p.live + 0.5) / (p.live + 0.5));
+                for (int i = 0; i < p.size; i++) {
+                    int doc = p.docs[i];
+                    if (deleted.get(doc)) continue;
+                    int tf = p.freqs[i];
+                    float norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+                    acc.add(doc, (float) (idf * tf * (K1 + 1) / (tf + norm)));
+                }
+            }
+
+            PriorityQueue<int[]> heap = new PriorityQueue<>(k + 1,
+                    (a, b) -> Float.compare(acc.scores[a[0]], acc.scores[b[0]]));
+            for (int i = 0; i < acc.touchedCount; i++) {
+                int doc = acc.touched[i];
+                heap.offer(new int[] {doc});
+                if (heap.size() > k) heap.poll();
+            }
+
+            Long[] result = new Long[heap.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = productIds[heap.poll()[0]];
+            }
+            return Arrays.asList(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int deletedCount() {
+        lock.readLock().lock();
+        try {
+            return docCount - liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 소문자 단어 + 단어별 문자 2-gram (글자/숫자 이외 문자는 구분자)
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean letter = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                String word = lower.substring(start, i);
+                tokens.add(word);
+                for (int j = 0; j + 2 <= word.length(); j++) {
+                    tokens.add("#" + word.substring(j, j + 2)); // 단어 토큰과 구분
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private void removeLocked(long productId) {
+        Integer old = docByProductId.remove(productId);
+        if (old != null) {
+            deleted.set(old);
+            totalLength -= docLengths[old];
+            liveCount--;
+            for (Postings p : docTerms[old]) p.live--;
+            docTerms[old] = null;
+        }
+    }
+
+    private static final class Postings {
+        int[] docs = new int[4];
+        int[] freqs = new int[4];
+        int size;
+        int live; // tombstone 을 뺀 문서 수
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+            live++;
+        }
+    }
+
+    private static final class Accumulator {
+        float[] scores = new float[0];
+        int[] touched = new int[0];
+        int touchedCount;
+
+        void reset(int docCount) {
+            for (int i = 0; i < touchedCount; i++) scores[touched[i]] = 0f;
+            touchedCount = 0;
+            if (scores.length < docCount) {
+                scores = new float[docCount];
+                touched = new int[docCount];
+            }
+        }
+
+        void add(int doc, float score) {
+            if (scores[doc] == 0f) touched[touchedCount++] = doc;
+            scores[doc] += score;
+        }
+    }
+}
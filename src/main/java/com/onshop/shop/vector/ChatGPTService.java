@@ -2,10 +2,9 @@ package com.onshop.shop.vector;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Flux;
+
 import java.util.*;
 
 import com.onshop.shop.product.Product;
@@ -21,20 +20,32 @@ public class ChatGPTService {
 	
 
 	
-    @Value("${openai.api.key}")
-    private String openAiApiKey;
     private final ProductRepository productRepository;
+    private final RagQueryCache ragQueryCache;
+    private final OpenAIClient openAIClient;
 
     
-    private static final String GPT_API_URL = "https://api.openai.com/v1/chat/completions";
     private static final String MODEL = "gpt-4o-mini"; //"gpt-3.5-turbo"; // 또는 "gpt-4-turbo"
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // 추천 이유 프롬프트에 넣는 설명 앞부분 길이 (상세 설명 전체를 보내면 토큰 / 지연이 커짐)
+    private static final int REASON_DESCRIPTION_CHARS = 200;
 
     /**
      * 자연어 → 구조화된 쿼리 문자열 변환
+     * (같은 질문은 RagQueryCache 에서 재사용, 동시 요청은 GPT 호출 1회로 병합)
      */
     public String rewriteToStructuredQuery(String userPrompt) {
+        try {
+            return ragQueryCache.structuredQuery(userPrompt, () -> requestStructuredQuery(userPrompt));
+        } catch (Exception e) {
+            log.error("❌ GPT API 요청 실패: {}", e.getMessage());
+            return "안댔서..ㅠ"; // fallback
+        }
+    }
+
+    private String requestStructuredQuery(String userPrompt) {
     	
     	String systemPrompt = """
     			사용자의 자연어 요청을 다음과 같은 형식으로 바꿔줘:
@@ -88,29 +99,146 @@ public class ChatGPTService {
         ));
         body.put("temperature", 0.2);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(openAiApiKey);
+        String content = openAIClient.chat(body);
+        log.info("💬 GPT 응답: {}", content);
+        return content.trim();
+    }
+    
+    
+    /**
+     * 구조화 쿼리 형식 검사 ("키워드... 추천개수 평균가격 표준편차")
+     */
+    public boolean isValidStructuredQuery(String rewritten) {
+        if (rewritten == null || rewritten.isBlank()) return false;
+
+        String[] tokens = rewritten.trim().split(" ");
+        if (tokens.length < 4) return false;
+
+        // 마지막 3개는 반드시 숫자여야 함
+        for (int i = tokens.length - 3; i < tokens.length; i++) {
+            if (!tokens[i].matches("\\d+")) return false;
+        }
+
+        // 두 번째 숫자가 0이면 비정상으로 간주
+        if (tokens.length >= 2 && tokens[1].equals("0")) return false;
 
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
+        return true;
+    }
+
+    public Map<String, Object> rerankWithGpt(List<Long> productIds, String originalQuery) {
+        return rerankProductsWithGpt(productRepository.findAllById(productIds), originalQuery);
+    }
+
+    /**
+     * 호출자가 이미 조회한 상품 목록으로 재정렬 (MySQL 재조회 없음)
+     */
+    public Map<String, Object> rerankProductsWithGpt(List<Product> products, String originalQuery) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("model", MODEL);
+        body.put("messages", List.of(
+                Map.of("role", "user", "content", buildRerankPrompt(products, originalQuery))
+        ));
+        body.put("temperature", 0.3);
 
         try {
-            ResponseEntity<Map> response = restTemplate.postForEntity(GPT_API_URL, request, Map.class);
-            List<Map<String, Object>> choices = (List<Map<String, Object>>) response.getBody().get("choices");
-            Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
-            String content = (String) message.get("content");
-            log.info("💬 GPT 응답: {}", content);
-            return content.trim();
+            String content = openAIClient.chat(body);
+
+            log.info("\n🧠 GPT 재정렬 응답: {}", content);
+            return parseRerankResult(content);
+
         } catch (Exception e) {
-            log.error("❌ GPT API 요청 실패: {}", e.getMessage());
-            return "안댔서..ㅠ"; // fallback
+            log.error("❌ GPT 재정렬 실패: {}", e.getMessage());
+            return rerankFailure();
         }
     }
-    
-    
-    public Map<String, Object> rerankWithGpt(List<Long> productIds, String originalQuery) {
-        List<Product> products = productRepository.findAllById(productIds);
 
+    /**
+     * ✅ 재정렬 응답을 토큰(delta) 단위로 스트리밍 (stream=true)
+     * 호출자가 이미 조회한 상품 목록을 받아 MySQL 재조회 없이 프롬프트 구성
+     */
+    public Flux<String> streamRerankWithGpt(List<Product> products, String originalQuery) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("model", MODEL);
+        body.put("messages", List.of(
+                Map.of("role", "user", "content", buildRerankPrompt(products, originalQuery))
+        ));
+        body.put("temperature", 0.3);
+
+        return openAIClient.streamChat(body);
+    }
+
+    /**
+     * ✅ 순서가 이미 정해진 상품(로컬 재정렬 결과)의 추천 이유만 요청
+     * 고른 상품만, 설명은 앞부분만 보내서 재정렬 프롬프트보다 입력 / 출력 토큰이 훨씬 적음
+     */
+    public Map<String, Object> explainWithGpt(List<Product> products, String originalQuery) {
+        return parseRerankResult(openAIClient.chat(reasonBody(products, originalQuery)));
+    }
+
+    public Flux<String> streamExplainWithGpt(List<Product> products, String originalQuery) {
+        return openAIClient.streamChat(reasonBody(products, originalQuery));
+    }
+
+    private Map<String, Object> reasonBody(List<Product> products, String originalQuery) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("model", MODEL);
+        body.put("messages", List.of(
+                Map.of("role", "user", "content", buildReasonPrompt(products, originalQuery))
+        ));
+        body.put("temperature", 0.3);
+        return body;
+    }
+
+    /**
+     * GPT 응답 문자열 → JSON Map (실패 시 기본 오류 응답)
+     */
+    public Map<String, Object> parseRerankResult(String content) {
+        try {
+            return MAPPER.readValue(content, Map.class);
+        } catch (Exception e) {
+            log.error("❌ GPT 재정렬 응답 파싱 실패: {}", e.getMessage());
+            return rerankFailure();
+        }
+    }
+
+    private Map<String, Object> rerankFailure() {
+        return Map.of(
+                "class", 0,
+                "sender", "bot",
+                "text", "추천 응답 처리 중 오류가 발생했어요."
+        );
+    }
+
+    private String buildReasonPrompt(List<Product> products, String originalQuery) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("아래는 사용자의 요청과 이미 추천 순서가 정해진 상품들입니다."
+                + "상품을 빼거나 순서를 바꾸지 말고 각 상품의 추천 이유만 한줄 이내로 간결하게 써줘.\n");
+        sb.append("사용자 요청: ").append(originalQuery).append("\n\n");
+
+        for (int i = 0; i < products.size(); i++) {
+            Product p = products.get(i);
+            String description = p.getDescription() == null ? "" : p.getDescription();
+            sb.append("[상품 ").append(i + 1).append("]\n");
+            sb.append("ID: ").append(p.getProductId()).append("\n");
+            sb.append("상품명: ").append(p.getName()).append("\n");
+            sb.append("설명: ").append(description, 0, Math.min(description.length(), REASON_DESCRIPTION_CHARS)).append("\n");
+            sb.append("가격: ").append(p.getPrice()).append("원\n\n");
+        }
+
+        sb.append("대답은 반드시 다음 예시와 같은 json 형태에 담아서 할것"
+                + "{\n"
+                + "  \"class\": 1,\n"
+                + "  \"sender\": \"bot\",\n"
+                + "  \"text\": \"김치를 추천해요!\",\n"
+                + "  \"recommendation\": [\n"
+                + "    { \"productId\": 289, \"reason\": \"국내산 김치로 맛이 깊어요.\" }\n"
+                + "  ]\n"
+                + "}"
+        );
+        return sb.toString();
+    }
+
+    private String buildRerankPrompt(List<Product> products, String originalQuery) {
         StringBuilder sb = new StringBuilder();
         sb.append("아래는 사용자의 요청과 추천 가능한 상품들입니다."
                 + "사용자 요청에 가장 적합한 순서로 3~5개를 골라 추천하고"
@@ -147,39 +275,6 @@ public class ChatGPTService {
                 + "  ]\n"
                 + "}"
         );
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("model", MODEL);
-        body.put("messages", List.of(
-                Map.of("role", "user", "content", sb.toString())
-        ));
-        body.put("temperature", 0.3);
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(openAiApiKey);
-
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
-
-        try {
-            ResponseEntity<Map> response = restTemplate.postForEntity(GPT_API_URL, request, Map.class);
-            List<Map<String, Object>> choices = (List<Map<String, Object>>) response.getBody().get("choices");
-            Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
-            String content = (String) message.get("content");
-
-            log.info("\n🧠 GPT 재정렬 응답: {}", content);
-
-            // 응답 문자열을 실제 JSON으로 파싱
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.readValue(content, Map.class);
-
-        } catch (Exception e) {
-            log.error("❌ GPT 재정렬 실패: {}", e.getMessage());
-            return Map.of(
-                    "class", 0,
-                    "sender", "bot",
-                    "text", "추천 응답 처리 중 오류가 발생했어요."
-            );
-        }
+        return sb.toString();
     }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.onshop.shop.vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * ✅ 유사 사용자 목록 → 추천 후보 점수 계산 / 인기 상품 보충
+ *
+ * - 유사 사용자 조회 결과 행은 (user_id, product_ids) 형태 (findTopUsersBy...Similarity)
+ * - 순위 r(0부터)의 이웃이 담은 상품마다 1 / (r + 1) 점 → avg / recent 두 목록 점수를 합산
+ * - 점수 내림차순, 같은 점수는 먼저 등장한 상품 우선 (기존 LinkedHashSet 순서와 동일)
+ */
+final class CollaborativeCandidates {
+
+    private CollaborativeCandidates() {
+    }
+
+    /**
+     * ✅ 이웃 user_id 목록 (자기 자신 제외, 중복 제거, 등장 순)
+     */
+    static long[] neighbours(Long userId, List<Object[]> avgUsers, List<Object[]> recentUsers) {
+        Set<Long> result = new LinkedHashSet<>();
+        for (List<Object[]> rows : List.of(avgUsers, recentUsers)) {
+            for (Object[] row : rows) {
+                Long otherUserId = ((Number) row[0]).longValue();
+                if (!Objects.equals(otherUserId, userId)) result.add(otherUserId);
+            }
+        }
+        return toArray(result);
+    }
+
+    /**
+     * ✅ 이웃 순위 가중치로 점수를 매긴 후보 상품 (이미 담은 상품 제외, 최대 maxCandidates 개)
+     */
+    static long[] score(Long userId, List<Object[]> avgUsers, List<Object[]> recentUsers,
+                        Set<Long> owned, int maxCandidates) {
+        Map<Long, Float> scores = new LinkedHashMap<>();
+        accumulate(userId, avgUsers, owned, scores);
+        accumulate(userId, recentUsers, owned, scores);
+
+        return scores.entrySet().stream()
+                .sorted((a, b) -> Float.compare(b.getValue(), a.getValue()))
+                .limit(Math.max(0, maxCandidates))
+                .mapToLong(Map.Entry::getKey)
+                .toArray();
+    }
+
+    /**
+     * ✅ 후보 상위 topK, 부족하면 인기 상품 순서대로 보충 (담은 상품 / 이미 넣은 상품 제외)
+     */
+    static List<Long> pad(long[] candidates, long[] owned, long[] popular, int topK) {
+        List<Long> result = new ArrayList<>(Math.max(0, topK));
+        Set<Long> seen = new HashSet<>();
+        for (long id : owned) seen.add(id);
+
+        for (long id : candidates) {
+            if (result.size() >= topK) return result;
+            if (seen.add(id)) result.add(id);
+        }
+        for (long id : popular) {
+            if (result.size() >= topK) break;
+            if (seen.add(id)) result.add(id);
+        }
+        return result;
+    }
+
+    /**
+     * ✅ product_ids 컬럼 값(Object[] / java.sql.Array 변환 결과) → long[]
+     */
+    static long[] productIds(Object raw) {
+        if (!(raw instanceof Object[] objects)) return new long[0];
+        return Arrays.stream(objects)
+                .filter(Objects::nonNull)
+                .mapToLong(obj -> ((Number) obj).longValue())
+                .toArray();
+    }
+
+    static long[] toArray(Collection<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static void accumulate(Long userId, List<Object[]> rows, Set<Long> owned, Map<Long, Float> scores) {
+        int rank = 0;
+        for (Object[] row : rows) {
+            Long otherUserId = ((Number) row[0]).longValue();
+            if (Objects.equals(otherUserId, userId)) continue;
+
+            float weight = 1f / (rank + 1);
+            rank++;
+            for (long productId : productIds(row[1])) {
+                if (owned.contains(productId)) continue;
+                scores.merge(productId, weight, Float::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.onshop.shop.vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
+/**
+ * ✅ 압축 임베딩 저장소 (int8 스칼라 양자화 / PQ)
+ *
+ * - INT8: 벡터마다 scale = max|x| / 127 로 나눠 1바이트 정수로 저장 (1536차원 6KB → 약 1.5KB)
+ *   근사 거리 = scale²·|c|² - 2·(q·x)  (|q|² 는 순위에 영향 없어 생략, q 도 int8 로 바꿔 정수 내적)
+ * - PQ: ProductQuantizer 코드 (1536차원 / 96구간 → 96바이트), 질의별 거리표로 계산
+ * - 후보는 압축 코드로만 고르고, 상위 rerankDepth 개만 원본 float 벡터(product_vector)로 다시 정렬
+ * - 삭제는 tombstone, 같은 id 재등록 시 기존 슬롯 삭제 후 새 슬롯 사용 (HnswIndex 와 동일)
+ */
+public class CompressedVectorStore {
+
+    public enum Mode { INT8, PQ }
+
+    // id(long) + HashMap<Long, Integer> 엔트리(Long/Integer 박싱 포함) 대략치
+    private static final int ID_OVERHEAD_BYTES = Long.BYTES + 64;
+
+    private final int dimension;
+    private final Mode mode;
+    private final ProductQuantizer quantizer;
+    private final int codeSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+
+    private long[] ids = new long[1024];
+    private byte[] codes;
+    private float[] scales = new float[1024];        // INT8 전용
+    private float[] squaredNorms = new float[1024];  // INT8 전용 (scale²·|c|²)
+    private int slotCount;
+
+    public CompressedVectorStore(int dimension, Mode mode, ProductQuantizer quantizer) {
+        if (mode == Mode.PQ && (quantizer == null || quantizer.dimension() != dimension)) {
+            throw new IllegalArgumentException("PQ 모드에는 같은 차원의 학습된 코드북이 필요합니다.");
+        }
+        this.dimension = dimension;
+        this.mode = mode;
+        this.quantizer = quantizer;
+        this.codeSize = mode == Mode.PQ ? quantizer.bytesPerVector() : dimension;
+        this.codes = new byte[1024 * codeSize];
+    }
+
+    public void upsert(long id, float[] vector) {
+        if (vector == null || vector.length != dimension) {
+            throw new IllegalArgumentException("벡터 차원이 맞지 않습니다: " + (vector == null ? 0 : vector.length));
+        }
+        byte[] code = new byte[codeSize];
+        float scale = 0f, squaredNorm = 0f;
+        if (mode == Mode.PQ) {
+            quantizer.encode(vector, code, 0);
+        } else {
+            scale = quantizeInto(vector, code);
+            long sum = 0;
+            for (byte q : code) sum += q * q;
+            squaredNorm = scale * scale * sum;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer previous = slotById.get(id);
+            if (previous != null) deleted.set(previous);
+
+            int slot = slotCount++;
+            if (slot == ids.length) {
+                int capacity = slot * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                scales = Arrays.copyOf(scales, capacity);
+                squaredNorms = Arrays.copyOf(squaredNorms, capacity);
+                codes = Arrays.copyOf(codes, capacity * codeSize);
+            }
+            ids[slot] = id;
+            scales[slot] = scale;
+            squaredNorms[slot] = squaredNorm;
+            System.arraycopy(code, 0, codes, slot * codeSize, codeSize);
+            slotById.put(id, slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.remove(id);
+            if (slot == null) return false;
+            deleted.set(slot);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * ✅ 압축 코드로 근사 상위 rerankDepth 개를 고른 뒤, 원본 벡터로 다시 정렬해 상위 k개
+     *
+     * @param fullVectors 후보 id → 원본 float 벡터 (없는 id 는 삭제된 것으로 보고 제외), null 이면 재정렬 생략
+     */
+    public List<Long> search(float[] query, int k, int rerankDepth,
+                             Function<List<Long>, Map<Long, float[]>> fullVectors, LongPredicate filter) {
+        List<Long> candidates = approximateSearch(query, Math.max(k, rerankDepth), filter);
+        if (fullVectors == null || candidates.isEmpty()) {
+            return candidates.size() <= k ? candidates : new ArrayList<>(candidates.subList(0, k));
+        }
+
+        Map<Long, float[]> vectors = fullVectors.apply(candidates);
+        TopK top = new TopK(k);
+        for (int i = 0; i < candidates.size(); i++) {
+            float[] v = vectors.get(candidates.get(i));
+            if (v == null || v.length != dimension) continue;
+            top.offer(i, VectorKernels.squaredL2(query, v));
+        }
+        List<Long> result = new ArrayList<>(top.size);
+        for (int index : top.sortedSlots()) result.add(candidates.get(index));
+        return result;
+    }
+
+    /**
+     * ✅ 압축 코드만으로 근사 거리 상위 n개 (가까운 순)
+     */
+    public List<Long> approximateSearch(float[] query, int n, LongPredicate filter) {
+        if (query == null || query.length != dimension || n <= 0) return List.of();
+
+        float[] table = mode == Mode.PQ ? quantizer.distanceTable(query) : null;
+        byte[] queryCode = null;
+        float queryScale = 0f;
+        if (mode == Mode.INT8) {
+            // 질의도 int8 로 바꿔 정수 내적만 수행 (오차는 재정렬 단계에서 보정)
+            queryCode = new byte[dimension];
+            queryScale = quantizeInto(query, queryCode);
+        }
+
+        lock.readLock().lock();
+        try {
+            TopK top = new TopK(n);
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (deleted.get(slot)) continue;
+                if (filter != null && !filter.test(ids[slot])) continue;
+                float d = table != null
+                        ? quantizer.distance(table, codes, slot * codeSize)
+                        : squaredNorms[slot] - 2f * scales[slot] * queryScale * int8Dot(queryCode, slot);
+                top.offer(slot, d);
+            }
+            List<Long> result = new ArrayList<>(top.size);
+            for (int slot : top.sortedSlots()) result.add(ids[slot]);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * ✅ 살아있는 id 중 무작위 샘플 (recall 측정용)
+     */
+    public List<Long> sampleIds(int count) {
+        lock.readLock().lock();
+        try {
+            List<Long> all = new ArrayList<>(slotById.keySet());
+            if (all.size() <= count) return all;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < count; i++) {
+                int j = i + random.nextInt(all.size() - i);
+                Long tmp = all.get(i);
+                all.set(i, all.get(j));
+                all.set(j, tmp);
+            }
+            return new ArrayList<>(all.subList(0, count));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 삭제(tombstone)된 슬롯 수 — 재구축 전까지 메모리에 남아 있음
+     */
+    public int deletedCount() {
+        lock.readLock().lock();
+        try {
+            return slotCount - slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * ✅ 상품 1개당 압축 데이터 크기 (코드 + INT8 의 scale / norm)
+     */
+    public int bytesPerVector() {
+        return mode == Mode.PQ ? codeSize : codeSize + 2 * Float.BYTES;
+    }
+
+    /**
+     * ✅ 상품 n개 기준 예상 메모리 (코드 + id 매핑 + 코드북)
+     */
+    public long estimatedBytes(long vectors) {
+        long codebook = quantizer == null ? 0 : quantizer.codebookBytes();
+        return vectors * (bytesPerVector() + ID_OVERHEAD_BYTES) + codebook;
+    }
+
+    private int int8Dot(byte[] queryCode, int slot) {
+        return VectorKernels.dot(queryCode, 0, codes, slot * codeSize, dimension);
+    }
+
+    /**
+     * 벡터 → int8 코드 (scale = max|x| / 127), scale 반환
+     */
+    private static float quantizeInto(float[] vector, byte[] out) {
+        float maxAbs = 0f;
+        for (float v : vector) maxAbs = Math.max(maxAbs, Math.abs(v));
+        float scale = maxAbs == 0f ? 1f : maxAbs / 127f;
+        for (int i = 0; i < vector.length; i++) {
+            out[i] = (byte) Math.round(vector[i] / scale);
+        }
+        return scale;
+    }
+
+    /**
+     * 거리 기준 상위 n개 (배열 기반 max-heap, 후보마다 객체를 만들지 않음)
+     */
+    private static final class TopK {
+        final int capacity;
+        final int[] slots;
+        final float[] distances;
+        int size;
+
+        TopK(int capacity) {
+            this.capacity = capacity;
+            this.slots = new int[capacity];
+            this.distances = new float[capacity];
+        }
+
+        void offer(int slot, float distance) {
+            if (size < capacity) {
+                slots[size] = slot;
+                distances[size] = distance;
+                siftUp(size++);
+            } else if (distance < distances[0]) {
+                slots[0] = slot;
+                distances[0] = distance;
+                siftDown(0);
+            }
+        }
+
+        int[] sortedSlots() {
+            int[] result = new int[size];
+            int n = size;
+            for (int i = n - 1; i >= 0; i--) {
+                result[i] = slots[0];
+                size--;
+                slots[0] = slots[size];
+                distances[0] = distances[size];
+                siftDown(0);
+            }
+            return result;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (distances[parent] >= distances[i]) break;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = i * 2 + 1, right = left + 1, largest = i;
+                if (left < size && distances[left] > distances[largest]) largest = left;
+                if (right < size && distances[right] > distances[largest]) largest = right;
+                if (largest == i) return;
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int s = slots[a];
+            slots[a] = slots[b];
+            slots[b] = s;
+            float d = distances[a];
+            distances[a] = distances[b];
+            distances[b] = d;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.onshop.shop.vector;
+
+import java.util.List;
+
+/**
+ * ✅ 텍스트 → 임베딩 벡터 변환 SPI
+ *
+ * - OpenAIEmbeddingProvider  : 기본. OpenAI embeddings API 호출
+ * - HashingEmbeddingProvider : "offline" 프로필. 네트워크 없이 문자 n-gram 해싱으로 같은 차원의 벡터 생성 (부하 테스트용)
+ */
+public interface EmbeddingProvider {
+
+    float[] embed(String text);
+
+    /**
+     * 결과 순서 = 입력 순서
+     */
+    List<float[]> embedAll(List<String> texts);
+
+    String name();
+}
@@ -0,0 +1,127 @@
+package com.onshop.shop.vector;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * ✅ 네트워크 없이 동작하는 결정적(deterministic) 임베딩 — "offline" 프로필 전용
+ *
+ * - 텍스트를 공백 기준 단어로 나누고, 단어 자체 + 단어 경계를 포함한 문자 2/3-gram 을 feature 로 사용
+ * - 각 feature 를 해시하여 차원 인덱스와 부호(±1)를 정함 (feature hashing) → 마지막에 L2 정규화
+ * - 같은 입력은 항상 같은 벡터, 글자가 많이 겹치는 문장일수록 코사인 유사도가 높음
+ * - 의미 품질은 OpenAI 에 못 미치므로 파이프라인 처리량 / 지연시간 측정 용도로만 사용
+ *
+ * 실행 예: --spring.profiles.active=dev,offline
+ */
+@Component
+@Profile("offline")
+@Slf4j
+public class HashingEmbeddingProvider implements EmbeddingProvider {
+
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float NGRAM_WEIGHT = 0.5f;
+
+    private final int dimension;
+
+    public HashingEmbeddingProvider(@Value("${vector.dimension:1536}") int dimension) {
+        this.dimension = dimension;
+        log.info("🧪 [EMBEDDING] offline 프로필 → n-gram 해싱 임베딩 사용 ({}차원)", dimension);
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[dimension];
+        char[] chars = normalize(text);
+
+        int start = 0;
+        for (int i = 0; i <= chars.length; i++) {
+            if (i == chars.length || chars[i] == ' ') {
+                if (i > start) addWord(vector, chars, start, i);
+                start = i + 1;
+            }
+        }
+
+        double norm = VectorKernels.dot(vector, vector);
+        if (norm == 0) {
+            vector[0] = 1f; // 빈 입력도 코사인 계산이 가능한 단위 벡터로
+            return vector;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < dimension; i++) vector[i] *= scale;
+        return vector;
+    }
+
+    @Override
+    public List<float[]> embedAll(List<String> texts) {
+        List<float[]> result = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            result.add(embed(text));
+        }
+        return result;
+    }
+
+    @Override
+    public String name() {
+        return "hashing";
+    }
+
+    /**
+     * 단어 [start, end) 하나에 대해: 단어 전체 + 경계(^,$)를 붙인 2-gram / 3-gram
+     */
+    private void addWord(float[] vector, char[] chars, int start, int end) {
+        add(vector, wordHash(chars, start, end), WORD_WEIGHT);
+
+        for (int n = 2; n <= 3; n++) {
+            // 경계 문자를 포함한 가상 시퀀스: ^ + word + $
+            int length = end - start + 2;
+            for (int from = 0; from + n <= length; from++) {
+                int h = 0x811C9DC5 ^ n;
+                for (int k = from; k < from + n; k++) {
+                    char c = k == 0 ? '^' : k == length - 1 ? '$' : chars[start + k - 1];
+                    h = (h ^ c) * 0x01000193;
+                }
+                add(vector, mix(h), NGRAM_WEIGHT);
+            }
+        }
+    }
+
+    private void add(float[] vector, int h, float weight) {
+        int index = (h >>> 1) % dimension;
+        vector[index] += (h & 1) == 0 ? weight : -weight;
+    }
+
+    private static int wordHash(char[] chars, int start, int end) {
+        int h = 0x811C9DC5 ^ 0x9E3779B9; // n-gram 해시와 다른 시드
+        for (int i = start; i < end; i++) {
+            h = (h ^ chars[i]) * 0x01000193; // FNV-1a
+        }
+        return mix(h);
+    }
+
+    /**
+     * murmur3 fmix32 — FNV 하위 비트 편향 제거
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static char[] normalize(String text) {
+        if (text == null) return new char[0];
+        char[] chars = text.toLowerCase(Locale.ROOT).toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (Character.isWhitespace(chars[i])) chars[i] = ' ';
+        }
+        return chars;
+    }
+}
@@ -0,0 +1,490 @@
+package com.onshop.shop.vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * ✅ JVM 메모리 위에서 동작하는 HNSW(Hierarchical Navigable Small World) 근사 최근접 이웃 인덱스
+ *
+ * - 거리 기준은 L2 제곱 거리 → 상품 임베딩은 단위 벡터라 |a-b|² = 2 - 2cos 로 PGVector `<=>`(코사인) 정렬 순서와 동일
+ * - M / efConstruction / efSearch 로 정확도와 속도를 조절
+ * - 삭제는 tombstone 방식 (그래프 연결은 유지하고 검색 결과에서만 제외)
+ * - 쓰기(insert/remove)는 배타 락, 검색은 공유 락 → 검색끼리는 동시에 실행 가능
+ */
+public class HnswIndex {
+
+    private static final int MAX_FILTERED_EF = 4096;
+
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private volatile int efSearch;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> nodeById = new HashMap<>();
+    private final ThreadLocal<VisitedSet> visitedSets = ThreadLocal.withInitial(VisitedSet::new);
+
+    private long[] ids = new long[1024];
+    private float[][] vectors = new float[1024][];
+    private int[][][] links = new int[1024][][];      // links[node][level] = 이웃 노드 번호
+    private int[][] linkCounts = new int[1024][];     // linkCounts[node][level] = 유효 이웃 수
+    private boolean[] deleted = new boolean[1024];
+    private int nodeCount = 0;
+    private int deletedCount = 0;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswIndex(int dimension, int m, int efConstruction, int efSearch) {
+        if (dimension <= 0 || m < 2 || efConstruction < 1 || efSearch < 1) {
+            throw new IllegalArgumentException("HNSW 파라미터가 올바르지 않습니다.");
+        }
+        this.dimension = dimension;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.efSearch = efSearch;
+        this.levelMultiplier = 1.0 / Math.log(m);
+    }
+
+    /**
+     * ✅ 벡터 추가 (같은 id가 이미 있으면 기존 노드를 삭제 처리 후 새로 추가, 벡터가 같으면 아무것도 안 함)
+     *
+     * 삭제 처리된 노드는 메모리에 남으므로 deletedCount() 가 커지면 호출 측에서 재구축으로 정리
+     */
+    public void upsert(long id, float[] vector) {
+        if (vector == null || vector.length != dimension) {
+            throw new IllegalArgumentException("벡터 차원이 맞지 않습니다: " + (vector == null ? 0 : vector.length));
+        }
+        float[] copy = Arrays.copyOf(vector, dimension);
+
+        lock.writeLock().lock();
+        try {
+            Integer previous = nodeById.get(id);
+            if (previous != null) {
+                if (Arrays.equals(vectors[previous], copy)) return;
+                markDeleted(previous);
+            }
+            int node = allocate(id, copy, randomLevel());
+            nodeById.put(id, node);
+            link(node);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * ✅ 벡터 삭제 (tombstone)
+     */
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer node = nodeById.remove(id);
+            if (node == null) return false;
+            markDeleted(node);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * ✅ 근사 최근접 이웃 상위 k개 id (가까운 순)
+     */
+    public List<Long> search(float[] query, int k) {
+        return search(query, k, null);
+    }
+
+    /**
+     * ✅ 조건(filter)을 만족하는 노드 중 근사 최근접 상위 k개
+     *
+     * 그래프 탐색은 모든 노드를 경유하되 결과에는 조건을 통과한 노드만 담음.
+     * 통과 노드가 k개 미만이면 ef 를 4배씩 넓혀 다시 탐색하고, ef 가 상한에 닿으면
+     * 조건 통과 노드만 전수 비교 (조건이 좁을수록 전수 비교 쪽이 오히려 저렴함)
+     */
+    public List<Long> search(float[] query, int k, LongPredicate filter) {
+        if (query == null || query.length != dimension || k <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) return List.of();
+
+            int current = entryPoint;
+            for (int level = maxLevel; level > 0; level--) {
+                current = greedyClosest(query, current, level);
+            }
+
+            // 삭제된 노드가 섞여 있어도 k개를 채울 수 있도록 ef를 넉넉하게 잡음
+            int ef = Math.max(efSearch, k) + Math.min(deletedCount, k);
+            int maxEf = Math.max(ef, Math.min(nodeCount, MAX_FILTERED_EF));
+            while (true) {
+                List<Candidate> found = searchLayer(query, current, ef, 0);
+
+                List<Long> result = new ArrayList<>(k);
+                for (Candidate c : found) {
+                    if (deleted[c.node]) continue;
+                    if (filter != null && !filter.test(ids[c.node])) continue;
+                    result.add(ids[c.node]);
+                    if (result.size() == k) break;
+                }
+                if (result.size() == k || filter == null) return result;
+                if (ef >= maxEf) return exactSearchLocked(query, k, filter);
+                ef = Math.min(ef * 4, maxEf);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * ✅ 전체 벡터를 전수 비교하는 정확 검색 (기존 JVM brute-force 방식, recall 측정용)
+     */
+    public List<Long> exactSearch(float[] query, int k) {
+        return exactSearch(query, k, null);
+    }
+
+    public List<Long> exactSearch(float[] query, int k, LongPredicate filter) {
+        if (query == null || query.length != dimension || k <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            return exactSearchLocked(query, k, filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> exactSearchLocked(float[] query, int k, LongPredicate filter) {
+        PriorityQueue<Candidate> top = new PriorityQueue<>(Candidate.FARTHEST_FIRST);
+        for (int node = 0; node < nodeCount; node++) {
+            if (deleted[node]) continue;
+            if (filter != null && !filter.test(ids[node])) continue;
+            float d = distance(query, vectors[node]);
+            if (top.size() < k) {
+                top.add(new Candidate(node, d));
+            } else if (d < top.peek().distance) {
+                top.poll();
+                top.add(new Candidate(node, d));
+            }
+        }
+        List<Candidate> sorted = new ArrayList<>(top);
+        sorted.sort(Candidate.NEAREST_FIRST);
+
+        List<Long> result = new ArrayList<>(sorted.size());
+        for (Candidate c : sorted) result.add(ids[c.node]);
+        return result;
+    }
+
+    /**
+     * ✅ 저장된 벡터 조회 (없으면 null)
+     */
+    public float[] get(long id) {
+        lock.readLock().lock();
+        try {
+            Integer node = nodeById.get(id);
+            return node == null ? null : Arrays.copyOf(vectors[node], dimension);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * ✅ 살아있는 id 중 무작위 샘플 (recall 측정용)
+     */
+    public List<Long> sampleIds(int count) {
+        lock.readLock().lock();
+        try {
+            List<Long> all = new ArrayList<>(nodeById.keySet());
+            if (all.size() <= count) return all;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < count; i++) {
+                int j = i + random.nextInt(all.size() - i);
+                Long tmp = all.get(i);
+                all.set(i, all.get(j));
+                all.set(j, tmp);
+            }
+            return new ArrayList<>(all.subList(0, count));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * ✅ 삭제 처리(tombstone)된 노드 수 (그래프 / 메모리에는 남아 있음)
+     */
+    public int deletedCount() {
+        lock.readLock().lock();
+        try {
+            return deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    public int getM() {
+        return m;
+    }
+
+    public int getEfConstruction() {
+        return efConstruction;
+    }
+
+    public int getEfSearch() {
+        return efSearch;
+    }
+
+    public void setEfSearch(int efSearch) {
+        if (efSearch < 1) throw new IllegalArgumentException("efSearch는 1 이상이어야 합니다.");
+        this.efSearch = efSearch;
+    }
+
+    // ---------------------------------------------------------------------
+    // 내부 구현
+    // ---------------------------------------------------------------------
+
+    private int randomLevel() {
+        double r = ThreadLocalRandom.current().nextDouble();
+        return (int) Math.floor(-Math.log(Math.max(r, Double.MIN_NORMAL)) * levelMultiplier);
+    }
+
+    private int allocate(long id, float[] vector, int level) {
+        if (nodeCount == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            vectors = Arrays.copyOf(vectors, capacity);
+            links = Arrays.copyOf(links, capacity);
+            linkCounts = Arrays.copyOf(linkCounts, capacity);
+            deleted = Arrays.copyOf(deleted, capacity);
+        }
+        int node = nodeCount++;
+        ids[node] = id;
+        vectors[node] = vector;
+        links[node] = new int[level + 1][];
+        linkCounts[node] = new int[level + 1];
+        for (int l = 0; l <= level; l++) {
+            links[node][l] = new int[(l == 0 ? maxM0 : m) + 1];
+        }
+        return node;
+    }
+
+    private void markDeleted(int node) {
+        if (!deleted[node]) {
+            deleted[node] = true;
+            deletedCount++;
+        }
+    }
+
+    private void link(int node) {
+        int level = links[node].length - 1;
+        float[] vector = vectors[node];
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedyClosest(vector, current, l);
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Candidate> candidates = searchLayer(vector, current, efConstruction, l);
+            int maxConn = l == 0 ? maxM0 : m;
+            List<Candidate> selected = selectNeighbors(candidates, m);
+
+            for (Candidate neighbor : selected) {
+                addLink(node, neighbor.node, l);
+                addLinkWithPruning(neighbor.node, node, l, maxConn);
+            }
+            current = candidates.get(0).node;
+        }
+
+        if (level > maxLevel) {
+            entryPoint = node;
+            maxLevel = level;
+        }
+    }
+
+    private void addLink(int from, int to, int level) {
+        int count = linkCounts[from][level];
+        links[from][level][count] = to;
+        linkCounts[from][level] = count + 1;
+    }
+
+    private void addLinkWithPruning(int from, int to, int level, int maxConn) {
+        addLink(from, to, level);
+        int count = linkCounts[from][level];
+        if (count <= maxConn) return;
+
+        float[] base = vectors[from];
+        List<Candidate> current = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int n = links[from][level][i];
+            current.add(new Candidate(n, distance(base, vectors[n])));
+        }
+        current.sort(Candidate.NEAREST_FIRST);
+        List<Candidate> kept = selectNeighbors(current, maxConn);
+
+        linkCounts[from][level] = 0;
+        for (Candidate c : kept) {
+            addLink(from, c.node, level);
+        }
+    }
+
+    /**
+     * 이웃 선택 휴리스틱: 이미 고른 이웃보다 기준점에 더 가까운 후보만 우선 채택해서
+     * 그래프가 여러 방향으로 뻗도록 하고, 자리가 남으면 버린 후보로 채움
+     */
+    private List<Candidate> selectNeighbors(List<Candidate> candidatesNearestFirst, int limit) {
+        List<Candidate> selected = new ArrayList<>(limit);
+        List<Candidate> discarded = new ArrayList<>();
+
+        for (Candidate c : candidatesNearestFirst) {
+            if (selected.size() >= limit) break;
+            boolean keep = true;
+            for (Candidate s : selected) {
+                if (distance(vectors[c.node], vectors[s.node]) < c.distance) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) selected.add(c);
+            else discarded.add(c);
+        }
+        for (int i = 0; i < discarded.size() && selected.size() < limit; i++) {
+            selected.add(discarded.get(i));
+        }
+        return selected;
+    }
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        float currentDist = distance(query, vectors[current]);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            if (links[current].length <= level) break;
+            int[] neighbors = links[current][level];
+            int count = linkCounts[current][level];
+            for (int i = 0; i < count; i++) {
+                int n = neighbors[i];
+                float d = distance(query, vectors[n]);
+                if (d < currentDist) {
+                    currentDist = d;
+                    current = n;
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 한 레이어 안에서 ef개 후보를 유지하는 best-first 탐색. 결과는 가까운 순으로 정렬해서 반환
+     */
+    private List<Candidate> searchLayer(float[] query, int start, int ef, int level) {
+        VisitedSet visited = visitedSets.get();
+        visited.reset(nodeCount);
+
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(Candidate.NEAREST_FIRST);
+        PriorityQueue<Candidate> results = new PriorityQueue<>(Candidate.FARTHEST_FIRST);
+
+        Candidate first = new Candidate(start, distance(query, vectors[start]));
+        candidates.add(first);
+        results.add(first);
+        visited.visit(start);
+
+        while (!candidates.isEmpty()) {
+            Candidate closest = candidates.poll();
+            if (closest.distance > results.peek().distance && results.size() >= ef) break;
+
+            int[][] nodeLinks = links[closest.node];
+            if (nodeLinks.length <= level) continue;
+            int[] neighbors = nodeLinks[level];
+            int count = linkCounts[closest.node][level];
+
+            for (int i = 0; i < count; i++) {
+                int n = neighbors[i];
+                if (!visited.visit(n)) continue;
+
+                float d = distance(query, vectors[n]);
+                if (results.size() < ef || d < results.peek().distance) {
+                    Candidate c = new Candidate(n, d);
+                    candidates.add(c);
+                    results.add(c);
+                    if (results.size() > ef) results.poll();
+                }
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<>(results);
+        sorted.sort(Candidate.NEAREST_FIRST);
+        return sorted;
+    }
+
+    private static float distance(float[] a, float[] b) {
+        return VectorKernels.squaredL2(a, b);
+    }
+
+    private static final class Candidate {
+        static final Comparator<Candidate> NEAREST_FIRST = (a, b) -> Float.compare(a.distance, b.distance);
+        static final Comparator<Candidate> FARTHEST_FIRST = (a, b) -> Float.compare(b.distance, a.distance);
+
+        final int node;
+        final float distance;
+
+        Candidate(int node, float distance) {
+            this.node = node;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * 검색마다 boolean[]을 새로 만들지 않도록 스레드별로 재사용하는 방문 표시 배열
+     */
+    private static final class VisitedSet {
+        private int[] marks = new int[0];
+        private int stamp = 0;
+
+        void reset(int size) {
+            if (marks.length < size) {
+                marks = new int[Math.max(size, marks.length * 2)];
+                stamp = 0;
+            }
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                stamp = 1;
+            }
+        }
+
+        boolean visit(int node) {
+            if (marks[node] == stamp) return false;
+            marks[node] = stamp;
+            return true;
+        }
+    }
+}
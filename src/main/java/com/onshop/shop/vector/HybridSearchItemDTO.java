@@ -0,0 +1,27 @@
+package com.onshop.shop.vector;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * ✅ /vector/search 결과 한 건 (상품 카드 + 융합 점수)
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HybridSearchItemDTO {
+
+    private Long productId;
+    private Long categoryId;
+    private String name;
+    private Integer price;
+    private List<String> gImage;
+    private double score;          // RRF 점수
+    private Integer lexicalRank;   // BM25 순위 (1부터, 없으면 null)
+    private Integer vectorRank;    // 벡터 유사도 순위 (1부터, 없으면 null)
+}
@@ -0,0 +1,28 @@
+package com.onshop.shop.vector;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * ✅ /vector/search 응답 (페이지 단위)
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HybridSearchResponseDTO {
+
+    private String query;
+    private int page;
+    private int size;
+    private long totalCount;       // 융합된 후보 수 (최대 vector.search.max-depth × 2)
+    private boolean vectorUsed;    // 벡터 쪽이 시간 안에 끝났는지
+    private long lexicalMillis;
+    private long vectorMillis;
+    private long tookMillis;
+    private List<HybridSearchItemDTO> products;
+}
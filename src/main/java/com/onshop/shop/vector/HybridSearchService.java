@@ -0,0 +1,223 @@
+package com.onshop.shop.vector;
+
+import com.onshop.shop.product.Product;
+import com.onshop.shop.product.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * ✅ 키워드(BM25) + 벡터 하이브리드 검색 (/vector/search)
+ *
+ * 1. BM25 검색과 벡터 검색(임베딩 → HNSW / 압축 저장소, 미준비 시 PGVector)을 동시에 실행
+ * 2. 벡터 쪽이 vector-timeout-ms 안에 끝나지 않으면 작업을 취소(interrupt)하고 BM25 결과만으로 응답 (지연 상한 고정)
+ *    벡터 작업 큐는 queue-capacity 로 제한, 가득 차면 대기시키지 않고 바로 BM25 결과만 사용
+ * 3. Reciprocal Rank Fusion: score = Σ 1 / (rrfK + rank) — 점수 스케일이 다른 두 결과를 순위로만 합침
+ * 4. 요청한 페이지의 상품만 MySQL 에서 조회
+ *
+ * GPT rewrite / rerank 는 사용하지 않음. 임베딩은 RagQueryCache 를 거치므로 반복 검색어는 OpenAI 호출 없음
+ */
+@Service
+@Slf4j
+public class HybridSearchService {
+
+    private final ProductLexicalIndex productLexicalIndex;
+    private final ProductVectorIndex productVectorIndex;
+    private final ProductCompressedIndex productCompressedIndex;
+    private final ProductVectorRepository productVectorRepository;
+    private final ProductRepository productRepository;
+    private final OpenAIEmbeddingService openAIEmbeddingService;
+    private final RagQueryCache ragQueryCache;
+    private final PgVectorSearchSettings pgVectorSearchSettings;
+
+    private final int rrfK;
+    private final int maxDepth;
+    private final long vectorTimeoutMillis;
+    private final ExecutorService vectorExecutor;
+
+    public HybridSearchService(ProductLexicalIndex productLexicalIndex,
+                               ProductVectorIndex productVectorIndex,
+                               ProductCompressedIndex productCompressedIndex,
+                               ProductVectorRepository productVectorRepository,
+                               ProductRepository productRepository,
+                               OpenAIEmbeddingService openAIEmbeddingService,
+                               RagQueryCache ragQueryCache,
+                               PgVectorSearchSettings pgVectorSearchSettings,
+                               @Value("${vector.search.rrf-k:60}") int rrfK,
+                               @Value("${vector.search.max-depth:200}") int maxDepth,
+                               @Value("${vector.search.vector-timeout-ms:800}") long vectorTimeoutMillis,
+                               @Value("${vector.search.threads:8}") int threads,
+                               @Value("${vector.search.queue-capacity:64}") int queueCapacity) {
+        this.productLexicalIndex = productLexicalIndex;
+        this.productVectorIndex = productVectorIndex;
+        this.productCompressedIndex = productCompressedIndex;
+        this.productVectorRepository = productVectorRepository;
+        this.productRepository = productRepository;
+        this.openAIEmbeddingService = openAIEmbeddingService;
+        this.ragQueryCache = ragQueryCache;
+        this.pgVectorSearchSettings = pgVectorSearchSettings;
+        this.rrfK = rrfK;
+        this.maxDepth = maxDepth;
+        this.vectorTimeoutMillis = vectorTimeoutMillis;
+        int poolSize = Math.max(1, threads);
+        this.vectorExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+            Thread t = new Thread(r, "hybrid-search-vector");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public HybridSearchResponseDTO search(String query, int page, int size) {
+        long start = System.currentTimeMillis();
+        String text = query == null ? "" : query.trim();
+        int depth = (int) Math.min(maxDepth, ((long) page + 1) * size);
+
+        Future<List<Long>> vectorFuture = null;
+        try {
+            vectorFuture = vectorExecutor.submit(() -> vectorSearch(text, depth));
+        } catch (RejectedExecutionException e) {
+            log.warn("⚠️ [SEARCH] 벡터 검색 대기열 가득 참 → 키워드 결과만 사용: {}", text);
+        }
+
+        long lexicalStart = System.currentTimeMillis();
+        List<Long> lexical = productLexicalIndex.search(text, depth);
+        long lexicalMillis = System.currentTimeMillis() - lexicalStart;
+
+        List<Long> vector = List.of();
+        boolean vectorUsed = false;
+        if (vectorFuture != null) {
+            try {
+                long remaining = Math.max(0, vectorTimeoutMillis - (System.currentTimeMillis() - start));
+                vector = vectorFuture.get(remaining, TimeUnit.MILLISECONDS);
+                vectorUsed = true;
+            } catch (TimeoutException e) {
+                vectorFuture.cancel(true); // 늦은 임베딩 / 검색이 스레드를 계속 붙잡지 않도록
+                log.warn("⏱️ [SEARCH] 벡터 검색 {}ms 초과 → 키워드 결과만 사용: {}", vectorTimeoutMillis, text);
+            } catch (InterruptedException e) {
+                vectorFuture.cancel(true);
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("⚠️ [SEARCH] 벡터 검색 실패 → 키워드 결과만 사용: {}", e.getMessage());
+            }
+        }
+        long vectorMillis = System.currentTimeMillis() - start;
+
+        List<Fused> fused = fuse(lexical, vector);
+
+        int from = (int) Math.min((long) page * size, fused.size());
+        int to = Math.min(from + size, fused.size());
+        List<Fused> pageItems = fused.subList(from, to);
+
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(pageItems.stream().map(f -> f.productId).toList())) {
+            products.put(product.getProductId(), product);
+        }
+
+        List<HybridSearchItemDTO> items = new ArrayList<>(pageItems.size());
+        for (Fused f : pageItems) {
+            Product p = products.get(f.productId);
+            if (p == null) continue; // 벡터만 남아 있고 상품은 삭제된 경우
+            items.add(HybridSearchItemDTO.builder()
+                    .productId(p.getProductId())
+                    .categoryId(p.getCategory() != null ? p.getCategory().getId() : null)
+                    .name(p.getName())
+                    .price(p.getPrice())
+                    .gImage(p.getImageList())
+                    .score(f.score)
+                    .lexicalRank(f.lexicalRank)
+                    .vectorRank(f.vectorRank)
+                    .build());
+        }
+
+        long took = System.currentTimeMillis() - start;
+        log.info("🔍 [SEARCH] '{}' page={} → 키워드 {}건({}ms), 벡터 {}건({}ms), 융합 {}건, {}ms",
+                text, page, lexical.size(), lexicalMillis, vector.size(), vectorMillis, fused.size(), took);
+
+        return HybridSearchResponseDTO.builder()
+                .query(text)
+                .page(page)
+                .size(size)
+                .totalCount(fused.size())
+                .vectorUsed(vectorUsed)
+                .lexicalMillis(lexicalMillis)
+                .vectorMillis(vectorMillis)
+                .tookMillis(took)
+                .products(items)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        vectorExecutor.shutdownNow();
+    }
+
+    private List<Long> vectorSearch(String text, int depth) {
+        if (text.isEmpty()) return List.of();
+        float[] embedding = ragQueryCache.embedding(text, () -> openAIEmbeddingService.getEmbedding(text));
+
+        if (productVectorIndex.isReady()) {
+            return productVectorIndex.search(embedding, depth);
+        }
+        if (productCompressedIndex.isReady()) {
+            return productCompressedIndex.search(embedding, depth, null);
+        }
+        String embeddingText = PgVectorCodec.toText(embedding);
+        List<Object[]> rows = pgVectorSearchSettings.search(
+                () -> productVectorRepository.findTopBySimilarity(embeddingText, depth));
+        return rows.stream().map(row -> ((Number) row[0]).longValue()).toList();
+    }
+
+    /**
+     * Reciprocal Rank Fusion (동점이면 키워드 순위가 높은 쪽 우선)
+     */
+    List<Fused> fuse(List<Long> lexical, List<Long> vector) {
+        Map<Long, Fused> byId = new HashMap<>();
+        for (int i = 0; i < lexical.size(); i++) {
+            Fused f = byId.computeIfAbsent(lexical.get(i), Fused::new);
+            f.lexicalRank = i + 1;
+            f.score += 1.0 / (rrfK + i + 1);
+        }
+        for (int i = 0; i < vector.size(); i++) {
+            Fused f = byId.computeIfAbsent(vector.get(i), Fused::new);
+            f.vectorRank = i + 1;
+            f.score += 1.0 / (rrfK + i + 1);
+        }
+
+        List<Fused> result = new ArrayList<>(byId.values());
+        result.sort((a, b) -> {
+            int c = Double.compare(b.score, a.score);
+            if (c != 0) return c;
+            return Integer.compare(rankOrMax(a.lexicalRank), rankOrMax(b.lexicalRank));
+        });
+        return result;
+    }
+
+    private static int rankOrMax(Integer rank) {
+        return rank == null ? Integer.MAX_VALUE : rank;
+    }
+
+    static final class Fused {
+        final long productId;
+        double score;
+        Integer lexicalRank;
+        Integer vectorRank;
+
+        Fused(long productId) {
+            this.productId = productId;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.onshop.shop.vector;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ✅ 구간별 지연 시간 집계 (건수 / 평균 / 최대 / 구간 분포, 락 없이 LongAdder 로 누적)
+ */
+final class LatencyRecorder {
+
+    // 분포 상한(ms): ≤10, ≤50, ≤100, ≤250, ≤500, ≤1000, ≤2500, ≤5000, 그 이상
+    private static final long[] BUCKETS_MS = {10, 50, 100, 250, 500, 1000, 2500, 5000};
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final LongAdder[] buckets = new LongAdder[BUCKETS_MS.length + 1];
+
+    LatencyRecorder() {
+        for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+    }
+
+    void record(long elapsedNanos) {
+        count.increment();
+        totalNanos.add(elapsedNanos);
+        maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        int bucket = 0;
+        while (bucket < BUCKETS_MS.length && millis > BUCKETS_MS[bucket]) bucket++;
+        buckets[bucket].increment();
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    Map<String, Object> snapshot() {
+        long n = count.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", n);
+        result.put("avgMs", n == 0 ? 0.0 : totalNanos.sum() / 1_000_000.0 / n);
+        result.put("maxMs", maxNanos.get() / 1_000_000.0);
+
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKETS_MS.length; i++) {
+            histogram.put("<=" + BUCKETS_MS[i] + "ms", buckets[i].sum());
+        }
+        histogram.put(">" + BUCKETS_MS[BUCKETS_MS.length - 1] + "ms", buckets[BUCKETS_MS.length].sum());
+        result.put("histogram", histogram);
+        return result;
+    }
+}
@@ -0,0 +1,365 @@
+package com.onshop.shop.vector;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * ✅ OpenAI API 공용 클라이언트 (ChatGPTService / OpenAIEmbeddingService 가 함께 사용)
+ *
+ * - 커넥션 풀: Reactor Netty ConnectionProvider 하나를 모든 호출이 공유 (요청마다 새 연결 X)
+ * - 타임아웃: 연결 / 시도(attempt)별 응답 / 호출 전체 deadline 을 각각 제한
+ * - 재시도: 429, 5xx, 연결 오류, 시도 타임아웃만 지수 backoff + jitter 로 재시도
+ * - 동시 호출 제한: Semaphore. 대기 시간이 넘으면 바로 실패 → OpenAI 가 느려져도 요청 스레드가 쌓이지 않음
+ * - 마이크로 배치: 짧은 시간(window) 안에 들어온 단건 임베딩 요청을 input 배열 하나로 묶어 호출
+ * - API 키는 헤더에만 사용하고 로그에 남기지 않음
+ */
+@Component
+@Slf4j
+public class OpenAIClient {
+
+    private static final String BASE_URL = "https://api.openai.com/v1";
+    private static final String EMBEDDING_MODEL = "text-embedding-ada-002";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final WebClient webClient;
+    private final ConnectionProvider connectionProvider;
+
+    private final Duration callTimeout;
+    private final Duration streamTimeout;
+    private final Duration deadline;
+    private final int maxRetries;
+    private final Duration backoffMin;
+    private final Duration backoffMax;
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long acquireTimeoutMillis;
+
+    private final int batchMaxSize;
+    private final long batchWindowMillis;
+    private final LinkedBlockingQueue<PendingEmbedding> pendingEmbeddings = new LinkedBlockingQueue<>();
+    private final ExecutorService batchDispatcher;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong batchedInputs = new AtomicLong();
+
+    public OpenAIClient(
+            @Value("${openai.api.key}") String apiKey,
+            @Value("${openai.client.max-connections:50}") int maxConnections,
+            @Value("${openai.client.connect-timeout-ms:3000}") int connectTimeoutMillis,
+            @Value("${openai.client.call-timeout-seconds:30}") long callTimeoutSeconds,
+            @Value("${openai.client.stream-timeout-seconds:60}") long streamTimeoutSeconds,
+            @Value("${openai.client.deadline-seconds:60}") long deadlineSeconds,
+            @Value("${openai.client.max-retries:3}") int maxRetries,
+            @Value("${openai.client.backoff-min-ms:500}") long backoffMinMillis,
+            @Value("${openai.client.backoff-max-ms:8000}") long backoffMaxMillis,
+            @Value("${openai.client.max-concurrent:16}") int maxConcurrent,
+            @Value("${openai.client.acquire-timeout-ms:2000}") long acquireTimeoutMillis,
+            @Value("${openai.client.embedding-batch.max-size:64}") int batchMaxSize,
+            @Value("${openai.client.embedding-batch.window-ms:10}") long batchWindowMillis) {
+
+        this.connectionProvider = ConnectionProvider.builder("openai")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(acquireTimeoutMillis))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis);
+
+        this.webClient = WebClient.builder()
+                .baseUrl(BASE_URL)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .defaultHeaders(h -> h.setBearerAuth(apiKey))
+                // 배치 임베딩 응답(1536차원 × 수십 건)은 기본 256KB 버퍼를 넘음
+                .codecs(c -> c.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+                .build();
+
+        this.callTimeout = Duration.ofSeconds(callTimeoutSeconds);
+        this.streamTimeout = Duration.ofSeconds(streamTimeoutSeconds);
+        this.deadline = Duration.ofSeconds(deadlineSeconds);
+        this.maxRetries = maxRetries;
+        this.backoffMin = Duration.ofMillis(backoffMinMillis);
+        this.backoffMax = Duration.ofMillis(backoffMaxMillis);
+
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+
+        this.batchMaxSize = Math.max(1, batchMaxSize);
+        this.batchWindowMillis = batchWindowMillis;
+        this.batchDispatcher = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "openai-embedding-batcher");
+            t.setDaemon(true);
+            return t;
+        });
+        this.batchDispatcher.submit(this::dispatchEmbeddings);
+    }
+
+    // ---------------------------------------------------------------------
+    // Chat Completions
+    // ---------------------------------------------------------------------
+
+    /**
+     * ✅ /chat/completions 호출 후 첫 번째 choice 의 message.content 반환
+     */
+    public String chat(Map<String, Object> body) {
+        JsonNode response = call("/chat/completions", body);
+        return response.path("choices").path(0).path("message").path("content").asText("");
+    }
+
+    /**
+     * ✅ stream=true 로 호출하여 delta.content 조각을 순서대로 흘려보냄
+     * (첫 응답 전 429 / 5xx 만 재시도 — 토큰이 나간 뒤 재시도하면 중복 출력되므로)
+     */
+    public Flux<String> streamChat(Map<String, Object> body) {
+        Map<String, Object> streamBody = new LinkedHashMap<>(body);
+        streamBody.put("stream", true);
+
+        return Flux.defer(() -> {
+                    acquire();
+                    calls.incrementAndGet();
+                    return webClient.post()
+                            .uri("/chat/completions")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.TEXT_EVENT_STREAM)
+                            .bodyValue(streamBody)
+                            .retrieve()
+                            .bodyToFlux(String.class) // SSE data 필드 한 줄씩
+                            .takeWhile(data -> !"[DONE]".equals(data.trim()))
+                            .concatMapIterable(OpenAIClient::extractDelta)
+                            .doFinally(signal -> permits.release());
+                })
+                .retryWhen(retrySpec(e -> e instanceof WebClientResponseException response && isRetryableStatus(response)))
+                .timeout(streamTimeout)
+                .doOnError(e -> failures.incrementAndGet())
+                .subscribeOn(Schedulers.boundedElastic()); // acquire() 가 블로킹이므로
+    }
+
+    // ---------------------------------------------------------------------
+    // Embeddings
+    // ---------------------------------------------------------------------
+
+    /**
+     * ✅ 단건 임베딩. 같은 시점에 들어온 다른 요청들과 묶여 한 번의 호출로 처리됨
+     */
+    public float[] embed(String text) {
+        PendingEmbedding pending = new PendingEmbedding(text);
+        pendingEmbeddings.add(pending);
+        try {
+            return pending.result.get(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("OpenAI 임베딩 응답 대기 시간 초과", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("OpenAI 임베딩 대기 중 인터럽트", e);
+        }
+    }
+
+    /**
+     * ✅ 여러 텍스트를 input 배열 하나로 임베딩 (결과 순서 = 입력 순서)
+     */
+    public List<float[]> embedAll(List<String> texts) {
+        if (texts.isEmpty()) return List.of();
+
+        JsonNode response = call("/embeddings", Map.of(
+                "input", texts,
+                "model", EMBEDDING_MODEL
+        ));
+
+        float[][] result = new float[texts.size()][];
+        for (JsonNode item : response.path("data")) {
+            JsonNode embedding = item.path("embedding");
+            float[] vector = new float[embedding.size()];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = (float) embedding.get(i).asDouble();
+            }
+            result[item.path("index").asInt()] = vector;
+        }
+        for (float[] vector : result) {
+            if (vector == null) throw new IllegalStateException("응답에 누락된 임베딩이 있습니다.");
+        }
+        return List.of(result);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("calls", calls.get());
+        result.put("retries", retries.get());
+        result.put("failures", failures.get());
+        result.put("rejected", rejected.get());
+        result.put("inFlight", maxConcurrent - permits.availablePermits());
+        result.put("maxConcurrent", maxConcurrent);
+        result.put("queuedEmbeddings", pendingEmbeddings.size());
+        result.put("embeddingBatches", batches.get());
+        result.put("avgEmbeddingBatchSize", batches.get() == 0 ? 0.0 : (double) batchedInputs.get() / batches.get());
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchDispatcher.shutdownNow();
+        connectionProvider.dispose();
+    }
+
+    // ---------------------------------------------------------------------
+
+    private JsonNode call(String uri, Map<String, Object> body) {
+        acquire();
+        calls.incrementAndGet();
+        try {
+            return webClient.post()
+                    .uri(uri)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(body)
+                    .retrieve()
+                    .bodyToMono(JsonNode.class)
+                    .timeout(callTimeout)
+                    .retryWhen(retrySpec(OpenAIClient::isRetryable))
+                    .block(deadline);
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            throw e;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void acquire() {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejected.incrementAndGet();
+                throw new IllegalStateException("OpenAI 동시 호출 한도 초과 (max=" + maxConcurrent + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("OpenAI 호출 대기 중 인터럽트", e);
+        }
+    }
+
+    private Retry retrySpec(Predicate<Throwable> retryable) {
+        return Retry.backoff(maxRetries, backoffMin)
+                .maxBackoff(backoffMax)
+                .jitter(0.5)
+                .filter(retryable)
+                .doBeforeRetry(signal -> {
+                    retries.incrementAndGet();
+                    log.warn("🔁 [OpenAI] 재시도 {}회차: {}", signal.totalRetries() + 1, signal.failure().getMessage());
+                })
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        if (e instanceof WebClientResponseException response) return isRetryableStatus(response);
+        return e instanceof WebClientRequestException || e instanceof TimeoutException;
+    }
+
+    private static boolean isRetryableStatus(WebClientResponseException e) {
+        return e.getStatusCode().value() == 429 || e.getStatusCode().is5xxServerError();
+    }
+
+    private static List<String> extractDelta(String data) {
+        try {
+            String content = MAPPER.readTree(data)
+                    .path("choices").path(0).path("delta").path("content").asText("");
+            return content.isEmpty() ? List.of() : List.of(content);
+        } catch (Exception e) {
+            log.warn("⚠️ [OpenAI] 스트림 청크 파싱 실패: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * 첫 요청을 기다린 뒤 window 동안 추가 요청을 모아 batchMaxSize 단위로 전송.
+     * 전송은 공용 boundedElastic 에서 실행하므로 느린 배치가 다음 배치 수집을 막지 않음
+     */
+    private void dispatchEmbeddings() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<PendingEmbedding> batch = new ArrayList<>(batchMaxSize);
+                batch.add(pendingEmbeddings.take());
+
+                long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchWindowMillis);
+                while (batch.size() < batchMaxSize) {
+                    long remaining = until - System.nanoTime();
+                    PendingEmbedding next = remaining > 0
+                            ? pendingEmbeddings.poll(remaining, TimeUnit.NANOSECONDS)
+                            : pendingEmbeddings.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+
+                Schedulers.boundedElastic().schedule(() -> sendEmbeddingBatch(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void sendEmbeddingBatch(List<PendingEmbedding> batch) {
+        batches.incrementAndGet();
+        batchedInputs.addAndGet(batch.size());
+        try {
+            List<float[]> vectors = embedAll(batch.stream().map(p -> p.text).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(vectors.get(i));
+            }
+        } catch (WebClientResponseException e) {
+            if (batch.size() > 1 && e.getStatusCode().is4xxClientError() && !isRetryableStatus(e)) {
+                // 입력 하나 때문에 묶인 요청 전체가 실패하지 않도록 → 한 건씩 다시 호출
+                batch.forEach(p -> sendEmbeddingBatch(List.of(p)));
+            } else {
+                batch.forEach(p -> p.result.completeExceptionally(e));
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(p -> p.result.completeExceptionally(e));
+        }
+    }
+
+    private static final class PendingEmbedding {
+        final String text;
+        final CompletableFuture<float[]> result = new CompletableFuture<>();
+
+        PendingEmbedding(String text) {
+            this.text = text;
+        }
+    }
+}
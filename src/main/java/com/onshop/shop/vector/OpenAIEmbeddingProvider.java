@@ -0,0 +1,30 @@
+package com.onshop.shop.vector;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Profile("!offline")
+@RequiredArgsConstructor
+public class OpenAIEmbeddingProvider implements EmbeddingProvider {
+
+    private final OpenAIClient openAIClient;
+
+    @Override
+    public float[] embed(String text) {
+        return openAIClient.embed(text);
+    }
+
+    @Override
+    public List<float[]> embedAll(List<String> texts) {
+        return openAIClient.embedAll(texts);
+    }
+
+    @Override
+    public String name() {
+        return "openai";
+    }
+}
@@ -1,62 +1,48 @@
-
 package com.onshop.shop.vector;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.util.List;
+
+/**
+ * ✅ 임베딩 진입점. 실제 변환은 프로필에 따라 주입되는 EmbeddingProvider 가 담당
+ * (기본: OpenAI, "offline" 프로필: n-gram 해싱)
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OpenAIEmbeddingService {
 
-    private final WebClient webClient = WebClient.create("https://api.openai.com/v1");
-
-    @Value("${openai.api.key}")
-    private String apiKey;
+    private final EmbeddingProvider embeddingProvider;
 
+    /**
+     * ✅ 단건 임베딩 (OpenAI 의 경우 동시에 들어온 단건 요청들은 OpenAIClient 에서 한 번의 호출로 묶임)
+     */
     public float[] getEmbedding(String inputText) {
-    	log.info("🔐 주입된 API 키: {}", apiKey);
         try {
-            String requestBody = """
-                {
-                  "input": "%s",
-                  "model": "text-embedding-ada-002"
-                }
-                """.formatted(inputText.replace("\"", "\\\""));
-
-            String response = webClient.post()
-                    .uri("/embeddings")
-                    .header("Authorization", "Bearer " + apiKey)
-                    .header("Content-Type", "application/json")
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(response);
-            JsonNode embedding = root.path("data").get(0).path("embedding");
-
-            int dimension = embedding.size();
-            log.info("✅ OpenAI 임베딩 차원 수: {}차원", dimension);
-
-            float[] result = new float[dimension];
-            for (int i = 0; i < dimension; i++) {
-                result[i] = (float) embedding.get(i).asDouble();
-            }
-
+            float[] result = embeddingProvider.embed(inputText);
+            log.debug("✅ 임베딩 차원 수 ({}): {}차원", embeddingProvider.name(), result.length);
             return result;
-
         } catch (Exception e) {
-            log.error("🧨 OpenAI 임베딩 오류: {}", e.getMessage());
+            log.error("🧨 임베딩 오류 ({}): {}", embeddingProvider.name(), e.getMessage());
             throw new RuntimeException("OpenAI 임베딩 실패", e);
         }
     }
-}
-
 
+    /**
+     * ✅ 여러 텍스트를 input 배열 하나로 묶어 한 번에 임베딩 (결과 순서 = 입력 순서)
+     */
+    public List<float[]> getEmbeddings(List<String> inputTexts) {
+        if (inputTexts.isEmpty()) return List.of();
+        try {
+            List<float[]> result = embeddingProvider.embedAll(inputTexts);
+            log.info("✅ 배치 임베딩 완료 ({}): {}건", embeddingProvider.name(), result.size());
+            return result;
+        } catch (Exception e) {
+            log.error("🧨 배치 임베딩 오류 ({}): {}", embeddingProvider.name(), e.getMessage());
+            throw new RuntimeException("OpenAI 배치 임베딩 실패", e);
+        }
+    }
+}
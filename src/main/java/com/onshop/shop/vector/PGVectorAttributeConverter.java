@@ -11,18 +11,7 @@ public class PGVectorAttributeConverter implements AttributeConverter<float[], S
 
     @Override
     public String convertToDatabaseColumn(float[] vector) {
-        if (vector == null || vector.length == 0) {
-            return "[]";
-        }
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < vector.length; i++) {
-            sb.append(vector[i]);
-            if (i != vector.length - 1) {
-                sb.append(", ");
-            }
-        }
-        sb.append("]");
-        return sb.toString(); // ✅ PostgreSQL vector 타입과 호환되는 형식 [0.1, 0.2, ...]
+        return PgVectorCodec.toText(vector); // ✅ PostgreSQL vector 타입과 호환되는 형식 [0.1,0.2,...]
     }
 
     @Override
@@ -30,60 +19,19 @@ public class PGVectorAttributeConverter implements AttributeConverter<float[], S
         if (dbData == null || dbData.length() < 2) {
             return new float[0];
         }
-
-        // 양쪽 대괄호 제거
-        String content = dbData.substring(1, dbData.length() - 1);
-        String[] parts = content.split(",");
-
-        float[] vector = new float[parts.length];
-        for (int i = 0; i < parts.length; i++) {
-            try {
-                vector[i] = Float.parseFloat(parts[i].trim());
-            } catch (NumberFormatException e) {
-                vector[i] = 0f; // 파싱 실패 시 0으로 처리
-            }
-        }
-
-        return vector;
+        return PgVectorCodec.fromText(dbData);
     }
 
-    // ✅ 임베딩을 벡터 문자열로 바꾸는 유틸 메서드 (직접 호출용)
+    // ✅ 임베딩을 벡터 문자열로 바꾸는 유틸 메서드 (직접 호출용) → PgVectorCodec 으로 위임
     public static String toPgVectorString(float[] vector) {
-        if (vector == null || vector.length == 0) {
-            return "[]";
-        }
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < vector.length; i++) {
-            sb.append(vector[i]);
-            if (i != vector.length - 1) {
-                sb.append(", ");
-            }
-        }
-        sb.append("]");
-        return sb.toString();
+        return PgVectorCodec.toText(vector);
     }
+
+    // ✅ ( ), [ ] 모두 처리하는 파서 → 정규식/split 없는 PgVectorCodec 으로 위임
     public static float[] fromPgVectorString(String pgVector) {
         if (pgVector == null || pgVector.isEmpty()) {
             return new float[0];
         }
-
-        // 괄호 제거: ( ), [ ] 모두 처리
-        String cleaned = pgVector.replaceAll("[\\[\\]()]", "").trim();
-        if (cleaned.isEmpty()) {
-            return new float[0];
-        }
-
-        String[] parts = cleaned.split(",");
-        float[] vector = new float[parts.length];
-
-        for (int i = 0; i < parts.length; i++) {
-            try {
-                vector[i] = Float.parseFloat(parts[i].trim());
-            } catch (NumberFormatException e) {
-                vector[i] = 0f; // 잘못된 값은 0으로 처리
-            }
-        }
-
-        return vector;
+        return PgVectorCodec.fromText(pgVector);
     }
-}
\ No newline at end of file
+}
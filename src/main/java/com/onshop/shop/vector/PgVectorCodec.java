@@ -0,0 +1,248 @@
+package com.onshop.shop.vector;
+
+import java.nio.ByteBuffer;
+
+/**
+ * ✅ pgvector 값 인코딩/디코딩 유틸
+ *
+ * - 읽기: `vector_send(컬럼)` 이 돌려주는 바이너리(bytea) 포맷을 그대로 디코딩
+ *         [int16 차원][int16 unused][float4 big-endian × 차원] → 텍스트 파싱 자체가 없음
+ * - 쓰기: `CAST(:str AS vector)` 용 텍스트를 스레드별로 재사용하는 버퍼에 직접 기록
+ *         (StringBuilder.append(float)는 중간 String 을 만들지 않음)
+ * - 텍스트 파싱: 정규식 / split / substring 없이 한 번 훑으면서 숫자를 직접 해석
+ */
+public final class PgVectorCodec {
+
+    private static final int BINARY_HEADER_BYTES = 4;
+    private static final int MAX_REUSED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> TEXT_BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(16 * 1024));
+
+    private static final double[] POWERS_OF_TEN = new double[23];
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+
+    private PgVectorCodec() {
+    }
+
+    // ---------------------------------------------------------------------
+    // 바이너리 (vector_send)
+    // ---------------------------------------------------------------------
+
+    /**
+     * ✅ vector_send() 결과(bytea) → float[]
+     */
+    public static float[] fromBinary(byte[] bytes) {
+        if (bytes == null || bytes.length < BINARY_HEADER_BYTES) {
+            return new float[0];
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes); // 기본 big-endian = PostgreSQL 네트워크 바이트 순서
+        int dimension = buffer.getShort() & 0xFFFF;
+        buffer.getShort(); // unused
+
+        if (bytes.length < BINARY_HEADER_BYTES + dimension * Float.BYTES) {
+            throw new IllegalArgumentException("pgvector 바이너리 길이가 차원 수와 맞지 않습니다: " + dimension);
+        }
+        float[] vector = new float[dimension];
+        buffer.asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    /**
+     * ✅ float[] → vector_send()와 같은 바이너리 포맷
+     */
+    public static byte[] toBinary(float[] vector) {
+        int dimension = vector == null ? 0 : vector.length;
+        ByteBuffer buffer = ByteBuffer.allocate(BINARY_HEADER_BYTES + dimension * Float.BYTES);
+        buffer.putShort((short) dimension);
+        buffer.putShort((short) 0);
+        if (dimension > 0) {
+            buffer.asFloatBuffer().put(vector);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * ✅ 네이티브 쿼리 결과 컬럼 하나를 float[]로 변환
+     * (vector_send → byte[], ::text → String, PGobject 등은 toString 텍스트로 처리)
+     */
+    public static float[] decode(Object column) {
+        if (column == null) return new float[0];
+        if (column instanceof byte[] bytes) return fromBinary(bytes);
+        if (column instanceof CharSequence text) return fromText(text);
+        return fromText(column.toString());
+    }
+
+    // ---------------------------------------------------------------------
+    // 텍스트 ([0.1,0.2,...])
+    // ---------------------------------------------------------------------
+
+    /**
+     * ✅ float[] → "[0.1,0.2,...]" (CAST(:vectorStr AS vector) 파라미터용)
+     */
+    public static String toText(float[] vector) {
+        if (vector == null || vector.length == 0) {
+            return "[]";
+        }
+        StringBuilder sb = TEXT_BUFFER.get();
+        sb.setLength(0);
+        sb.append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(vector[i]);
+        }
+        sb.append(']');
+        String result = sb.toString();
+
+        if (sb.capacity() > MAX_REUSED_CAPACITY) {
+            TEXT_BUFFER.remove(); // 비정상적으로 큰 벡터 때문에 버퍼가 계속 붙잡혀 있지 않도록
+        }
+        return result;
+    }
+
+    /**
+     * ✅ "[0.1, 0.2, ...]" 또는 "(0.1, 0.2, ...)" → float[]
+     */
+    public static float[] fromText(CharSequence text) {
+        if (text == null) return new float[0];
+        int count = countValues(text);
+        float[] vector = new float[count];
+        parseInto(text, vector);
+        return vector;
+    }
+
+    /**
+     * ✅ 미리 준비한 배열에 파싱 (반복 호출 시 할당 없음). 읽은 값 개수를 반환
+     */
+    public static int parseInto(CharSequence text, float[] target) {
+        int length = text.length();
+        int index = 0;
+        int pos = 0;
+
+        while (pos < length && index < target.length) {
+            char c = text.charAt(pos);
+            if (c == '[' || c == ']' || c == '(' || c == ')' || c == ',' || c == ' ') {
+                pos++;
+                continue;
+            }
+            int end = pos;
+            while (end < length) {
+                char e = text.charAt(end);
+                if (e == ',' || e == ']' || e == ')' || e == ' ') break;
+                end++;
+            }
+            target[index++] = parseFloat(text, pos, end);
+            pos = end;
+        }
+        return index;
+    }
+
+    private static int countValues(CharSequence text) {
+        int count = 0;
+        boolean inValue = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean separator = c == '[' || c == ']' || c == '(' || c == ')' || c == ',' || c == ' ';
+            if (!separator && !inValue) count++;
+            inValue = !separator;
+        }
+        return count;
+    }
+
+    /**
+     * 부호 / 정수부 / 소수부 / 지수부를 직접 해석. 유효숫자가 long 범위를 넘거나
+     * NaN·Infinity 처럼 예외적인 입력은 Float.parseFloat 로 넘김
+     */
+    private static float parseFloat(CharSequence text, int start, int end) {
+        int pos = start;
+        boolean negative = false;
+        char first = text.charAt(pos);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            pos++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int decimalExponent = 0;
+        boolean sawDigit = false;
+
+        while (pos < end) {
+            char c = text.charAt(pos);
+            if (c >= '0' && c <= '9') {
+                sawDigit = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) digits++;
+                } else {
+                    decimalExponent++;
+                }
+                pos++;
+            } else {
+                break;
+            }
+        }
+        if (pos < end && text.charAt(pos) == '.') {
+            pos++;
+            while (pos < end) {
+                char c = text.charAt(pos);
+                if (c >= '0' && c <= '9') {
+                    sawDigit = true;
+                    if (digits < 18) {
+                        mantissa = mantissa * 10 + (c - '0');
+                        if (mantissa != 0) digits++;
+                        decimalExponent--;
+                    }
+                    pos++;
+                } else {
+                    break;
+                }
+            }
+        }
+        if (sawDigit && pos < end && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+            pos++;
+            boolean negativeExponent = false;
+            if (pos < end && (text.charAt(pos) == '-' || text.charAt(pos) == '+')) {
+                negativeExponent = text.charAt(pos) == '-';
+                pos++;
+            }
+            int exponent = 0;
+            boolean sawExponentDigit = false;
+            while (pos < end && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+                exponent = Math.min(exponent * 10 + (text.charAt(pos) - '0'), 10_000);
+                sawExponentDigit = true;
+                pos++;
+            }
+            if (!sawExponentDigit) return slowParse(text, start, end);
+            decimalExponent += negativeExponent ? -exponent : exponent;
+        }
+
+        if (!sawDigit || pos != end) {
+            return slowParse(text, start, end);
+        }
+
+        double value = mantissa;
+        if (decimalExponent < 0) {
+            int e = -decimalExponent;
+            if (e >= POWERS_OF_TEN.length) return slowParse(text, start, end);
+            value /= POWERS_OF_TEN[e];
+        } else if (decimalExponent > 0) {
+            if (decimalExponent >= POWERS_OF_TEN.length) return slowParse(text, start, end);
+            value *= POWERS_OF_TEN[decimalExponent];
+        }
+        return (float) (negative ? -value : value);
+    }
+
+    private static float slowParse(CharSequence text, int start, int end) {
+        try {
+            return Float.parseFloat(text.subSequence(start, end).toString());
+        } catch (NumberFormatException e) {
+            return 0f; // 기존 컨버터와 동일하게 잘못된 값은 0으로 처리
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.onshop.shop.vector;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ✅ PGVector ANN 인덱스 관리 (hbm2ddl.auto=update 는 벡터 인덱스를 만들지 않음)
+ *
+ * - 대상: product_vector.product_embedding, user_vector.avg_vector, user_vector.recent_vector
+ * - 거리 기준은 코사인(<=>) 하나로 통일 → opclass vector_cosine_ops
+ *   (리포지토리 ORDER BY 도 <=>, 인덱스 opclass 와 연산자가 다르면 PG 는 인덱스를 쓰지 않음)
+ * - vector.pg.index.type = hnsw(기본) | ivfflat | none
+ * - 기동 시 같은 컬럼에 다른 방식 / opclass 인덱스가 있으면 경고 (replace-mismatched=true 면 삭제 후 재생성)
+ * - ANN 인덱스는 차원이 고정된 컬럼(vector(1536))에만 만들 수 있음
+ *   → 벡터 컬럼은 엔티티에서 @Transient 라 수동 생성된 타입 그대로이므로, 차원 없는 vector 면 경고
+ *   (alter-untyped-columns=true 면 ALTER COLUMN ... TYPE vector(dimension) 후 생성)
+ * - CREATE INDEX CONCURRENTLY 로 만들어 운영 중에도 쓰기를 막지 않음
+ * - 인덱스 확인 후 대표 유사도 쿼리를 EXPLAIN 해서 Seq Scan 이면 경고
+ */
+@Component
+@Slf4j
+public class PgVectorIndexManager {
+
+    static final String DISTANCE_OPERATOR = "<=>";
+    static final String OPCLASS = "vector_cosine_ops";
+
+    /**
+     * 관리 대상 (테이블, 컬럼, 인덱스 이름)
+     */
+    record Target(String table, String column, String indexName) {
+    }
+
+    static final List<Target> TARGETS = List.of(
+            new Target("product_vector", "product_embedding", "idx_product_vector_embedding_ann"),
+            new Target("user_vector", "avg_vector", "idx_user_vector_avg_ann"),
+            new Target("user_vector", "recent_vector", "idx_user_vector_recent_ann")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PgVectorSearchSettings searchSettings;
+
+    @Value("${vector.pg.index.type:hnsw}")
+    private String type;
+
+    @Value("${vector.pg.index.hnsw.m:16}")
+    private int hnswM;
+
+    @Value("${vector.pg.index.hnsw.ef-construction:64}")
+    private int hnswEfConstruction;
+
+    @Value("${vector.pg.index.ivfflat.lists:100}")
+    private int ivfflatLists;
+
+    @Value("${vector.pg.index.replace-mismatched:false}")
+    private boolean replaceMismatched;
+
+    @Value("${vector.pg.index.alter-untyped-columns:false}")
+    private boolean alterUntypedColumns;
+
+    @Value("${vector.dimension:1536}")
+    private int dimension;
+
+    private final Map<String, Object> lastCheck = new LinkedHashMap<>();
+
+    public PgVectorIndexManager(@Qualifier("pgDataSource") DataSource pgDataSource,
+                                PgVectorSearchSettings searchSettings) {
+        this.jdbcTemplate = new JdbcTemplate(pgDataSource);
+        this.searchSettings = searchSettings;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureOnStartup() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                ensureIndexes();
+            } catch (RuntimeException e) {
+                log.error("❌ [PG INDEX] 인덱스 확인 / 생성 실패: {}", e.getMessage(), e);
+            }
+            checkQueryPlans();
+        });
+    }
+
+    /**
+     * ✅ 대상 컬럼마다 설정된 방식 + opclass 인덱스가 있는지 확인하고 없으면 생성
+     */
+    public synchronized void ensureIndexes() {
+        String method = indexMethod();
+        if (method == null) {
+            log.info("⏸️ [PG INDEX] vector.pg.index.type=none → 인덱스 관리 안 함");
+            return;
+        }
+
+        for (Target target : TARGETS) {
+            List<Map<String, Object>> existing = jdbcTemplate.queryForList(
+                    "SELECT indexname, indexdef FROM pg_indexes WHERE tablename = ?", target.table());
+
+            boolean matched = false;
+            for (Map<String, Object> index : existing) {
+                String name = (String) index.get("indexname");
+                String definition = (String) index.get("indexdef");
+                if (!coversColumn(definition, target.column())) continue;
+
+                if (matches(definition, method, target.column())) {
+                    matched = true;
+                    continue;
+                }
+                if (replaceMismatched && name.equals(target.indexName())) {
+                    log.warn("🔁 [PG INDEX] {} 정의 불일치 → 재생성: {}", name, definition);
+                    jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+                } else {
+                    log.warn("⚠️ [PG INDEX] {}.{} 에 쿼리 연산자({} / {})와 맞지 않는 인덱스: {}",
+                            target.table(), target.column(), DISTANCE_OPERATOR, OPCLASS, definition);
+                }
+            }
+            if (matched) {
+                log.info("✅ [PG INDEX] {}.{} {} 인덱스 확인", target.table(), target.column(), method);
+                continue;
+            }
+
+            if (!ensureTypedColumn(target)) continue;
+
+            long start = System.currentTimeMillis();
+            jdbcTemplate.execute(createIndexSql(target, method));
+            log.info("✅ [PG INDEX] {} 생성 완료 ({}.{} USING {}), {}ms",
+                    target.indexName(), target.table(), target.column(), method, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * ✅ 대표 유사도 쿼리 실행 계획 확인 (인덱스를 타지 않고 Seq Scan 이면 경고)
+     */
+    public synchronized Map<String, Object> checkQueryPlans() {
+        lastCheck.clear();
+        lastCheck.put("indexType", type);
+        lastCheck.put("operator", DISTANCE_OPERATOR);
+        lastCheck.put("opclass", OPCLASS);
+
+        String probe = PgVectorCodec.toText(probeVector());
+        for (Target target : TARGETS) {
+            String key = target.table() + "." + target.column();
+            try {
+                String sql = "EXPLAIN SELECT 1 FROM " + target.table()
+                        + " ORDER BY " + target.column() + " " + DISTANCE_OPERATOR + " CAST(? AS vector) LIMIT 10";
+                List<String> plan = searchSettings.search(() -> jdbcTemplate.queryForList(sql, String.class, probe));
+                boolean seqScan = plan.stream().anyMatch(line -> line.contains("Seq Scan"));
+
+                lastCheck.put(key, seqScan ? "SEQ_SCAN" : "INDEX_SCAN");
+                if (seqScan) {
+                    log.warn("⚠️ [PG INDEX] {} 유사도 쿼리가 Seq Scan 으로 실행됨 (인덱스 없음 / 연산자 불일치 / 행 수가 적어 planner 가 전수 스캔 선택)\n{}",
+                            key, String.join("\n", plan));
+                } else {
+                    log.info("✅ [PG INDEX] {} 유사도 쿼리 인덱스 사용", key);
+                }
+            } catch (RuntimeException e) {
+                lastCheck.put(key, "ERROR: " + e.getMessage());
+                log.warn("⚠️ [PG INDEX] {} 실행 계획 확인 실패: {}", key, e.getMessage());
+            }
+        }
+        return new LinkedHashMap<>(lastCheck);
+    }
+
+    public synchronized Map<String, Object> status() {
+        return new LinkedHashMap<>(lastCheck);
+    }
+
+    /**
+     * ✅ 컬럼 타입이 vector(n) 인지 확인 (차원 없는 vector 면 설정에 따라 변경 또는 건너뜀)
+     */
+    private boolean ensureTypedColumn(Target target) {
+        String columnType = jdbcTemplate.queryForObject("""
+                SELECT format_type(a.atttypid, a.atttypmod)
+                FROM pg_attribute a
+                WHERE a.attrelid = CAST(? AS regclass) AND a.attname = ? AND NOT a.attisdropped
+                """, String.class, target.table(), target.column());
+        if (columnType != null && columnType.startsWith("vector(")) return true;
+
+        String alter = "ALTER TABLE " + target.table() + " ALTER COLUMN " + target.column()
+                + " TYPE vector(" + dimension + ")";
+        if (!alterUntypedColumns) {
+            log.warn("⚠️ [PG INDEX] {}.{} 타입이 '{}' (차원 없음) → ANN 인덱스 생성 불가. 차원이 모두 {} 이면 실행: {}",
+                    target.table(), target.column(), columnType, dimension, alter);
+            return false;
+        }
+        log.info("🔧 [PG INDEX] {}", alter);
+        jdbcTemplate.execute(alter);
+        return true;
+    }
+
+    String createIndexSql(Target target, String method) {
+        String with = "hnsw".equals(method)
+                ? "WITH (m = " + hnswM + ", ef_construction = " + hnswEfConstruction + ")"
+                : "WITH (lists = " + ivfflatLists + ")";
+        return "CREATE INDEX CONCURRENTLY IF NOT EXISTS " + target.indexName()
+                + " ON " + target.table() + " USING " + method
+                + " (" + target.column() + " " + OPCLASS + ") " + with;
+    }
+
+    private String indexMethod() {
+        String normalized = type == null ? "" : type.trim().toLowerCase(Locale.ROOT);
+        return switch (normalized) {
+            case "hnsw", "ivfflat" -> normalized;
+            default -> null;
+        };
+    }
+
+    static boolean coversColumn(String definition, String column) {
+        return definition != null && definition.matches("(?s).*\\(\\s*" + column + "\\b.*");
+    }
+
+    static boolean matches(String definition, String method, String column) {
+        return definition.contains("USING " + method + " ")
+                && definition.matches("(?s).*\\(\\s*" + column + "\\s+" + OPCLASS + "\\b.*");
+    }
+
+    // 영벡터는 코사인 거리가 정의되지 않으므로 첫 원소만 1 인 벡터로 계획 확인
+    private float[] probeVector() {
+        float[] vector = new float[dimension];
+        vector[0] = 1f;
+        return vector;
+    }
+}
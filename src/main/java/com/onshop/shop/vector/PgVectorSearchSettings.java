@@ -0,0 +1,81 @@
+package com.onshop.shop.vector;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.function.Supplier;
+
+/**
+ * ✅ PGVector ANN 검색 파라미터를 쿼리 단위로 적용
+ *
+ * - pg 트랜잭션을 열고 SET LOCAL hnsw.ef_search / ivfflat.probes 후 같은 커넥션에서 리포지토리 쿼리 실행
+ *   (SET LOCAL 은 트랜잭션이 끝나면 사라짐 → 풀에 반납된 커넥션에 설정이 남지 않음)
+ * - 가격 / 카테고리 WHERE 가 붙은 쿼리는 인덱스가 찾은 후보 중 일부만 통과하므로 더 넓게(filtered-*) 탐색
+ * - 값이 0 이하이면 해당 SET 생략 (서버 기본값 사용)
+ */
+@Component
+public class PgVectorSearchSettings {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${vector.pg.search.ef-search:64}")
+    private int efSearch;
+
+    @Value("${vector.pg.search.filtered-ef-search:200}")
+    private int filteredEfSearch;
+
+    @Value("${vector.pg.search.probes:10}")
+    private int probes;
+
+    @Value("${vector.pg.search.filtered-probes:30}")
+    private int filteredProbes;
+
+    public PgVectorSearchSettings(@Qualifier("pgDataSource") DataSource pgDataSource,
+                                  @Qualifier("pgTransactionManager") PlatformTransactionManager pgTransactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(pgDataSource);
+        this.readOnlyTransaction = new TransactionTemplate(pgTransactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * ✅ 기본 ef_search / probes 로 유사도 쿼리 실행
+     */
+    public <T> T search(Supplier<T> query) {
+        return search(efSearch, probes, query);
+    }
+
+    /**
+     * ✅ WHERE 사전 필터가 붙은 유사도 쿼리 (더 넓은 후보 탐색)
+     */
+    public <T> T filteredSearch(Supplier<T> query) {
+        return search(filteredEfSearch, filteredProbes, query);
+    }
+
+    /**
+     * ✅ 인덱스를 쓰지 않는 정확한 전수 정렬 (recall 측정의 정답용)
+     */
+    public <T> T exactSearch(Supplier<T> query) {
+        return readOnlyTransaction.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_indexscan = off");
+            return query.get();
+        });
+    }
+
+    /**
+     * ✅ 쿼리별로 ef_search / probes 직접 지정
+     */
+    public <T> T search(int efSearch, int probes, Supplier<T> query) {
+        return readOnlyTransaction.execute(status -> {
+            // SET 은 바인드 파라미터를 받지 않으므로 정수로만 조립
+            if (efSearch > 0) jdbcTemplate.execute("SET LOCAL hnsw.ef_search = " + efSearch);
+            if (probes > 0) jdbcTemplate.execute("SET LOCAL ivfflat.probes = " + probes);
+            return query.get();
+        });
+    }
+}
@@ -0,0 +1,308 @@
+package com.onshop.shop.vector;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ✅ product_vector 를 int8 / PQ 로 압축해 JVM 메모리에 올려둔 저장소
+ *
+ * - HNSW 는 상품마다 float 벡터(1536 × 4 = 6KB)를 그대로 들고 있어 상품 수가 늘면 힙 부담이 큼
+ * - 여기서는 압축 코드만 보관 (int8 ≈ 1.5KB, PQ 96바이트) 하고, 후보 상위 rerank-depth 개만
+ *   product_vector 에서 원본 벡터를 읽어 정확한 거리로 다시 정렬
+ * - vector.compressed.mode = off(기본) | int8 | pq
+ * - PQ 코드북은 재구축 때마다 product_vector 에서 reservoir 샘플링한 train-size 개로 학습
+ * - 삭제 슬롯이 compact-deleted-ratio 를 넘으면 재구축 (ProductVectorIndex 와 같은 기준)
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCompressedIndex {
+
+    static final int MAX_RECALL_SAMPLES = 500;
+    static final int MAX_RECALL_K = 100;
+
+    private final ProductVectorRepository productVectorRepository;
+    private final PgVectorSearchSettings pgVectorSearchSettings;
+
+    @Value("${vector.compressed.mode:off}")
+    private String mode;
+
+    @Value("${vector.dimension:1536}")
+    private int dimension;
+
+    @Value("${vector.compressed.rerank-depth:100}")
+    private int rerankDepth;
+
+    @Value("${vector.compressed.pq.subspaces:96}")
+    private int subspaces;
+
+    @Value("${vector.compressed.pq.centroids:256}")
+    private int centroids;
+
+    @Value("${vector.compressed.pq.train-size:5000}")
+    private int trainSize;
+
+    @Value("${vector.compressed.pq.iterations:8}")
+    private int iterations;
+
+    @Value("${vector.compressed.build-page-size:1000}")
+    private int buildPageSize;
+
+    @Value("${vector.compressed.compact-deleted-ratio:0.2}")
+    private double compactDeletedRatio;
+
+    private volatile CompressedVectorStore store;
+    private volatile CompressedVectorStore building;
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final ProductFilterAttributes attributes = new ProductFilterAttributes();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (storeMode() == null) {
+            log.info("⏸️ [COMPRESSED] 비활성화 상태 (vector.compressed.mode=off)");
+            return;
+        }
+        CompletableFuture.runAsync(this::rebuild);
+    }
+
+    public void rebuild() {
+        CompressedVectorStore.Mode storeMode = storeMode();
+        if (storeMode == null) return;
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("⏭️ [COMPRESSED] 이미 저장소 구축 중");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            ProductQuantizer quantizer = null;
+            if (storeMode == CompressedVectorStore.Mode.PQ) {
+                List<float[]> samples = sampleEmbeddings();
+                if (samples.isEmpty()) {
+                    log.warn("⚠️ [COMPRESSED] PQ 학습용 임베딩이 없음 → 구축 중단");
+                    return;
+                }
+                quantizer = ProductQuantizer.train(samples, subspaces, centroids, iterations, 42L);
+                log.info("🎓 [COMPRESSED] PQ 코드북 학습 완료: 샘플 {}개, {}구간 × {}개, {}ms",
+                        samples.size(), subspaces, quantizer.centroids(), System.currentTimeMillis() - start);
+            }
+
+            CompressedVectorStore fresh = new CompressedVectorStore(dimension, storeMode, quantizer);
+            building = fresh;
+
+            long lastId = 0L;
+            while (true) {
+                List<Object[]> rows = productVectorRepository.findEmbeddingsAfter(lastId, buildPageSize);
+                if (rows.isEmpty()) break;
+
+                for (Object[] row : rows) {
+                    lastId = ((Number) row[0]).longValue();
+                    float[] vector = PgVectorCodec.decode(row[1]);
+                    if (vector.length != dimension) continue;
+                    attributes.put(lastId, row[2], row[3]);
+                    fresh.upsert(lastId, vector);
+                }
+                if (rows.size() < buildPageSize) break;
+            }
+
+            store = fresh;
+            log.info("✅ [COMPRESSED] {} 저장소 구축 완료: {}개, 상품당 {}바이트, {}ms",
+                    storeMode, fresh.size(), fresh.bytesPerVector(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("❌ [COMPRESSED] 저장소 구축 실패: {}", e.getMessage(), e);
+        } finally {
+            building = null;
+            rebuilding.set(false);
+        }
+    }
+
+    public boolean isReady() {
+        return storeMode() != null && store != null;
+    }
+
+    public void upsert(Long productId, float[] embedding, Long categoryId, Integer price) {
+        if (storeMode() == null || productId == null || embedding == null || embedding.length != dimension) return;
+
+        attributes.put(productId, categoryId, price);
+        CompressedVectorStore current = store;
+        CompressedVectorStore inProgress = building;
+        if (current != null) current.upsert(productId, embedding);
+        if (inProgress != null && inProgress != current) inProgress.upsert(productId, embedding);
+        compactIfNeeded(current);
+    }
+
+    /**
+     * ✅ 임베딩은 그대로 두고 필터용 카테고리 / 가격만 갱신 (압축 코드 재계산 없음)
+     */
+    public void updateAttributes(Long productId, Long categoryId, Integer price) {
+        if (storeMode() == null || productId == null) return;
+        attributes.update(productId, categoryId, price);
+    }
+
+    public void remove(Long productId) {
+        if (productId == null) return;
+
+        attributes.remove(productId);
+        CompressedVectorStore current = store;
+        CompressedVectorStore inProgress = building;
+        if (current != null) current.remove(productId);
+        if (inProgress != null) inProgress.remove(productId);
+        compactIfNeeded(current);
+    }
+
+    /**
+     * 삭제 슬롯이 살아있는 슬롯의 compact-deleted-ratio 배를 넘으면 재구축 (이미 구축 중이면 rebuild 에서 건너뜀)
+     */
+    private void compactIfNeeded(CompressedVectorStore current) {
+        if (current == null || rebuilding.get()) return;
+        int deleted = current.deletedCount();
+        if (deleted > 0 && deleted > current.size() * compactDeletedRatio) {
+            log.info("🧹 [COMPRESSED] 삭제 슬롯 {}개 (살아있는 슬롯 {}개) → 저장소 재구축", deleted, current.size());
+            CompletableFuture.runAsync(this::rebuild);
+        }
+    }
+
+    /**
+     * ✅ 압축 코드로 후보 rerank-depth 개 → 원본 벡터로 재정렬한 상위 k개 (미준비 시 빈 리스트)
+     */
+    public List<Long> search(float[] query, int k, VectorSearchFilter filter) {
+        CompressedVectorStore current = store;
+        if (current == null || storeMode() == null) return List.of();
+        return current.search(query, k, Math.max(k, rerankDepth), this::loadFullVectors, attributes.matcher(filter));
+    }
+
+    /**
+     * ✅ 압축 코드만 / 재정렬 후 결과의 recall@k (정답은 인덱스를 끈 PGVector 전체 정렬 결과)
+     *
+     * 샘플마다 PG 전수 정렬 쿼리가 나가므로 samples ≤ MAX_RECALL_SAMPLES, k ≤ MAX_RECALL_K 로 제한
+     */
+    public Map<String, Object> measureRecall(int requestedSamples, int requestedK) {
+        CompressedVectorStore current = store;
+        if (current == null) {
+            return Map.of("ready", false);
+        }
+        int samples = Math.max(1, Math.min(requestedSamples, MAX_RECALL_SAMPLES));
+        int k = Math.max(1, Math.min(requestedK, MAX_RECALL_K));
+
+        List<Long> sampleIds = current.sampleIds(samples);
+        Map<Long, float[]> queries = loadFullVectors(sampleIds);
+
+        long codeNanos = 0, rerankNanos = 0, exactNanos = 0;
+        int codeHits = 0, rerankHits = 0, expected = 0;
+        for (float[] query : queries.values()) {
+            long t0 = System.nanoTime();
+            List<Long> codeOnly = current.approximateSearch(query, k, null);
+            long t1 = System.nanoTime();
+            List<Long> reranked = current.search(query, k, Math.max(k, rerankDepth), this::loadFullVectors, null);
+            long t2 = System.nanoTime();
+            String queryText = PgVectorCodec.toText(query);
+            List<Long> exact = pgVectorSearchSettings.exactSearch(
+                    () -> productVectorRepository.findTopBySimilarity(queryText, k)).stream()
+                    .map(row -> ((Number) row[0]).longValue())
+                    .toList();
+            long t3 = System.nanoTime();
+
+            codeNanos += t1 - t0;
+            rerankNanos += t2 - t1;
+            exactNanos += t3 - t2;
+
+            Set<Long> exactSet = new HashSet<>(exact);
+            for (Long id : codeOnly) if (exactSet.contains(id)) codeHits++;
+            for (Long id : reranked) if (exactSet.contains(id)) rerankHits++;
+            expected += exact.size();
+        }
+
+        int n = Math.max(1, queries.size());
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ready", true);
+        result.put("mode", current.mode());
+        result.put("samples", queries.size());
+        result.put("k", k);
+        result.put("rerankDepth", Math.max(k, rerankDepth));
+        result.put("recallCodesOnly", expected == 0 ? 0.0 : (double) codeHits / expected);
+        result.put("recallReranked", expected == 0 ? 0.0 : (double) rerankHits / expected);
+        result.put("codesOnlyAvgMillis", codeNanos / 1_000_000.0 / n);
+        result.put("rerankedAvgMillis", rerankNanos / 1_000_000.0 / n);
+        result.put("pgvectorAvgMillis", exactNanos / 1_000_000.0 / n);
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        CompressedVectorStore current = store;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mode", mode);
+        result.put("ready", current != null);
+        result.put("rebuilding", rebuilding.get());
+        result.put("size", current == null ? 0 : current.size());
+        result.put("deleted", current == null ? 0 : current.deletedCount());
+        result.put("rerankDepth", rerankDepth);
+        result.put("float32BytesPerVector", dimension * Float.BYTES);
+        result.put("float32MegabytesPer100k", 100_000L * dimension * Float.BYTES / 1_000_000.0);
+        if (current != null) {
+            result.put("bytesPerVector", current.bytesPerVector());
+            result.put("megabytesPer100k", current.estimatedBytes(100_000) / 1_000_000.0);
+            result.put("estimatedMegabytes", current.estimatedBytes(current.size()) / 1_000_000.0);
+        }
+        return result;
+    }
+
+    private Map<Long, float[]> loadFullVectors(List<Long> productIds) {
+        Map<Long, float[]> result = new HashMap<>();
+        if (productIds.isEmpty()) return result;
+        for (Object[] row : productVectorRepository.findEmbeddingsByIds(productIds)) {
+            result.put(((Number) row[0]).longValue(), PgVectorCodec.decode(row[1]));
+        }
+        return result;
+    }
+
+    /**
+     * product_vector 전체를 한 번 훑으며 train-size 개 reservoir 샘플링 (앞쪽 상품에 치우치지 않도록)
+     */
+    private List<float[]> sampleEmbeddings() {
+        List<float[]> samples = new ArrayList<>(trainSize);
+        Random random = new Random(42L);
+        long seen = 0, lastId = 0L;
+        while (true) {
+            List<Object[]> rows = productVectorRepository.findEmbeddingsAfter(lastId, buildPageSize);
+            if (rows.isEmpty()) break;
+
+            for (Object[] row : rows) {
+                lastId = ((Number) row[0]).longValue();
+                long slot = seen++;
+                if (slot >= trainSize) {
+                    slot = (long) (random.nextDouble() * seen);
+                    if (slot >= trainSize) continue;
+                }
+                float[] vector = PgVectorCodec.decode(row[1]);
+                if (vector.length != dimension) continue;
+                if (slot < samples.size()) samples.set((int) slot, vector);
+                else samples.add(vector);
+            }
+            if (rows.size() < buildPageSize) break;
+        }
+        return samples;
+    }
+
+    private CompressedVectorStore.Mode storeMode() {
+        return switch (mode.trim().toLowerCase(Locale.ROOT)) {
+            case "int8" -> CompressedVectorStore.Mode.INT8;
+            case "pq" -> CompressedVectorStore.Mode.PQ;
+            default -> null;
+        };
+    }
+}
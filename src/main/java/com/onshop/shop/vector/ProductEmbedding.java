@@ -0,0 +1,22 @@
+package com.onshop.shop.vector;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * ✅ product_vector 한 행 (벌크 저장용)
+ */
+@Getter
+@AllArgsConstructor
+public class ProductEmbedding {
+
+    private final Long productId;
+    private final Long categoryId;
+    private final Integer price;
+    private final float[] embedding;
+    private final String contentHash; // 임베딩 텍스트 해시 (모르면 null)
+
+    public ProductEmbedding(Long productId, Long categoryId, Integer price, float[] embedding) {
+        this(productId, categoryId, price, embedding, null);
+    }
+}
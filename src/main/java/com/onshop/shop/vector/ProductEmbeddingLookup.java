@@ -0,0 +1,155 @@
+package com.onshop.shop.vector;
+
+import com.onshop.shop.product.Product;
+import com.onshop.shop.product.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ✅ 상품 임베딩 조회 경로 (원격 호출 최소화)
+ *
+ * 1. JVM 내 LRU 캐시
+ * 2. PGVector product_vector.product_embedding (vector_send 바이너리)
+ * 3. 둘 다 없을 때만 OpenAI 임베딩 → product_vector 에 저장 (다음부터는 1, 2에서 해결)
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductEmbeddingLookup {
+
+    private final ProductVectorRepository productVectorRepository;
+    private final ProductRepository productRepository;
+    private final ProductVectorIndex productVectorIndex;
+    private final OpenAIEmbeddingService openAIEmbeddingService;
+
+    @Value("${vector.embedding-cache.max-size:5000}")
+    private int maxSize;
+
+    private Map<Long, float[]> cache;
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong dbHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @PostConstruct
+    void initCache() {
+        cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, float[]> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    /**
+     * ✅ 상품 임베딩 조회 (LRU → product_vector → OpenAI 순)
+     */
+    public float[] getEmbedding(Long productId) {
+        float[] cached = cache.get(productId);
+        if (cached != null) {
+            cacheHits.incrementAndGet();
+            return cached;
+        }
+
+        float[] stored = productVectorRepository.findEmbeddingBinaryById(productId)
+                .map(PgVectorCodec::fromBinary)
+                .filter(v -> v.length > 0)
+                .orElse(null);
+        if (stored != null) {
+            dbHits.incrementAndGet();
+            cache.put(productId, stored);
+            return stored;
+        }
+
+        misses.incrementAndGet();
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("상품을 찾을 수 없습니다."));
+        float[] created = embedAndStore(product);
+        cache.put(productId, created);
+        return created;
+    }
+
+    /**
+     * ✅ 여러 상품 임베딩 한꺼번에 조회 (LRU → 나머지는 product_vector 한 번에, OpenAI 호출 없음)
+     * product_vector 에도 없는 상품은 결과에서 빠짐
+     */
+    public Map<Long, float[]> getEmbeddings(List<Long> productIds) {
+        Map<Long, float[]> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long productId : productIds) {
+            float[] cached = cache.get(productId);
+            if (cached != null) {
+                cacheHits.incrementAndGet();
+                result.put(productId, cached);
+            } else {
+                missing.add(productId);
+            }
+        }
+        if (missing.isEmpty()) return result;
+
+        for (Object[] row : productVectorRepository.findEmbeddingsByIds(missing)) {
+            float[] stored = PgVectorCodec.decode(row[1]);
+            if (stored.length == 0) continue;
+            Long productId = ((Number) row[0]).longValue();
+            dbHits.incrementAndGet();
+            cache.put(productId, stored);
+            result.put(productId, stored);
+        }
+        return result;
+    }
+
+    /**
+     * ✅ 상품 임베딩이 새로 저장/삭제됐을 때 캐시 갱신
+     */
+    public void put(Long productId, float[] embedding) {
+        if (productId != null && embedding != null) cache.put(productId, embedding);
+    }
+
+    public void evict(Long productId) {
+        cache.remove(productId);
+    }
+
+    public Map<String, Object> stats() {
+        long memory = cacheHits.get();
+        long db = dbHits.get();
+        long remote = misses.get();
+        long total = memory + db + remote;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.size());
+        result.put("maxSize", maxSize);
+        result.put("cacheHits", memory);
+        result.put("dbHits", db);
+        result.put("openAiCalls", remote);
+        result.put("cacheHitRatio", total == 0 ? 0.0 : (double) memory / total);
+        result.put("noRemoteRatio", total == 0 ? 0.0 : (double) (memory + db) / total);
+        return result;
+    }
+
+    private float[] embedAndStore(Product product) {
+        log.info("🆕 product_vector 에 임베딩 없음 → OpenAI 호출: productId={}", product.getProductId());
+        float[] embedding = openAIEmbeddingService.getEmbedding(ProductVectorDTO.fromProduct(product).toEmbeddingText());
+
+        if (product.getCategory() != null) {
+            productVectorRepository.insertVectorWithTextCast(
+                    product.getProductId(),
+                    product.getCategory().getId(),
+                    product.getPrice(),
+                    PgVectorCodec.toText(embedding)
+            );
+            productVectorIndex.upsert(product.getProductId(), embedding, product.getCategory().getId(), product.getPrice());
+        }
+        return embedding;
+    }
+}
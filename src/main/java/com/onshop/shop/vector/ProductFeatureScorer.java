@@ -0,0 +1,81 @@
+package com.onshop.shop.vector;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ✅ RAG 후보 로컬 재정렬 점수 (GPT 재정렬 대체)
+ *
+ * score = w_sim × 유사도 + w_price × 가격 적합도 + w_category × 분류 일치도 + w_popularity × 인기도
+ *
+ * - 유사도: 쿼리 임베딩과의 코사인을 후보 안에서 min-max 로 0~1 정규화 (코사인 값은 좁은 구간에 몰려 있음)
+ * - 가격 적합도: exp(-(가격 - 평균)² / 2σ²) (가격 조건이 없으면 모두 1 → 순위에 영향 없음)
+ * - 분류 일치도: 후보들이 유사도 가중치로 각자 카테고리에 투표 → 최다 득표 카테고리 대비 비율
+ *   (GPT 프롬프트의 "핵심 제품분류군 하나를 골라 우선 추천" 을 로컬에서 흉내냄)
+ * - 인기도: log(1 + 판매량 + 조회수 / viewsPerSale) 를 후보 중 최댓값으로 나눔
+ * - 같은 점수는 원래(유사도 검색) 순서 유지
+ */
+final class ProductFeatureScorer {
+
+    record Weights(double similarity, double price, double category, double popularity, double viewsPerSale) {
+    }
+
+    record Candidate(long productId, double similarity, Integer price, Long categoryId, long sales, long views) {
+    }
+
+    record Scored(long productId, double score, double similarity, double priceFit, double categoryMatch, double popularity) {
+    }
+
+    private ProductFeatureScorer() {
+    }
+
+    static List<Scored> rank(List<Candidate> candidates, double priceAvg, double priceSigma, Weights weights) {
+        if (candidates.isEmpty()) return List.of();
+
+        double minSim = Double.MAX_VALUE, maxSim = -Double.MAX_VALUE;
+        double maxPopularity = 0;
+        Map<Long, Double> categoryVotes = new HashMap<>();
+        for (Candidate c : candidates) {
+            minSim = Math.min(minSim, c.similarity());
+            maxSim = Math.max(maxSim, c.similarity());
+            maxPopularity = Math.max(maxPopularity, rawPopularity(c, weights.viewsPerSale()));
+            if (c.categoryId() != null) {
+                categoryVotes.merge(c.categoryId(), Math.max(0.0, c.similarity()), Double::sum);
+            }
+        }
+        double topVotes = categoryVotes.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+
+        List<Scored> result = new ArrayList<>(candidates.size());
+        for (Candidate c : candidates) {
+            double similarity = maxSim > minSim ? (c.similarity() - minSim) / (maxSim - minSim) : 1.0;
+            double priceFit = priceFit(c.price(), priceAvg, priceSigma);
+            double categoryMatch = c.categoryId() == null || topVotes <= 0
+                    ? 0.0
+                    : categoryVotes.get(c.categoryId()) / topVotes;
+            double popularity = maxPopularity > 0 ? rawPopularity(c, weights.viewsPerSale()) / maxPopularity : 0.0;
+
+            double score = weights.similarity() * similarity
+                    + weights.price() * priceFit
+                    + weights.category() * categoryMatch
+                    + weights.popularity() * popularity;
+            result.add(new Scored(c.productId(), score, similarity, priceFit, categoryMatch, popularity));
+        }
+        result.sort(Comparator.comparingDouble(Scored::score).reversed()); // 안정 정렬 → 동점은 입력 순서
+        return result;
+    }
+
+    static double priceFit(Integer price, double priceAvg, double priceSigma) {
+        if (priceAvg <= 0 || priceSigma <= 0) return 1.0;
+        if (price == null) return 0.0;
+        double z = (price - priceAvg) / priceSigma;
+        return Math.exp(-0.5 * z * z);
+    }
+
+    private static double rawPopularity(Candidate c, double viewsPerSale) {
+        double views = viewsPerSale > 0 ? c.views() / viewsPerSale : 0;
+        return Math.log1p(Math.max(0, c.sales()) + Math.max(0, views));
+    }
+}
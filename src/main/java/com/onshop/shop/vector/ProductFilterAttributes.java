@@ -0,0 +1,55 @@
+package com.onshop.shop.vector;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * ✅ 메모리 인덱스(HNSW / 압축 저장소)의 사전 필터용 상품 속성 (category_id, price)
+ */
+class ProductFilterAttributes {
+
+    private final Map<Long, Attributes> attributes = new ConcurrentHashMap<>();
+
+    void put(Long productId, Long categoryId, Integer price) {
+        attributes.put(productId, new Attributes(categoryId, price));
+    }
+
+    /**
+     * product_vector 조회 결과의 category_id / price 컬럼 (Number 또는 null)
+     */
+    void put(Long productId, Object categoryId, Object price) {
+        put(productId,
+                categoryId == null ? null : ((Number) categoryId).longValue(),
+                price == null ? null : ((Number) price).intValue());
+    }
+
+    /**
+     * 이미 있는 상품의 속성만 교체 (인덱스에 없는 상품은 추가하지 않음)
+     */
+    void update(Long productId, Long categoryId, Integer price) {
+        attributes.computeIfPresent(productId, (id, old) -> new Attributes(categoryId, price));
+    }
+
+    void remove(Long productId) {
+        attributes.remove(productId);
+    }
+
+    LongPredicate matcher(VectorSearchFilter filter) {
+        if (filter == null || filter.isEmpty()) return null;
+        return id -> {
+            Attributes a = attributes.get(id);
+            return a != null && filter.matches(a.categoryId, a.price);
+        };
+    }
+
+    private static final class Attributes {
+        final Long categoryId;
+        final Integer price;
+
+        Attributes(Long categoryId, Integer price) {
+            this.categoryId = categoryId;
+            this.price = price;
+        }
+    }
+}
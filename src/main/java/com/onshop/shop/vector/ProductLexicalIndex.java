@@ -0,0 +1,156 @@
+package com.onshop.shop.vector;
+
+import com.onshop.shop.product.Product;
+import com.onshop.shop.product.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ✅ 상품명 / 카테고리명 / 설명 BM25 인덱스 (하이브리드 검색의 키워드 쪽)
+ *
+ * - 기동 후 MySQL product 를 product_id 순으로 페이지 단위로 읽어 구축 (ProductVectorIndex 와 같은 방식)
+ * - 상품명은 두 번 넣어 설명보다 가중치를 높임
+ * - 재구축은 새 인덱스를 만든 뒤 교체, 구축 중 들어온 upsert 는 양쪽에 반영
+ * - 수정 / 삭제로 쌓인 tombstone 이 compact-deleted-ratio 를 넘으면 재구축 (ProductVectorIndex 와 같은 기준)
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductLexicalIndex {
+
+    private final ProductRepository productRepository;
+
+    @Value("${vector.search.lexical.enabled:true}")
+    private boolean enabled;
+
+    @Value("${vector.search.lexical.build-page-size:1000}")
+    private int buildPageSize;
+
+    @Value("${vector.search.lexical.compact-deleted-ratio:0.2}")
+    private double compactDeletedRatio;
+
+    private volatile Bm25Index index;
+    private volatile Bm25Index building;
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            log.info("⏸️ [BM25] 비활성화 상태 → 하이브리드 검색은 벡터 결과만 사용");
+            return;
+        }
+        CompletableFuture.runAsync(this::rebuild);
+    }
+
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("⏭️ [BM25] 이미 인덱스 구축 중");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            Bm25Index fresh = new Bm25Index();
+            building = fresh;
+
+            long lastId = 0L;
+            while (true) {
+                List<Product> page = productRepository.findByProductIdGreaterThanOrderByProductIdAsc(
+                        lastId, PageRequest.of(0, buildPageSize));
+                if (page.isEmpty()) break;
+
+                for (Product product : page) {
+                    fresh.upsert(product.getProductId(), toText(product));
+                }
+                lastId = page.get(page.size() - 1).getProductId();
+                if (page.size() < buildPageSize) break;
+            }
+
+            index = fresh;
+            log.info("✅ [BM25] 인덱스 구축 완료: 상품 {}개, 토큰 {}종, {}ms",
+                    fresh.size(), fresh.termCount(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("❌ [BM25] 인덱스 구축 실패: {}", e.getMessage(), e);
+        } finally {
+            building = null;
+            rebuilding.set(false);
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && index != null;
+    }
+
+    public void upsert(Product product) {
+        if (!enabled || product == null || product.getProductId() == null) return;
+
+        String text = toText(product);
+        Bm25Index current = index;
+        Bm25Index inProgress = building;
+        if (current != null) current.upsert(product.getProductId(), text);
+        if (inProgress != null && inProgress != current) inProgress.upsert(product.getProductId(), text);
+        compactIfNeeded(current);
+    }
+
+    public void remove(Long productId) {
+        if (productId == null) return;
+
+        Bm25Index current = index;
+        Bm25Index inProgress = building;
+        if (current != null) current.remove(productId);
+        if (inProgress != null) inProgress.remove(productId);
+        compactIfNeeded(current);
+    }
+
+    /**
+     * tombstone 문서가 살아있는 문서의 compact-deleted-ratio 배를 넘으면 재구축 (이미 구축 중이면 rebuild 에서 건너뜀)
+     */
+    private void compactIfNeeded(Bm25Index current) {
+        if (current == null || rebuilding.get()) return;
+        int deleted = current.deletedCount();
+        if (deleted > 0 && deleted > current.size() * compactDeletedRatio) {
+            log.info("🧹 [BM25] 삭제 문서 {}개 (살아있는 문서 {}개) → 인덱스 재구축", deleted, current.size());
+            CompletableFuture.runAsync(this::rebuild);
+        }
+    }
+
+    public List<Long> search(String query, int k) {
+        Bm25Index current = index;
+        if (!enabled || current == null) return List.of();
+        return current.search(query, k);
+    }
+
+    public Map<String, Object> stats() {
+        Bm25Index current = index;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("ready", current != null);
+        result.put("rebuilding", rebuilding.get());
+        result.put("size", current == null ? 0 : current.size());
+        result.put("terms", current == null ? 0 : current.termCount());
+        result.put("deleted", current == null ? 0 : current.deletedCount());
+        return result;
+    }
+
+    private static String toText(Product product) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(product.getName()).append(' ').append(product.getName());
+        if (product.getCategory() != null) {
+            sb.append(' ').append(product.getCategory().getName());
+        }
+        if (product.getDescription() != null) {
+            sb.append(' ').append(product.getDescription());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,168 @@
+package com.onshop.shop.vector;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ✅ Product Quantization (PQ) 코드북
+ *
+ * - 차원을 subspaces 개 구간으로 나누고, 구간마다 k-means 로 centroids(≤256)개 대표 벡터 학습
+ * - 벡터 하나 = 구간별 가장 가까운 대표 벡터 번호 (구간당 1바이트)
+ *   → 1536차원 / 96구간 기준 6KB → 96바이트
+ * - 질의 시 구간별 (질의 ↔ 대표 벡터) L2 제곱 거리표를 한 번 만들어 두고,
+ *   각 상품 거리는 표에서 subspaces 번 꺼내 더하기만 함 (ADC: asymmetric distance computation)
+ */
+public class ProductQuantizer {
+
+    private final int dimension;
+    private final int subspaces;
+    private final int subDimension;
+    private final int centroids;
+    private final float[][] codebooks; // codebooks[s][c * subDimension + j]
+
+    private ProductQuantizer(int dimension, int subspaces, int centroids, float[][] codebooks) {
+        this.dimension = dimension;
+        this.subspaces = subspaces;
+        this.subDimension = dimension / subspaces;
+        this.centroids = centroids;
+        this.codebooks = codebooks;
+    }
+
+    /**
+     * ✅ 샘플 벡터로 구간별 k-means 학습 (k-means++ 초기화 없이 무작위 샘플로 시작)
+     */
+    public static ProductQuantizer train(List<float[]> samples, int subspaces, int centroids, int iterations, long seed) {
+        if (samples.isEmpty()) {
+            throw new IllegalArgumentException("PQ 학습 샘플이 없습니다.");
+        }
+        int dimension = samples.get(0).length;
+        if (subspaces <= 0 || dimension % subspaces != 0) {
+            throw new IllegalArgumentException("차원(" + dimension + ")이 구간 수(" + subspaces + ")로 나누어떨어지지 않습니다.");
+        }
+        if (centroids < 1 || centroids > 256) {
+            throw new IllegalArgumentException("PQ 대표 벡터 수는 1~256 이어야 합니다: " + centroids);
+        }
+
+        int subDimension = dimension / subspaces;
+        int k = Math.min(centroids, samples.size());
+        Random random = new Random(seed);
+        float[][] codebooks = new float[subspaces][];
+        int[] assignment = new int[samples.size()];
+
+        for (int s = 0; s < subspaces; s++) {
+            int offset = s * subDimension;
+            float[] book = new float[k * subDimension];
+
+            // 초기값: 서로 다른 샘플 k개
+            int[] order = shuffledIndexes(samples.size(), random);
+            for (int c = 0; c < k; c++) {
+                System.arraycopy(samples.get(order[c]), offset, book, c * subDimension, subDimension);
+            }
+
+            for (int iter = 0; iter < iterations; iter++) {
+                for (int i = 0; i < samples.size(); i++) {
+                    assignment[i] = nearest(book, k, subDimension, samples.get(i), offset);
+                }
+
+                float[] sums = new float[k * subDimension];
+                int[] counts = new int[k];
+                for (int i = 0; i < samples.size(); i++) {
+                    int c = assignment[i];
+                    float[] v = samples.get(i);
+                    counts[c]++;
+                    for (int j = 0; j < subDimension; j++) sums[c * subDimension + j] += v[offset + j];
+                }
+                for (int c = 0; c < k; c++) {
+                    if (counts[c] == 0) {
+                        // 빈 군집은 무작위 샘플로 다시 채움
+                        System.arraycopy(samples.get(random.nextInt(samples.size())), offset, book, c * subDimension, subDimension);
+                        continue;
+                    }
+                    for (int j = 0; j < subDimension; j++) book[c * subDimension + j] = sums[c * subDimension + j] / counts[c];
+                }
+            }
+            codebooks[s] = book;
+        }
+        return new ProductQuantizer(dimension, subspaces, k, codebooks);
+    }
+
+    /**
+     * ✅ 벡터 → PQ 코드 (out[outOffset .. outOffset + subspaces) 에 기록)
+     */
+    public void encode(float[] vector, byte[] out, int outOffset) {
+        for (int s = 0; s < subspaces; s++) {
+            out[outOffset + s] = (byte) nearest(codebooks[s], centroids, subDimension, vector, s * subDimension);
+        }
+    }
+
+    /**
+     * ✅ 질의별 거리표: table[s * centroids + c] = |query_s - codebook[s][c]|²
+     */
+    public float[] distanceTable(float[] query) {
+        float[] table = new float[subspaces * centroids];
+        for (int s = 0; s < subspaces; s++) {
+            int offset = s * subDimension;
+            float[] book = codebooks[s];
+            for (int c = 0; c < centroids; c++) {
+                table[s * centroids + c] = VectorKernels.squaredL2(query, offset, book, c * subDimension, subDimension);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * ✅ 거리표 + 코드 → 근사 L2 제곱 거리
+     */
+    public float distance(float[] table, byte[] codes, int offset) {
+        float sum = 0f;
+        for (int s = 0; s < subspaces; s++) {
+            sum += table[s * centroids + (codes[offset + s] & 0xFF)];
+        }
+        return sum;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    public int bytesPerVector() {
+        return subspaces;
+    }
+
+    public int subspaces() {
+        return subspaces;
+    }
+
+    public int centroids() {
+        return centroids;
+    }
+
+    public long codebookBytes() {
+        return (long) subspaces * centroids * subDimension * Float.BYTES;
+    }
+
+    private static int nearest(float[] book, int k, int subDimension, float[] vector, int offset) {
+        int best = 0;
+        float bestDistance = Float.MAX_VALUE;
+        for (int c = 0; c < k; c++) {
+            float sum = VectorKernels.squaredL2(vector, offset, book, c * subDimension, subDimension);
+            if (sum < bestDistance) {
+                bestDistance = sum;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    private static int[] shuffledIndexes(int size, Random random) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,302 @@
+package com.onshop.shop.vector;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ✅ 상품 상세 "비슷한 상품" 사전 계산 그래프 (조회 시 PGVector 호출 없음)
+ *
+ * - 전체 재구축: product_vector 를 페이지 단위로 읽어 메모리에 올린 뒤 fork/join 으로 전 상품 정확한 top-N 계산
+ *   (구축 중에만 float 행렬을 들고 있고, 끝나면 상품당 top-N ID / 거리만 남김)
+ * - 부분 갱신: 임베딩이 저장 / 삭제된 상품만 모아 주기적으로 처리
+ *   · 변경 상품: PGVector 에서 가까운 top-N+1 조회 → 자기 목록 교체
+ *   · 찾은 이웃들의 목록에도 변경 상품을 역방향으로 넣어 봄 (더 가까우면 교체)
+ * - 변경이 rebuild-threshold 개를 넘게 쌓이면 (일괄 동기화 등) 부분 갱신 대신 전체 재구축
+ * - 결과는 메모리 매핑 스냅샷 파일로 저장 → 재시작 시 파일만 읽고 재구축 생략
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSimilarityIndex {
+
+    private final ProductVectorRepository productVectorRepository;
+    private final PgVectorSearchSettings pgVectorSearchSettings;
+
+    @Value("${vector.similar.enabled:true}")
+    private boolean enabled;
+
+    @Value("${vector.dimension:1536}")
+    private int dimension;
+
+    @Value("${vector.similar.top-n:20}")
+    private int topN;
+
+    @Value("${vector.similar.file:./data/similar-products.bin}")
+    private String file;
+
+    @Value("${vector.similar.build-page-size:1000}")
+    private int buildPageSize;
+
+    @Value("${vector.similar.parallelism:0}")
+    private int parallelism;
+
+    @Value("${vector.similar.refresh-interval-ms:5000}")
+    private long refreshIntervalMs;
+
+    @Value("${vector.similar.refresh-batch-size:100}")
+    private int refreshBatchSize;
+
+    @Value("${vector.similar.rebuild-threshold:5000}")
+    private int rebuildThreshold;
+
+    @Value("${vector.similar.persist-interval-seconds:300}")
+    private long persistIntervalSeconds;
+
+    private volatile SimilarProductGraph graph;
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private final Set<Long> removed = ConcurrentHashMap.newKeySet();
+    private volatile boolean unsaved;
+    private volatile long lastSavedAt;
+    private volatile long lastBuildMillis;
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong incrementalUpdates = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "similar-product-refresher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!enabled) {
+            log.info("⏸️ [SIMILAR] 비활성화 상태 (vector.similar.enabled=false)");
+            return;
+        }
+        try {
+            graph = SimilarProductGraph.readFrom(Path.of(file), topN);
+        } catch (IOException | RuntimeException e) {
+            log.warn("⚠️ [SIMILAR] 스냅샷 읽기 실패 → 재구축: {}", e.getMessage());
+        }
+        if (graph != null) {
+            lastSavedAt = System.currentTimeMillis();
+            log.info("✅ [SIMILAR] 스냅샷 로딩 완료: {}개 상품 ({})", graph.size(), file);
+        } else {
+            CompletableFuture.runAsync(this::rebuild);
+        }
+        refresher.scheduleWithFixedDelay(this::refreshSafely, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+        persistIfUnsaved(0L);
+    }
+
+    /**
+     * ✅ 비슷한 상품 ID (가까운 순, 최대 limit 개, 그래프 미준비 시 빈 리스트)
+     *
+     * limit 은 [0, topN] 으로 보정 (그래프에는 상품당 topN 개만 저장되어 있음)
+     */
+    public List<Long> similarProducts(Long productId, int limit) {
+        SimilarProductGraph current = graph;
+        if (!enabled || current == null || productId == null) return List.of();
+        lookups.incrementAndGet();
+
+        limit = Math.max(0, Math.min(limit, topN));
+
+        long[] ids = current.neighbours(productId);
+        List<Long> result = new ArrayList<>(Math.min(limit, ids.length));
+        for (int i = 0; i < ids.length && result.size() < limit; i++) {
+            if (!removed.contains(ids[i])) result.add(ids[i]);
+        }
+        return result;
+    }
+
+    /**
+     * ✅ 임베딩 저장 / 삭제 직후 호출 → 다음 갱신 주기에 반영
+     */
+    public void markChanged(Long productId) {
+        if (!enabled || productId == null) return;
+        removed.remove(productId);
+        changed.add(productId);
+    }
+
+    public void markRemoved(Long productId) {
+        if (!enabled || productId == null) return;
+        changed.remove(productId);
+        removed.add(productId);
+    }
+
+    /**
+     * ✅ product_vector 전체로 그래프를 새로 계산해 교체하고 스냅샷 저장
+     */
+    public void rebuild() {
+        if (!enabled) return;
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("⏭️ [SIMILAR] 이미 그래프 구축 중");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Set<Long> removedBefore = Set.copyOf(removed);
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        try {
+            List<Long> idList = new ArrayList<>();
+            List<float[]> vectorList = new ArrayList<>();
+            long lastId = 0L;
+            while (true) {
+                List<Object[]> rows = productVectorRepository.findEmbeddingsAfter(lastId, buildPageSize);
+                if (rows.isEmpty()) break;
+                for (Object[] row : rows) {
+                    lastId = ((Number) row[0]).longValue();
+                    float[] vector = PgVectorCodec.decode(row[1]);
+                    if (vector.length != dimension) continue;
+                    idList.add(lastId);
+                    vectorList.add(vector);
+                }
+                if (rows.size() < buildPageSize) break;
+            }
+            long loadedAt = System.currentTimeMillis();
+
+            // 구축 중 들어온 변경은 새 그래프 교체 후 다시 반영되도록 남겨 둠
+            long[] ids = idList.stream().mapToLong(Long::longValue).toArray();
+            SimilarProductGraph fresh = SimilarProductGraph.build(ids, vectorList.toArray(new float[0][]), topN, pool);
+            graph = fresh;
+            removed.removeAll(removedBefore); // 새 그래프에는 구축 전에 삭제된 상품이 없음
+            lastBuildMillis = System.currentTimeMillis() - start;
+            log.info("✅ [SIMILAR] 그래프 구축 완료: {}개 상품, 로딩 {}ms + 계산 {}ms (병렬 {})",
+                    ids.length, loadedAt - start, System.currentTimeMillis() - loadedAt, pool.getParallelism());
+
+            unsaved = true;
+            persistIfUnsaved(0L);
+        } catch (RuntimeException e) {
+            log.error("❌ [SIMILAR] 그래프 구축 실패: {}", e.getMessage(), e);
+        } finally {
+            pool.shutdown();
+            rebuilding.set(false);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        SimilarProductGraph current = graph;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("ready", current != null);
+        result.put("rebuilding", rebuilding.get());
+        result.put("size", current == null ? 0 : current.size());
+        result.put("topN", topN);
+        result.put("estimatedMegabytes", current == null ? 0.0 : current.estimatedBytes() / 1_000_000.0);
+        result.put("lastBuildMillis", lastBuildMillis);
+        result.put("pendingChanged", changed.size());
+        result.put("pendingRemoved", removed.size());
+        result.put("lookups", lookups.get());
+        result.put("incrementalUpdates", incrementalUpdates.get());
+        result.put("refreshFailures", refreshFailures.get());
+        result.put("file", file);
+        result.put("lastSavedAt", lastSavedAt);
+        return result;
+    }
+
+    private void refreshSafely() {
+        SimilarProductGraph current = graph;
+        if (current == null || rebuilding.get()) return;
+
+        // 일괄 동기화처럼 변경이 몰리면 상품마다 kNN 을 부르는 대신 전체 재구축
+        if (changed.size() > rebuildThreshold) {
+            log.info("🔁 [SIMILAR] 변경 상품 {}개 > {} → 전체 재구축", changed.size(), rebuildThreshold);
+            changed.clear();
+            rebuild();
+            return;
+        }
+
+        // 삭제 상품은 자기 목록만 지우고, 다른 상품 목록에 남은 참조는 조회 시 removed 로 걸러냄
+        for (Long productId : removed) {
+            if (current.remove(productId)) unsaved = true;
+        }
+
+        List<Long> batch = new ArrayList<>(Math.min(changed.size(), refreshBatchSize));
+        Iterator<Long> it = changed.iterator();
+        while (it.hasNext() && batch.size() < refreshBatchSize) {
+            batch.add(it.next());
+            it.remove();
+        }
+
+        if (!batch.isEmpty()) {
+            Map<Long, float[]> vectors = new LinkedHashMap<>();
+            for (Object[] row : productVectorRepository.findEmbeddingsByIds(batch)) {
+                vectors.put(((Number) row[0]).longValue(), PgVectorCodec.decode(row[1]));
+            }
+            for (Map.Entry<Long, float[]> e : vectors.entrySet()) {
+                try {
+                    refreshOne(current, e.getKey(), e.getValue());
+                    incrementalUpdates.incrementAndGet();
+                    unsaved = true;
+                } catch (RuntimeException ex) {
+                    refreshFailures.incrementAndGet();
+                    log.warn("⚠️ [SIMILAR] 부분 갱신 실패 productId={}: {}", e.getKey(), ex.getMessage());
+                }
+            }
+        }
+        persistIfUnsaved(persistIntervalSeconds * 1000);
+    }
+
+    private void refreshOne(SimilarProductGraph current, long productId, float[] vector) {
+        if (vector.length != dimension) return;
+
+        String vectorText = PgVectorCodec.toText(vector);
+        List<Object[]> rows = pgVectorSearchSettings.search(
+                () -> productVectorRepository.findTopBySimilarity(vectorText, topN + 1));
+        long[] ids = new long[rows.size()];
+        float[] distances = new float[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            ids[i] = ((Number) rows.get(i)[0]).longValue();
+            float[] other = PgVectorCodec.decode(rows.get(i)[3]);
+            distances[i] = other.length == dimension ? VectorKernels.squaredL2(vector, other) : Float.MAX_VALUE;
+        }
+
+        current.replace(productId, ids, distances);
+        for (int i = 0; i < ids.length; i++) {
+            current.offer(ids[i], productId, distances[i]);
+        }
+    }
+
+    private void persistIfUnsaved(long minIntervalMillis) {
+        SimilarProductGraph current = graph;
+        if (current == null || !unsaved) return;
+        if (System.currentTimeMillis() - lastSavedAt < minIntervalMillis) return;
+
+        try {
+            unsaved = false;
+            current.writeTo(Path.of(file));
+            lastSavedAt = System.currentTimeMillis();
+        } catch (IOException | RuntimeException e) {
+            unsaved = true;
+            log.warn("⚠️ [SIMILAR] 스냅샷 저장 실패 ({}): {}", file, e.getMessage());
+        }
+    }
+}
@@ -38,6 +38,9 @@ public class ProductVector {
     @Column(name = "price", nullable = false)
     private Integer price;  // 상품 가격
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;  // 임베딩 텍스트 SHA-256 (같으면 변경 동기화 시 재임베딩 생략, null = 모름)
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;  // 생성일시 (자동 저장)
@@ -0,0 +1,87 @@
+package com.onshop.shop.vector;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ✅ product_vector 다중 행 INSERT ... ON CONFLICT
+ *
+ * 한 건씩 insertVectorWithTextCast 를 호출하면 행마다 왕복이 생기므로
+ * VALUES (...), (...), ... 한 문장으로 묶어서 저장
+ */
+@Component
+@Slf4j
+public class ProductVectorBatchWriter {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO product_vector (product_id, category_id, price, product_embedding, content_hash) VALUES ";
+    private static final String VALUES_TUPLE = "(?, ?, ?, CAST(? AS vector), ?)";
+    private static final String UPSERT_SUFFIX = """
+             ON CONFLICT (product_id) DO UPDATE
+            SET category_id = EXCLUDED.category_id,
+                price = EXCLUDED.price,
+                product_embedding = EXCLUDED.product_embedding,
+                content_hash = EXCLUDED.content_hash
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductVectorBatchWriter(@Qualifier("pgDataSource") DataSource pgDataSource) {
+        this.jdbcTemplate = new JdbcTemplate(pgDataSource);
+    }
+
+    /**
+     * ✅ 여러 상품 임베딩을 한 문장으로 upsert. 저장된 행 수 반환
+     */
+    public int upsertAll(List<ProductEmbedding> rows) {
+        if (rows.isEmpty()) return 0;
+
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        List<Object> params = new ArrayList<>(rows.size() * 5);
+        for (int i = 0; i < rows.size(); i++) {
+            ProductEmbedding row = rows.get(i);
+            if (i > 0) sql.append(", ");
+            sql.append(VALUES_TUPLE);
+            params.add(row.getProductId());
+            params.add(row.getCategoryId());
+            params.add(row.getPrice());
+            params.add(PgVectorCodec.toText(row.getEmbedding()));
+            params.add(row.getContentHash());
+        }
+        sql.append(UPSERT_SUFFIX);
+
+        int updated = jdbcTemplate.update(sql.toString(), params.toArray());
+        log.debug("📝 product_vector {}건 일괄 저장", updated);
+        return updated;
+    }
+
+    /**
+     * ✅ 임베딩은 그대로 두고 필터용 카테고리 / 가격만 갱신 (임베딩 텍스트가 바뀌지 않은 상품)
+     */
+    public int updateAttributes(List<ProductEmbedding> rows) {
+        if (rows.isEmpty()) return 0;
+
+        List<Object[]> args = rows.stream()
+                .map(row -> new Object[]{row.getCategoryId(), row.getPrice(), row.getProductId()})
+                .toList();
+        int[] updated = jdbcTemplate.batchUpdate("UPDATE product_vector SET category_id = ?, price = ? WHERE product_id = ?", args);
+        return updated.length;
+    }
+
+    /**
+     * ✅ 삭제된 상품의 벡터를 한 문장으로 삭제. 삭제된 행 수 반환
+     */
+    public int deleteAll(List<Long> productIds) {
+        if (productIds.isEmpty()) return 0;
+
+        String placeholders = String.join(", ", Collections.nCopies(productIds.size(), "?"));
+        return jdbcTemplate.update("DELETE FROM product_vector WHERE product_id IN (" + placeholders + ")", productIds.toArray());
+    }
+}
@@ -1,12 +1,18 @@
 package com.onshop.shop.vector;
 
+import com.onshop.shop.exception.BadRequestException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/vector")
@@ -21,8 +27,14 @@ import java.util.Map;
  * 
  * ✅ API 요약:
  * 
- * [GET]    /vector/search?query=검색어         
- *         - 입력 쿼리 기반 벡터 검색 (유사 상품 추천)
+ * [GET]    /vector/search?query=검색어&page=0&size=20
+ *         - 키워드(BM25) + 벡터 검색을 동시에 실행해 RRF 로 합친 상품 검색 (GPT 호출 없음, page ≥ 0, 1 ≤ size ≤ 100)
+ * 
+ * [GET]    /vector/search/stats               
+ *         - 키워드(BM25) 인덱스 상태 조회
+ * 
+ * [POST]   /vector/search/index/rebuild       
+ *         - 키워드(BM25) 인덱스 재구축 (비동기, 관리자 전용)
  * 
  * [GET]    /vector/{productId}                
  *         - 특정 상품의 벡터 데이터 조회
@@ -36,23 +48,113 @@ import java.util.Map;
  * [DELETE] /vector/{productId}                
  *         - 벡터 데이터 삭제
  * 
- * [POST]   /vector/sync                       
- *         - MySQL 상품 데이터를 PGVector로 일괄 동기화
+ * [POST]   /vector/sync?restart=false         
+ *         - MySQL 상품 데이터를 PGVector로 일괄 동기화 (백그라운드 실행, 체크포인트부터 이어서)
+ * 
+ * [GET]    /vector/sync/status                
+ *         - 동기화 진행 상황 / 처리량 조회
+ * 
+ * [GET]    /vector/outbox/stats
+ *         - 상품 변경(outbox) 증분 동기화 상태 (대기 수, 재임베딩 / 속성만 갱신 / 변경 없음 / 삭제 / 실패)
+ * 
+ * [GET]    /vector/index/stats                
+ *         - JVM HNSW 인덱스 상태 조회
+ * 
+ * [POST]   /vector/index/rebuild              
+ *         - HNSW 인덱스 재구축 (비동기, 관리자 전용)
+ * 
+ * [GET]    /vector/index/recall?samples=100&k=10
+ *         - HNSW vs 전수 비교(brute-force) recall@k 및 평균 지연시간 측정 (관리자 전용, samples ≤ 500, k ≤ 100)
+ * 
+ * [GET]    /vector/compressed/stats
+ *         - 압축(int8 / PQ) 임베딩 저장소 상태, 상품당 / 10만 개당 메모리 (float32 대비)
+ * 
+ * [POST]   /vector/compressed/rebuild
+ *         - 압축 저장소 재구축 (비동기, PQ 는 코드북 재학습 포함, 관리자 전용)
+ * 
+ * [GET]    /vector/compressed/recall?samples=50&k=10
+ *         - 압축 코드만 / 원본 재정렬 후 recall@k (정답: PGVector 정렬 결과, 관리자 전용, samples ≤ 500, k ≤ 100)
+ * 
+ * [GET]    /vector/similar/{productId}?limit=10
+ *         - 미리 계산된 비슷한 상품 ID (item-to-item 그래프, 가까운 순)
+ * 
+ * [GET]    /vector/similar/stats
+ *         - 비슷한 상품 그래프 상태 (상품 수, 메모리, 부분 갱신 대기 수, 스냅샷 파일)
+ * 
+ * [POST]   /vector/similar/rebuild
+ *         - 비슷한 상품 그래프 전체 재구축 (비동기, fork/join 병렬 계산, 관리자 전용)
+ * 
+ * [GET]    /vector/pg-index/status
+ *         - PGVector ANN 인덱스 설정 + 마지막 실행 계획 확인 결과 (컬럼별 INDEX_SCAN / SEQ_SCAN)
+ * 
+ * [POST]   /vector/pg-index/ensure
+ *         - ANN 인덱스 확인 / 생성 후 실행 계획 다시 확인 (비동기, 관리자 전용)
+ * 
+ * [GET]    /vector/rag/cache/stats            
+ *         - RAG 캐시(질문→구조화 쿼리, 임베딩, Top-K) 적중 / 병합 통계
+ * 
+ * [GET]    /vector/rag?query=자연어 질문&categoryId=
+ *         - RAG 추천 (categoryId 지정 시 하위 카테고리 포함 사전 필터, 가격은 평균 ± 표준편차 구간부터 점차 확대)
+ *         - 재정렬은 vector.rag.rerank.mode (gpt | local | hybrid) 에 따름
+ * 
+ * [GET]    /vector/rag/stream?query=자연어 질문&categoryId=
+ *         - RAG 추천 SSE 스트리밍 (query → products → token... → result)
+ * 
+ * [GET]    /vector/rag/rerank/stats
+ *         - 재정렬 방식 / 경로별 지연 시간(로컬 점수, GPT 재정렬, GPT 추천 이유, 전체) / 예산 초과 건수
+ * 
+ * [GET]    /vector/openai/stats               
+ *         - OpenAI 호출 수 / 재시도 / 거절 / 동시 호출 / 임베딩 배치 크기 통계
  */
 
 public class ProductVectorController {
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
     private final ProductVectorService productVectorService;
     private final ChatGPTService chatGPTService;
+    private final RagQueryCache ragQueryCache;
+    private final RagStreamService ragStreamService;
+    private final OpenAIClient openAIClient;
+    private final ProductVectorIndex productVectorIndex;
+    private final ProductCompressedIndex productCompressedIndex;
+    private final ProductLexicalIndex productLexicalIndex;
+    private final ProductSimilarityIndex productSimilarityIndex;
+    private final PgVectorIndexManager pgVectorIndexManager;
+    private final RagReranker ragReranker;
+    private final ProductVectorOutboxWorker productVectorOutboxWorker;
+    private final VectorAdminGuard vectorAdminGuard;
     
     // ✅ 1. 벡터 검색 (유사한 상품 추천)
     @GetMapping("/search")
-    public ResponseEntity<List<ProductVectorDTO>> searchVectorProducts(@RequestParam String query) {
+    public ResponseEntity<HybridSearchResponseDTO> searchVectorProducts(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         log.info("🔍 벡터 검색 요청: {}", query);
-        List<ProductVectorDTO> result = productVectorService.searchVectorProducts(query);
+        if (page < 0 || size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new BadRequestException("page 는 0 이상, size 는 1 ~ " + MAX_SEARCH_PAGE_SIZE + " 사이여야 합니다.");
+        }
+        HybridSearchResponseDTO result = productVectorService.searchVectorProducts(query, page, size);
         return ResponseEntity.ok(result);
     }
 
+    // ✅ 키워드(BM25) 인덱스 상태 조회
+    @GetMapping("/search/stats")
+    public ResponseEntity<Map<String, Object>> getSearchIndexStats() {
+        return ResponseEntity.ok(productLexicalIndex.stats());
+    }
+
+    // ✅ 키워드(BM25) 인덱스 재구축 (백그라운드 실행, 관리자 전용)
+    @PostMapping("/search/index/rebuild")
+    public ResponseEntity<String> rebuildSearchIndex(
+            @CookieValue(value = "jwt", required = false) String token) {
+        vectorAdminGuard.requireAdmin(token);
+        log.info("🔄 BM25 인덱스 재구축 요청");
+        CompletableFuture.runAsync(productLexicalIndex::rebuild);
+        return ResponseEntity.accepted().body("✅ BM25 인덱스 재구축 시작");
+    }
+
     // ✅ 2. 특정 상품의 벡터 데이터 조회
     @GetMapping("/{productId}")
     public ResponseEntity<ProductVectorDTO> getVectorByProductId(@PathVariable Long productId) {
@@ -87,12 +189,28 @@ public class ProductVectorController {
         return ResponseEntity.ok("Product vector deleted successfully.");
     }
 
-    // ✅ 6. MySQL → PGVector 벡터 데이터 동기화
+    // ✅ 6. MySQL → PGVector 벡터 데이터 동기화 (백그라운드 작업 시작)
     @PostMapping("/sync")
-    public ResponseEntity<String> syncProductVectors() {
-        log.info("🔄 MySQL → PGVector 데이터 동기화 요청");
-        productVectorService.syncProductVectors();
-        return ResponseEntity.ok("✅ 전체 상품 벡터 동기화 완료");
+    public ResponseEntity<VectorSyncStatusDTO> syncProductVectors(
+            @RequestParam(defaultValue = "false") boolean restart) {
+        log.info("🔄 MySQL → PGVector 데이터 동기화 요청 (restart={})", restart);
+        boolean started = productVectorService.startProductVectorSync(restart);
+        VectorSyncStatusDTO status = productVectorService.getSyncStatus();
+        return started
+                ? ResponseEntity.accepted().body(status)
+                : ResponseEntity.status(HttpStatus.CONFLICT).body(status);
+    }
+
+    // ✅ 7. 동기화 진행 상황 조회
+    @GetMapping("/sync/status")
+    public ResponseEntity<VectorSyncStatusDTO> getSyncStatus() {
+        return ResponseEntity.ok(productVectorService.getSyncStatus());
+    }
+
+ // ✅ 상품 변경(outbox) 증분 동기화 상태 조회
+    @GetMapping("/outbox/stats")
+    public ResponseEntity<Map<String, Object>> getOutboxStats() {
+        return ResponseEntity.ok(productVectorOutboxWorker.stats());
     }
  // ✅ 테스트용: 단일 상품 임베딩 → PGVector 저장
     @PostMapping("/test/{productId}") // ← ✅ PostMapping 맞아! (임베딩은 "쓰기"니까 POST)
@@ -101,35 +219,132 @@ public class ProductVectorController {
         productVectorService.testEmbedProduct(productId);
         return ResponseEntity.ok("✅ 테스트 임베딩 완료: productId=" + productId);
     }
- // ✅ 벡터 기반 유사 상품 추천 (RAG 검색)
- // 예외처리함수
-    private boolean isValidStructuredQuery(String rewritten) {
-        if (rewritten == null || rewritten.isBlank()) return false;
+ // ✅ HNSW 인덱스 상태 조회
+    @GetMapping("/index/stats")
+    public ResponseEntity<Map<String, Object>> getIndexStats() {
+        return ResponseEntity.ok(productVectorIndex.stats());
+    }
 
-        String[] tokens = rewritten.trim().split(" ");
-        if (tokens.length < 4) return false;
+ // ✅ HNSW 인덱스 재구축 (백그라운드 실행, 관리자 전용)
+    @PostMapping("/index/rebuild")
+    public ResponseEntity<String> rebuildIndex(
+            @CookieValue(value = "jwt", required = false) String token) {
+        vectorAdminGuard.requireAdmin(token);
+        log.info("🔄 HNSW 인덱스 재구축 요청");
+        CompletableFuture.runAsync(productVectorIndex::rebuild);
+        return ResponseEntity.accepted().body("✅ HNSW 인덱스 재구축 시작");
+    }
 
-        // 마지막 3개는 반드시 숫자여야 함
-        for (int i = tokens.length - 3; i < tokens.length; i++) {
-            if (!tokens[i].matches("\\d+")) return false;
-        }
+ // ✅ HNSW recall@k 측정 (기존 JVM 전수 비교 방식과 비교, 관리자 전용)
+    @GetMapping("/index/recall")
+    public ResponseEntity<Map<String, Object>> measureIndexRecall(
+            @RequestParam(defaultValue = "100") int samples,
+            @RequestParam(defaultValue = "10") int k,
+            @CookieValue(value = "jwt", required = false) String token) {
+        vectorAdminGuard.requireAdmin(token);
+        return ResponseEntity.ok(productVectorIndex.measureRecall(samples, k));
+    }
+
+ // ✅ 압축(int8 / PQ) 임베딩 저장소 상태 / 메모리 조회
+    @GetMapping("/compressed/stats")
+    public ResponseEntity<Map<String, Object>> getCompressedIndexStats() {
+        return ResponseEntity.ok(productCompressedIndex.stats());
+    }
 
-        // 두 번째 숫자가 0이면 비정상으로 간주
-        if (tokens.length >= 2 && tokens[1].equals("0")) return false;
+ // ✅ 압축 저장소 재구축 (백그라운드 실행, 관리자 전용)
+    @PostMapping("/compressed/rebuild")
+    public ResponseEntity<String> rebuildCompressedIndex(
+            @CookieValue(value = "jwt", required = false) String token) {
+        vectorAdminGuard.requireAdmin(token);
+        log.info("🔄 압축 임베딩 저장소 재구축 요청");
+        CompletableFuture.runAsync(productCompressedIndex::rebuild);
+        return ResponseEntity.accepted().body("✅ 압축 저장소 재구축 시작");
+    }
+
+ // ✅ 압축 저장소 recall@k 측정 (코드만 vs 원본 재정렬, 관리자 전용)
+    @GetMapping("/compressed/recall")
+    public ResponseEntity<Map<String, Object>> measureCompressedRecall(
+            @RequestParam(defaultValue = "50") int samples,
+            @RequestParam(defaultValue = "10") int k,
+            @CookieValue(value = "jwt", required = false) String token) {
+        vectorAdminGuard.requireAdmin(token);
+        return ResponseEntity.ok(productCompressedIndex.measureRecall(samples, k));
+    }
+
+ // ✅ 미리 계산된 비슷한 상품 조회
+    @GetMapping("/similar/{productId}")
+    public ResponseEntity<List<Long>> getSimilarProducts(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productSimilarityIndex.similarProducts(productId, limit));
+    }
+
+ // ✅ 비슷한 상품 그래프 상태 조회
+    @GetMapping("/similar/stats")
+    public ResponseEntity<Map<String, Object>> getSimilarStats() {
+        return ResponseEntity.ok(productSimilarityIndex.stats());
+    }
 
-        return true;
+ // ✅ 비슷한 상품 그래프 전체 재구축 (백그라운드 실행, 관리자 전용)
+    @PostMapping("/similar/rebuild")
+    public ResponseEntity<String> rebuildSimilarGraph(
+            @CookieValue(value = "jwt", required = false) String token) {
+        vectorAdminGuard.requireAdmin(token);
+        log.info("🔄 비슷한 상품 그래프 재구축 요청");
+        CompletableFuture.runAsync(productSimilarityIndex::rebuild);
+        return ResponseEntity.accepted().body("✅ 비슷한 상품 그래프 재구축 시작");
     }
+
+ // ✅ PGVector ANN 인덱스 / 실행 계획 상태 조회
+    @GetMapping("/pg-index/status")
+    public ResponseEntity<Map<String, Object>> getPgIndexStatus() {
+        return ResponseEntity.ok(pgVectorIndexManager.status());
+    }
+
+ // ✅ PGVector ANN 인덱스 확인 / 생성 (CREATE INDEX CONCURRENTLY, 백그라운드 실행, 관리자 전용)
+    // 설정에 따라 DROP INDEX / ALTER TABLE 까지 실행하므로 관리자만 호출 가능
+    @PostMapping("/pg-index/ensure")
+    public ResponseEntity<String> ensurePgIndexes(
+            @CookieValue(value = "jwt", required = false) String token) {
+        vectorAdminGuard.requireAdmin(token);
+        log.info("🔄 PGVector ANN 인덱스 확인 요청");
+        pgVectorIndexManager.ensureOnStartup();
+        return ResponseEntity.accepted().body("✅ PGVector ANN 인덱스 확인 시작");
+    }
+
+ // ✅ OpenAI 공용 클라이언트 상태 조회
+    @GetMapping("/openai/stats")
+    public ResponseEntity<Map<String, Object>> getOpenAIStats() {
+        return ResponseEntity.ok(openAIClient.stats());
+    }
+
+ // ✅ RAG 재정렬 방식 / 경로별 지연 시간 조회
+    @GetMapping("/rag/rerank/stats")
+    public ResponseEntity<Map<String, Object>> getRagRerankStats() {
+        return ResponseEntity.ok(ragReranker.stats());
+    }
+
+ // ✅ RAG 단계별 캐시 적중률 조회
+    @GetMapping("/rag/cache/stats")
+    public ResponseEntity<Map<String, Object>> getRagCacheStats() {
+        return ResponseEntity.ok(ragQueryCache.stats());
+    }
+
+ // ✅ 벡터 기반 유사 상품 추천 (RAG 검색)
     // GET http://localhost:5000/vector/rag?query=운동 후 먹을 단백질 제품 100개 추천해줘 예산은 6만원쯤!
-    // 사용자별로 20회 정도 대화하고 나면 일정주기 동안 대화 불가능하게 하는 로직 같은게 필요해 보임.
+    // 사용자별 대화 횟수 제한은 RateLimitFilter (rate-limit.routes 의 rag 버킷) 에서 처리
     
     @GetMapping("/rag")
-    public ResponseEntity<Map<String, Object>> recommendByRag(@RequestParam String query) {
-        log.info("🧠 [RAG] 검색 요청 (자연어): {}", query);
+    public ResponseEntity<Map<String, Object>> recommendByRag(
+            @RequestParam String query,
+            @RequestParam(required = false) Long categoryId) {
+        log.info("🧠 [RAG] 검색 요청 (자연어): {} (categoryId={})", query, categoryId);
+        long start = System.nanoTime();
 
         String rewritten = chatGPTService.rewriteToStructuredQuery(query);
         log.info("📝 변환된 쿼리: {}", rewritten);
 
-        if (!isValidStructuredQuery(rewritten)) {
+        if (!chatGPTService.isValidStructuredQuery(rewritten)) {
             log.warn("⚠️ GPT 응답이 올바른 형식이 아님: {}", rewritten);
             return ResponseEntity
                     .badRequest()
@@ -140,10 +355,19 @@ public class ProductVectorController {
                     ));
         }
 
-        List<Long> recommended = productVectorService.recommendProductsByRag(rewritten);
+        List<Long> recommended = productVectorService.recommendProductsByRag(rewritten, categoryId);
 
-        Map<String, Object> result = chatGPTService.rerankWithGpt(recommended, query);
+        Map<String, Object> result = ragReranker.rerank(recommended, rewritten, query, start);
 
         return ResponseEntity.ok(result);
     }
-}
\ No newline at end of file
+
+ // ✅ 벡터 기반 유사 상품 추천 (RAG 검색, SSE 스트리밍)
+    // 벡터 검색이 끝나는 즉시 상품 카드를 먼저 보내고, GPT 추천 이유는 토큰 단위로 이어서 전송
+    @GetMapping(value = "/rag/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamRecommendByRag(
+            @RequestParam String query,
+            @RequestParam(required = false) Long categoryId) {
+        return ragStreamService.stream(query, categoryId);
+    }
+}
@@ -5,6 +5,11 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import org.postgresql.util.PGobject;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
 @Getter
 @Setter
 @NoArgsConstructor
@@ -36,6 +41,19 @@ public class ProductVectorDTO {
         return sb.toString().trim();
     }
 
+    /**
+     * ✅ 임베딩 텍스트 SHA-256 (hex) — product_vector.content_hash 와 비교해 텍스트가 바뀐 경우만 재임베딩
+     */
+    @JsonIgnore
+    public String contentHash() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(toEmbeddingText().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 미지원 JVM", e);
+        }
+    }
+
     /**
      * ✅ float[] → JSON(String) 변환 (저장용)
      */
@@ -54,13 +72,7 @@ public class ProductVectorDTO {
      */
     public float[] getEmbeddingAsArray() {
         if (productEmbedding == null) return null;
-
-        String[] tokens = productEmbedding.replace("(", "").replace(")", "").split(",");
-        float[] result = new float[tokens.length];
-        for (int i = 0; i < tokens.length; i++) {
-            result[i] = Float.parseFloat(tokens[i].trim());
-        }
-        return result;
+        return PgVectorCodec.fromText(productEmbedding);
     }
 
     /**
@@ -0,0 +1,268 @@
+package com.onshop.shop.vector;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ✅ product_vector 테이블을 JVM 메모리에 올려둔 HNSW 인덱스
+ *
+ * - 애플리케이션 기동 후 product_vector를 product_id 순으로 페이지 단위 스트리밍하여 인덱스 구축
+ * - insertVectorWithTextCast 로 임베딩이 저장될 때마다 upsert 로 즉시 반영
+ * - 인덱스가 준비되지 않았거나 비활성화된 경우 호출자는 PGVector 쿼리로 fallback
+ * - 가격 / 카테고리 사전 필터용으로 상품별 (category_id, price) 를 함께 보관
+ * - upsert / remove 는 압축 저장소(ProductCompressedIndex)에도 그대로 전달
+ * - 유사 상품 그래프(ProductSimilarityIndex)에는 변경 상품으로 알림 → 백그라운드 부분 갱신
+ * - 수정 / 삭제된 노드는 tombstone 으로 남으므로 살아있는 노드 대비 compact-deleted-ratio 를 넘으면 백그라운드 재구축으로 정리
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductVectorIndex {
+
+    static final int MAX_RECALL_SAMPLES = 500;
+    static final int MAX_RECALL_K = 100;
+
+    private final ProductVectorRepository productVectorRepository;
+    private final ProductCompressedIndex productCompressedIndex;
+    private final ProductSimilarityIndex productSimilarityIndex;
+
+    @Value("${vector.hnsw.enabled:true}")
+    private boolean enabled;
+
+    @Value("${vector.dimension:1536}")
+    private int dimension;
+
+    @Value("${vector.hnsw.m:16}")
+    private int m;
+
+    @Value("${vector.hnsw.ef-construction:200}")
+    private int efConstruction;
+
+    @Value("${vector.hnsw.ef-search:64}")
+    private int efSearch;
+
+    @Value("${vector.hnsw.build-page-size:1000}")
+    private int buildPageSize;
+
+    @Value("${vector.hnsw.compact-deleted-ratio:0.2}")
+    private double compactDeletedRatio;
+
+    private volatile HnswIndex index;      // 검색에 사용하는 완성된 인덱스
+    private volatile HnswIndex building;   // 재구축 중인 인덱스 (구축 중 들어온 upsert도 함께 반영)
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final ProductFilterAttributes attributes = new ProductFilterAttributes();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            log.info("⏸️ [HNSW] 비활성화 상태 → PGVector 검색만 사용");
+            return;
+        }
+        CompletableFuture.runAsync(this::rebuild);
+    }
+
+    /**
+     * ✅ product_vector 전체를 다시 읽어 인덱스를 새로 만든 뒤 교체
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("⏭️ [HNSW] 이미 인덱스 구축 중");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            HnswIndex fresh = new HnswIndex(dimension, m, efConstruction, efSearch);
+            building = fresh;
+
+            long lastId = 0L;
+            int loaded = 0, skipped = 0;
+            while (true) {
+                List<Object[]> rows = productVectorRepository.findEmbeddingsAfter(lastId, buildPageSize);
+                if (rows.isEmpty()) break;
+
+                for (Object[] row : rows) {
+                    lastId = ((Number) row[0]).longValue();
+                    float[] vector = PgVectorCodec.decode(row[1]);
+                    if (vector.length != dimension) {
+                        skipped++;
+                        continue;
+                    }
+                    attributes.put(lastId, row[2], row[3]);
+                    fresh.upsert(lastId, vector);
+                    loaded++;
+                }
+                if (rows.size() < buildPageSize) break;
+            }
+
+            index = fresh;
+            log.info("✅ [HNSW] 인덱스 구축 완료: {}개 (차원 불일치 건너뜀 {}개), {}ms",
+                    loaded, skipped, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("❌ [HNSW] 인덱스 구축 실패 → PGVector fallback 유지: {}", e.getMessage(), e);
+        } finally {
+            building = null;
+            rebuilding.set(false);
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && index != null;
+    }
+
+    /**
+     * ✅ 임베딩 저장 직후 호출 → 인덱스에 반영 (카테고리 / 가격은 필터 검색용)
+     */
+    public void upsert(Long productId, float[] embedding, Long categoryId, Integer price) {
+        productCompressedIndex.upsert(productId, embedding, categoryId, price);
+        productSimilarityIndex.markChanged(productId);
+        if (!enabled || productId == null || embedding == null || embedding.length != dimension) return;
+
+        attributes.put(productId, categoryId, price);
+
+        HnswIndex current = index;
+        HnswIndex inProgress = building;
+        if (current != null) current.upsert(productId, embedding);
+        if (inProgress != null && inProgress != current) inProgress.upsert(productId, embedding);
+        compactIfNeeded(current);
+    }
+
+    /**
+     * ✅ 임베딩은 그대로 두고 필터용 카테고리 / 가격만 갱신
+     *
+     * 그래프(HNSW / 유사 상품)는 건드리지 않음 → 노드 재연결 / tombstone / 유사 상품 재계산 없음
+     */
+    public void updateAttributes(Long productId, Long categoryId, Integer price) {
+        if (productId == null) return;
+
+        productCompressedIndex.updateAttributes(productId, categoryId, price);
+        if (enabled) attributes.update(productId, categoryId, price);
+    }
+
+    public void remove(Long productId) {
+        if (productId == null) return;
+
+        productCompressedIndex.remove(productId);
+        productSimilarityIndex.markRemoved(productId);
+        attributes.remove(productId);
+        HnswIndex current = index;
+        HnswIndex inProgress = building;
+        if (current != null) current.remove(productId);
+        if (inProgress != null) inProgress.remove(productId);
+        compactIfNeeded(current);
+    }
+
+    /**
+     * tombstone 이 살아있는 노드의 compact-deleted-ratio 배를 넘으면 재구축 (이미 구축 중이면 rebuild 에서 건너뜀)
+     */
+    private void compactIfNeeded(HnswIndex current) {
+        if (current == null || rebuilding.get()) return;
+        int deleted = current.deletedCount();
+        if (deleted > 0 && deleted > current.size() * compactDeletedRatio) {
+            log.info("🧹 [HNSW] 삭제 노드 {}개 (살아있는 노드 {}개) → 인덱스 재구축", deleted, current.size());
+            CompletableFuture.runAsync(this::rebuild);
+        }
+    }
+
+    /**
+     * ✅ 근사 최근접 상품 ID 상위 k개 (인덱스 미준비 시 빈 리스트)
+     */
+    public List<Long> search(float[] query, int k) {
+        HnswIndex current = index;
+        if (!enabled || current == null) return List.of();
+        return current.search(query, k);
+    }
+
+    /**
+     * ✅ 가격 구간 / 카테고리 조건을 만족하는 상품 중 근사 최근접 상위 k개
+     *
+     * - 그래프 탐색 중 조건 불일치 노드는 경로로만 쓰고 결과에서 제외
+     * - 조건이 좁아 k개를 못 채우면 HnswIndex 가 ef 를 넓혀 재탐색, 그래도 부족하면 전수 비교
+     */
+    public List<Long> search(float[] query, int k, VectorSearchFilter filter) {
+        if (filter == null || filter.isEmpty()) return search(query, k);
+
+        HnswIndex current = index;
+        if (!enabled || current == null) return List.of();
+        return current.search(query, k, attributes.matcher(filter));
+    }
+
+    /**
+     * ✅ 인덱스에 저장된 상품 벡터를 질의로 사용해 HNSW 결과와 전수 비교(brute-force) 결과의 recall@k 측정
+     *
+     * 샘플마다 전수 비교를 하므로 samples ≤ MAX_RECALL_SAMPLES, k ≤ MAX_RECALL_K 로 제한
+     */
+    public Map<String, Object> measureRecall(int samples, int k) {
+        HnswIndex current = index;
+        if (current == null) {
+            return Map.of("ready", false);
+        }
+        samples = Math.max(1, Math.min(samples, MAX_RECALL_SAMPLES));
+        k = Math.max(1, Math.min(k, MAX_RECALL_K));
+
+        long approxNanos = 0, exactNanos = 0;
+        int hits = 0, expected = 0;
+        List<Long> sampleIds = current.sampleIds(samples);
+
+        for (Long id : sampleIds) {
+            float[] query = current.get(id);
+            if (query == null) continue;
+
+            long t0 = System.nanoTime();
+            List<Long> approx = current.search(query, k);
+            long t1 = System.nanoTime();
+            List<Long> exact = current.exactSearch(query, k);
+            long t2 = System.nanoTime();
+
+            approxNanos += t1 - t0;
+            exactNanos += t2 - t1;
+
+            Set<Long> exactSet = new HashSet<>(exact);
+            for (Long found : approx) {
+                if (exactSet.contains(found)) hits++;
+            }
+            expected += exact.size();
+        }
+
+        int n = Math.max(1, sampleIds.size());
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ready", true);
+        result.put("samples", sampleIds.size());
+        result.put("k", k);
+        result.put("recall", expected == 0 ? 0.0 : (double) hits / expected);
+        result.put("hnswAvgMillis", approxNanos / 1_000_000.0 / n);
+        result.put("exactAvgMillis", exactNanos / 1_000_000.0 / n);
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        HnswIndex current = index;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("ready", current != null);
+        result.put("rebuilding", rebuilding.get());
+        result.put("size", current == null ? 0 : current.size());
+        result.put("deleted", current == null ? 0 : current.deletedCount());
+        result.put("m", m);
+        result.put("efConstruction", efConstruction);
+        result.put("efSearch", current == null ? efSearch : current.getEfSearch());
+        return result;
+    }
+
+    public void setEfSearch(int efSearch) {
+        this.efSearch = efSearch;
+        HnswIndex current = index;
+        if (current != null) current.setEfSearch(efSearch);
+    }
+}
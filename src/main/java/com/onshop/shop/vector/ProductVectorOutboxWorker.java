@@ -0,0 +1,338 @@
+package com.onshop.shop.vector;
+
+import com.onshop.shop.product.Product;
+import com.onshop.shop.product.ProductChangeOutbox;
+import com.onshop.shop.product.ProductChangeOutboxRepository;
+import com.onshop.shop.product.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * ✅ product_change_outbox → PGVector 증분 동기화 워커
+ *
+ * - 상품 등록 / 수정 / 삭제 시 같은 MySQL 트랜잭션에서 outbox 행이 쌓임 (상품 저장과 변경 기록이 함께 커밋 / 롤백)
+ * - 주기적으로 오래된 순 batch-size 개를 꺼내 상품 ID 기준으로 합친 뒤, 이벤트 종류 대신 "현재 MySQL 상태" 에 맞춤
+ *   · 상품 없음      → product_vector 삭제 + 메모리 인덱스 / 임베딩 캐시 제거
+ *   · 텍스트 해시 다름 → 배치 임베딩 후 일괄 upsert (OpenAI 호출은 여기서만)
+ *   · 해시 같음      → 카테고리 / 가격만 바뀌었으면 그 컬럼만 UPDATE + 메모리 인덱스 필터 속성만 교체, 아니면 아무것도 안 함
+ *   · 가격 없음      → product_vector.price 가 NOT NULL 이라 저장하지 않고 건너뜀 (skipped)
+ * - 실패는 상품 단위로 격리: 일괄 임베딩 / 저장이 실패하면 한 건씩 다시 실행해서 실패한 상품만 골라냄
+ *   (ProductVectorSyncJob 과 같은 방식) → 성공한 상품의 outbox 행은 삭제, 실패한 상품의 행만 attempts +1
+ * - batch 의 상품이 전부 실패하면 DB / OpenAI 장애로 보고 attempts 를 올리지 않고 다음 주기에 재시도
+ * - max-attempts 이상 실패한 행은 보류(dead letter)로 테이블에 남김 → /vector/outbox/stats 의 deadLetter
+ * - 같은 행을 두 번 처리해도 결과가 같음 → 여러 인스턴스 / 재시도에 안전
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductVectorOutboxWorker {
+
+    private final ProductChangeOutboxRepository outboxRepository;
+    private final ProductRepository productRepository;
+    private final ProductVectorRepository productVectorRepository;
+    private final ProductVectorBatchWriter batchWriter;
+    private final ProductVectorIndex productVectorIndex;
+    private final ProductLexicalIndex productLexicalIndex;
+    private final ProductEmbeddingLookup productEmbeddingLookup;
+    private final RagQueryCache ragQueryCache;
+    private final OpenAIEmbeddingService openAIEmbeddingService;
+
+    @Value("${vector.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${vector.outbox.poll-interval-ms:2000}")
+    private long pollIntervalMs;
+
+    @Value("${vector.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${vector.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "vector-outbox-worker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong embedded = new AtomicLong();
+    private final AtomicLong attributeOnly = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long lastRunAt;
+    private volatile String lastError;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnReady() {
+        if (!enabled) {
+            log.info("⏸️ [OUTBOX] 비활성화 상태 (vector.outbox.enabled=false)");
+            return;
+        }
+        poller.scheduleWithFixedDelay(this::drainSafely, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("✅ [OUTBOX] 상품 변경 동기화 시작 (주기 {}ms, batch {})", pollIntervalMs, batchSize);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        poller.shutdownNow();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("pending", enabled ? outboxRepository.countByAttemptsLessThan(maxAttempts) : 0L);
+        result.put("deadLetter", enabled ? outboxRepository.countByAttemptsGreaterThanEqual(maxAttempts) : 0L);
+        result.put("processed", processed.get());
+        result.put("embedded", embedded.get());
+        result.put("attributeOnly", attributeOnly.get());
+        result.put("unchanged", unchanged.get());
+        result.put("deleted", deleted.get());
+        result.put("skipped", skipped.get());
+        result.put("failed", failed.get());
+        result.put("lastRunAt", lastRunAt);
+        result.put("lastError", lastError);
+        return result;
+    }
+
+    private void drainSafely() {
+        try {
+            // 한 주기에 쌓인 만큼 계속 비움 (batch 가 가득 차지 않으면 다음 주기까지 대기)
+            while (drainOnce()) {
+                if (Thread.currentThread().isInterrupted()) return;
+            }
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            log.warn("⚠️ [OUTBOX] outbox 조회 실패: {}", e.getMessage());
+        }
+        lastRunAt = System.currentTimeMillis();
+    }
+
+    private boolean drainOnce() {
+        List<ProductChangeOutbox> events = outboxRepository.findByAttemptsLessThanOrderByIdAsc(
+                maxAttempts, PageRequest.of(0, batchSize));
+        if (events.isEmpty()) return false;
+
+        Map<Long, List<Long>> eventIdsByProduct = new LinkedHashMap<>();
+        for (ProductChangeOutbox event : events) {
+            eventIdsByProduct.computeIfAbsent(event.getProductId(), k -> new ArrayList<>()).add(event.getId());
+        }
+        List<Long> productIds = new ArrayList<>(eventIdsByProduct.keySet());
+
+        Set<Long> failedProducts;
+        try {
+            failedProducts = reconcile(productIds);
+        } catch (RuntimeException e) {
+            // 조회 단계에서 batch 전체가 실패 → 상품 하나씩 다시 맞춰서 문제 상품만 골라냄
+            log.warn("⚠️ [OUTBOX] 변경 {}건 일괄 처리 실패, 상품별 재시도: {}", events.size(), e.getMessage());
+            failedProducts = new LinkedHashSet<>();
+            for (Long productId : productIds) {
+                try {
+                    failedProducts.addAll(reconcile(List.of(productId)));
+                } catch (RuntimeException single) {
+                    failedProducts.add(productId);
+                    lastError = single.getMessage();
+                }
+            }
+        }
+
+        if (productIds.size() > 1 && failedProducts.size() == productIds.size()) {
+            // 전부 실패 = 특정 상품 문제가 아니라 장애 → 정상 상품이 재시도 한도에 걸려 보류되지 않도록 attempts 유지
+            failed.addAndGet(events.size());
+            log.warn("❌ [OUTBOX] 변경 {}건 모두 실패 (장애로 보고 다음 주기 재시도): {}", events.size(), lastError);
+            return false;
+        }
+
+        List<Long> doneEventIds = new ArrayList<>(events.size());
+        List<Long> failedEventIds = new ArrayList<>();
+        for (Map.Entry<Long, List<Long>> entry : eventIdsByProduct.entrySet()) {
+            (failedProducts.contains(entry.getKey()) ? failedEventIds : doneEventIds).addAll(entry.getValue());
+        }
+
+        if (!doneEventIds.isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(doneEventIds);
+            processed.addAndGet(doneEventIds.size());
+        }
+        if (!failedEventIds.isEmpty()) {
+            failed.addAndGet(failedEventIds.size());
+            outboxRepository.incrementAttempts(failedEventIds);
+            log.warn("❌ [OUTBOX] 상품 {} 처리 실패 (다음 주기 재시도, {}회 실패 시 보류): {}", failedProducts, maxAttempts, lastError);
+            return false;
+        }
+        return events.size() == batchSize;
+    }
+
+    /**
+     * ✅ 상품들을 현재 MySQL 상태에 맞춤. 반환값 = 처리에 실패한 상품 ID (조회 자체가 실패하면 예외)
+     */
+    private Set<Long> reconcile(List<Long> productIds) {
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(productIds)) {
+            products.put(product.getProductId(), product);
+        }
+
+        Map<Long, Object[]> vectorStates = new HashMap<>();
+        for (Object[] row : productVectorRepository.findSyncStateByIds(productIds)) {
+            vectorStates.put(((Number) row[0]).longValue(), row);
+        }
+
+        List<Long> removed = new ArrayList<>();
+        List<Product> toEmbed = new ArrayList<>();
+        List<ProductVectorDTO> toEmbedDtos = new ArrayList<>();
+        List<ProductEmbedding> attributeRows = new ArrayList<>();
+
+        for (Long productId : productIds) {
+            Product product = products.get(productId);
+            Object[] state = vectorStates.get(productId);
+            if (product == null || product.getCategory() == null) {
+                // DELETE 이벤트라도 다른 판매자 상품이라 실제로 지워지지 않았을 수 있음 → MySQL 에 없을 때만 삭제
+                if (state != null) removed.add(productId);
+                continue;
+            }
+
+            if (product.getPrice() == null) {
+                skipped.incrementAndGet();
+                log.warn("⏭️ [OUTBOX] 가격 없는 상품은 벡터 저장 건너뜀: productId={}", productId);
+                continue;
+            }
+
+            ProductVectorDTO dto = ProductVectorDTO.fromProduct(product);
+            if (state == null || !dto.contentHash().equals(state[1])) {
+                toEmbed.add(product);
+                toEmbedDtos.add(dto);
+            } else if (!Objects.equals(((Number) state[2]).longValue(), product.getCategory().getId())
+                    || !Objects.equals(((Number) state[3]).intValue(), product.getPrice())) {
+                attributeRows.add(new ProductEmbedding(productId, product.getCategory().getId(), product.getPrice(), null));
+            } else {
+                unchanged.incrementAndGet();
+            }
+        }
+
+        Set<Long> failedIds = new LinkedHashSet<>();
+        deleteVectors(removed, failedIds);
+        updateAttributes(attributeRows, failedIds);
+        embedAndStore(toEmbed, toEmbedDtos, failedIds);
+
+        if (!removed.isEmpty() || !attributeRows.isEmpty() || !toEmbed.isEmpty()) {
+            ragQueryCache.clearTopProducts();
+        }
+        return failedIds;
+    }
+
+    private void deleteVectors(List<Long> productIds, Set<Long> failedIds) {
+        if (productIds.isEmpty()) return;
+
+        List<Long> done = applyEach(productIds, id -> id, batchWriter::deleteAll, failedIds, "벡터 삭제");
+        for (Long productId : done) {
+            productVectorIndex.remove(productId);
+            productLexicalIndex.remove(productId);
+            productEmbeddingLookup.evict(productId);
+        }
+        deleted.addAndGet(done.size());
+    }
+
+    private void updateAttributes(List<ProductEmbedding> rows, Set<Long> failedIds) {
+        if (rows.isEmpty()) return;
+
+        List<ProductEmbedding> done = applyEach(rows, ProductEmbedding::getProductId,
+                batchWriter::updateAttributes, failedIds, "카테고리 / 가격 갱신");
+        // 메모리 인덱스는 필터 속성만 교체 (임베딩 / 그래프는 그대로)
+        for (ProductEmbedding row : done) {
+            productVectorIndex.updateAttributes(row.getProductId(), row.getCategoryId(), row.getPrice());
+        }
+        attributeOnly.addAndGet(done.size());
+    }
+
+    private void embedAndStore(List<Product> products, List<ProductVectorDTO> dtos, Set<Long> failedIds) {
+        if (products.isEmpty()) return;
+
+        List<String> texts = dtos.stream().map(ProductVectorDTO::toEmbeddingText).toList();
+        List<float[]> vectors;
+        try {
+            vectors = openAIEmbeddingService.getEmbeddings(texts);
+        } catch (RuntimeException e) {
+            // 입력 하나 때문에 batch 전체가 실패하는 경우 → 한 건씩 재시도
+            log.warn("⚠️ [OUTBOX] 배치 임베딩 실패, 개별 재시도: {}", e.getMessage());
+            vectors = new ArrayList<>(texts.size());
+            for (String text : texts) {
+                try {
+                    vectors.add(openAIEmbeddingService.getEmbedding(text));
+                } catch (RuntimeException single) {
+                    vectors.add(null);
+                    lastError = single.getMessage();
+                }
+            }
+        }
+
+        Map<Long, Product> byId = new HashMap<>();
+        List<ProductEmbedding> rows = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            if (vectors.get(i) == null) {
+                failedIds.add(product.getProductId());
+                continue;
+            }
+            byId.put(product.getProductId(), product);
+            rows.add(new ProductEmbedding(product.getProductId(), product.getCategory().getId(), product.getPrice(),
+                    vectors.get(i), dtos.get(i).contentHash()));
+        }
+
+        List<ProductEmbedding> done = applyEach(rows, ProductEmbedding::getProductId,
+                batchWriter::upsertAll, failedIds, "product_vector 저장");
+        for (ProductEmbedding row : done) {
+            productVectorIndex.upsert(row.getProductId(), row.getEmbedding(), row.getCategoryId(), row.getPrice());
+            productLexicalIndex.upsert(byId.get(row.getProductId()));
+            productEmbeddingLookup.put(row.getProductId(), row.getEmbedding());
+        }
+        embedded.addAndGet(done.size());
+    }
+
+    /**
+     * 일괄 실행 → 실패하면 한 건씩 다시 실행해서 실패한 상품 ID 만 failedIds 에 담음. 반환값 = 성공한 항목
+     */
+    private <T> List<T> applyEach(List<T> items, Function<T, Long> productIdOf, Consumer<List<T>> action,
+                                  Set<Long> failedIds, String label) {
+        if (items.isEmpty()) return items;
+        try {
+            action.accept(items);
+            return items;
+        } catch (RuntimeException e) {
+            log.warn("⚠️ [OUTBOX] {} {}건 일괄 실패, 개별 재시도: {}", label, items.size(), e.getMessage());
+        }
+
+        List<T> done = new ArrayList<>(items.size());
+        for (T item : items) {
+            try {
+                action.accept(List.of(item));
+                done.add(item);
+            } catch (RuntimeException single) {
+                failedIds.add(productIdOf.apply(item));
+                lastError = single.getMessage();
+            }
+        }
+        return done;
+    }
+}
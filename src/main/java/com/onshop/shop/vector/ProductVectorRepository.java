@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * ✅ PostgreSQL product_vector 테이블과 연동되는 Repository
@@ -29,7 +30,8 @@ public interface ProductVectorRepository extends JpaRepository<ProductVector, Lo
         ON CONFLICT (product_id) DO UPDATE
         SET category_id = EXCLUDED.category_id,
             price = EXCLUDED.price,
-            product_embedding = EXCLUDED.product_embedding
+            product_embedding = EXCLUDED.product_embedding,
+            content_hash = NULL
         """, nativeQuery = true)
     void insertVectorWithTextCast(
             @Param("productId") Long productId,
@@ -51,18 +53,98 @@ public interface ProductVectorRepository extends JpaRepository<ProductVector, Lo
     List<Object[]> findAllWithEmbeddingsRaw();
 
     /**
-     * ✅ [신규] OpenAI 쿼리 임베딩과 유사한 벡터 상위 N개만 가져오기 (코사인 유사도 기준)
+     * ✅ [신규] OpenAI 쿼리 임베딩과 유사한 벡터 상위 N개만 가져오기 (코사인 거리 <=> 기준)
      * DB 내부에서 유사도 정렬 → Java에서 코사인 계산 필요 없음
+     * 연산자는 ANN 인덱스 opclass(vector_cosine_ops, PgVectorIndexManager)와 맞춰야 인덱스를 탐
+     * ef_search / probes 는 호출 측에서 PgVectorSearchSettings 로 감싸서 지정
      */
     @Query(value = """
         SELECT product_id, category_id, price, product_embedding
         FROM product_vector
         WHERE product_embedding IS NOT NULL
-        ORDER BY product_embedding <-> CAST(:queryEmbedding AS vector)
+        ORDER BY product_embedding <=> CAST(:queryEmbedding AS vector)
         LIMIT :topCount
         """, nativeQuery = true)
     List<Object[]> findTopBySimilarity(
             @Param("queryEmbedding") String queryEmbedding,
             @Param("topCount") int topCount
     );
+
+    /**
+     * ✅ 가격 구간 / 카테고리 조건을 WHERE 로 먼저 거른 뒤 유사도 상위 N개
+     * applyCategory = false 이면 카테고리 조건 무시 (categoryIds 에는 더미 값 전달)
+     */
+    @Query(value = """
+        SELECT product_id, category_id, price, product_embedding
+        FROM product_vector
+        WHERE product_embedding IS NOT NULL
+          AND price BETWEEN :minPrice AND :maxPrice
+          AND (:applyCategory = false OR category_id IN (:categoryIds))
+        ORDER BY product_embedding <=> CAST(:queryEmbedding AS vector)
+        LIMIT :topCount
+        """, nativeQuery = true)
+    List<Object[]> findTopBySimilarityFiltered(
+            @Param("queryEmbedding") String queryEmbedding,
+            @Param("minPrice") int minPrice,
+            @Param("maxPrice") int maxPrice,
+            @Param("applyCategory") boolean applyCategory,
+            @Param("categoryIds") List<Long> categoryIds,
+            @Param("topCount") int topCount
+    );
+
+    /**
+     * ✅ 단일 상품 임베딩 조회 (vector_send 바이너리 → PgVectorCodec.fromBinary)
+     */
+    @Query(value = """
+        SELECT vector_send(product_embedding)
+        FROM product_vector
+        WHERE product_id = :productId
+          AND product_embedding IS NOT NULL
+        """, nativeQuery = true)
+    Optional<byte[]> findEmbeddingBinaryById(@Param("productId") Long productId);
+
+    /**
+     * ✅ 주어진 ID 중 이미 임베딩이 저장된 product_id 목록 (동기화 시 chunk 단위 사전 필터)
+     */
+    @Query("SELECT pv.productId FROM ProductVector pv WHERE pv.productId IN :productIds")
+    List<Long> findExistingProductIds(@Param("productIds") List<Long> productIds);
+
+    /**
+     * ✅ HNSW 인덱스 구축용: product_id 순 keyset 페이지 단위로 임베딩 조회
+     * (전체를 한 번에 메모리로 올리지 않도록 lastId 이후 limit 개씩 읽음)
+     * 임베딩은 vector_send() 바이너리(byte[])로 받음, category_id / price 는 필터 검색용
+     */
+    @Query(value = """
+        SELECT product_id, vector_send(product_embedding), category_id, price
+        FROM product_vector
+        WHERE product_embedding IS NOT NULL
+          AND product_id > :lastId
+        ORDER BY product_id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Object[]> findEmbeddingsAfter(
+            @Param("lastId") Long lastId,
+            @Param("limit") int limit
+    );
+
+    /**
+     * ✅ 압축 저장소 후보 재정렬용: 주어진 ID 들의 원본 임베딩 (vector_send 바이너리)
+     */
+    @Query(value = """
+        SELECT product_id, vector_send(product_embedding)
+        FROM product_vector
+        WHERE product_id IN (:productIds)
+          AND product_embedding IS NOT NULL
+        """, nativeQuery = true)
+    List<Object[]> findEmbeddingsByIds(@Param("productIds") List<Long> productIds);
+
+    /**
+     * ✅ 변경 동기화용: 주어진 ID 들의 (product_id, content_hash, category_id, price)
+     */
+    @Query(value = """
+        SELECT product_id, content_hash, category_id, price
+        FROM product_vector
+        WHERE product_id IN (:productIds)
+        """, nativeQuery = true)
+    List<Object[]> findSyncStateByIds(@Param("productIds") List<Long> productIds);
 }
\ No newline at end of file
@@ -4,7 +4,7 @@ import java.util.List;
 
 public interface ProductVectorService {
 
-    List<ProductVectorDTO> searchVectorProducts(String query); // 검색
+    HybridSearchResponseDTO searchVectorProducts(String query, int page, int size); // 검색 (BM25 + 벡터 하이브리드)
 
     ProductVectorDTO getVectorByProductId(Long productId); // 겟
 
@@ -14,9 +14,15 @@ public interface ProductVectorService {
 
     void deleteVectorData(Long productId); // 삭제
 
-    void syncProductVectors();  // MySQL → PostgreSQL 벡터 데이터 일괄 동기화
+    void syncProductVectors();  // MySQL → PostgreSQL 벡터 데이터 일괄 동기화 (현재 스레드에서 끝까지 실행)
+
+    boolean startProductVectorSync(boolean restart); // 백그라운드 동기화 시작 (이미 실행 중이면 false)
+
+    VectorSyncStatusDTO getSyncStatus(); // 백그라운드 동기화 진행 상황
     
     void testEmbedProduct(Long productId);	// 임베딩 테스트용 - 하나 임베딩하고 로그 찍어주는 함수.
     
     List<Long> recommendProductsByRag(String query); // 코사인 유사도 띄워주는 함수.
+
+    List<Long> recommendProductsByRag(String query, Long categoryId); // 카테고리(하위 포함) + 가격 구간 사전 필터 적용
 }
\ No newline at end of file
@@ -1,14 +1,21 @@
 package com.onshop.shop.vector;
 
+import com.onshop.shop.category.Category;
+import com.onshop.shop.category.CategoryRepository;
 import com.onshop.shop.product.Product;
 import com.onshop.shop.product.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.postgresql.util.PGobject;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -18,6 +25,20 @@ public class ProductVectorServiceImpl implements ProductVectorService {
     private final OpenAIEmbeddingService openAIEmbeddingService;
     private final ProductVectorRepository productVectorRepository;
     private final ProductRepository productRepository;
+    private final ProductVectorIndex productVectorIndex;
+    private final ProductCompressedIndex productCompressedIndex;
+    private final ProductVectorSyncJob productVectorSyncJob;
+    private final ProductEmbeddingLookup productEmbeddingLookup;
+    private final RagQueryCache ragQueryCache;
+    private final HybridSearchService hybridSearchService;
+    private final CategoryRepository categoryRepository;
+    private final PgVectorSearchSettings pgVectorSearchSettings;
+
+    @Value("${vector.rag.candidate-factor:5}")
+    private int candidateFactor; // 추천 개수 × factor 만큼 후보를 뽑아 GPT rerank 에 전달
+
+    @Value("${vector.rag.price-window-steps:1,2,4}")
+    private double[] priceWindowSteps; // 가격 구간 = 평균 ± 표준편차 × step (부족하면 다음 step)
     
     private static class ScoredProduct {
         ProductVector vector;
@@ -30,9 +51,9 @@ public class ProductVectorServiceImpl implements ProductVectorService {
     }
 
     @Override
-    public List<ProductVectorDTO> searchVectorProducts(String query) {
+    public HybridSearchResponseDTO searchVectorProducts(String query, int page, int size) {
         log.info("🔍 벡터 검색 요청: {}", query);
-        return List.of(); // 추후 검색 로직 구현
+        return hybridSearchService.search(query, Math.max(0, page), Math.min(Math.max(1, size), 100));
     }
 
     @Override
@@ -63,50 +84,26 @@ public class ProductVectorServiceImpl implements ProductVectorService {
     public void deleteVectorData(Long productId) {
         log.info("🗑️ 벡터 데이터 삭제 요청: {}", productId);
         productVectorRepository.deleteById(productId);
+        productVectorIndex.remove(productId);
+        productEmbeddingLookup.evict(productId);
+        ragQueryCache.clearTopProducts();
     }
 
     @Override
     public void syncProductVectors() {
-        log.info("🔄 MySQL → PGVector 벡터 데이터 동기화 시작");
-
-        List<Product> productList = productRepository.findAll();
-        log.info("📦 총 {}개의 상품 데이터 조회됨", productList.size());
-
-        int skipped = 0, success = 0, failed = 0;
-
-        for (Product product : productList) {
-            Long productId = product.getProductId();
-
-            if (productVectorRepository.existsById(productId)) {
-                log.info("⏭️ 이미 임베딩된 상품: productId={}", productId);
-                skipped++;
-                continue;
-            }
-
-            try {
-                ProductVectorDTO dto = ProductVectorDTO.fromProduct(product);
-                String embeddingText = dto.toEmbeddingText();
-
-                float[] embeddingArray = openAIEmbeddingService.getEmbedding(embeddingText);
-                String vectorString = PGVectorAttributeConverter.toPgVectorString(embeddingArray);
-
-                productVectorRepository.insertVectorWithTextCast(
-                        productId,
-                        product.getCategory().getId(),
-                        product.getPrice(),
-                        vectorString
-                );
-
-                log.info("✅ 임베딩 및 저장 완료: productId={}", productId);
-                success++;
+        log.info("🔄 MySQL → PGVector 벡터 데이터 동기화 시작 (동기 실행)");
+        productVectorSyncJob.runNow(false);
+    }
 
-            } catch (RuntimeException e) {
-                log.warn("❌ 상품 [{}] 임베딩 실패: {}", productId, e.getMessage());
-                failed++;
-            }
-        }
+    @Override
+    public boolean startProductVectorSync(boolean restart) {
+        log.info("🔄 MySQL → PGVector 벡터 데이터 백그라운드 동기화 요청 (restart={})", restart);
+        return productVectorSyncJob.start(restart);
+    }
 
-        log.info("✅ PGVector 동기화 완료 — 총: {}, 성공: {}, 건너뜀: {}, 실패: {}", productList.size(), success, skipped, failed);
+    @Override
+    public VectorSyncStatusDTO getSyncStatus() {
+        return productVectorSyncJob.status();
     }
 
     @Override
@@ -133,6 +130,8 @@ public class ProductVectorServiceImpl implements ProductVectorService {
                     product.getPrice(),
                     vectorString
             );
+            productVectorIndex.upsert(product.getProductId(), embeddingArray, product.getCategory().getId(), product.getPrice());
+            productEmbeddingLookup.put(product.getProductId(), embeddingArray);
 
             log.info("✅ [TEST] 임베딩 및 저장 성공: productId={}", productId);
         } catch (RuntimeException e) {
@@ -140,55 +139,112 @@ public class ProductVectorServiceImpl implements ProductVectorService {
         }
     }
 
+    @Override
+    public List<Long> recommendProductsByRag(String query) {
+        return recommendProductsByRag(query, null);
+    }
+
     @Override
     
     // 단백질 건강 3 50000 3000
-    public List<Long> recommendProductsByRag(String query) {
-        log.info("🧠 [RAG] 유사도 기반 상품 추천 시작: {}", query);
-
-        // 1. 쿼리 토큰 분리
-        String[] tokens = query.trim().split(" ");
-        int n = tokens.length;
-
-        int recommendationCount = 3;
-        int priceAvg = 0;
-        int priceStdDev = 0;
-
-        int numbersParsed = 0;
-        for (int i = n - 1; i >= 0 && numbersParsed < 3; i--) {
-            if (tokens[i].matches("\\d+")) {
-                int num = Integer.parseInt(tokens[i]);
-                switch (numbersParsed) {
-                    case 0 -> priceStdDev = num;
-                    case 1 -> priceAvg = num;
-                    case 2 -> recommendationCount = num;
-                }
-                numbersParsed++;
-            } else {
-                break;
-            }
-        }
+    public List<Long> recommendProductsByRag(String query, Long categoryId) {
+        log.info("🧠 [RAG] 유사도 기반 상품 추천 시작: {} (categoryId={})", query, categoryId);
 
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < n - numbersParsed; i++) {
-            sb.append(tokens[i]).append(" ");
-        }
-        String textOnly = sb.toString().trim();
+        // 1. 쿼리 토큰 분리 (키워드 / 추천개수 / 평균가격 / 표준편차)
+        RagQuery parsed = RagQuery.parse(query);
+        String textOnly = parsed.keywords();
+        int recommendationCount = parsed.count();
+        int priceAvg = parsed.priceAvg();
+        int priceStdDev = parsed.priceStdDev();
 
         log.info("🧾 [쿼리 파싱] 키워드='{}', 추천개수={}, 평균={}, 표준편차={}", textOnly, recommendationCount, priceAvg, priceStdDev);
 
+        int topCount = recommendationCount * candidateFactor;
+        int minResults = Math.min(topCount, recommendationCount * 2);
+
+        int avg = priceAvg, stdDev = priceStdDev;
+        String cacheKey = textOnly + "|" + avg + "|" + stdDev + "|" + categoryId;
+
+        // ✅ 같은 키워드 / 가격 / 카테고리 / 개수 조합은 캐시된 Top-K 재사용 (임베딩 호출, 하위 카테고리 조회까지 생략)
+        return ragQueryCache.topProducts(cacheKey, topCount, () -> {
+            VectorSearchFilter categoryFilter = categoryId == null
+                    ? VectorSearchFilter.NONE
+                    : new VectorSearchFilter(null, null, categorySubtree(categoryId));
+            return searchWithPriceWidening(textOnly, topCount, minResults, avg, stdDev, categoryFilter);
+        });
+    }
+
+    /**
+     * ✅ 가격 구간을 평균 ± 표준편차 × step 으로 잡아 사전 필터 후 유사도 검색
+     *
+     * - 후보가 minResults 에 못 미치면 다음 step 으로 구간을 넓혀 재검색
+     * - 마지막 step 에서도 부족하면 가격 조건을 빼고 검색 (카테고리 조건은 끝까지 유지)
+     * - 평균 가격이 없으면(0) 가격 조건 없이 바로 검색
+     */
+    private List<Long> searchWithPriceWidening(String textOnly, int topCount, int minResults,
+                                               int priceAvg, int priceStdDev, VectorSearchFilter categoryFilter) {
         float[] queryEmbedding;
         try {
-            queryEmbedding = openAIEmbeddingService.getEmbedding(textOnly);
+            queryEmbedding = ragQueryCache.embedding(textOnly, () -> openAIEmbeddingService.getEmbedding(textOnly));
         } catch (Exception e) {
             log.error("❌ [RAG] 임베딩 실패: {}", e.getMessage(), e);
             return List.of();
         }
 
+        if (priceAvg > 0) {
+            // 표준편차를 안 주면 평균의 20% 를 기본 폭으로 사용
+            double stdDev = priceStdDev > 0 ? priceStdDev : priceAvg * 0.2;
+            for (double step : priceWindowSteps) {
+                int min = (int) Math.max(0, Math.floor(priceAvg - stdDev * step));
+                int max = (int) Math.min(Integer.MAX_VALUE, Math.ceil(priceAvg + stdDev * step));
+                List<Long> ids = searchSimilarProducts(queryEmbedding, topCount, categoryFilter.withPrice(min, max));
+                if (ids.size() >= minResults) {
+                    log.info("💰 [RAG] 가격 구간 {}~{}원 (±{}σ) 에서 후보 {}개 확보", min, max, step, ids.size());
+                    return ids;
+                }
+                log.info("↔️ [RAG] 가격 구간 {}~{}원 (±{}σ) 후보 {}개 < {}개 → 구간 확대", min, max, step, ids.size(), minResults);
+            }
+            log.info("↔️ [RAG] 가격 조건 해제 후 재검색");
+        }
+        return searchSimilarProducts(queryEmbedding, topCount, categoryFilter);
+    }
+
+    private List<Long> searchSimilarProducts(float[] queryEmbedding, int topCount, VectorSearchFilter filter) {
+        // ✅ 1순위: JVM 내 HNSW 인덱스 (PGVector 전체 정렬 부하 회피)
+        if (productVectorIndex.isReady()) {
+            try {
+                List<Long> ids = productVectorIndex.search(queryEmbedding, topCount, filter);
+                if (!ids.isEmpty()) {
+                    log.info("📊 [RAG] HNSW 유사도 Top {}개 조회 완료 ({})", ids.size(), filter);
+                    return ids;
+                }
+            } catch (RuntimeException e) {
+                log.warn("⚠️ [RAG] HNSW 검색 실패 → PGVector fallback: {}", e.getMessage());
+            }
+        }
+
+        // ✅ 2순위: 압축 저장소 (int8 / PQ 후보 → 원본 벡터 재정렬)
+        if (productCompressedIndex.isReady()) {
+            try {
+                List<Long> ids = productCompressedIndex.search(queryEmbedding, topCount, filter);
+                if (!ids.isEmpty()) {
+                    log.info("📊 [RAG] 압축 저장소 유사도 Top {}개 조회 완료 ({})", ids.size(), filter);
+                    return ids;
+                }
+            } catch (RuntimeException e) {
+                log.warn("⚠️ [RAG] 압축 저장소 검색 실패 → PGVector fallback: {}", e.getMessage());
+            }
+        }
+
+        // ✅ fallback: PGVector 쿼리 (조건이 있으면 WHERE 로 먼저 거른 뒤 정렬)
         String queryEmbeddingStr = PGVectorAttributeConverter.toPgVectorString(queryEmbedding);
 
-        List<Object[]> rows = productVectorRepository.findTopBySimilarity(queryEmbeddingStr, recommendationCount * 5);
-        log.info("📊 [RAG] 유사도 Top {}개 벡터 조회 완료", rows.size());
+        List<Object[]> rows = filter.isEmpty()
+                ? pgVectorSearchSettings.search(() -> productVectorRepository.findTopBySimilarity(queryEmbeddingStr, topCount))
+                : pgVectorSearchSettings.filteredSearch(() -> productVectorRepository.findTopBySimilarityFiltered(queryEmbeddingStr,
+                        filter.minPriceOrZero(), filter.maxPriceOrMax(),
+                        filter.hasCategory(), filter.categoryIdsOrDummy(), topCount));
+        log.info("📊 [RAG] 유사도 Top {}개 벡터 조회 완료 ({})", rows.size(), filter);
 
         if (rows.isEmpty()) {
             log.warn("⚠️ [RAG] 유사도 기반 추천 결과 없음");
@@ -200,16 +256,22 @@ public class ProductVectorServiceImpl implements ProductVectorService {
                 .map(row -> ((Number) row[0]).longValue()) // row[0] = product_id
                 .toList();
     }
-    
-    
-    private double cosineSimilarity(float[] a, float[] b) {
-        double dot = 0.0, normA = 0.0, normB = 0.0;
-        for (int i = 0; i < a.length; i++) {
-            dot += a[i] * b[i];
-            normA += a[i] * a[i];
-            normB += b[i] * b[i];
+
+    /**
+     * ✅ 선택한 카테고리 + 모든 하위 카테고리 ID (대 → 중 → 소 분류 전체)
+     */
+    private Set<Long> categorySubtree(Long categoryId) {
+        Set<Long> ids = new HashSet<>();
+        Deque<Long> queue = new ArrayDeque<>();
+        queue.add(categoryId);
+        while (!queue.isEmpty()) {
+            Long id = queue.poll();
+            if (!ids.add(id)) continue;
+            for (Category sub : categoryRepository.findByParentCategoryId(id)) {
+                queue.add(sub.getId());
+            }
         }
-        return dot / (Math.sqrt(normA) * Math.sqrt(normB));
+        return ids;
     }
 }
 
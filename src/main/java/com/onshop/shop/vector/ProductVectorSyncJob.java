@@ -0,0 +1,252 @@
+package com.onshop.shop.vector;
+
+import com.onshop.shop.product.Product;
+import com.onshop.shop.product.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ✅ MySQL product → PGVector product_vector 백그라운드 일괄 임베딩 작업
+ *
+ * 1. product_id 기준 keyset 페이지(chunk)로 상품을 읽음 (findAll() 전체 로딩 X)
+ * 2. chunk 단위로 이미 임베딩된 ID를 한 번의 IN 쿼리로 걸러냄 (existsById 반복 X)
+ * 3. 남은 상품을 batch 단위 input 배열로 묶어 OpenAI 호출, 동시 실행 수는 concurrency 로 제한
+ * 4. batch 결과를 다중 행 INSERT 한 문장으로 저장하고 HNSW 인덱스에도 반영
+ * 5. chunk 가 끝날 때마다 체크포인트 저장 → 중단돼도 다음 실행에서 이어서 진행
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductVectorSyncJob {
+
+    private static final String JOB_NAME = "product_vector_sync";
+
+    private final ProductRepository productRepository;
+    private final ProductVectorRepository productVectorRepository;
+    private final VectorSyncCheckpointRepository checkpointRepository;
+    private final ProductVectorBatchWriter batchWriter;
+    private final ProductVectorIndex productVectorIndex;
+    private final ProductLexicalIndex productLexicalIndex;
+    private final OpenAIEmbeddingService openAIEmbeddingService;
+
+    @Value("${vector.sync.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${vector.sync.batch-size:100}")
+    private int batchSize;
+
+    @Value("${vector.sync.concurrency:4}")
+    private int concurrency;
+
+    private final ExecutorService jobRunner = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "vector-sync-job");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong embedded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile Long lastProductId;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+
+    /**
+     * ✅ 백그라운드 실행 시작. 이미 실행 중이면 false
+     *
+     * @param restart true 면 체크포인트를 지우고 처음부터 다시 훑음
+     */
+    public boolean start(boolean restart) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        jobRunner.submit(() -> runSafely(restart));
+        return true;
+    }
+
+    /**
+     * ✅ 현재 스레드에서 끝까지 실행 (기존 동기 호출 경로용)
+     */
+    public void runNow(boolean restart) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("⏭️ [SYNC] 이미 동기화 작업이 실행 중");
+            return;
+        }
+        runSafely(restart);
+    }
+
+    public VectorSyncStatusDTO status() {
+        LocalDateTime begin = startedAt;
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        double seconds = begin == null ? 0 : Math.max(1, Duration.between(begin, end).toMillis()) / 1000.0;
+
+        return VectorSyncStatusDTO.builder()
+                .running(running.get())
+                .startedAt(begin)
+                .finishedAt(finishedAt)
+                .lastProductId(lastProductId)
+                .scanned(scanned.get())
+                .skipped(skipped.get())
+                .embedded(embedded.get())
+                .failed(failed.get())
+                .embeddedPerSecond(seconds == 0 ? 0 : embedded.get() / seconds)
+                .lastError(lastError)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobRunner.shutdownNow();
+    }
+
+    private void runSafely(boolean restart) {
+        resetCounters();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, concurrency));
+        try {
+            run(restart, workers);
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            log.error("❌ [SYNC] 벡터 동기화 중단 (체크포인트부터 재시작 가능): {}", e.getMessage(), e);
+        } finally {
+            workers.shutdown();
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    private void run(boolean restart, ExecutorService workers) {
+        VectorSyncCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                .filter(c -> !restart && !Boolean.TRUE.equals(c.getCompleted()))
+                .orElseGet(() -> VectorSyncCheckpoint.builder()
+                        .jobName(JOB_NAME)
+                        .lastProductId(0L)
+                        .completed(false)
+                        .build());
+        checkpoint.setCompleted(false);
+        lastProductId = checkpoint.getLastProductId();
+
+        log.info("🔄 [SYNC] 벡터 동기화 시작: productId > {}, chunk={}, batch={}, concurrency={}",
+                lastProductId, chunkSize, batchSize, concurrency);
+
+        while (true) {
+            List<Product> chunk = productRepository.findByProductIdGreaterThanOrderByProductIdAsc(
+                    lastProductId, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) break;
+            scanned.addAndGet(chunk.size());
+
+            List<Product> pending = filterNotEmbedded(chunk);
+            skipped.addAndGet(chunk.size() - pending.size());
+
+            List<CompletableFuture<Void>> batches = new ArrayList<>();
+            for (int from = 0; from < pending.size(); from += batchSize) {
+                List<Product> batch = pending.subList(from, Math.min(from + batchSize, pending.size()));
+                batches.add(CompletableFuture.runAsync(() -> embedAndStore(batch), workers));
+            }
+            CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).join();
+
+            lastProductId = chunk.get(chunk.size() - 1).getProductId();
+            checkpoint.setLastProductId(lastProductId);
+            checkpointRepository.save(checkpoint);
+
+            log.info("📦 [SYNC] 체크포인트 productId={} (읽음 {}, 임베딩 {}, 건너뜀 {}, 실패 {})",
+                    lastProductId, scanned.get(), embedded.get(), skipped.get(), failed.get());
+
+            if (chunk.size() < chunkSize) break;
+        }
+
+        checkpoint.setCompleted(true);
+        checkpointRepository.save(checkpoint);
+        log.info("✅ [SYNC] 벡터 동기화 완료 — 읽음: {}, 임베딩: {}, 건너뜀: {}, 실패: {}",
+                scanned.get(), embedded.get(), skipped.get(), failed.get());
+    }
+
+    private List<Product> filterNotEmbedded(List<Product> chunk) {
+        List<Long> ids = chunk.stream().map(Product::getProductId).toList();
+        Set<Long> existing = new HashSet<>(productVectorRepository.findExistingProductIds(ids));
+
+        List<Product> pending = new ArrayList<>(chunk.size());
+        for (Product product : chunk) {
+            if (!existing.contains(product.getProductId()) && product.getCategory() != null) {
+                pending.add(product);
+            }
+        }
+        return pending;
+    }
+
+    private void embedAndStore(List<Product> batch) {
+        List<ProductVectorDTO> dtos = batch.stream().map(ProductVectorDTO::fromProduct).toList();
+        List<String> texts = dtos.stream().map(ProductVectorDTO::toEmbeddingText).toList();
+
+        List<float[]> vectors;
+        try {
+            vectors = openAIEmbeddingService.getEmbeddings(texts);
+        } catch (RuntimeException e) {
+            // 입력 하나 때문에 batch 전체가 실패하는 경우 → 한 건씩 재시도
+            log.warn("⚠️ [SYNC] 배치 임베딩 실패, 개별 재시도: {}", e.getMessage());
+            vectors = new ArrayList<>(texts.size());
+            for (String text : texts) {
+                try {
+                    vectors.add(openAIEmbeddingService.getEmbedding(text));
+                } catch (RuntimeException single) {
+                    vectors.add(null);
+                }
+            }
+        }
+
+        List<ProductEmbedding> rows = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            float[] vector = vectors.get(i);
+            if (vector == null) {
+                failed.incrementAndGet();
+                continue;
+            }
+            Product product = batch.get(i);
+            productLexicalIndex.upsert(product);
+            rows.add(new ProductEmbedding(product.getProductId(), product.getCategory().getId(), product.getPrice(),
+                    vector, dtos.get(i).contentHash()));
+        }
+
+        try {
+            batchWriter.upsertAll(rows);
+        } catch (RuntimeException e) {
+            failed.addAndGet(rows.size());
+            lastError = e.getMessage();
+            log.warn("❌ [SYNC] product_vector 일괄 저장 실패 ({}건): {}", rows.size(), e.getMessage());
+            return;
+        }
+
+        for (ProductEmbedding row : rows) {
+            productVectorIndex.upsert(row.getProductId(), row.getEmbedding(), row.getCategoryId(), row.getPrice());
+        }
+        embedded.addAndGet(rows.size());
+    }
+
+    private void resetCounters() {
+        scanned.set(0);
+        skipped.set(0);
+        embedded.set(0);
+        failed.set(0);
+        lastError = null;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+    }
+}
@@ -0,0 +1,57 @@
+package com.onshop.shop.vector;
+
+/**
+ * ✅ GPT 구조화 쿼리 "키워드... 추천개수 평균가격 표준편차" 파싱 결과
+ *
+ * - 끝에서부터 숫자 토큰을 최대 3개 읽음 (표준편차 → 평균가격 → 추천개수 순)
+ * - 숫자가 모자라면 기본값 (추천 3개, 가격 조건 없음)
+ * - int 범위를 넘는 숫자는 Integer.MAX_VALUE 로 고정 (GPT 가 자릿수 많은 가격을 줘도 예외 없음)
+ */
+record RagQuery(String keywords, int count, int priceAvg, int priceStdDev) {
+
+    static final int DEFAULT_COUNT = 3;
+
+    static RagQuery parse(String rewritten) {
+        String[] tokens = rewritten.trim().split(" ");
+        int n = tokens.length;
+
+        int count = DEFAULT_COUNT;
+        int priceAvg = 0;
+        int priceStdDev = 0;
+
+        int numbersParsed = 0;
+        for (int i = n - 1; i >= 0 && numbersParsed < 3; i--) {
+            if (!tokens[i].matches("\\d+")) break;
+            int num = parseClamped(tokens[i]);
+            switch (numbersParsed) {
+                case 0 -> priceStdDev = num;
+                case 1 -> priceAvg = num;
+                case 2 -> count = num;
+            }
+            numbersParsed++;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n - numbersParsed; i++) {
+            sb.append(tokens[i]).append(" ");
+        }
+        return new RagQuery(sb.toString().trim(), count, priceAvg, priceStdDev);
+    }
+
+    private static int parseClamped(String digits) {
+        long value = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            value = value * 10 + (digits.charAt(i) - '0');
+            if (value >= Integer.MAX_VALUE) return Integer.MAX_VALUE;
+        }
+        return (int) value;
+    }
+
+    /**
+     * 가격 분포 폭 (표준편차를 안 주면 평균의 20%, 가격 조건 없으면 0)
+     */
+    double priceSigma() {
+        if (priceAvg <= 0) return 0;
+        return priceStdDev > 0 ? priceStdDev : priceAvg * 0.2;
+    }
+}
@@ -0,0 +1,150 @@
+package com.onshop.shop.vector;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * ✅ /vector/rag 단계별 결과 캐시
+ *
+ * 1. 정규화한 사용자 질문 → GPT 구조화 쿼리 (rewriteToStructuredQuery)
+ * 2. 구조화 쿼리의 키워드 텍스트 → 임베딩 (OpenAI embeddings)
+ * 3. (키워드 텍스트, 조회 개수) → 유사 상품 ID Top-K
+ *    (임베딩은 키워드 텍스트로 결정되므로 텍스트를 키로 사용)
+ *
+ * 각 단계는 SingleFlightCache (JVM LRU + Redis 공유) 이며, 같은 질문이 동시에 몰려도
+ * 원본 호출은 한 번만 나감. Redis 장애 시에는 JVM 캐시만으로 동작
+ */
+@Component
+@Slf4j
+public class RagQueryCache {
+
+    private final SingleFlightCache<String> rewrites;
+    private final SingleFlightCache<float[]> embeddings;
+    private final SingleFlightCache<List<Long>> topProducts;
+
+    public RagQueryCache(
+            RedisTemplate<String, Object> redisTemplate,
+            EmbeddingProvider embeddingProvider,
+            @Value("${vector.rag-cache.redis.enabled:true}") boolean redisEnabled,
+            @Value("${vector.rag-cache.rewrite.max-size:10000}") int rewriteMaxSize,
+            @Value("${vector.rag-cache.rewrite.ttl-seconds:86400}") long rewriteTtl,
+            @Value("${vector.rag-cache.embedding.max-size:5000}") int embeddingMaxSize,
+            @Value("${vector.rag-cache.embedding.ttl-seconds:86400}") long embeddingTtl,
+            @Value("${vector.rag-cache.top-k.max-size:10000}") int topKMaxSize,
+            @Value("${vector.rag-cache.top-k.ttl-seconds:300}") long topKTtl) {
+
+        RedisTemplate<String, Object> redis = redisEnabled ? redisTemplate : null;
+        String provider = embeddingProvider.name(); // offline 프로필 벡터가 Redis 에서 OpenAI 벡터와 섞이지 않도록
+
+        this.rewrites = new SingleFlightCache<>("rag:rewrite", rewriteMaxSize,
+                Duration.ofSeconds(rewriteTtl), redis,
+                text -> text, text -> text,
+                RagQueryCache::isStructuredQuery);
+
+        this.embeddings = new SingleFlightCache<>("rag:embedding:" + provider, embeddingMaxSize,
+                Duration.ofSeconds(embeddingTtl), redis,
+                vector -> Base64.getEncoder().encodeToString(PgVectorCodec.toBinary(vector)),
+                text -> PgVectorCodec.fromBinary(Base64.getDecoder().decode(text)),
+                vector -> vector.length > 0);
+
+        this.topProducts = new SingleFlightCache<>("rag:top-k:" + provider, topKMaxSize,
+                Duration.ofSeconds(topKTtl), redis,
+                RagQueryCache::joinIds, RagQueryCache::splitIds,
+                ids -> !ids.isEmpty()); // 인덱스 준비 전 빈 결과가 굳지 않도록
+    }
+
+    /**
+     * ✅ 사용자 질문 → 구조화 쿼리 (형식이 올바른 응답만 캐시)
+     */
+    public String structuredQuery(String userPrompt, Supplier<String> loader) {
+        return rewrites.get(hash(normalize(userPrompt)), loader);
+    }
+
+    public float[] embedding(String text, Supplier<float[]> loader) {
+        return embeddings.get(hash(text), loader);
+    }
+
+    public List<Long> topProducts(String text, int topCount, Supplier<List<Long>> loader) {
+        return topProducts.get(hash(text + "|" + topCount), loader);
+    }
+
+    /**
+     * ✅ 상품 삭제 등으로 추천 결과가 바뀐 경우 JVM 쪽 Top-K 캐시 비우기 (Redis 는 TTL 로 만료)
+     */
+    public void clearTopProducts() {
+        topProducts.clear();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rewrite", rewrites.stats());
+        result.put("embedding", embeddings.stats());
+        result.put("topK", topProducts.stats());
+        return result;
+    }
+
+    /**
+     * 대소문자 / 연속 공백 / 끝 문장부호 차이는 같은 질문으로 취급
+     * ("단백질 추천!!" == "단백질  추천")
+     */
+    static String normalize(String query) {
+        if (query == null) return "";
+        String normalized = query.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        int end = normalized.length();
+        while (end > 0 && "?!.~ ".indexOf(normalized.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return normalized.substring(0, end);
+    }
+
+    /**
+     * "키워드... 추천개수 평균가격 표준편차" 형태인지 (GPT 오류 응답은 캐시하지 않음)
+     */
+    static boolean isStructuredQuery(String rewritten) {
+        if (rewritten == null || rewritten.isBlank()) return false;
+        String[] tokens = rewritten.trim().split(" ");
+        if (tokens.length < 4) return false;
+        for (int i = tokens.length - 3; i < tokens.length; i++) {
+            if (!tokens[i].matches("\\d+")) return false;
+        }
+        return true;
+    }
+
+    private static String joinIds(List<Long> ids) {
+        StringBuilder sb = new StringBuilder();
+        for (Long id : ids) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(id);
+        }
+        return sb.toString();
+    }
+
+    private static List<Long> splitIds(String text) {
+        if (text.isEmpty()) return List.of();
+        return Arrays.stream(text.split(",")).map(Long::valueOf).toList();
+    }
+
+    private static String hash(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
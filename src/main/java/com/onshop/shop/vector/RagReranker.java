@@ -0,0 +1,361 @@
+package com.onshop.shop.vector;
+
+import com.onshop.shop.product.Product;
+import com.onshop.shop.product.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * ✅ RAG 후보 재정렬 (GPT 재정렬 → 로컬 점수 재정렬 + 선택적 GPT 추천 이유)
+ *
+ * vector.rag.rerank.mode
+ *  - gpt    : 기존 방식. 후보 전체 설명을 GPT 에 보내 순서 / 추천 이유를 모두 받음 (턴마다 수 초)
+ *  - local  : ProductFeatureScorer 점수로 상위 N개 선택, 추천 이유도 점수 항목으로 생성 (GPT 호출 없음)
+ *  - hybrid : local 로 순서를 정하고, 고른 상품의 추천 이유만 GPT 에 요청
+ *             → 요청 시작부터 latency-budget-ms 안에 끝나지 않으면 GPT 응답을 버리고 로컬 이유 사용
+ *             → 남은 예산이 min-gpt-ms 보다 적으면 GPT 호출 자체를 생략
+ *             → GPT 대기열(GPT_QUEUE_CAPACITY)이 가득 차면 기다리지 않고 로컬 이유 사용
+ *             → 예산 초과 시 작업 스레드를 interrupt → 진행 중인 OpenAI 호출(Mono.block)도 취소
+ *
+ * - 경로별 지연 시간(로컬 점수 / GPT 재정렬 / GPT 추천 이유 / 전체)과 예산 초과 건수 집계 → /vector/rag/rerank/stats
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RagReranker {
+
+    public enum Mode { GPT, LOCAL, HYBRID }
+
+    /**
+     * 로컬 재정렬 결과 (선택된 상품 순서 + 점수 + GPT 없이 만든 응답)
+     */
+    record LocalRanking(List<Product> picked, List<ProductFeatureScorer.Scored> scores, Map<String, Object> response) {
+    }
+
+    private static final int MAX_RECOMMENDATIONS = 5; // 구조화 쿼리 규칙과 같은 상한
+    private static final int GPT_THREADS = 8;
+    private static final int GPT_QUEUE_CAPACITY = 32;
+
+    private final ChatGPTService chatGPTService;
+    private final ProductRepository productRepository;
+    private final ProductEmbeddingLookup productEmbeddingLookup;
+    private final RagQueryCache ragQueryCache;
+    private final OpenAIEmbeddingService openAIEmbeddingService;
+
+    @Value("${vector.rag.rerank.mode:hybrid}")
+    private String mode;
+
+    @Value("${vector.rag.rerank.latency-budget-ms:3000}")
+    private long latencyBudgetMillis;
+
+    @Value("${vector.rag.rerank.min-gpt-ms:300}")
+    private long minGptMillis;
+
+    @Value("${vector.rag.rerank.weight.similarity:0.55}")
+    private double similarityWeight;
+
+    @Value("${vector.rag.rerank.weight.price:0.2}")
+    private double priceWeight;
+
+    @Value("${vector.rag.rerank.weight.category:0.15}")
+    private double categoryWeight;
+
+    @Value("${vector.rag.rerank.weight.popularity:0.1}")
+    private double popularityWeight;
+
+    @Value("${vector.rag.rerank.views-per-sale:20}")
+    private double viewsPerSale;
+
+    private final ExecutorService gptExecutor = new ThreadPoolExecutor(GPT_THREADS, GPT_THREADS, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(GPT_QUEUE_CAPACITY), r -> {
+        Thread t = new Thread(r, "rag-gpt-reason");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<Mode, AtomicLong> requests = new EnumMap<>(Map.of(
+            Mode.GPT, new AtomicLong(), Mode.LOCAL, new AtomicLong(), Mode.HYBRID, new AtomicLong()));
+    private final LatencyRecorder localLatency = new LatencyRecorder();
+    private final LatencyRecorder gptRerankLatency = new LatencyRecorder();
+    private final LatencyRecorder gptReasonLatency = new LatencyRecorder();
+    private final LatencyRecorder totalLatency = new LatencyRecorder();
+    private final AtomicLong gptSkippedByBudget = new AtomicLong();
+    private final AtomicLong gptTimeouts = new AtomicLong();
+    private final AtomicLong gptFailures = new AtomicLong();
+    private final AtomicLong gptRejected = new AtomicLong();
+
+    @PreDestroy
+    void shutdown() {
+        gptExecutor.shutdownNow();
+    }
+
+    /**
+     * ✅ /vector/rag 동기 경로: 설정된 방식으로 재정렬한 최종 응답
+     *
+     * @param startNanos 요청 시작 시각 (System.nanoTime) — 지연 예산 계산 기준
+     */
+    public Map<String, Object> rerank(List<Long> candidateIds, String rewritten, String originalQuery, long startNanos) {
+        Mode current = mode();
+        requests.get(current).incrementAndGet();
+        try {
+            List<Product> products = productsInOrder(candidateIds);
+            if (current == Mode.GPT) {
+                long start = System.nanoTime();
+                Map<String, Object> result = chatGPTService.rerankProductsWithGpt(products, originalQuery);
+                gptRerankLatency.record(System.nanoTime() - start);
+                return result;
+            }
+
+            LocalRanking local = rankLocally(products, rewritten);
+            if (current == Mode.LOCAL || local.picked().isEmpty()) return local.response();
+
+            long waitMillis = gptWaitMillis(startNanos);
+            if (waitMillis <= 0) return local.response();
+
+            long start = System.nanoTime();
+            Future<Map<String, Object>> reasons;
+            try {
+                // CompletableFuture.cancel 은 작업 스레드를 interrupt 하지 않으므로 submit 의 Future 사용
+                reasons = gptExecutor.submit(() -> chatGPTService.explainWithGpt(local.picked(), originalQuery));
+            } catch (RejectedExecutionException e) {
+                gptRejected.incrementAndGet();
+                log.info("⏭️ [RERANK] GPT 대기열 가득 참 → 로컬 이유 사용");
+                return local.response();
+            }
+            try {
+                Map<String, Object> gpt = reasons.get(waitMillis, TimeUnit.MILLISECONDS);
+                gptReasonLatency.record(System.nanoTime() - start);
+                return withGptReasons(local, gpt);
+            } catch (TimeoutException e) {
+                reasons.cancel(true);
+                gptTimeouts.incrementAndGet();
+                log.info("⏱️ [RERANK] GPT 추천 이유 {}ms 초과 → 로컬 이유 사용", waitMillis);
+            } catch (ExecutionException e) {
+                gptFailures.incrementAndGet();
+                log.warn("⚠️ [RERANK] GPT 추천 이유 실패 → 로컬 이유 사용: {}", e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                reasons.cancel(true);
+                Thread.currentThread().interrupt();
+            }
+            return local.response();
+        } finally {
+            totalLatency.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    public Mode mode() {
+        String normalized = mode == null ? "" : mode.trim().toUpperCase(Locale.ROOT);
+        try {
+            return Mode.valueOf(normalized);
+        } catch (IllegalArgumentException e) {
+            return Mode.HYBRID;
+        }
+    }
+
+    /**
+     * ✅ 후보 상품을 로컬 점수로 재정렬해 상위 N개 선택 (N = 구조화 쿼리의 추천개수, 최대 5)
+     */
+    LocalRanking rankLocally(List<Product> products, String rewritten) {
+        long start = System.nanoTime();
+        RagQuery query = RagQuery.parse(rewritten);
+
+        Map<Long, Double> similarities = similarities(products, query.keywords());
+        List<ProductFeatureScorer.Candidate> candidates = new ArrayList<>(products.size());
+        for (Product p : products) {
+            candidates.add(new ProductFeatureScorer.Candidate(
+                    p.getProductId(),
+                    similarities.getOrDefault(p.getProductId(), 0.0),
+                    p.getPrice(),
+                    p.getCategory() == null ? null : p.getCategory().getId(),
+                    p.getOverallSales() == null ? 0L : p.getOverallSales(),
+                    p.getViewCount() == null ? 0L : p.getViewCount()));
+        }
+
+        List<ProductFeatureScorer.Scored> scores = ProductFeatureScorer.rank(candidates, query.priceAvg(), query.priceSigma(),
+                new ProductFeatureScorer.Weights(similarityWeight, priceWeight, categoryWeight, popularityWeight, viewsPerSale));
+
+        Map<Long, Product> byId = products.stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity(), (a, b) -> a));
+        int limit = Math.min(Math.max(1, query.count()), MAX_RECOMMENDATIONS);
+        List<ProductFeatureScorer.Scored> top = scores.subList(0, Math.min(limit, scores.size()));
+        List<Product> picked = top.stream().map(s -> byId.get(s.productId())).toList();
+
+        LocalRanking ranking = new LocalRanking(picked, scores, localResponse(top, query));
+        localLatency.record(System.nanoTime() - start);
+        return ranking;
+    }
+
+    /**
+     * ✅ 남은 지연 예산 안에서 GPT 추천 이유를 기다릴 수 있는 시간 (부족하면 0 → 호출 생략)
+     */
+    long gptWaitMillis(long startNanos) {
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        long remaining = latencyBudgetMillis - elapsedMillis;
+        if (remaining < minGptMillis) {
+            gptSkippedByBudget.incrementAndGet();
+            log.info("⏭️ [RERANK] 지연 예산 부족 (경과 {}ms / 예산 {}ms) → GPT 추천 이유 생략", elapsedMillis, latencyBudgetMillis);
+            return 0;
+        }
+        return remaining;
+    }
+
+    /**
+     * ✅ 로컬 순서는 유지하고 GPT 가 준 추천 이유 / 안내 문구만 덮어씀 (빠진 상품은 로컬 이유 유지)
+     */
+    @SuppressWarnings("unchecked")
+    Map<String, Object> withGptReasons(LocalRanking local, Map<String, Object> gpt) {
+        if (!(gpt.get("recommendation") instanceof List<?> items)) return local.response();
+
+        Map<Long, Object> reasons = new HashMap<>();
+        for (Object item : items) {
+            if (item instanceof Map<?, ?> m && m.get("productId") instanceof Number id && m.get("reason") != null) {
+                reasons.put(id.longValue(), m.get("reason"));
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>(local.response());
+        if (gpt.get("text") != null) result.put("text", gpt.get("text"));
+        List<Map<String, Object>> merged = new ArrayList<>();
+        for (Map<String, Object> item : (List<Map<String, Object>>) local.response().get("recommendation")) {
+            Map<String, Object> copy = new LinkedHashMap<>(item);
+            Object reason = reasons.get(((Number) item.get("productId")).longValue());
+            if (reason != null) copy.put("reason", reason);
+            merged.add(copy);
+        }
+        result.put("recommendation", merged);
+        return result;
+    }
+
+    void recordGptReason(long elapsedNanos, boolean completed) {
+        if (completed) {
+            gptReasonLatency.record(elapsedNanos);
+        } else {
+            gptTimeouts.incrementAndGet();
+        }
+    }
+
+    void recordGptRerank(long elapsedNanos) {
+        gptRerankLatency.record(elapsedNanos);
+    }
+
+    void recordGptFailure() {
+        gptFailures.incrementAndGet();
+    }
+
+    void recordTotal(Mode current, long startNanos) {
+        requests.get(current).incrementAndGet();
+        totalLatency.record(System.nanoTime() - startNanos);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mode", mode());
+        result.put("latencyBudgetMs", latencyBudgetMillis);
+        Map<String, Long> byMode = new LinkedHashMap<>();
+        requests.forEach((m, count) -> byMode.put(m.name().toLowerCase(Locale.ROOT), count.get()));
+        result.put("requests", byMode);
+        result.put("local", localLatency.snapshot());
+        result.put("gptRerank", gptRerankLatency.snapshot());
+        result.put("gptReasons", gptReasonLatency.snapshot());
+        result.put("total", totalLatency.snapshot());
+        result.put("gptSkippedByBudget", gptSkippedByBudget.get());
+        result.put("gptTimeouts", gptTimeouts.get());
+        result.put("gptFailures", gptFailures.get());
+        result.put("gptRejected", gptRejected.get());
+        return result;
+    }
+
+    /**
+     * findAllById 는 순서를 보장하지 않으므로 유사도 순서(ID 목록 순서)로 다시 정렬
+     */
+    public List<Product> productsInOrder(List<Long> productIds) {
+        if (productIds.isEmpty()) return List.of();
+
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < productIds.size(); i++) {
+            rank.putIfAbsent(productIds.get(i), i);
+        }
+        return productRepository.findAllById(productIds).stream()
+                .sorted(Comparator.comparingInt(p -> rank.get(p.getProductId())))
+                .toList();
+    }
+
+    /**
+     * 쿼리 임베딩(RAG 검색 때 캐시됨)과 상품 임베딩의 코사인
+     * 임베딩을 못 구하면 검색 순위로 대신함 (1위 = 1.0 → 뒤로 갈수록 감소)
+     */
+    private Map<Long, Double> similarities(List<Product> products, String keywords) {
+        Map<Long, Double> result = new HashMap<>();
+        try {
+            float[] query = ragQueryCache.embedding(keywords, () -> openAIEmbeddingService.getEmbedding(keywords));
+            Map<Long, float[]> embeddings = productEmbeddingLookup.getEmbeddings(
+                    products.stream().map(Product::getProductId).toList());
+            embeddings.forEach((id, vector) -> {
+                if (vector.length == query.length) result.put(id, (double) VectorKernels.cosine(query, vector));
+            });
+            return result;
+        } catch (RuntimeException e) {
+            log.warn("⚠️ [RERANK] 임베딩 조회 실패 → 검색 순위로 유사도 대체: {}", e.getMessage());
+            for (int i = 0; i < products.size(); i++) {
+                result.put(products.get(i).getProductId(), 1.0 - (double) i / products.size());
+            }
+            return result;
+        }
+    }
+
+    private Map<String, Object> localResponse(List<ProductFeatureScorer.Scored> top, RagQuery query) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (top.isEmpty()) {
+            result.put("class", 0);
+            result.put("sender", "bot");
+            result.put("text", "해당 상품이 없거나, 상품추천을 요구하는 질문이 아닙니다.");
+            return result;
+        }
+
+        List<Map<String, Object>> recommendation = new ArrayList<>();
+        for (ProductFeatureScorer.Scored s : top) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("productId", s.productId());
+            item.put("reason", localReason(s, query));
+            recommendation.add(item);
+        }
+        result.put("class", 1);
+        result.put("sender", "bot");
+        result.put("text", "요청하신 조건에 맞는 상품을 골랐어요!");
+        result.put("recommendation", recommendation);
+        return result;
+    }
+
+    // 점수가 높았던 항목으로 한 줄 이유 구성 (최대 2개)
+    private String localReason(ProductFeatureScorer.Scored s, RagQuery query) {
+        List<String> parts = new ArrayList<>();
+        if (s.similarity() >= 0.8) parts.add("요청하신 내용과 가장 잘 맞는 상품이에요");
+        if (query.priceAvg() > 0 && s.priceFit() >= 0.6) parts.add("원하시는 " + query.priceAvg() + "원대 가격에 가까워요");
+        if (s.popularity() >= 0.7 && parts.size() < 2) parts.add("판매량이 많은 인기 상품이에요");
+        if (parts.isEmpty()) parts.add("요청하신 내용과 관련도가 높은 상품이에요");
+        return String.join(" / ", parts.subList(0, Math.min(2, parts.size())));
+    }
+}
@@ -0,0 +1,167 @@
+package com.onshop.shop.vector;
+
+import com.onshop.shop.product.Product;
+import com.onshop.shop.product.ProductsDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ✅ /vector/rag/stream — RAG 추천을 SSE 이벤트로 단계별 전송
+ *
+ * 이벤트 순서:
+ *  query    : GPT 구조화 쿼리 (캐시 적중 시 즉시)
+ *  products : 상품 카드 목록 → 클라이언트는 이 시점에 화면을 그릴 수 있음
+ *             (gpt 방식은 벡터 검색 후보 전체, local / hybrid 는 로컬 재정렬로 고른 상품만)
+ *  token    : GPT 재정렬 / 추천 이유 응답 조각 {"text": delta} (stream=true 로 받은 delta 그대로, local 은 없음)
+ *  result   : 토큰을 모은 최종 JSON (/vector/rag 응답과 같은 형태)
+ *  error    : 형식 오류 / 외부 호출 실패
+ *
+ * - 블로킹 호출(GPT rewrite, 임베딩, JPA)은 boundedElastic 에서 실행 → 요청 스레드를 붙잡지 않음
+ * - 상품 조회는 한 번만 하고 카드 전송과 재정렬 프롬프트에 같이 사용
+ * - 재정렬 방식 / 지연 예산은 RagReranker 설정(vector.rag.rerank.*)을 그대로 따름
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RagStreamService {
+
+    private final ChatGPTService chatGPTService;
+    private final ProductVectorService productVectorService;
+    private final RagReranker ragReranker;
+
+    public Flux<ServerSentEvent<Object>> stream(String query) {
+        return stream(query, null);
+    }
+
+    public Flux<ServerSentEvent<Object>> stream(String query, Long categoryId) {
+        log.info("🧠 [RAG-STREAM] 검색 요청 (자연어): {} (categoryId={})", query, categoryId);
+        long start = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+
+        return Mono.fromCallable(() -> chatGPTService.rewriteToStructuredQuery(query))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(rewritten -> {
+                    if (!chatGPTService.isValidStructuredQuery(rewritten)) {
+                        log.warn("⚠️ [RAG-STREAM] GPT 응답이 올바른 형식이 아님: {}", rewritten);
+                        return Flux.just(event("error", Map.of(
+                                "class", 0,
+                                "sender", "bot",
+                                "text", "검색어 형식이 올바르지 않습니다."
+                        )));
+                    }
+                    return Flux.concat(
+                            Flux.just(event("query", rewritten)),
+                            recommend(rewritten, query, categoryId, start, startNanos)
+                    );
+                })
+                .onErrorResume(e -> {
+                    log.error("❌ [RAG-STREAM] 처리 실패: {}", e.getMessage());
+                    return Flux.just(event("error", Map.of(
+                            "class", 0,
+                            "sender", "bot",
+                            "text", "추천 응답 처리 중 오류가 발생했어요."
+                    )));
+                });
+    }
+
+    private Flux<ServerSentEvent<Object>> recommend(String rewritten, String originalQuery, Long categoryId, long start, long startNanos) {
+        RagReranker.Mode mode = ragReranker.mode();
+        return Mono.fromCallable(() -> ragReranker.productsInOrder(productVectorService.recommendProductsByRag(rewritten, categoryId)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(products -> {
+                    log.info("📦 [RAG-STREAM] 후보 상품 {}개 조회 ({}ms)", products.size(), System.currentTimeMillis() - start);
+
+                    if (products.isEmpty()) {
+                        ragReranker.recordTotal(mode, startNanos);
+                        return Flux.just(event("products", List.of()), event("result", Map.of(
+                                "class", 0,
+                                "sender", "bot",
+                                "text", "해당 상품이 없거나, 상품추천을 요구하는 질문이 아닙니다."
+                        )));
+                    }
+                    if (mode == RagReranker.Mode.GPT) return gptRerank(products, originalQuery, start, startNanos);
+
+                    // 로컬 점수 재정렬 (boundedElastic 위에서 실행 중 → 임베딩 조회 블로킹 허용)
+                    return localRerank(ragReranker.rankLocally(products, rewritten), mode, originalQuery, start, startNanos);
+                });
+    }
+
+    /**
+     * ✅ gpt 방식: 후보 전체 카드를 먼저 보내고 GPT 재정렬 응답을 토큰 단위로 전송
+     */
+    private Flux<ServerSentEvent<Object>> gptRerank(List<Product> products, String originalQuery, long start, long startNanos) {
+        List<ProductsDTO> cards = products.stream().map(ProductsDTO::fromEntity).toList();
+        long gptStart = System.nanoTime();
+
+        StringBuilder answer = new StringBuilder();
+        Flux<ServerSentEvent<Object>> tokens = chatGPTService.streamRerankWithGpt(products, originalQuery)
+                .doOnNext(answer::append)
+                .map(token -> event("token", Map.of("text", token))); // 앞뒤 공백 보존을 위해 JSON 으로 감쌈
+        Mono<ServerSentEvent<Object>> result = Mono.fromCallable(() -> {
+            log.info("🧠 [RAG-STREAM] 재정렬 스트림 완료 ({}ms)", System.currentTimeMillis() - start);
+            ragReranker.recordGptRerank(System.nanoTime() - gptStart);
+            ragReranker.recordTotal(RagReranker.Mode.GPT, startNanos);
+            return event("result", chatGPTService.parseRerankResult(answer.toString()));
+        });
+
+        return Flux.concat(Flux.just(event("products", cards)), tokens, result);
+    }
+
+    /**
+     * ✅ local / hybrid 방식: 로컬 점수로 고른 상품 카드만 전송
+     * hybrid 는 남은 지연 예산 동안만 GPT 추천 이유 토큰을 흘려보내고, 예산을 넘기면 잘라내고 로컬 이유로 결과 전송
+     */
+    private Flux<ServerSentEvent<Object>> localRerank(RagReranker.LocalRanking local, RagReranker.Mode mode,
+                                                     String originalQuery, long start, long startNanos) {
+        List<ProductsDTO> cards = local.picked().stream().map(ProductsDTO::fromEntity).toList();
+        log.info("📦 [RAG-STREAM] 로컬 재정렬 상품 카드 {}개 전송 ({}ms)", cards.size(), System.currentTimeMillis() - start);
+
+        long waitMillis = mode == RagReranker.Mode.HYBRID ? ragReranker.gptWaitMillis(startNanos) : 0;
+        if (waitMillis <= 0) {
+            ragReranker.recordTotal(mode, startNanos);
+            return Flux.just(event("products", cards), event("result", local.response()));
+        }
+
+        long gptStart = System.nanoTime();
+        StringBuilder answer = new StringBuilder();
+        AtomicBoolean completed = new AtomicBoolean();
+        AtomicBoolean failed = new AtomicBoolean();
+        Flux<ServerSentEvent<Object>> tokens = chatGPTService.streamExplainWithGpt(local.picked(), originalQuery)
+                .doOnComplete(() -> completed.set(true))
+                .onErrorResume(e -> {
+                    failed.set(true);
+                    ragReranker.recordGptFailure();
+                    log.warn("⚠️ [RAG-STREAM] GPT 추천 이유 실패 → 로컬 이유 사용: {}", e.getMessage());
+                    return Flux.empty();
+                })
+                .take(Duration.ofMillis(waitMillis))
+                .doOnNext(answer::append)
+                .map(token -> event("token", Map.of("text", token)));
+        Mono<ServerSentEvent<Object>> result = Mono.fromCallable(() -> {
+            if (!failed.get()) ragReranker.recordGptReason(System.nanoTime() - gptStart, completed.get());
+            ragReranker.recordTotal(mode, startNanos);
+            if (!completed.get()) {
+                log.info("⏱️ [RAG-STREAM] GPT 추천 이유 {}ms 안에 끝나지 않음 → 로컬 이유로 결과 전송", waitMillis);
+                return event("result", local.response());
+            }
+            log.info("🧠 [RAG-STREAM] 추천 이유 스트림 완료 ({}ms)", System.currentTimeMillis() - start);
+            return event("result", ragReranker.withGptReasons(local, chatGPTService.parseRerankResult(answer.toString())));
+        });
+
+        return Flux.concat(Flux.just(event("products", cards)), tokens, result);
+    }
+
+    private static ServerSentEvent<Object> event(String name, Object data) {
+        return ServerSentEvent.builder(data).event(name).build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.onshop.shop.vector;
+
+import java.util.Random;
+
+/**
+ * ✅ 고차원 벡터의 저차원 스케치 (가우시안 무작위 투영)
+ *
+ * - 1536차원 → sketchDimension 차원 (기본 64: 사용자당 256바이트)
+ * - 투영 후 코사인 유사도가 원본 코사인 유사도를 근사 (Johnson–Lindenstrauss)
+ *   → 원본 벡터를 보관하지 않고도 "사용자 벡터가 얼마나 움직였는지" 비교 가능
+ * - 같은 seed 면 같은 투영 행렬 (재시작 후에도 스케치 비교 가능)
+ */
+final class RandomProjectionSketch {
+
+    private final int dimension;
+    private final int sketchDimension;
+    private final float[][] rows; // 투영 행렬 (sketchDimension × dimension)
+
+    RandomProjectionSketch(int dimension, int sketchDimension, long seed) {
+        if (dimension <= 0 || sketchDimension <= 0) {
+            throw new IllegalArgumentException("스케치 차원이 올바르지 않습니다: " + dimension + " → " + sketchDimension);
+        }
+        this.dimension = dimension;
+        this.sketchDimension = sketchDimension;
+        this.rows = new float[sketchDimension][dimension];
+        Random random = new Random(seed);
+        for (float[] row : rows) {
+            for (int i = 0; i < dimension; i++) row[i] = (float) random.nextGaussian();
+        }
+    }
+
+    /**
+     * ✅ 벡터 → 스케치 (차원이 다르면 null)
+     */
+    float[] project(float[] vector) {
+        if (vector == null || vector.length != dimension) return null;
+        float[] sketch = new float[sketchDimension];
+        for (int s = 0; s < sketchDimension; s++) {
+            sketch[s] = VectorKernels.dot(rows[s], vector);
+        }
+        return sketch;
+    }
+
+    /**
+     * ✅ 두 스케치 사이 변화량 (1 - 코사인, 0 = 같은 방향 / 스케치가 없으면 최대값 2)
+     */
+    static float drift(float[] before, float[] after) {
+        if (before == null || after == null || before.length != after.length) return 2f;
+        return 1f - VectorKernels.cosine(before, after);
+    }
+
+    int sketchDimension() {
+        return sketchDimension;
+    }
+}
@@ -0,0 +1,96 @@
+package com.onshop.shop.vector;
+
+/**
+ * ✅ VectorKernels 스칼라 구현 (누산기 4개로 언롤링 → 덧셈 의존성을 끊어 JIT 가 파이프라인을 채우기 쉬움)
+ */
+final class ScalarVectorKernels implements VectorKernels.Impl {
+
+    @Override
+    public float dot(float[] a, float[] b) {
+        int n = a.length;
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            s0 += a[i] * b[i];
+            s1 += a[i + 1] * b[i + 1];
+            s2 += a[i + 2] * b[i + 2];
+            s3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < n; i++) s0 += a[i] * b[i];
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public float cosine(float[] a, float[] b) {
+        int n = a.length;
+        float d0 = 0f, d1 = 0f, na0 = 0f, na1 = 0f, nb0 = 0f, nb1 = 0f;
+        int i = 0;
+        for (; i + 1 < n; i += 2) {
+            float a0 = a[i], a1 = a[i + 1], b0 = b[i], b1 = b[i + 1];
+            d0 += a0 * b0;
+            d1 += a1 * b1;
+            na0 += a0 * a0;
+            na1 += a1 * a1;
+            nb0 += b0 * b0;
+            nb1 += b1 * b1;
+        }
+        for (; i < n; i++) {
+            d0 += a[i] * b[i];
+            na0 += a[i] * a[i];
+            nb0 += b[i] * b[i];
+        }
+        return cosineOf(d0 + d1, na0 + na1, nb0 + nb1);
+    }
+
+    @Override
+    public float squaredL2(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            float x0 = a[aOffset + i] - b[bOffset + i];
+            float x1 = a[aOffset + i + 1] - b[bOffset + i + 1];
+            float x2 = a[aOffset + i + 2] - b[bOffset + i + 2];
+            float x3 = a[aOffset + i + 3] - b[bOffset + i + 3];
+            s0 += x0 * x0;
+            s1 += x1 * x1;
+            s2 += x2 * x2;
+            s3 += x3 * x3;
+        }
+        for (; i < length; i++) {
+            float x = a[aOffset + i] - b[bOffset + i];
+            s0 += x * x;
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public void weightedAverageInPlace(float[] target, float targetWeight, float[] source, float sourceWeight) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] = targetWeight * target[i] + sourceWeight * source[i];
+        }
+    }
+
+    @Override
+    public int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        int s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+            s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+            s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+            s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+        }
+        for (; i < length; i++) s0 += a[aOffset + i] * b[bOffset + i];
+        return s0 + s1 + s2 + s3;
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    static float cosineOf(float dot, float normA, float normB) {
+        if (normA == 0f || normB == 0f) return 0f;
+        return (float) (dot / (Math.sqrt(normA) * Math.sqrt(normB)));
+    }
+}
@@ -0,0 +1,128 @@
+package com.onshop.shop.vector;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * ✅ VectorKernels 의 Vector API(SIMD) 구현
+ *
+ * - 이 클래스는 VectorKernels 가 jdk.incubator.vector 모듈을 확인한 뒤에만 리플렉션으로 로딩
+ *   (모듈 없는 JVM 에서 다른 클래스가 직접 참조하면 NoClassDefFoundError)
+ * - 길이가 lane 수로 나누어떨어지지 않는 꼬리 부분은 스칼라로 처리
+ * - int8 내적은 byte lane 을 int 로 넓혀 누산 (int lane 수에 맞는 byte shape 가 없으면 스칼라)
+ */
+final class SimdVectorKernels implements VectorKernels.Impl {
+
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTES = byteSpeciesFor(INTS);
+
+    private final ScalarVectorKernels scalar = new ScalarVectorKernels();
+
+    @Override
+    public float dot(float[] a, float[] b) {
+        int n = a.length;
+        int upper = FLOATS.loopBound(n);
+        FloatVector acc = FloatVector.zero(FLOATS);
+        int i = 0;
+        for (; i < upper; i += FLOATS.length()) {
+            acc = FloatVector.fromArray(FLOATS, a, i).fma(FloatVector.fromArray(FLOATS, b, i), acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) sum += a[i] * b[i];
+        return sum;
+    }
+
+    @Override
+    public float cosine(float[] a, float[] b) {
+        int n = a.length;
+        int upper = FLOATS.loopBound(n);
+        FloatVector dot = FloatVector.zero(FLOATS);
+        FloatVector normA = FloatVector.zero(FLOATS);
+        FloatVector normB = FloatVector.zero(FLOATS);
+        int i = 0;
+        for (; i < upper; i += FLOATS.length()) {
+            FloatVector va = FloatVector.fromArray(FLOATS, a, i);
+            FloatVector vb = FloatVector.fromArray(FLOATS, b, i);
+            dot = va.fma(vb, dot);
+            normA = va.fma(va, normA);
+            normB = vb.fma(vb, normB);
+        }
+        float d = dot.reduceLanes(VectorOperators.ADD);
+        float na = normA.reduceLanes(VectorOperators.ADD);
+        float nb = normB.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) {
+            d += a[i] * b[i];
+            na += a[i] * a[i];
+            nb += b[i] * b[i];
+        }
+        return ScalarVectorKernels.cosineOf(d, na, nb);
+    }
+
+    @Override
+    public float squaredL2(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        int upper = FLOATS.loopBound(length);
+        FloatVector acc = FloatVector.zero(FLOATS);
+        int i = 0;
+        for (; i < upper; i += FLOATS.length()) {
+            FloatVector diff = FloatVector.fromArray(FLOATS, a, aOffset + i)
+                    .sub(FloatVector.fromArray(FLOATS, b, bOffset + i));
+            acc = diff.fma(diff, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            float x = a[aOffset + i] - b[bOffset + i];
+            sum += x * x;
+        }
+        return sum;
+    }
+
+    @Override
+    public void weightedAverageInPlace(float[] target, float targetWeight, float[] source, float sourceWeight) {
+        int n = target.length;
+        int upper = FLOATS.loopBound(n);
+        FloatVector sw = FloatVector.broadcast(FLOATS, sourceWeight);
+        int i = 0;
+        for (; i < upper; i += FLOATS.length()) {
+            FloatVector t = FloatVector.fromArray(FLOATS, target, i).mul(targetWeight);
+            FloatVector.fromArray(FLOATS, source, i).fma(sw, t).intoArray(target, i);
+        }
+        for (; i < n; i++) {
+            target[i] = targetWeight * target[i] + sourceWeight * source[i];
+        }
+    }
+
+    @Override
+    public int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        if (BYTES == null) return scalar.dot(a, aOffset, b, bOffset, length);
+
+        int upper = BYTES.loopBound(length);
+        IntVector acc = IntVector.zero(INTS);
+        int i = 0;
+        for (; i < upper; i += BYTES.length()) {
+            IntVector va = (IntVector) ByteVector.fromArray(BYTES, a, aOffset + i).convertShape(VectorOperators.B2I, INTS, 0);
+            IntVector vb = (IntVector) ByteVector.fromArray(BYTES, b, bOffset + i).convertShape(VectorOperators.B2I, INTS, 0);
+            acc = acc.add(va.mul(vb));
+        }
+        int sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) sum += a[aOffset + i] * b[bOffset + i];
+        return sum;
+    }
+
+    @Override
+    public String name() {
+        return "vector-api(" + FLOATS.vectorBitSize() + "bit)";
+    }
+
+    private static VectorSpecies<Byte> byteSpeciesFor(VectorSpecies<Integer> ints) {
+        try {
+            return VectorSpecies.of(byte.class, VectorShape.forBitSize(ints.length() * Byte.SIZE));
+        } catch (IllegalArgumentException e) {
+            return null; // 예: 128bit int(4 lane) → 32bit byte shape 는 없음
+        }
+    }
+}
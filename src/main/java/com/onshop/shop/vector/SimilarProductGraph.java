@@ -0,0 +1,285 @@
+package com.onshop.shop.vector;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * ✅ 상품 → 유사 상품 top-N 목록 (item-to-item 그래프)
+ *
+ * - 상품별 이웃 ID / L2 제곱 거리를 거리 오름차순 long[] · float[] 로 보관 → 조회는 해시 1번 (O(1))
+ * - build: 전 상품 쌍을 정확히 비교 (질의 상품 구간을 fork/join 으로 코어 수만큼 나눠 병렬 처리)
+ * - 변경 상품은 replace(자기 목록 교체) + offer(이웃 목록에 역방향 삽입) 로 부분 갱신
+ * - 스냅샷 파일은 메모리 매핑(FileChannel.map)으로 읽고 써서 재시작 시 전체 재계산 생략
+ */
+final class SimilarProductGraph {
+
+    private static final int MAGIC = 0x53494D47; // "SIMG"
+    private static final int LEAF_QUERIES = 32;   // fork/join 잎 작업 하나가 맡는 질의 상품 수
+
+    record Neighbours(long[] ids, float[] distances) {
+    }
+
+    private final int topN;
+    private final Map<Long, Neighbours> lists;
+
+    SimilarProductGraph(int topN) {
+        this(topN, new ConcurrentHashMap<>());
+    }
+
+    private SimilarProductGraph(int topN, Map<Long, Neighbours> lists) {
+        this.topN = topN;
+        this.lists = lists;
+    }
+
+    /**
+     * ✅ 전 상품 정확한 top-N 그래프 (vectors[i] 는 ids[i] 의 임베딩)
+     */
+    static SimilarProductGraph build(long[] ids, float[][] vectors, int topN, ForkJoinPool pool) {
+        Neighbours[] result = new Neighbours[ids.length];
+        pool.invoke(new BuildTask(ids, vectors, topN, result, 0, ids.length));
+
+        Map<Long, Neighbours> lists = new ConcurrentHashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) lists.put(ids[i], result[i]);
+        return new SimilarProductGraph(topN, lists);
+    }
+
+    /**
+     * ✅ 유사 상품 ID (가까운 순, 없으면 빈 배열)
+     */
+    long[] neighbours(long productId) {
+        Neighbours n = lists.get(productId);
+        return n == null ? new long[0] : n.ids();
+    }
+
+    /**
+     * ✅ 상품 하나의 목록을 통째로 교체 (후보는 순서 무관, 자기 자신 제외 후 상위 topN)
+     */
+    void replace(long productId, long[] candidateIds, float[] candidateDistances) {
+        TopN top = new TopN(topN);
+        for (int i = 0; i < candidateIds.length; i++) {
+            if (candidateIds[i] != productId) top.offer(candidateIds[i], candidateDistances[i]);
+        }
+        lists.put(productId, top.toNeighbours());
+    }
+
+    /**
+     * ✅ productId 의 목록에 candidate 를 넣어 봄 (이미 있으면 거리 갱신, 목록 최하위보다 멀면 무시)
+     */
+    void offer(long productId, long candidate, float distance) {
+        if (productId == candidate) return;
+        lists.computeIfPresent(productId, (id, current) -> {
+            TopN top = new TopN(topN);
+            for (int i = 0; i < current.ids().length; i++) {
+                if (current.ids()[i] != candidate) top.offer(current.ids()[i], current.distances()[i]);
+            }
+            top.offer(candidate, distance);
+            return top.toNeighbours();
+        });
+    }
+
+    boolean remove(long productId) {
+        return lists.remove(productId) != null;
+    }
+
+    int size() {
+        return lists.size();
+    }
+
+    int topN() {
+        return topN;
+    }
+
+    /**
+     * ✅ 상품당 대략 바이트 (ID 8 + 거리 4) × topN, 해시 엔트리 오버헤드 제외
+     */
+    long estimatedBytes() {
+        return (long) lists.size() * topN * (Long.BYTES + Float.BYTES);
+    }
+
+    // ---------------------------------------------------------------------
+    // 스냅샷 파일: [magic][topN][count] + 상품마다 [productId][n][ids × n][distances × n]
+    // ---------------------------------------------------------------------
+
+    /**
+     * ✅ 임시 파일에 매핑해 쓴 뒤 원자적으로 교체 (쓰는 도중 죽어도 이전 스냅샷 유지)
+     */
+    void writeTo(Path path) throws IOException {
+        Map<Long, Neighbours> snapshot = Map.copyOf(lists);
+        long size = 3L * Integer.BYTES;
+        for (Neighbours n : snapshot.values()) {
+            size += Long.BYTES + Integer.BYTES + (long) n.ids().length * (Long.BYTES + Float.BYTES);
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("유사 상품 스냅샷이 너무 큽니다: " + size + " bytes");
+        }
+
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(topN).putInt(snapshot.size());
+            for (Map.Entry<Long, Neighbours> e : snapshot.entrySet()) {
+                long[] ids = e.getValue().ids();
+                float[] distances = e.getValue().distances();
+                buffer.putLong(e.getKey()).putInt(ids.length);
+                for (long id : ids) buffer.putLong(id);
+                for (float d : distances) buffer.putFloat(d);
+            }
+            buffer.force();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * ✅ 스냅샷 읽기 (파일 없음 / 형식 불일치 / topN 다르면 null → 호출자가 재구축)
+     */
+    static SimilarProductGraph readFrom(Path path, int topN) throws IOException {
+        if (!Files.isRegularFile(path)) return null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 3 * Integer.BYTES || buffer.getInt() != MAGIC || buffer.getInt() != topN) {
+                return null;
+            }
+            int count = buffer.getInt();
+            Map<Long, Neighbours> lists = new ConcurrentHashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                long productId = buffer.getLong();
+                int n = buffer.getInt();
+                long[] ids = new long[n];
+                float[] distances = new float[n];
+                for (int j = 0; j < n; j++) ids[j] = buffer.getLong();
+                for (int j = 0; j < n; j++) distances[j] = buffer.getFloat();
+                lists.put(productId, new Neighbours(ids, distances));
+            }
+            return new SimilarProductGraph(topN, lists);
+        }
+    }
+
+    /**
+     * 질의 상품 구간 [from, to) 을 LEAF_QUERIES 개 이하가 될 때까지 반으로 나눔
+     * 잎 작업은 질의 상품 묶음과 전 상품의 L2 제곱 거리를 비교 (읽기 전용 공유 배열 → 동기화 불필요)
+     */
+    private static final class BuildTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] ids;
+        private final float[][] vectors;
+        private final int topN;
+        private final Neighbours[] result;
+        private final int from;
+        private final int to;
+
+        BuildTask(long[] ids, float[][] vectors, int topN, Neighbours[] result, int from, int to) {
+            this.ids = ids;
+            this.vectors = vectors;
+            this.topN = topN;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_QUERIES) {
+                TopN[] tops = new TopN[to - from];
+                for (int q = 0; q < tops.length; q++) tops[q] = new TopN(topN);
+
+                // 상품 벡터 하나를 읽어 잎의 질의 전체와 비교 (질의 묶음은 캐시에 남고, 전체 배열은 잎당 한 번만 훑음)
+                for (int j = 0; j < ids.length; j++) {
+                    float[] candidate = vectors[j];
+                    for (int q = from; q < to; q++) {
+                        if (q != j) tops[q - from].offer(ids[j], VectorKernels.squaredL2(vectors[q], candidate));
+                    }
+                }
+                for (int q = from; q < to; q++) result[q] = tops[q - from].toNeighbours();
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BuildTask(ids, vectors, topN, result, from, mid),
+                    new BuildTask(ids, vectors, topN, result, mid, to));
+        }
+    }
+
+    /**
+     * 거리 최댓값이 루트인 고정 크기 힙 (가장 먼 후보를 O(log N) 으로 교체)
+     */
+    private static final class TopN {
+
+        private final long[] ids;
+        private final float[] distances;
+        private int size;
+
+        TopN(int capacity) {
+            this.ids = new long[capacity];
+            this.distances = new float[capacity];
+        }
+
+        void offer(long id, float distance) {
+            if (ids.length == 0) return;
+            if (size < ids.length) {
+                ids[size] = id;
+                distances[size] = distance;
+                siftUp(size++);
+            } else if (distance < distances[0]) {
+                ids[0] = id;
+                distances[0] = distance;
+                siftDown(0);
+            }
+        }
+
+        Neighbours toNeighbours() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Float.compare(distances[a], distances[b]));
+
+            long[] sortedIds = new long[size];
+            float[] sortedDistances = new float[size];
+            for (int i = 0; i < size; i++) {
+                sortedIds[i] = ids[order[i]];
+                sortedDistances[i] = distances[order[i]];
+            }
+            return new Neighbours(sortedIds, sortedDistances);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (distances[parent] >= distances[i]) return;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1, right = left + 1, largest = i;
+                if (left < size && distances[left] > distances[largest]) largest = left;
+                if (right < size && distances[right] > distances[largest]) largest = right;
+                if (largest == i) return;
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            float d = distances[a];
+            distances[a] = distances[b];
+            distances[b] = d;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.onshop.shop.vector;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * ✅ 2단 캐시 (JVM LRU + Redis) + 동일 키 동시 요청 병합(single-flight)
+ *
+ * - 1단: 크기 제한 + TTL 이 있는 JVM 내 LRU
+ * - 2단: Redis (모든 앱 노드가 공유). 장애 시에는 조용히 건너뛰고 원본 호출
+ * - 같은 키로 동시에 들어온 요청은 원본(loader)을 한 번만 호출하고 결과를 나눠 가짐
+ * - cacheable 조건을 통과한 값만 저장 (오류 응답 / 빈 결과가 굳어지지 않도록)
+ */
+@Slf4j
+public class SingleFlightCache<V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final RedisTemplate<String, Object> redisTemplate; // null 이면 Redis 단계 생략
+    private final Function<V, String> serializer;
+    private final Function<String, V> deserializer;
+    private final Predicate<V> cacheable;
+
+    private final Map<String, Entry<V>> local;
+    private final ConcurrentHashMap<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong localHits = new AtomicLong();
+    private final AtomicLong redisHits = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    public SingleFlightCache(String name, int maxSize, Duration ttl,
+                             RedisTemplate<String, Object> redisTemplate,
+                             Function<V, String> serializer,
+                             Function<String, V> deserializer,
+                             Predicate<V> cacheable) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.redisTemplate = redisTemplate;
+        this.serializer = serializer;
+        this.deserializer = deserializer;
+        this.cacheable = cacheable;
+        this.local = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+                return size() > SingleFlightCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * ✅ 캐시 조회 → 없으면 loader 한 번만 호출 (같은 키 동시 요청은 결과 공유)
+     */
+    public V get(String key, Supplier<V> loader) {
+        V cached = getLocal(key);
+        if (cached != null) {
+            localHits.incrementAndGet();
+            return cached;
+        }
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+
+        try {
+            V value = getLocal(key); // 직전 리더가 막 저장하고 빠진 경우
+            if (value != null) {
+                localHits.incrementAndGet();
+            } else if ((value = getRemote(key)) != null) {
+                redisHits.incrementAndGet();
+                putLocal(key, value);
+            } else {
+                loads.incrementAndGet();
+                value = loader.get();
+                if (value != null && cacheable.test(value)) {
+                    putLocal(key, value);
+                    putRemote(key, value);
+                }
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", localSize());
+        result.put("maxSize", maxSize);
+        result.put("ttlSeconds", ttlMillis / 1000);
+        result.put("localHits", localHits.get());
+        result.put("redisHits", redisHits.get());
+        result.put("coalesced", coalesced.get());
+        result.put("loads", loads.get());
+        return result;
+    }
+
+    public void clear() {
+        synchronized (local) {
+            local.clear();
+        }
+    }
+
+    // ---------------------------------------------------------------------
+
+    private V getLocal(String key) {
+        synchronized (local) {
+            Entry<V> entry = local.get(key);
+            if (entry == null) return null;
+            if (entry.expiresAt < System.currentTimeMillis()) {
+                local.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    private void putLocal(String key, V value) {
+        synchronized (local) {
+            local.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    private int localSize() {
+        synchronized (local) {
+            return local.size();
+        }
+    }
+
+    private V getRemote(String key) {
+        if (redisTemplate == null) return null;
+        try {
+            Object raw = redisTemplate.opsForValue().get(redisKey(key));
+            return raw == null ? null : deserializer.apply(raw.toString());
+        } catch (RuntimeException e) {
+            log.debug("⚠️ [{}] Redis 조회 실패 → 건너뜀: {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private void putRemote(String key, V value) {
+        if (redisTemplate == null) return;
+        try {
+            redisTemplate.opsForValue().set(redisKey(key), serializer.apply(value), ttlMillis, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            log.debug("⚠️ [{}] Redis 저장 실패 → 건너뜀: {}", name, e.getMessage());
+        }
+    }
+
+    private String redisKey(String key) {
+        return "cache:" + name + ":" + key;
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
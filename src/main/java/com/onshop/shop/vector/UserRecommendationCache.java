@@ -0,0 +1,313 @@
+package com.onshop.shop.vector;
+
+import com.onshop.shop.product.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ✅ 사용자 기반 추천 사전 계산 저장소 (요청 경로 = 키 조회 1번)
+ *
+ * - 사용자별 이웃 user_id / 점수순 후보 상품 / 담은 상품 / 벡터 스케치를 long[]·float[] 로만 보관 (LRU, max-users)
+ * - 장바구니 담기로 user_vector 가 바뀌면 markChanged → 백그라운드 스레드가 주기적으로 모아서 처리
+ *   · 스케치 변화량(1 - 코사인)이 drift-threshold 미만: 담은 상품 목록만 갱신 (kNN 생략)
+ *   · 이상이거나 max-age 초과: avg / recent 두 kNN 을 다시 돌려 이웃과 후보를 새로 계산
+ *   · max-age 가 지난 결과를 조회하면 그대로 응답하고 갱신 대상에 추가
+ * - 후보가 모자라면 판매량 상위 인기 상품 목록(주기적 갱신)으로 보충 → 요청마다 count() / 랜덤 페이지 조회 없음
+ * - 기동 시 update_count 상위(active) 사용자 warm-users 명을 미리 계산
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserRecommendationCache {
+
+    private final UserVectorRepository userVectorRepository;
+    private final ProductRepository productRepository;
+    private final PgVectorSearchSettings pgVectorSearchSettings;
+
+    @Value("${vector.dimension:1536}")
+    private int dimension;
+
+    @Value("${vector.user-reco.neighbour-count:3}")
+    private int neighbourCount;
+
+    @Value("${vector.user-reco.max-candidates:100}")
+    private int maxCandidates;
+
+    @Value("${vector.user-reco.max-users:20000}")
+    private int maxUsers;
+
+    @Value("${vector.user-reco.sketch-dimension:64}")
+    private int sketchDimension;
+
+    @Value("${vector.user-reco.drift-threshold:0.05}")
+    private float driftThreshold;
+
+    @Value("${vector.user-reco.max-age-seconds:3600}")
+    private long maxAgeSeconds;
+
+    @Value("${vector.user-reco.refresh-interval-ms:2000}")
+    private long refreshIntervalMs;
+
+    @Value("${vector.user-reco.refresh-batch-size:200}")
+    private int refreshBatchSize;
+
+    @Value("${vector.user-reco.warm-users:1000}")
+    private int warmUsers;
+
+    @Value("${vector.user-reco.popular-size:200}")
+    private int popularSize;
+
+    @Value("${vector.user-reco.popular-refresh-seconds:300}")
+    private long popularRefreshSeconds;
+
+    /**
+     * 사용자 1명의 사전 계산 결과 (불변, 갱신 시 통째로 교체)
+     */
+    record Entry(long[] neighbours, long[] candidates, long[] owned,
+                 float[] avgSketch, float[] recentSketch, long computedAt) {
+
+        Entry withOwned(long[] newOwned, Set<Long> ownedSet) {
+            long[] remaining = Arrays.stream(candidates).filter(id -> !ownedSet.contains(id)).toArray();
+            return new Entry(neighbours, remaining, newOwned, avgSketch, recentSketch, computedAt);
+        }
+    }
+
+    private Map<Long, Entry> entries;
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private volatile long[] popular = new long[0];
+    private volatile long popularLoadedAt;
+    private volatile RandomProjectionSketch sketch;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong recomputed = new AtomicLong();
+    private final AtomicLong ownedOnly = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "user-reco-refresher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnReady() {
+        entries = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxUsers;
+            }
+        });
+        sketch = new RandomProjectionSketch(dimension, sketchDimension, 42L);
+
+        refresher.execute(this::warmUp);
+        refresher.scheduleWithFixedDelay(this::refreshDirtySafely, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+        refresher.scheduleWithFixedDelay(this::reloadPopularSafely, popularRefreshSeconds, popularRefreshSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    public int neighbourCount() {
+        return neighbourCount;
+    }
+
+    /**
+     * ✅ 사용자 벡터가 바뀌었음을 알림 (다음 refresh 주기에 재계산 여부 판단)
+     */
+    public void markChanged(Long userId) {
+        if (userId != null) dirty.add(userId);
+    }
+
+    /**
+     * ✅ 추천 결과 (사전 계산 결과가 없으면 지금 계산해서 저장 → 다음 요청부터 키 조회)
+     */
+    public List<Long> recommend(Long userId, int topK) {
+        Entry entry = entries == null ? null : entries.get(userId);
+        if (entry != null) {
+            hits.incrementAndGet();
+            if (System.currentTimeMillis() - entry.computedAt() > maxAgeSeconds * 1000) {
+                markChanged(userId); // 오래된 결과는 일단 응답하고 백그라운드에서 갱신
+            }
+        } else {
+            misses.incrementAndGet();
+            entry = compute(userId, neighbourCount);
+            if (entries != null) entries.put(userId, entry);
+        }
+        return CollaborativeCandidates.pad(entry.candidates(), entry.owned(), popularIds(), topK);
+    }
+
+    /**
+     * ✅ 저장하지 않고 이번 요청만 계산 (기본값과 다른 neighbourCount 요청용)
+     */
+    public List<Long> recommendUncached(Long userId, int topK, int neighbours) {
+        Entry entry = compute(userId, neighbours);
+        return CollaborativeCandidates.pad(entry.candidates(), entry.owned(), popularIds(), topK);
+    }
+
+    /**
+     * ✅ user_vector 1건 + avg / recent kNN 2번으로 이웃과 후보 계산
+     */
+    Entry compute(Long userId, int neighbours) {
+        Map<String, Object> raw = userVectorRepository.findRawByUserId(userId);
+        if (raw == null || raw.isEmpty()) {
+            throw new RuntimeException("❌ user_vector 없음: userId=" + userId);
+        }
+
+        float[] avg = PgVectorCodec.decode(raw.get("avg_vector"));
+        float[] recent = PgVectorCodec.decode(raw.get("recent_vector"));
+        long[] owned = CollaborativeCandidates.productIds(raw.get("product_ids"));
+        Set<Long> ownedSet = toSet(owned);
+
+        List<Object[]> avgUsers = pgVectorSearchSettings.search(() -> userVectorRepository.findTopUsersByAvgVectorSimilarity(
+                userId, PgVectorCodec.toText(avg), neighbours));
+        List<Object[]> recentUsers = pgVectorSearchSettings.search(() -> userVectorRepository.findTopUsersByRecentVectorSimilarity(
+                userId, PgVectorCodec.toText(recent), neighbours));
+
+        recomputed.incrementAndGet();
+        return new Entry(
+                CollaborativeCandidates.neighbours(userId, avgUsers, recentUsers),
+                CollaborativeCandidates.score(userId, avgUsers, recentUsers, ownedSet, maxCandidates),
+                owned,
+                projectOrNull(avg),
+                projectOrNull(recent),
+                System.currentTimeMillis()
+        );
+    }
+
+    /**
+     * ✅ 변경된 사용자 재계산 (스케치 변화량이 작으면 담은 상품 목록만 반영)
+     */
+    void refresh(Long userId) {
+        Entry previous = entries.get(userId);
+        boolean expired = previous == null
+                || System.currentTimeMillis() - previous.computedAt() > maxAgeSeconds * 1000;
+        if (expired) {
+            entries.put(userId, compute(userId, neighbourCount));
+            return;
+        }
+
+        Map<String, Object> raw = userVectorRepository.findRawByUserId(userId);
+        if (raw == null || raw.isEmpty()) {
+            entries.remove(userId);
+            return;
+        }
+        float[] avgSketch = projectOrNull(PgVectorCodec.decode(raw.get("avg_vector")));
+        float[] recentSketch = projectOrNull(PgVectorCodec.decode(raw.get("recent_vector")));
+        float drift = Math.max(
+                RandomProjectionSketch.drift(previous.avgSketch(), avgSketch),
+                RandomProjectionSketch.drift(previous.recentSketch(), recentSketch));
+
+        if (drift >= driftThreshold) {
+            entries.put(userId, compute(userId, neighbourCount));
+        } else {
+            long[] owned = CollaborativeCandidates.productIds(raw.get("product_ids"));
+            entries.put(userId, previous.withOwned(owned, toSet(owned)));
+            ownedOnly.incrementAndGet();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long h = hits.get(), m = misses.get();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("users", entries == null ? 0 : entries.size());
+        result.put("maxUsers", maxUsers);
+        result.put("pendingRefresh", dirty.size());
+        result.put("hits", h);
+        result.put("misses", m);
+        result.put("hitRate", h + m == 0 ? 0.0 : (double) h / (h + m));
+        result.put("recomputed", recomputed.get());
+        result.put("ownedOnlyUpdates", ownedOnly.get());
+        result.put("refreshFailures", refreshFailures.get());
+        result.put("driftThreshold", driftThreshold);
+        result.put("sketchBytesPerUser", 2L * sketchDimension * Float.BYTES);
+        result.put("popularSize", popular.length);
+        result.put("popularLoadedAt", popularLoadedAt);
+        return result;
+    }
+
+    private void warmUp() {
+        reloadPopularSafely();
+        long start = System.currentTimeMillis();
+        int warmed = 0;
+        for (Long userId : userVectorRepository.findActiveUserIds(warmUsers)) {
+            try {
+                entries.put(userId, compute(userId, neighbourCount));
+                warmed++;
+            } catch (RuntimeException e) {
+                refreshFailures.incrementAndGet();
+                log.warn("⚠️ [사용자 추천] 사전 계산 실패 userId={}: {}", userId, e.getMessage());
+            }
+        }
+        log.info("✅ [사용자 추천] 사전 계산 {}명 완료, {}ms", warmed, System.currentTimeMillis() - start);
+    }
+
+    private void refreshDirtySafely() {
+        if (dirty.isEmpty()) return;
+
+        List<Long> batch = new ArrayList<>(Math.min(dirty.size(), refreshBatchSize));
+        Iterator<Long> it = dirty.iterator();
+        while (it.hasNext() && batch.size() < refreshBatchSize) {
+            batch.add(it.next());
+            it.remove();
+        }
+
+        for (Long userId : batch) {
+            try {
+                refresh(userId);
+            } catch (RuntimeException e) {
+                refreshFailures.incrementAndGet();
+                log.warn("⚠️ [사용자 추천] 갱신 실패 userId={}: {}", userId, e.getMessage());
+            }
+        }
+    }
+
+    private void reloadPopularSafely() {
+        try {
+            popular = CollaborativeCandidates.toArray(
+                    productRepository.findTopProductIdsByOverallSales(PageRequest.of(0, popularSize)));
+            popularLoadedAt = System.currentTimeMillis();
+        } catch (RuntimeException e) {
+            log.warn("⚠️ [사용자 추천] 인기 상품 목록 갱신 실패 → 이전 목록 유지: {}", e.getMessage());
+        }
+    }
+
+    private long[] popularIds() {
+        if (popularLoadedAt == 0L) reloadPopularSafely(); // 기동 직후 warm-up 전 요청
+        return popular;
+    }
+
+    private float[] projectOrNull(float[] vector) {
+        RandomProjectionSketch current = sketch;
+        return current == null ? null : current.project(vector);
+    }
+
+    private static Set<Long> toSet(long[] ids) {
+        Set<Long> set = new HashSet<>(ids.length * 2);
+        for (long id : ids) set.add(id);
+        return set;
+    }
+}
@@ -3,6 +3,7 @@ package com.onshop.shop.vector;
 import lombok.RequiredArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.web.bind.annotation.*;
 
@@ -16,6 +17,8 @@ public class UserVectorController {
 
     private final UserVectorService userVectorService;
     private final JwtUtil jwtUtil;
+    private final ProductEmbeddingLookup productEmbeddingLookup;
+    private final UserRecommendationCache userRecommendationCache;
 
     /**
      * ✅ 테스트용 POST 요청
@@ -59,6 +62,18 @@ public class UserVectorController {
      *   2001
      * ]
      */
+    // ✅ 상품 임베딩 조회 캐시 적중률 (LRU / PGVector / OpenAI 호출 비율)
+    @GetMapping("/embedding-cache/stats")
+    public Map<String, Object> getEmbeddingCacheStats() {
+        return productEmbeddingLookup.stats();
+    }
+
+    // ✅ 사용자 추천 사전 계산 저장소 상태 (적중률 / 재계산 수 / 갱신 대기 사용자 수)
+    @GetMapping("/recommend/stats")
+    public Map<String, Object> getRecommendCacheStats() {
+        return userRecommendationCache.stats();
+    }
+
     @GetMapping("/recommend")
     public List<Long> recommendProducts(
             @RequestParam Long userId,
@@ -26,67 +26,90 @@ public interface UserVectorRepository extends JpaRepository<UserVector, Long> {
 
     /**
      * ✅ user_id로 raw 벡터 포함 조회
+     * 벡터는 vector_send()로 바이너리(bytea → byte[]) 그대로 받아 PgVectorCodec.fromBinary 로 디코딩
      */
     @Query(value = """
         SELECT user_id, update_count, product_ids,
-               avg_vector::text AS avg_vector,
-               recent_vector::text AS recent_vector
+               vector_send(avg_vector) AS avg_vector,
+               vector_send(recent_vector) AS recent_vector
         FROM user_vector
         WHERE user_id = :userId
         """, nativeQuery = true)
     Map<String, Object> findRawByUserId(@Param("userId") Long userId);
 
     /**
-     * ✅ user_vector 삽입 또는 업데이트 (벡터 포함)
+     * ✅ 장바구니 담기 1건을 user_vector 에 원자적으로 반영 (왕복 1회)
+     *
+     * - 처음 담는 사용자: avg = e, recent = e × recentWeight, product_ids = [productId]
+     * - 기존 사용자 (ON CONFLICT 행 잠금으로 같은 사용자 동시 요청은 순서대로 적용 → 갱신 유실 없음)
+     *   avg    = avg + (e - avg) / (n + 1)            (누적 평균)
+     *   recent = recent + (e - recent) × recentWeight  (지수 이동 평균)
+     *   product_ids = 기존 목록에서 productId 제거 → 최근 keepCount 개 → 맨 뒤에 productId
+     * - 스칼라 곱은 array_fill 로 만든 상수 벡터와의 원소별 곱(*)으로 처리 (pgvector 0.5+)
      */
     @Transactional
     @Modifying(clearAutomatically = true)
     @Query(value = """
         INSERT INTO user_vector (user_id, update_count, avg_vector, recent_vector, product_ids)
-        VALUES (:userId, :updateCount, CAST(:avgVectorStr AS vector), CAST(:recentVectorStr AS vector), :productIds)
+        VALUES (:userId, 1,
+                CAST(:embedding AS vector),
+                CAST(:embedding AS vector)
+                    * CAST(array_fill(CAST(:recentWeight AS real), ARRAY[vector_dims(CAST(:embedding AS vector))]) AS vector),
+                ARRAY[CAST(:productId AS BIGINT)])
         ON CONFLICT (user_id) DO UPDATE
-        SET update_count = :updateCount,
-            avg_vector = CAST(:avgVectorStr AS vector),
-            recent_vector = CAST(:recentVectorStr AS vector),
-            product_ids = :productIds
+        SET update_count = COALESCE(user_vector.update_count, 0) + 1,
+            avg_vector = user_vector.avg_vector
+                + (EXCLUDED.avg_vector - user_vector.avg_vector)
+                * CAST(array_fill(CAST(1.0 / (COALESCE(user_vector.update_count, 0) + 1) AS real),
+                                  ARRAY[vector_dims(EXCLUDED.avg_vector)]) AS vector),
+            recent_vector = user_vector.recent_vector
+                + (EXCLUDED.avg_vector - user_vector.recent_vector)
+                * CAST(array_fill(CAST(:recentWeight AS real), ARRAY[vector_dims(EXCLUDED.avg_vector)]) AS vector),
+            product_ids = ARRAY(
+                SELECT s.pid
+                FROM (
+                    SELECT t.pid, t.ord
+                    FROM unnest(array_remove(COALESCE(user_vector.product_ids, ARRAY[]::BIGINT[]), CAST(:productId AS BIGINT)))
+                         WITH ORDINALITY AS t(pid, ord)
+                    ORDER BY t.ord DESC
+                    LIMIT :keepCount
+                ) s
+                ORDER BY s.ord
+            ) || CAST(:productId AS BIGINT)
         """, nativeQuery = true)
-    void upsertUserVector(
+    void applyCartAdd(
         @Param("userId") Long userId,
-        @Param("updateCount") Long updateCount,
-        @Param("avgVectorStr") String avgVectorStr,
-        @Param("recentVectorStr") String recentVectorStr,
-        @Param("productIds") Long[] productIds
+        @Param("productId") Long productId,
+        @Param("embedding") String embedding,
+        @Param("recentWeight") float recentWeight,
+        @Param("keepCount") int keepCount
     );
 
     /**
-     * ✅ 존재하지 않을 경우 기본값으로 삽입 (0벡터 + 빈 배열)
+     * ✅ 장바구니 반영 횟수 상위 사용자 (추천 사전 계산 warm-up 대상)
      */
-    @Transactional
-    @Modifying
     @Query(value = """
-        INSERT INTO user_vector (user_id, update_count, avg_vector, recent_vector, product_ids)
-        SELECT :userId,
-               0,
-               CAST(:zeroVectorStr AS vector),
-               CAST(:zeroVectorStr AS vector),
-               ARRAY[]::BIGINT[]
-        WHERE NOT EXISTS (
-            SELECT 1 FROM user_vector WHERE user_id = :userId
-        )
+        SELECT user_id
+        FROM user_vector
+        WHERE update_count > 0
+        ORDER BY update_count DESC
+        LIMIT :limit
         """, nativeQuery = true)
-    void insertIfNotExistsWithVectors(
-        @Param("userId") Long userId,
-        @Param("zeroVectorStr") String zeroVectorStr
-    );
+    List<Long> findActiveUserIds(@Param("limit") int limit);
 
     /**
-     * ✅ avg_vector 기준 유사 사용자 조회
+     * ✅ avg_vector 기준 유사 사용자 조회 (코사인 거리, idx_user_vector_avg_ann)
+     *
+     * ⚠️ avg_vector / recent_vector 는 누적 / 이동 평균이라 단위 벡터가 아님
+     *    → 코사인은 크기를 무시하고 방향(취향)만 비교하므로 예전 L2(<->) 순위와 다를 수 있음
+     *      (L2 는 담은 상품이 다양해 평균 벡터가 짧아진 사용자를 가깝게 보는 편향이 있었음)
+     *    → 쓰기 시 정규화는 하지 않음: 누적 평균 식이 정규화 전 값을 필요로 하고, 코사인 순위에는 영향 없음
      */
     @Query(value = """
         SELECT user_id, product_ids
         FROM user_vector
         WHERE user_id != :userId
-        ORDER BY avg_vector <-> CAST(:queryVector AS vector)
+        ORDER BY avg_vector <=> CAST(:queryVector AS vector)
         LIMIT :limit
         """, nativeQuery = true)
     List<Object[]> findTopUsersByAvgVectorSimilarity(
@@ -96,13 +119,13 @@ public interface UserVectorRepository extends JpaRepository<UserVector, Long> {
     );
 
     /**
-     * ✅ recent_vector 기준 유사 사용자 조회
+     * ✅ recent_vector 기준 유사 사용자 조회 (코사인 거리, idx_user_vector_recent_ann)
      */
     @Query(value = """
         SELECT user_id, product_ids
         FROM user_vector
         WHERE user_id != :userId
-        ORDER BY recent_vector <-> CAST(:queryVector AS vector)
+        ORDER BY recent_vector <=> CAST(:queryVector AS vector)
         LIMIT :limit
         """, nativeQuery = true)
     List<Object[]> findTopUsersByRecentVectorSimilarity(
@@ -0,0 +1,44 @@
+package com.onshop.shop.vector;
+
+import com.onshop.shop.exception.NotAuthException;
+import com.onshop.shop.security.JwtUtil;
+import com.onshop.shop.user.UserRepository;
+import com.onshop.shop.user.UserRole;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * ✅ /vector/** 중 운영 / 진단용 엔드포인트의 관리자 확인
+ *
+ * /vector/** 는 SecurityConfig 에서 permitAll 이므로 jwt 쿠키를 직접 검증하고
+ * 관리자(UserRole.ADMIN)가 아니면 NotAuthException(403)
+ */
+@Component
+@RequiredArgsConstructor
+public class VectorAdminGuard {
+
+    private final JwtUtil jwtUtil;
+    private final UserRepository userRepository;
+
+    public void requireAdmin(String token) {
+        if (token == null) {
+            throw new NotAuthException("요청 권한이 없습니다.");
+        }
+
+        Long userId;
+        try {
+            jwtUtil.validateToken(token);
+            userId = jwtUtil.extractUserId(token);
+        } catch (JwtException e) {
+            throw new NotAuthException("요청 권한이 없습니다.");
+        }
+
+        boolean admin = userRepository.findByUserId(userId)
+                .map(user -> user.getRole() == UserRole.ADMIN)
+                .orElse(false);
+        if (!admin) {
+            throw new NotAuthException("관리자만 사용할 수 있습니다.");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.onshop.shop.vector;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ✅ float[] 벡터 연산 커널 (내적 / 코사인 / L2 / 가중 평균 / int8 내적)
+ *
+ * - JVM 이 --add-modules jdk.incubator.vector 로 떠 있으면 Vector API(SIMD) 구현 사용
+ * - 모듈이 없거나 로딩에 실패하면 4-way 언롤링한 스칼라 구현으로 자동 fallback
+ * - -Donshop.vector.scalar=true 로 스칼라 구현 강제 (비교 / 문제 발생 시 우회용)
+ *
+ * HNSW / 압축 저장소 / PQ / 사용자 벡터 갱신 등 JVM 안의 벡터 계산은 모두 여기를 거침
+ */
+@Slf4j
+public final class VectorKernels {
+
+    private static final Impl IMPL = load();
+
+    private VectorKernels() {
+    }
+
+    public static float dot(float[] a, float[] b) {
+        return IMPL.dot(a, b);
+    }
+
+    public static float cosine(float[] a, float[] b) {
+        return IMPL.cosine(a, b);
+    }
+
+    public static float squaredL2(float[] a, float[] b) {
+        return IMPL.squaredL2(a, 0, b, 0, a.length);
+    }
+
+    public static float squaredL2(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        return IMPL.squaredL2(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * ✅ target[i] = targetWeight * target[i] + sourceWeight * source[i]
+     */
+    public static void weightedAverageInPlace(float[] target, float targetWeight, float[] source, float sourceWeight) {
+        IMPL.weightedAverageInPlace(target, targetWeight, source, sourceWeight);
+    }
+
+    /**
+     * ✅ int8 코드 내적 (압축 저장소용)
+     */
+    public static int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        return IMPL.dot(a, aOffset, b, bOffset, length);
+    }
+
+    public static String implementation() {
+        return IMPL.name();
+    }
+
+    static Impl scalar() {
+        return new ScalarVectorKernels();
+    }
+
+    private static Impl load() {
+        if (Boolean.getBoolean("onshop.vector.scalar")) {
+            log.info("🧮 [KERNEL] 스칼라 구현 강제 (onshop.vector.scalar=true)");
+            return scalar();
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            log.info("🧮 [KERNEL] jdk.incubator.vector 모듈 없음 → 스칼라 구현 사용");
+            return scalar();
+        }
+        try {
+            Impl simd = (Impl) Class.forName("com.onshop.shop.vector.SimdVectorKernels")
+                    .getDeclaredConstructor()
+                    .newInstance();
+            log.info("🧮 [KERNEL] Vector API 구현 사용: {}", simd.name());
+            return simd;
+        } catch (Throwable e) {
+            log.warn("⚠️ [KERNEL] Vector API 구현 로딩 실패 → 스칼라 구현 사용: {}", e.toString());
+            return scalar();
+        }
+    }
+
+    interface Impl {
+        float dot(float[] a, float[] b);
+
+        float cosine(float[] a, float[] b);
+
+        float squaredL2(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+        void weightedAverageInPlace(float[] target, float targetWeight, float[] source, float sourceWeight);
+
+        int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length);
+
+        String name();
+    }
+}
@@ -0,0 +1,71 @@
+package com.onshop.shop.vector;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import lombok.Getter;
+
+/**
+ * ✅ 유사도 검색 사전 필터 (가격 구간 + 카테고리 하위 트리)
+ *
+ * - minPrice / maxPrice 가 null 이면 가격 조건 없음
+ * - categoryIds 가 null 이면 카테고리 조건 없음 (지정 시 선택 카테고리와 모든 하위 카테고리 ID)
+ */
+@Getter
+public class VectorSearchFilter {
+
+    public static final VectorSearchFilter NONE = new VectorSearchFilter(null, null, null);
+
+    private final Integer minPrice;
+    private final Integer maxPrice;
+    private final Set<Long> categoryIds;
+
+    public VectorSearchFilter(Integer minPrice, Integer maxPrice, Set<Long> categoryIds) {
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.categoryIds = categoryIds == null ? null : new TreeSet<>(categoryIds); // 캐시 키 순서 고정
+    }
+
+    public VectorSearchFilter withPrice(Integer minPrice, Integer maxPrice) {
+        return new VectorSearchFilter(minPrice, maxPrice, categoryIds);
+    }
+
+    public boolean hasPrice() {
+        return minPrice != null || maxPrice != null;
+    }
+
+    public boolean hasCategory() {
+        return categoryIds != null;
+    }
+
+    public boolean isEmpty() {
+        return !hasPrice() && !hasCategory();
+    }
+
+    public boolean matches(Long categoryId, Integer price) {
+        if (hasCategory() && (categoryId == null || !categoryIds.contains(categoryId))) return false;
+        if (price == null) return !hasPrice();
+        if (minPrice != null && price < minPrice) return false;
+        if (maxPrice != null && price > maxPrice) return false;
+        return true;
+    }
+
+    // PGVector 네이티브 쿼리 파라미터용 (조건 없음은 전체 범위 / 더미 ID 로 표현)
+    int minPriceOrZero() {
+        return minPrice == null ? 0 : minPrice;
+    }
+
+    int maxPriceOrMax() {
+        return maxPrice == null ? Integer.MAX_VALUE : maxPrice;
+    }
+
+    List<Long> categoryIdsOrDummy() {
+        return hasCategory() && !categoryIds.isEmpty() ? List.copyOf(categoryIds) : List.of(-1L);
+    }
+
+    @Override
+    public String toString() {
+        return "price=" + minPrice + "~" + maxPrice + ",category=" + categoryIds;
+    }
+}
@@ -0,0 +1,42 @@
+package com.onshop.shop.vector;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * ✅ 벡터 동기화 작업 진행 위치 (중단 후 이어서 실행하기 위한 체크포인트)
+ */
+@Entity
+@Table(name = "vector_sync_checkpoint")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VectorSyncCheckpoint {
+
+    @Id
+    @Column(name = "job_name")
+    private String jobName;
+
+    @Column(name = "last_product_id", nullable = false)
+    private Long lastProductId; // 이 ID 까지는 처리 완료
+
+    @Column(name = "completed", nullable = false)
+    private Boolean completed;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,8 @@
+package com.onshop.shop.vector;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface VectorSyncCheckpointRepository extends JpaRepository<VectorSyncCheckpoint, String> {
+}
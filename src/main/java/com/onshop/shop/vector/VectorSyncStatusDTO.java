@@ -0,0 +1,29 @@
+package com.onshop.shop.vector;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * ✅ /vector/sync/status 응답
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VectorSyncStatusDTO {
+
+    private boolean running;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long lastProductId;   // 체크포인트 (이 ID 까지 처리 완료)
+    private long scanned;         // 읽은 상품 수
+    private long skipped;         // 이미 임베딩돼 있어 건너뛴 수
+    private long embedded;        // 이번 실행에서 새로 임베딩한 수
+    private long failed;
+    private double embeddedPerSecond;
+    private String lastError;
+}
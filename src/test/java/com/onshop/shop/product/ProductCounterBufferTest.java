@@ -0,0 +1,80 @@
+package com.onshop.shop.product;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class ProductCounterBufferTest {
+
+    @Test
+    void drainMergesPerProductInIdOrderAndResets() {
+        ProductCounterBuffer buffer = new ProductCounterBuffer(10);
+        buffer.addViews(7L, 1);
+        buffer.addViews(3L, 1);
+        buffer.addViews(7L, 2);
+        buffer.addSales(3L, 5);
+
+        assertEquals(List.of(
+                new ProductCounterBuffer.Delta(3L, 1, 5),
+                new ProductCounterBuffer.Delta(7L, 3, 0)), buffer.drain());
+        assertTrue(buffer.drain().isEmpty());
+    }
+
+    @Test
+    void restoredDeltasAreDrainedAgain() {
+        ProductCounterBuffer buffer = new ProductCounterBuffer(10);
+        buffer.addViews(1L, 4);
+        List<ProductCounterBuffer.Delta> failed = buffer.drain();
+
+        buffer.restore(failed);
+        buffer.addViews(1L, 1);
+        assertEquals(List.of(new ProductCounterBuffer.Delta(1L, 5, 0)), buffer.drain());
+    }
+
+    @Test
+    void newProductsBeyondLimitAreDroppedAndCounted() {
+        ProductCounterBuffer buffer = new ProductCounterBuffer(2);
+        assertTrue(buffer.addViews(1L, 1));
+        assertTrue(buffer.addViews(2L, 1));
+        assertFalse(buffer.addViews(3L, 1));
+        assertTrue(buffer.addViews(1L, 1)); // 이미 추적 중인 상품은 계속 누적
+
+        assertEquals(1L, buffer.dropped());
+        assertEquals(2, buffer.drain().size());
+        assertTrue(buffer.addViews(3L, 1)); // 다음 주기에는 다시 받음
+    }
+
+    @Test
+    void concurrentIncrementsAreNeitherLostNorDoubled() throws InterruptedException {
+        ProductCounterBuffer buffer = new ProductCounterBuffer(1000);
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < perThread; i++) buffer.addViews(i % 5, 1);
+                done.countDown();
+            });
+        }
+
+        long total = 0;
+        while (done.getCount() > 0) {
+            total += buffer.drain().stream().mapToLong(ProductCounterBuffer.Delta::views).sum();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        total += buffer.drain().stream().mapToLong(ProductCounterBuffer.Delta::views).sum();
+        total += buffer.drain().stream().mapToLong(ProductCounterBuffer.Delta::views).sum();
+
+        assertEquals((long) threads * perThread, total);
+    }
+}
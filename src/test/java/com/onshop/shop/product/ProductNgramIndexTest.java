@@ -0,0 +1,72 @@
+package com.onshop.shop.product;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class ProductNgramIndexTest {
+
+    @Test
+    void postingsAdvanceAcrossSkipBlocks() {
+        VarintPostings postings = new VarintPostings();
+        for (int doc = 0; doc < 10_000; doc += 3) postings.add(doc);
+
+        VarintPostings.Cursor cursor = postings.cursor();
+        assertEquals(0, cursor.next());
+        assertEquals(3, cursor.next());
+        assertEquals(5001, cursor.advance(5000));
+        assertEquals(5001, cursor.advance(10));
+        assertEquals(9999, cursor.advance(9998));
+        assertEquals(VarintPostings.NO_MORE_DOCS, cursor.next());
+
+        List<Integer> all = new ArrayList<>();
+        VarintPostings.Cursor full = postings.cursor();
+        for (int doc = full.next(); doc != VarintPostings.NO_MORE_DOCS; doc = full.next()) all.add(doc);
+        assertEquals(3334, all.size());
+        assertEquals(9999, (int) all.get(all.size() - 1));
+    }
+
+    @Test
+    void matchesSubstringRegardlessOfSpacingAndWidth() {
+        ProductNgramIndex index = new ProductNgramIndex();
+        index.upsert(1L, 10L, "단백질 쉐이크 초코맛", "건강식품", "헬스마켓");
+        index.upsert(2L, 10L, "단백질바", "건강식품", "헬스마켓");
+        index.upsert(3L, 20L, "갤럭시 S24 케이스", "휴대폰 액세서리", "폰꾸미기");
+        index.upsert(4L, 20L, "쉐이크 보틀", "주방용품", "키친샵");
+
+        assertEquals(List.of(1L), index.search("단백질쉐이크", null, 10));
+        assertEquals(List.of(1L, 2L), index.search("단백질", null, 10));
+        assertEquals(List.of(3L), index.search("Ｓ２４", null, 10));      // 전각 → 반각
+        assertEquals(List.of(3L), index.search("갤럭시s24", null, 10));
+        assertEquals(List.of(3L), index.search("폰꾸미", null, 10));       // 상점명
+        assertEquals(List.of(1L, 2L), index.search("건강", null, 10));     // 카테고리명
+        assertEquals(List.of(), index.search("쉐이크초코바", null, 10));
+    }
+
+    @Test
+    void intersectsWithCategoryPostingsAndHandlesUpdates() {
+        ProductNgramIndex index = new ProductNgramIndex();
+        index.upsert(1L, 10L, "쉐이크 초코맛");
+        index.upsert(2L, 20L, "쉐이크 보틀");
+        index.upsert(3L, 30L, "쉐이크 바닐라");
+
+        assertEquals(List.of(2L), index.search("쉐이크", Set.of(20L), 10));
+        assertEquals(List.of(2L, 3L), index.search("쉐이크", Set.of(20L, 30L), 10));
+        assertEquals(List.of(), index.search("쉐이크", Set.of(99L), 10));
+        assertEquals(List.of(3L), index.search("닐", Set.of(30L), 10));
+
+        index.upsert(2L, 30L, "프로틴 보틀");
+        assertEquals(List.of(1L, 3L), index.search("쉐이크", null, 10));
+        assertEquals(List.of(), index.search(" - ", null, 10));
+        assertEquals(List.of(2L), index.search("틀", Set.of(30L), 10));
+
+        index.remove(1L);
+        assertEquals(List.of(3L), index.search("쉐이크", null, 10));
+        assertEquals(2, index.size());
+        assertEquals(2, index.deletedCount());
+    }
+}
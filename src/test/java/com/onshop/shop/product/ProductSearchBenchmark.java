@@ -0,0 +1,120 @@
+package com.onshop.shop.product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 상품 검색 1회 지연 시간 (μs, 결과 최대 1000개, 상품 10만 / 100만개 합성 카탈로그)
+ * - likeScan       : 변경 전 쿼리의 하한 — LIKE '%검색어%' 처럼 모든 상품명을 순서대로 contains 확인
+ *                    (MySQL 은 여기에 행 읽기 / 콜레이션 비교 비용이 더해짐, 인덱스를 못 타므로 상품 수에 비례)
+ * - ngramIndex     : ProductNgramIndex 3-gram postings 교집합 + 후보 확인
+ * - *WithCategory  : 카테고리 1개로 범위를 좁힌 검색 (LIKE 는 카테고리 비교 추가, 인덱스는 카테고리 postings 교집합)
+ * IDE 에서 main 실행 (mvn test-compile 후, 100만개 구축에 힙 4GB 사용)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductSearchBenchmark {
+
+    private static final String[] BRANDS = {"삼성", "엘지", "애플", "나이키", "아디다스", "오뚜기", "농심", "CJ", "풀무원", "다이슨",
+            "필립스", "쿠쿠", "락앤락", "코카콜라", "빙그레", "매일", "마이프로틴", "뉴발란스", "샤오미", "로지텍"};
+    private static final String[] NOUNS = {"단백질 쉐이크", "무선 이어폰", "운동화", "라면", "즉석밥", "공기청정기", "전기밥솥",
+            "밀폐용기", "탄산음료", "아이스크림", "우유", "블루투스 스피커", "기계식 키보드", "무선 마우스", "노트북 파우치",
+            "갤럭시 케이스", "아이폰 충전기", "요가매트", "텀블러", "캠핑 의자", "선크림", "샴푸", "칫솔", "생수", "커피 원두"};
+    private static final String[] MODIFIERS = {"대용량", "초코맛", "바닐라", "블랙", "화이트", "1+1", "특가", "프리미엄", "미니",
+            "리필", "세트", "정품", "신상", "저당", "무첨가"};
+    private static final String[] QUERIES = {"단백질", "쉐이크", "무선이어폰", "갤럭시 케이스", "초코", "키보드", "밥솥", "나이키 운동화",
+            "s24", "캠핑의자"};
+
+    private static final int LIMIT = 1000;
+    private static final int CATEGORIES = 200;
+
+    @Param({"100000", "1000000"})
+    private int products;
+
+    private String[] names;
+    private long[] categoryOf;
+    private ProductNgramIndex index;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        names = new String[products];
+        categoryOf = new long[products];
+        index = new ProductNgramIndex();
+        for (int i = 0; i < products; i++) {
+            String name = BRANDS[random.nextInt(BRANDS.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " "
+                    + MODIFIERS[random.nextInt(MODIFIERS.length)] + (random.nextInt(4) == 0 ? " S" + random.nextInt(30) : "");
+            long category = random.nextInt(CATEGORIES);
+            names[i] = name.toLowerCase(Locale.ROOT);
+            categoryOf[i] = category;
+            index.upsert(i + 1L, category, name, "카테고리" + category, "상점" + random.nextInt(5000));
+        }
+    }
+
+    @Benchmark
+    public int likeScan() {
+        String query = nextQuery().toLowerCase(Locale.ROOT);
+        List<Long> result = new ArrayList<>();
+        for (int i = 0; i < names.length && result.size() < LIMIT; i++) {
+            if (names[i].contains(query)) result.add(i + 1L);
+        }
+        return result.size();
+    }
+
+    @Benchmark
+    public int ngramIndex() {
+        return index.search(nextQuery(), null, LIMIT).size();
+    }
+
+    @Benchmark
+    public int likeScanWithCategory() {
+        String query = nextQuery().toLowerCase(Locale.ROOT);
+        long category = cursor % CATEGORIES;
+        List<Long> result = new ArrayList<>();
+        for (int i = 0; i < names.length && result.size() < LIMIT; i++) {
+            if (categoryOf[i] == category && names[i].contains(query)) result.add(i + 1L);
+        }
+        return result.size();
+    }
+
+    @Benchmark
+    public int ngramIndexWithCategory() {
+        String query = nextQuery();
+        return index.search(query, Set.of((long) (cursor % CATEGORIES)), LIMIT).size();
+    }
+
+    private String nextQuery() {
+        cursor++;
+        return QUERIES[(cursor & Integer.MAX_VALUE) % QUERIES.length];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,58 @@
+package com.onshop.shop.product;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SuggestTrieTest {
+
+    private static final SuggestTrie TRIE = SuggestTrie.build(List.of(
+            new SuggestTrie.Entry("갤럭시 S24 케이스", SuggestTrie.Kind.PRODUCT, 1L, 50L),
+            new SuggestTrie.Entry("갤럭시 버즈", SuggestTrie.Kind.PRODUCT, 2L, 300L),
+            new SuggestTrie.Entry("삼성 무선 이어폰", SuggestTrie.Kind.PRODUCT, 3L, 120L),
+            new SuggestTrie.Entry("닭가슴살 도시락", SuggestTrie.Kind.PRODUCT, 4L, 80L),
+            new SuggestTrie.Entry("이어폰", SuggestTrie.Kind.CATEGORY, 10L, 500L),
+            new SuggestTrie.Entry("갤러리샵", SuggestTrie.Kind.STORE, 20L, 10L)), 3, 4);
+
+    @Test
+    void ranksByWeightAndMatchesWordStarts() {
+        assertEquals(List.of("갤럭시 버즈", "갤럭시 S24 케이스", "갤러리샵"), texts(TRIE.suggest("갤", 10)));
+        assertEquals(List.of("이어폰", "삼성 무선 이어폰"), texts(TRIE.suggest("이어", 10)));
+        assertEquals(List.of("삼성 무선 이어폰"), texts(TRIE.suggest("무선 이", 10)));
+        assertEquals(List.of("갤럭시 S24 케이스"), texts(TRIE.suggest("ｓ２", 10)));   // 전각 → 반각
+        assertEquals(List.of("갤럭시 S24 케이스"), texts(TRIE.suggest("s2", 10)));
+        assertEquals(List.of("갤럭시 버즈"), texts(TRIE.suggest("갤", 1)));
+        assertEquals(List.of(), TRIE.suggest("냉장고", 10));
+        assertEquals(List.of(), TRIE.suggest("  ", 10));
+    }
+
+    @Test
+    void matchesSyllablesStillBeingComposed() {
+        // "갤럭" 을 치는 중간의 "갤러", "닭" 을 치는 중간의 "달"
+        assertEquals(List.of("갤럭시 버즈", "갤럭시 S24 케이스", "갤러리샵"), texts(TRIE.suggest("갤러", 10)));
+        assertEquals(List.of("갤럭시 버즈", "갤럭시 S24 케이스"), texts(TRIE.suggest("갤럭ㅅ", 10)));
+        assertEquals(List.of("닭가슴살 도시락"), texts(TRIE.suggest("달", 10)));
+        assertEquals(List.of("닭가슴살 도시락"), texts(TRIE.suggest("닭ㄱ", 10)));
+    }
+
+    @Test
+    void keepsTopKAcrossManyEntries() {
+        List<SuggestTrie.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            entries.add(new SuggestTrie.Entry("상품" + i, SuggestTrie.Kind.PRODUCT, i, i));
+        }
+        SuggestTrie trie = SuggestTrie.build(entries, 5, 1);
+
+        assertEquals(List.of("상품1999", "상품1998", "상품1997", "상품1996", "상품1995"), texts(trie.suggest("상품", 5)));
+        assertEquals(List.of("상품1999", "상품1998", "상품1997"), texts(trie.suggest("상품19", 3)));
+        assertEquals(List.of("상품799", "상품798", "상품797", "상품796", "상품795"), texts(trie.suggest("상품7", 5)));
+        assertEquals(2000, trie.entryCount());
+    }
+
+    private static List<String> texts(List<SuggestTrie.Entry> entries) {
+        return entries.stream().map(SuggestTrie.Entry::text).toList();
+    }
+}
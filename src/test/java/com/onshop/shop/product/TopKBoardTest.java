@@ -0,0 +1,55 @@
+package com.onshop.shop.product;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TopKBoardTest {
+
+    @Test
+    void keepsHighestScoresAndUpdatesExistingEntries() {
+        TopKBoard board = new TopKBoard(3);
+        board.offer(1L, 10);
+        board.offer(2L, 30);
+        board.offer(3L, 20);
+        board.offer(4L, 5);   // capacity 초과 + 가장 낮음 → 들어가지 않음
+        board.offer(1L, 40);  // 기존 상품 점수 갱신
+        board.publish();
+
+        assertArrayEquals(new long[]{1L, 2L, 3L}, board.snapshot().ids());
+        assertArrayEquals(new long[]{40L, 30L, 20L}, board.snapshot().scores());
+
+        board.offer(2L, 0);   // 점수가 0 이 되면 제거
+        board.offer(5L, 20);  // 같은 점수는 ID 오름차순
+        board.publish();
+        assertArrayEquals(new long[]{1L, 3L, 5L}, board.snapshot().ids());
+    }
+
+    @Test
+    void unpublishedChangesAreNotVisible() {
+        TopKBoard board = new TopKBoard(3);
+        board.offer(1L, 10);
+        assertEquals(0, board.snapshot().size());
+        board.publish();
+        assertEquals(1, board.snapshot().size());
+    }
+
+    @Test
+    void mergeTopInterleavesSortedSnapshots() {
+        TopKBoard a = new TopKBoard(10);
+        TopKBoard b = new TopKBoard(10);
+        a.offer(1L, 50);
+        a.offer(2L, 10);
+        b.offer(3L, 30);
+        b.offer(4L, 10);
+        a.publish();
+        b.publish();
+
+        assertEquals(List.of(1L, 3L, 2L), TopKBoard.mergeTop(List.of(a.snapshot(), b.snapshot()), 3));
+        assertEquals(List.of(1L, 2L), TopKBoard.mergeTop(List.of(a.snapshot()), 5));
+        assertEquals(List.of(), TopKBoard.mergeTop(List.of(), 5));
+    }
+}
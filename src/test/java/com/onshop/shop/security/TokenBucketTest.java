@@ -0,0 +1,38 @@
+package com.onshop.shop.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    @Test
+    void allowsBurstThenRejectsWithRetryAfter() {
+        TokenBucket bucket = new TokenBucket(3, 1 / 1000.0, 0L); // 3개, 초당 1개 충전
+
+        assertEquals(2L, bucket.tryAcquire(0L).remaining());
+        assertTrue(bucket.tryAcquire(0L).allowed());
+        assertTrue(bucket.tryAcquire(0L).allowed());
+
+        TokenBucket.Result rejected = bucket.tryAcquire(400L);
+        assertFalse(rejected.allowed());
+        assertEquals(600L, rejected.retryAfterMillis());
+
+        assertTrue(bucket.tryAcquire(1000L).allowed());
+        assertFalse(bucket.tryAcquire(1000L).allowed());
+    }
+
+    @Test
+    void refillIsCappedAtCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 1 / 1000.0, 0L);
+        bucket.tryAcquire(0L);
+        assertFalse(bucket.isIdle(500L));
+        assertTrue(bucket.isIdle(60_000L));
+
+        assertTrue(bucket.tryAcquire(60_000L).allowed());
+        assertTrue(bucket.tryAcquire(60_000L).allowed());
+        assertFalse(bucket.tryAcquire(60_000L).allowed()); // 오래 쉬어도 capacity 이상 몰아 쓸 수 없음
+    }
+}
@@ -0,0 +1,56 @@
+package com.onshop.shop.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class Bm25IndexTest {
+
+    @Test
+    void ranksMatchingProductsAndToleratesSpacing() {
+        Bm25Index index = new Bm25Index();
+        index.upsert(1L, "단백질 쉐이크 초코맛 단백질 쉐이크 건강식품");
+        index.upsert(2L, "게이밍 노트북 고성능 게이밍 노트북 전자기기");
+        index.upsert(3L, "단백질바 아몬드 단백질바 아몬드 간식");
+
+        List<Long> result = index.search("단백질쉐이크", 10);
+        assertEquals(1L, result.get(0));
+        assertFalse(result.contains(2L));
+
+        assertEquals(List.of(2L), index.search("노트북", 10));
+    }
+
+    @Test
+    void upsertReplacesAndRemoveHides() {
+        Bm25Index index = new Bm25Index();
+        index.upsert(1L, "유기농 바나나");
+        index.upsert(2L, "바나나 우유");
+
+        index.upsert(1L, "유기농 사과");
+        assertEquals(List.of(2L), index.search("바나나", 10));
+        assertEquals(List.of(1L), index.search("사과", 10));
+
+        index.remove(2L);
+        assertTrue(index.search("바나나", 10).isEmpty());
+        assertEquals(1, index.size());
+        assertEquals(2, index.deletedCount());
+    }
+
+    @Test
+    void idfIgnoresTombstones() {
+        Bm25Index index = new Bm25Index();
+        index.upsert(2L, "바나나");
+        index.upsert(3L, "사과 바나나");
+        index.upsert(4L, "포도");
+        index.upsert(5L, "귤");
+
+        // 같은 상품을 여러 번 수정해도 "사과" 의 idf 는 양수 → 두 단어가 모두 있는 상품이 1등
+        for (int i = 0; i < 20; i++) index.upsert(1L, "사과");
+        assertEquals(3L, index.search("사과 바나나", 10).get(0));
+        assertEquals(19, index.deletedCount());
+    }
+}
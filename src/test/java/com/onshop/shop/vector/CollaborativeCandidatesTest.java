@@ -0,0 +1,57 @@
+package com.onshop.shop.vector;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class CollaborativeCandidatesTest {
+
+    private static Object[] row(long userId, Long... productIds) {
+        return new Object[]{userId, productIds};
+    }
+
+    @Test
+    void scoresByNeighbourRankAndSkipsOwnedProducts() {
+        List<Object[]> avgUsers = List.of(row(2, 10L, 11L), row(3, 11L, 12L), row(1, 99L));
+        List<Object[]> recentUsers = List.of(row(4, 12L, 13L), row(2, 10L));
+
+        long[] candidates = CollaborativeCandidates.score(1L, avgUsers, recentUsers, Set.of(13L), 10);
+
+        // 10: 1 + 1/2, 11: 1 + 1/2, 12: 1/2 + 1 → 동점은 먼저 등장한 순서 / 본인(99) · 담은 상품(13) 제외
+        assertArrayEquals(new long[]{10L, 11L, 12L}, candidates);
+        assertArrayEquals(new long[]{2L, 3L, 4L}, CollaborativeCandidates.neighbours(1L, avgUsers, recentUsers));
+        assertArrayEquals(new long[]{10L}, CollaborativeCandidates.score(1L, avgUsers, recentUsers, Set.of(13L), 1));
+    }
+
+    @Test
+    void padsWithPopularProductsWithoutDuplicates() {
+        List<Long> result = CollaborativeCandidates.pad(
+                new long[]{10L, 11L}, new long[]{20L}, new long[]{11L, 20L, 30L, 31L}, 4);
+
+        assertEquals(List.of(10L, 11L, 30L, 31L), result);
+        assertEquals(List.of(10L), CollaborativeCandidates.pad(new long[]{10L, 11L}, new long[0], new long[0], 1));
+    }
+
+    @Test
+    void sketchDriftTracksVectorChange() {
+        Random random = new Random(7);
+        RandomProjectionSketch sketch = new RandomProjectionSketch(256, 64, 42L);
+        float[] base = PgVectorCodecTest.randomVector(256, random);
+        float[] nudged = base.clone();
+        nudged[0] += 0.01f;
+        float[] other = PgVectorCodecTest.randomVector(256, random);
+
+        float small = RandomProjectionSketch.drift(sketch.project(base), sketch.project(nudged));
+        float large = RandomProjectionSketch.drift(sketch.project(base), sketch.project(other));
+
+        assertTrue(small < 0.01f, "small drift=" + small);
+        assertTrue(large > 0.5f, "large drift=" + large);
+        assertEquals(2f, RandomProjectionSketch.drift(null, sketch.project(base)), 0f);
+    }
+}
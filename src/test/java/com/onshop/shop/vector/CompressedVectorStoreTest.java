@@ -0,0 +1,120 @@
+package com.onshop.shop.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class CompressedVectorStoreTest {
+
+    private static final int DIM = 64;
+    private static final int COUNT = 3000;
+
+    @Test
+    void int8RecallWithRerank() {
+        Map<Long, float[]> vectors = clusteredVectors(new Random(11));
+        CompressedVectorStore store = new CompressedVectorStore(DIM, CompressedVectorStore.Mode.INT8, null);
+        vectors.forEach(store::upsert);
+
+        double recall = recallAt10(store, vectors, new Random(12));
+        assertTrue(recall >= 0.95, "int8 recall@10 = " + recall);
+        assertEquals(DIM + 8, store.bytesPerVector());
+    }
+
+    @Test
+    void pqRecallWithRerank() {
+        Map<Long, float[]> vectors = clusteredVectors(new Random(21));
+        ProductQuantizer pq = ProductQuantizer.train(new ArrayList<>(vectors.values()), 16, 64, 8, 1L);
+        CompressedVectorStore store = new CompressedVectorStore(DIM, CompressedVectorStore.Mode.PQ, pq);
+        vectors.forEach(store::upsert);
+
+        double recall = recallAt10(store, vectors, new Random(22));
+        assertTrue(recall >= 0.9, "pq recall@10 = " + recall);
+        assertEquals(16, store.bytesPerVector());
+    }
+
+    @Test
+    void removedAndFilteredIdsAreNotReturned() {
+        Map<Long, float[]> vectors = clusteredVectors(new Random(31));
+        CompressedVectorStore store = new CompressedVectorStore(DIM, CompressedVectorStore.Mode.INT8, null);
+        vectors.forEach(store::upsert);
+
+        float[] target = vectors.get(10L);
+        assertEquals(10L, store.search(target, 1, 10, ids -> vectors, null).get(0));
+
+        assertTrue(store.remove(10L));
+        assertFalse(store.search(target, 10, 50, ids -> vectors, null).contains(10L));
+
+        for (Long id : store.search(target, 10, 50, ids -> vectors, id -> id % 2 == 0)) {
+            assertEquals(0, id % 2);
+        }
+        assertEquals(COUNT - 1, store.size());
+        assertEquals(1, store.deletedCount());
+
+        store.upsert(20L, vectors.get(20L));
+        assertEquals(COUNT - 1, store.size());
+        assertEquals(2, store.deletedCount());
+    }
+
+    private static double recallAt10(CompressedVectorStore store, Map<Long, float[]> vectors, Random random) {
+        int hits = 0, total = 0;
+        for (int q = 0; q < 50; q++) {
+            float[] query = vectors.get(1L + random.nextInt(COUNT)).clone();
+            for (int i = 0; i < DIM; i++) query[i] += (float) random.nextGaussian() * 0.05f;
+
+            Set<Long> exact = new HashSet<>(exactSearch(vectors, query, 10));
+            for (Long id : store.search(query, 10, 100, ids -> vectors, null)) {
+                if (exact.contains(id)) hits++;
+            }
+            total += exact.size();
+        }
+        return (double) hits / total;
+    }
+
+    private static List<Long> exactSearch(Map<Long, float[]> vectors, float[] query, int k) {
+        List<Map.Entry<Long, float[]>> entries = new ArrayList<>(vectors.entrySet());
+        entries.sort((a, b) -> Float.compare(distance(query, a.getValue()), distance(query, b.getValue())));
+        List<Long> result = new ArrayList<>();
+        for (int i = 0; i < k; i++) result.add(entries.get(i).getKey());
+        return result;
+    }
+
+    private static float distance(float[] a, float[] b) {
+        float sum = 0f;
+        for (int i = 0; i < a.length; i++) {
+            float diff = a[i] - b[i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    // 실제 상품 임베딩처럼 카테고리별로 뭉친 단위 벡터
+    static Map<Long, float[]> clusteredVectors(Random random) {
+        float[][] centers = new float[30][DIM];
+        for (float[] center : centers) {
+            for (int i = 0; i < DIM; i++) center[i] = (float) random.nextGaussian();
+        }
+        Map<Long, float[]> vectors = new HashMap<>();
+        for (long id = 1; id <= COUNT; id++) {
+            float[] center = centers[random.nextInt(centers.length)];
+            float[] v = new float[DIM];
+            double norm = 0;
+            for (int i = 0; i < DIM; i++) {
+                v[i] = center[i] + (float) random.nextGaussian() * 0.6f;
+                norm += v[i] * v[i];
+            }
+            for (int i = 0; i < DIM; i++) v[i] /= (float) Math.sqrt(norm);
+            vectors.put(id, v);
+        }
+        return vectors;
+    }
+}
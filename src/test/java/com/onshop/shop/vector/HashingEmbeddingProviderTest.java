@@ -0,0 +1,39 @@
+package com.onshop.shop.vector;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class HashingEmbeddingProviderTest {
+
+    private final HashingEmbeddingProvider provider = new HashingEmbeddingProvider(1536);
+
+    @Test
+    void deterministicUnitVectors() {
+        float[] a = provider.embed("단백질 쉐이크 헬스 프로틴");
+        float[] b = provider.embed("단백질 쉐이크 헬스 프로틴");
+
+        assertEquals(1536, a.length);
+        assertArrayEquals(a, b);
+        assertEquals(1.0, dot(a, a), 1e-5);
+        assertEquals(1.0, dot(provider.embed(""), provider.embed("")), 1e-5);
+    }
+
+    @Test
+    void overlappingTextIsMoreSimilar() {
+        float[] query = provider.embed("단백질 쉐이크 추천");
+        float[] close = provider.embed("프로틴 단백질 쉐이크");
+        float[] far = provider.embed("게이밍 노트북 고성능");
+
+        assertTrue(dot(query, close) > dot(query, far) + 0.2,
+                "close=" + dot(query, close) + ", far=" + dot(query, far));
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) sum += a[i] * b[i];
+        return sum;
+    }
+}
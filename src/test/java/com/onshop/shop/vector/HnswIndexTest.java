@@ -0,0 +1,98 @@
+package com.onshop.shop.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class HnswIndexTest {
+
+    private static final int DIM = 64;
+
+    @Test
+    void recallAgainstExactSearch() {
+        Random random = new Random(42);
+        HnswIndex index = new HnswIndex(DIM, 16, 200, 64);
+        for (long id = 1; id <= 3000; id++) {
+            index.upsert(id, randomVector(random));
+        }
+
+        int hits = 0, total = 0;
+        for (int q = 0; q < 50; q++) {
+            float[] query = randomVector(random);
+            Set<Long> exact = new HashSet<>(index.exactSearch(query, 10));
+            for (Long id : index.search(query, 10)) {
+                if (exact.contains(id)) hits++;
+            }
+            total += exact.size();
+        }
+
+        double recall = (double) hits / total;
+        assertTrue(recall >= 0.9, "recall@10 = " + recall);
+    }
+
+    @Test
+    void removedAndReplacedVectorsAreNotReturned() {
+        Random random = new Random(7);
+        HnswIndex index = new HnswIndex(DIM, 8, 64, 32);
+        for (long id = 1; id <= 500; id++) {
+            index.upsert(id, randomVector(random));
+        }
+
+        float[] target = index.get(10L);
+        assertEquals(10L, index.search(target, 1).get(0));
+
+        index.remove(10L);
+        assertFalse(index.search(target, 5).contains(10L));
+        assertEquals(499, index.size());
+
+        index.upsert(20L, target);
+        List<Long> nearest = index.search(target, 1);
+        assertEquals(20L, nearest.get(0));
+        assertEquals(499, index.size());
+        assertEquals(2, index.deletedCount());
+
+        // 같은 벡터로 다시 upsert 하면 노드를 새로 만들지 않음
+        index.upsert(20L, target);
+        assertEquals(2, index.deletedCount());
+    }
+
+    @Test
+    void filteredSearchOnlyReturnsMatchingIds() {
+        Random random = new Random(11);
+        HnswIndex index = new HnswIndex(DIM, 16, 200, 64);
+        for (long id = 1; id <= 3000; id++) {
+            index.upsert(id, randomVector(random));
+        }
+
+        // 넓은 조건(1/3)과 좁은 조건(1/500) 모두 정확 검색과 거의 같은 결과
+        for (long modulo : new long[] {3, 500}) {
+            int hits = 0, total = 0;
+            for (int q = 0; q < 20; q++) {
+                float[] query = randomVector(random);
+                List<Long> found = index.search(query, 5, id -> id % modulo == 0);
+                Set<Long> exact = new HashSet<>(index.exactSearch(query, 5, id -> id % modulo == 0));
+
+                assertEquals(exact.size(), found.size());
+                for (Long id : found) {
+                    assertEquals(0L, id % modulo);
+                    if (exact.contains(id)) hits++;
+                }
+                total += exact.size();
+            }
+            assertTrue((double) hits / total >= 0.9, "modulo=" + modulo + " recall=" + (double) hits / total);
+        }
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] v = new float[DIM];
+        for (int i = 0; i < DIM; i++) v[i] = (float) random.nextGaussian();
+        return v;
+    }
+}
@@ -0,0 +1,103 @@
+package com.onshop.shop.vector;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 1536차원 벡터 인코딩/디코딩: 기존 문자열 컨버터 vs PgVectorCodec
+ * IDE 에서 main 실행 (mvn test-compile 후)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PgVectorCodecBenchmark {
+
+    private float[] vector;
+    private String legacyText;
+    private String codecText;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        vector = PgVectorCodecTest.randomVector(1536, new Random(3));
+        legacyText = legacyToString(vector);
+        codecText = PgVectorCodec.toText(vector);
+        binary = PgVectorCodec.toBinary(vector);
+    }
+
+    @Benchmark
+    public String encodeLegacy() {
+        return legacyToString(vector);
+    }
+
+    @Benchmark
+    public String encodeCodec() {
+        return PgVectorCodec.toText(vector);
+    }
+
+    @Benchmark
+    public float[] decodeLegacy() {
+        return legacyFromString(legacyText);
+    }
+
+    @Benchmark
+    public float[] decodeCodecText() {
+        return PgVectorCodec.fromText(codecText);
+    }
+
+    @Benchmark
+    public float[] decodeCodecBinary() {
+        return PgVectorCodec.fromBinary(binary);
+    }
+
+    // 변경 전 PGVectorAttributeConverter.toPgVectorString
+    static String legacyToString(float[] vector) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < vector.length; i++) {
+            sb.append(vector[i]);
+            if (i != vector.length - 1) {
+                sb.append(", ");
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+    // 변경 전 PGVectorAttributeConverter.fromPgVectorString
+    static float[] legacyFromString(String pgVector) {
+        String cleaned = pgVector.replaceAll("[\\[\\]()]", "").trim();
+        String[] parts = cleaned.split(",");
+        float[] result = new float[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                result[i] = Float.parseFloat(parts[i].trim());
+            } catch (NumberFormatException e) {
+                result[i] = 0f;
+            }
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PgVectorCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,50 @@
+package com.onshop.shop.vector;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PgVectorCodecTest {
+
+    @Test
+    void textRoundTripMatchesFloatParse() {
+        float[] vector = randomVector(1536, new Random(1));
+        vector[0] = 0f;
+        vector[1] = -1.5e-7f;
+        vector[2] = 12345.678f;
+
+        String text = PgVectorCodec.toText(vector);
+        float[] parsed = PgVectorCodec.fromText(text);
+
+        assertEquals(vector.length, parsed.length);
+        for (int i = 0; i < vector.length; i++) {
+            assertEquals(vector[i], parsed[i], Math.ulp(vector[i]));
+        }
+    }
+
+    @Test
+    void parsesLegacyFormats() {
+        assertArrayEquals(new float[] {0.1f, -0.2f, 3f}, PgVectorCodec.fromText("[0.1, -0.2, 3]"));
+        assertArrayEquals(new float[] {0.1f, 2.5E-4f}, PgVectorCodec.fromText("(0.1, 2.5E-4)"));
+        assertArrayEquals(new float[0], PgVectorCodec.fromText("[]"));
+    }
+
+    @Test
+    void binaryRoundTrip() {
+        float[] vector = randomVector(1536, new Random(2));
+        byte[] bytes = PgVectorCodec.toBinary(vector);
+
+        assertEquals(4 + 1536 * 4, bytes.length);
+        assertArrayEquals(vector, PgVectorCodec.fromBinary(bytes));
+        assertArrayEquals(vector, PgVectorCodec.decode(bytes));
+    }
+
+    static float[] randomVector(int dimension, Random random) {
+        float[] v = new float[dimension];
+        for (int i = 0; i < dimension; i++) v[i] = (float) (random.nextGaussian() * 0.05);
+        return v;
+    }
+}
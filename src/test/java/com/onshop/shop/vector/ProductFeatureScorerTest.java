@@ -0,0 +1,69 @@
+package com.onshop.shop.vector;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ProductFeatureScorerTest {
+
+    private static final ProductFeatureScorer.Weights WEIGHTS = new ProductFeatureScorer.Weights(0.55, 0.2, 0.15, 0.1, 20);
+
+    private static long[] ids(List<ProductFeatureScorer.Scored> scored) {
+        return scored.stream().mapToLong(ProductFeatureScorer.Scored::productId).toArray();
+    }
+
+    @Test
+    void parsesStructuredQuery() {
+        RagQuery query = RagQuery.parse("단백질 단백질 헬스 5 50000 3000");
+        assertEquals("단백질 단백질 헬스", query.keywords());
+        assertEquals(5, query.count());
+        assertEquals(50000, query.priceAvg());
+        assertEquals(3000.0, query.priceSigma());
+
+        RagQuery noPrice = RagQuery.parse("노트북 고성능 3 0 0");
+        assertEquals(0.0, noPrice.priceSigma());
+        assertEquals(10000.0, RagQuery.parse("간식 3 50000 0").priceSigma()); // 표준편차 없으면 평균의 20%
+    }
+
+    @Test
+    void priceFitPrefersRequestedPriceBand() {
+        List<ProductFeatureScorer.Candidate> candidates = List.of(
+                new ProductFeatureScorer.Candidate(1, 0.90, 120000, 7L, 0, 0),
+                new ProductFeatureScorer.Candidate(2, 0.89, 50000, 7L, 0, 0),
+                new ProductFeatureScorer.Candidate(3, 0.80, 52000, 7L, 0, 0));
+
+        assertArrayEquals(new long[]{2L, 1L, 3L}, ids(ProductFeatureScorer.rank(candidates, 50000, 5000, WEIGHTS)));
+        // 가격 조건이 없으면 유사도 순서 그대로
+        assertArrayEquals(new long[]{1L, 2L, 3L}, ids(ProductFeatureScorer.rank(candidates, 0, 0, WEIGHTS)));
+    }
+
+    @Test
+    void dominantCategoryAndPopularityBreakCloseSimilarity() {
+        List<ProductFeatureScorer.Candidate> candidates = List.of(
+                new ProductFeatureScorer.Candidate(1, 0.80, 10000, 99L, 0, 0),   // 혼자 다른 분류 (볶음밥)
+                new ProductFeatureScorer.Candidate(2, 0.79, 10000, 7L, 500, 1000),
+                new ProductFeatureScorer.Candidate(3, 0.79, 10000, 7L, 0, 0),
+                new ProductFeatureScorer.Candidate(4, 0.70, 10000, 7L, 0, 0));
+
+        List<ProductFeatureScorer.Scored> ranked = ProductFeatureScorer.rank(candidates, 0, 0, WEIGHTS);
+
+        assertArrayEquals(new long[]{2L, 3L, 1L, 4L}, ids(ranked));
+        assertEquals(1.0, ranked.get(0).categoryMatch());
+        assertEquals(1.0, ranked.get(0).popularity());
+        assertTrue(ranked.get(2).categoryMatch() < 0.5);
+    }
+
+    @Test
+    void equalScoresKeepSearchOrder() {
+        List<ProductFeatureScorer.Candidate> candidates = List.of(
+                new ProductFeatureScorer.Candidate(5, 0.5, null, null, 0, 0),
+                new ProductFeatureScorer.Candidate(6, 0.5, null, null, 0, 0));
+
+        assertArrayEquals(new long[]{5L, 6L}, ids(ProductFeatureScorer.rank(candidates, 0, 0, WEIGHTS)));
+        assertEquals(0.0, ProductFeatureScorer.priceFit(null, 50000, 5000));
+    }
+}
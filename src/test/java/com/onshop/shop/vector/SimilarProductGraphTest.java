@@ -0,0 +1,78 @@
+package com.onshop.shop.vector;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class SimilarProductGraphTest {
+
+    @Test
+    void parallelBuildMatchesBruteForce() {
+        Random random = new Random(11);
+        int n = 300, dim = 32, topN = 5;
+        long[] ids = new long[n];
+        float[][] vectors = new float[n][];
+        for (int i = 0; i < n; i++) {
+            ids[i] = 1000 + i;
+            vectors[i] = PgVectorCodecTest.randomVector(dim, random);
+        }
+
+        SimilarProductGraph graph = SimilarProductGraph.build(ids, vectors, topN, new ForkJoinPool(4));
+
+        assertEquals(n, graph.size());
+        for (int q = 0; q < n; q += 37) {
+            int query = q;
+            long[] expected = IntStream.range(0, n)
+                    .filter(j -> j != query)
+                    .boxed()
+                    .sorted(Comparator.comparingDouble(j -> VectorKernels.squaredL2(vectors[query], vectors[j])))
+                    .limit(topN)
+                    .mapToLong(j -> ids[j])
+                    .toArray();
+            assertArrayEquals(expected, graph.neighbours(ids[q]));
+        }
+    }
+
+    @Test
+    void replaceAndOfferKeepClosestTopN() {
+        SimilarProductGraph graph = new SimilarProductGraph(3);
+        graph.replace(1L, new long[]{1L, 2L, 3L, 4L, 5L}, new float[]{0f, 4f, 1f, 3f, 2f});
+        assertArrayEquals(new long[]{3L, 5L, 4L}, graph.neighbours(1L));
+
+        graph.offer(1L, 9L, 1.5f);
+        assertArrayEquals(new long[]{3L, 9L, 5L}, graph.neighbours(1L));
+
+        graph.offer(1L, 3L, 10f); // 이미 있는 상품은 새 거리로 다시 정렬
+        assertArrayEquals(new long[]{9L, 5L, 3L}, graph.neighbours(1L));
+
+        graph.offer(42L, 1L, 0f); // 목록 없는 상품은 무시
+        assertArrayEquals(new long[0], graph.neighbours(42L));
+    }
+
+    @Test
+    void snapshotRoundTrip() throws Exception {
+        SimilarProductGraph graph = new SimilarProductGraph(2);
+        graph.replace(1L, new long[]{2L, 3L}, new float[]{1f, 2f});
+        graph.replace(2L, new long[]{1L}, new float[]{1f});
+
+        Path dir = Files.createTempDirectory("similar");
+        Path file = dir.resolve("graph.bin");
+        graph.writeTo(file);
+
+        SimilarProductGraph loaded = SimilarProductGraph.readFrom(file, 2);
+        assertEquals(2, loaded.size());
+        assertArrayEquals(new long[]{2L, 3L}, loaded.neighbours(1L));
+        assertArrayEquals(new long[]{1L}, loaded.neighbours(2L));
+        assertNull(SimilarProductGraph.readFrom(file, 5)); // topN 이 다르면 재구축 대상
+        assertNull(SimilarProductGraph.readFrom(dir.resolve("missing.bin"), 2));
+    }
+}
@@ -0,0 +1,143 @@
+package com.onshop.shop.vector;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 1536차원 벡터 연산: 기존 double 누산 루프 vs 언롤링 스칼라 vs Vector API
+ * IDE 에서 main 실행 (mvn test-compile 후), 포크 JVM 에 jdk.incubator.vector 모듈 추가
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class VectorKernelsBenchmark {
+
+    private static final int DIM = 1536;
+
+    private final VectorKernels.Impl scalar = VectorKernels.scalar();
+    private float[] a;
+    private float[] b;
+    private float[] target;
+    private byte[] codesA;
+    private byte[] codesB;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(5);
+        a = PgVectorCodecTest.randomVector(DIM, random);
+        b = PgVectorCodecTest.randomVector(DIM, random);
+        target = a.clone();
+        codesA = new byte[DIM];
+        codesB = new byte[DIM];
+        random.nextBytes(codesA);
+        random.nextBytes(codesB);
+    }
+
+    @Benchmark
+    public double cosineLegacy() {
+        return legacyCosine(a, b);
+    }
+
+    @Benchmark
+    public float cosineScalar() {
+        return scalar.cosine(a, b);
+    }
+
+    @Benchmark
+    public float cosineSimd() {
+        return VectorKernels.cosine(a, b);
+    }
+
+    @Benchmark
+    public float dotScalar() {
+        return scalar.dot(a, b);
+    }
+
+    @Benchmark
+    public float dotSimd() {
+        return VectorKernels.dot(a, b);
+    }
+
+    @Benchmark
+    public float l2Legacy() {
+        return legacyL2(a, b);
+    }
+
+    @Benchmark
+    public float l2Scalar() {
+        return scalar.squaredL2(a, 0, b, 0, DIM);
+    }
+
+    @Benchmark
+    public float l2Simd() {
+        return VectorKernels.squaredL2(a, b);
+    }
+
+    @Benchmark
+    public float[] weightedAverageLegacy() {
+        for (int i = 0; i < DIM; i++) {
+            target[i] = 0.5f * target[i] + 0.5f * b[i];
+        }
+        return target;
+    }
+
+    @Benchmark
+    public float[] weightedAverageSimd() {
+        VectorKernels.weightedAverageInPlace(target, 0.5f, b, 0.5f);
+        return target;
+    }
+
+    @Benchmark
+    public int int8DotScalar() {
+        return scalar.dot(codesA, 0, codesB, 0, DIM);
+    }
+
+    @Benchmark
+    public int int8DotSimd() {
+        return VectorKernels.dot(codesA, 0, codesB, 0, DIM);
+    }
+
+    // 변경 전 ProductVectorServiceImpl.cosineSimilarity
+    static double legacyCosine(float[] a, float[] b) {
+        double dot = 0.0, normA = 0.0, normB = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dot / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+
+    // 변경 전 HnswIndex.distance
+    static float legacyL2(float[] a, float[] b) {
+        float sum = 0f;
+        for (int i = 0; i < a.length; i++) {
+            float diff = a[i] - b[i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(VectorKernelsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,78 @@
+package com.onshop.shop.vector;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class VectorKernelsTest {
+
+    // lane 수로 나누어떨어지지 않는 길이까지 포함 (꼬리 처리 확인)
+    private static final int[] LENGTHS = {1, 3, 7, 16, 17, 100, 1536};
+
+    @Test
+    void floatKernelsMatchReference() {
+        Random random = new Random(1);
+        VectorKernels.Impl scalar = VectorKernels.scalar();
+        for (int n : LENGTHS) {
+            float[] a = PgVectorCodecTest.randomVector(n, random);
+            float[] b = PgVectorCodecTest.randomVector(n, random);
+
+            double dot = 0, l2 = 0, na = 0, nb = 0;
+            for (int i = 0; i < n; i++) {
+                dot += (double) a[i] * b[i];
+                l2 += (double) (a[i] - b[i]) * (a[i] - b[i]);
+                na += (double) a[i] * a[i];
+                nb += (double) b[i] * b[i];
+            }
+            double cosine = dot / (Math.sqrt(na) * Math.sqrt(nb));
+
+            float tolerance = 1e-4f * n;
+            assertEquals(dot, VectorKernels.dot(a, b), tolerance, "dot n=" + n);
+            assertEquals(dot, scalar.dot(a, b), tolerance, "scalar dot n=" + n);
+            assertEquals(l2, VectorKernels.squaredL2(a, b), tolerance, "l2 n=" + n);
+            assertEquals(l2, scalar.squaredL2(a, 0, b, 0, n), tolerance, "scalar l2 n=" + n);
+            assertEquals(cosine, VectorKernels.cosine(a, b), 1e-4, "cosine n=" + n);
+            assertEquals(cosine, scalar.cosine(a, b), 1e-4, "scalar cosine n=" + n);
+        }
+    }
+
+    @Test
+    void offsetL2AndWeightedAverage() {
+        Random random = new Random(2);
+        float[] a = PgVectorCodecTest.randomVector(64, random);
+        float[] b = PgVectorCodecTest.randomVector(64, random);
+
+        float expected = 0f;
+        for (int i = 0; i < 20; i++) {
+            float d = a[5 + i] - b[30 + i];
+            expected += d * d;
+        }
+        assertEquals(expected, VectorKernels.squaredL2(a, 5, b, 30, 20), 1e-4f);
+
+        float[] target = a.clone();
+        float[] reference = a.clone();
+        for (int i = 0; i < reference.length; i++) reference[i] = 0.75f * reference[i] + 0.25f * b[i];
+        VectorKernels.weightedAverageInPlace(target, 0.75f, b, 0.25f);
+        assertArrayEquals(reference, target, 1e-6f);
+    }
+
+    @Test
+    void int8DotMatchesReference() {
+        Random random = new Random(3);
+        VectorKernels.Impl scalar = VectorKernels.scalar();
+        for (int n : LENGTHS) {
+            byte[] a = new byte[n + 5];
+            byte[] b = new byte[n + 9];
+            random.nextBytes(a);
+            random.nextBytes(b);
+
+            int expected = 0;
+            for (int i = 0; i < n; i++) expected += a[5 + i] * b[9 + i];
+            assertEquals(expected, VectorKernels.dot(a, 5, b, 9, n), "int8 n=" + n);
+            assertEquals(expected, scalar.dot(a, 5, b, 9, n), "scalar int8 n=" + n);
+        }
+    }
+}